@@ -3,14 +3,31 @@ package chat.giga.springai.autoconfigure;
 import chat.giga.springai.GigaChatEmbeddingModel;
 import chat.giga.springai.GigaChatModel;
 import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatHttpClientMetrics;
 import chat.giga.springai.api.GigaChatInternalProperties;
+import chat.giga.springai.api.GigaChatLoggingProperties;
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import chat.giga.springai.api.GigaChatStreamRetryProperties;
 import chat.giga.springai.api.auth.GigaChatAuthProperties;
 import chat.giga.springai.api.auth.bearer.GigaAuthToken;
 import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
 import chat.giga.springai.api.auth.bearer.SimpleGigaAuthToken;
 import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.GigaChatAsyncApi;
+import chat.giga.springai.api.latency.GigaChatLatencyMetrics;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.cache.EmbeddingCache;
+import chat.giga.springai.cache.FileIdCache;
+import chat.giga.springai.cache.FileSystemEmbeddingCache;
+import chat.giga.springai.cache.FileSystemFileIdCache;
+import chat.giga.springai.cache.InMemoryEmbeddingCache;
+import chat.giga.springai.cache.InMemoryFileIdCache;
 import chat.giga.springai.image.GigaChatImageModel;
+import chat.giga.springai.tool.execution.GigaChatToolCallingManager;
+import chat.giga.springai.tool.execution.GigaChatToolLoopMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.observation.ObservationRegistry;
+import java.util.List;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.TrustManagerFactory;
 import lombok.SneakyThrows;
@@ -25,11 +42,16 @@ import org.springframework.ai.image.observation.ImageModelObservationConvention;
 import org.springframework.ai.model.SpringAIModelProperties;
 import org.springframework.ai.model.chat.observation.autoconfigure.ChatObservationAutoConfiguration;
 import org.springframework.ai.model.tool.DefaultToolExecutionEligibilityPredicate;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
 import org.springframework.ai.model.tool.ToolCallingManager;
 import org.springframework.ai.model.tool.ToolExecutionEligibilityPredicate;
 import org.springframework.ai.model.tool.autoconfigure.ToolCallingAutoConfiguration;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.ai.retry.autoconfigure.SpringAiRetryAutoConfiguration;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.DelegatingToolCallbackResolver;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -43,6 +65,7 @@ import org.springframework.boot.ssl.SslBundle;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.util.Assert;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -74,7 +97,8 @@ public class GigaChatAutoConfiguration {
             ObjectProvider<RestClient.Builder> restClientBuilderProvider,
             ObjectProvider<WebClient.Builder> webClientBuilderProvider,
             ObjectProvider<ResponseErrorHandler> responseErrorHandlerProvider,
-            ObjectProvider<SslBundles> sslBundlesProvider) {
+            ObjectProvider<SslBundles> sslBundlesProvider,
+            ObjectProvider<ObservationRegistry> observationRegistry) {
         KeyManagerFactory keyManagerFactory = null;
         TrustManagerFactory trustManagerFactory = null;
         GigaChatAuthProperties auth = gigaChatApiProperties.getAuth();
@@ -99,7 +123,7 @@ public class GigaChatAutoConfiguration {
             trustManagerFactory = TrustManagerUtils.createTrustManagerFactory(
                     PemUtils.loadTrustMaterial(auth.getCerts().getCaCerts().getInputStream()));
         }
-        return new GigaChatApi(
+        GigaChatApi gigaChatApi = new GigaChatApi(
                 gigaChatApiProperties,
                 authToken,
                 restClientBuilderProvider.getIfAvailable(RestClient::builder),
@@ -107,6 +131,41 @@ public class GigaChatAutoConfiguration {
                 responseErrorHandlerProvider.getIfAvailable(() -> RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER),
                 keyManagerFactory,
                 trustManagerFactory);
+        observationRegistry.ifUnique(gigaChatApi::setObservationRegistry);
+        return gigaChatApi;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GigaChatAsyncApi gigaChatAsyncApi(GigaChatApi gigaChatApi, GigaChatInternalProperties internalProperties) {
+        return new GigaChatAsyncApi(
+                gigaChatApi,
+                internalProperties.isVirtualThreads()
+                        ? GigaChatAsyncApi.Mode.VIRTUAL_THREADS
+                        : GigaChatAsyncApi.Mode.REACTIVE);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GigaChatHttpClientMetrics gigaChatHttpClientMetrics(GigaChatApi gigaChatApi) {
+        return new GigaChatHttpClientMetrics(gigaChatApi.getHttpClient());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GigaChatLatencyMetrics gigaChatLatencyMetrics(GigaChatApi gigaChatApi) {
+        return gigaChatApi.getLatencyMetrics();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = GigaChatRateLimitProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public MeterBinder gigaChatRateLimiterMetrics(GigaChatApi gigaChatApi) {
+        return registry -> {
+            GigaChatRateLimiter rateLimiter = gigaChatApi.getRateLimiter();
+            if (rateLimiter != null) {
+                rateLimiter.bindTo(registry);
+            }
+        };
     }
 
     @Bean
@@ -119,13 +178,36 @@ public class GigaChatAutoConfiguration {
             ObjectProvider<ObservationRegistry> observationRegistry,
             ObjectProvider<ChatModelObservationConvention> observationConvention,
             ObjectProvider<ToolExecutionEligibilityPredicate> toolExecutionEligibilityPredicate,
-            GigaChatInternalProperties internalProperties) {
+            GigaChatInternalProperties internalProperties,
+            ObjectProvider<FileIdCache> fileIdCache,
+            ObjectProvider<ToolCallbackResolver> toolCallbackResolver,
+            ObjectProvider<ToolExecutionExceptionProcessor> toolExecutionExceptionProcessor) {
+        GigaChatChatProperties.ToolExecution toolExecution = chatProperties.getToolExecution();
+        ToolCallingManager customToolCallingManager = toolCallingManagerProvider.getIfUnique();
+        if (toolExecution.isParallel()
+                && customToolCallingManager != null
+                && !(customToolCallingManager instanceof DefaultToolCallingManager)) {
+            log.warn(
+                    "ToolCallingManager bean {} is not used by GigaChatModel, because"
+                            + " spring.ai.gigachat.chat.tool-execution.parallel=true",
+                    customToolCallingManager.getClass().getName());
+        }
+        ToolCallingManager toolCallingManager = toolExecution.isParallel()
+                ? GigaChatToolCallingManager.builder()
+                        .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+                        .toolCallbackResolver(
+                                toolCallbackResolver.getIfUnique(() -> new DelegatingToolCallbackResolver(List.of())))
+                        .toolExecutionExceptionProcessor(toolExecutionExceptionProcessor.getIfUnique(() ->
+                                DefaultToolExecutionExceptionProcessor.builder().build()))
+                        .virtualThreads(internalProperties.isVirtualThreads())
+                        .toolTimeout(toolExecution.getTimeout())
+                        .build()
+                : toolCallingManagerProvider.getIfAvailable(() -> GigaChatModel.DEFAULT_TOOL_CALLING_MANAGER);
         final GigaChatModel gigaChatModel = GigaChatModel.builder()
                 .gigaChatApi(gigaChatApi)
                 .defaultOptions(chatProperties.getOptions())
                 .retryTemplate(retryTemplateProvider.getIfAvailable(() -> RetryUtils.DEFAULT_RETRY_TEMPLATE))
-                .toolCallingManager(
-                        toolCallingManagerProvider.getIfAvailable(() -> GigaChatModel.DEFAULT_TOOL_CALLING_MANAGER))
+                .toolCallingManager(toolCallingManager)
                 .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
                 .toolExecutionEligibilityPredicate(
                         toolExecutionEligibilityPredicate.getIfUnique(DefaultToolExecutionEligibilityPredicate::new))
@@ -133,9 +215,41 @@ public class GigaChatAutoConfiguration {
                 .build();
 
         observationConvention.ifAvailable(gigaChatModel::setObservationConvention);
+        fileIdCache.ifUnique(gigaChatModel::setFileIdCache);
         return gigaChatModel;
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public GigaChatToolLoopMetrics gigaChatToolLoopMetrics(GigaChatModel gigaChatModel) {
+        return gigaChatModel.getToolLoopMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(
+            prefix = GigaChatChatProperties.CONFIG_PREFIX,
+            name = "file-cache.type",
+            havingValue = "in-memory")
+    public FileIdCache inMemoryFileIdCache(GigaChatChatProperties chatProperties) {
+        GigaChatChatProperties.FileCache fileCache = chatProperties.getFileCache();
+        return new InMemoryFileIdCache(fileCache.getMaxSize(), fileCache.getTtl());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(
+            prefix = GigaChatChatProperties.CONFIG_PREFIX,
+            name = "file-cache.type",
+            havingValue = "file-system")
+    public FileIdCache fileSystemFileIdCache(GigaChatChatProperties chatProperties) {
+        GigaChatChatProperties.FileCache fileCache = chatProperties.getFileCache();
+        Assert.notNull(
+                fileCache.getDirectory(),
+                "spring.ai.gigachat.chat.file-cache.directory must be set for file-system cache");
+        return new FileSystemFileIdCache(fileCache.getDirectory(), fileCache.getTtl());
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public GigaChatEmbeddingModel gigaChatEmbeddingModel(
@@ -143,18 +257,45 @@ public class GigaChatAutoConfiguration {
             GigaChatEmbeddingProperties gigaChatEmbeddingProperties,
             ObjectProvider<RetryTemplate> retryTemplateProvider,
             ObjectProvider<ObservationRegistry> observationRegistry,
-            ObjectProvider<EmbeddingModelObservationConvention> observationConvention) {
+            ObjectProvider<EmbeddingModelObservationConvention> observationConvention,
+            ObjectProvider<EmbeddingCache> embeddingCache) {
         GigaChatEmbeddingModel gigaChatEmbeddingModel = new GigaChatEmbeddingModel(
                 gigaChatApi,
                 gigaChatEmbeddingProperties.getOptions(),
                 retryTemplateProvider.getIfAvailable(() -> RetryUtils.DEFAULT_RETRY_TEMPLATE),
-                observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
+                observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP),
+                gigaChatEmbeddingProperties.getBatching());
 
         observationConvention.ifAvailable(gigaChatEmbeddingModel::setObservationConvention);
+        embeddingCache.ifUnique(gigaChatEmbeddingModel::setEmbeddingCache);
 
         return gigaChatEmbeddingModel;
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(
+            prefix = GigaChatEmbeddingProperties.CONFIG_PREFIX,
+            name = "cache.type",
+            havingValue = "in-memory")
+    public EmbeddingCache inMemoryEmbeddingCache(GigaChatEmbeddingProperties gigaChatEmbeddingProperties) {
+        GigaChatEmbeddingProperties.Cache cache = gigaChatEmbeddingProperties.getCache();
+        return new InMemoryEmbeddingCache(cache.getMaxSize(), cache.getTtl());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(
+            prefix = GigaChatEmbeddingProperties.CONFIG_PREFIX,
+            name = "cache.type",
+            havingValue = "file-system")
+    public EmbeddingCache fileSystemEmbeddingCache(GigaChatEmbeddingProperties gigaChatEmbeddingProperties) {
+        GigaChatEmbeddingProperties.Cache cache = gigaChatEmbeddingProperties.getCache();
+        Assert.notNull(
+                cache.getDirectory(), "spring.ai.gigachat.embedding.cache.directory must be set for file-system cache");
+        return new FileSystemEmbeddingCache(cache.getDirectory(), cache.getMaxSize(), cache.getTtl());
+    }
+
     @Bean
     @ConfigurationProperties(prefix = GigaChatAuthProperties.CONFIG_PREFIX)
     public GigaChatAuthProperties gigaChatAuthProperties() {
@@ -167,13 +308,38 @@ public class GigaChatAutoConfiguration {
         return new GigaChatInternalProperties();
     }
 
+    @Bean
+    @ConfigurationProperties(prefix = GigaChatRateLimitProperties.CONFIG_PREFIX)
+    public GigaChatRateLimitProperties gigaChatRateLimitProperties() {
+        return new GigaChatRateLimitProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = GigaChatStreamRetryProperties.CONFIG_PREFIX)
+    public GigaChatStreamRetryProperties gigaChatStreamRetryProperties() {
+        return new GigaChatStreamRetryProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = GigaChatLoggingProperties.CONFIG_PREFIX)
+    public GigaChatLoggingProperties gigaChatLoggingProperties() {
+        return new GigaChatLoggingProperties();
+    }
+
     @Bean
     @ConfigurationProperties(prefix = GigaChatApiProperties.CONFIG_PREFIX)
     public GigaChatApiProperties gigaChatApiProperties(
-            GigaChatAuthProperties gigaChatAuthProperties, GigaChatInternalProperties gigaChatInternalProperties) {
+            GigaChatAuthProperties gigaChatAuthProperties,
+            GigaChatInternalProperties gigaChatInternalProperties,
+            GigaChatRateLimitProperties gigaChatRateLimitProperties,
+            GigaChatStreamRetryProperties gigaChatStreamRetryProperties,
+            GigaChatLoggingProperties gigaChatLoggingProperties) {
         GigaChatApiProperties gigaChatApiProperties = new GigaChatApiProperties();
         gigaChatApiProperties.setAuth(gigaChatAuthProperties);
         gigaChatApiProperties.setInternal(gigaChatInternalProperties);
+        gigaChatApiProperties.setRateLimit(gigaChatRateLimitProperties);
+        gigaChatApiProperties.setStreamRetry(gigaChatStreamRetryProperties);
+        gigaChatApiProperties.setLogging(gigaChatLoggingProperties);
         return gigaChatApiProperties;
     }
 
@@ -202,6 +368,7 @@ public class GigaChatAutoConfiguration {
                 observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP),
                 retryTemplateProvider.getIfAvailable(() -> RetryUtils.DEFAULT_RETRY_TEMPLATE));
 
+        gigaChatImageModel.setMaxConcurrency(properties.getMaxConcurrency());
         observationConvention.ifAvailable(gigaChatImageModel::setObservationConvention);
 
         return gigaChatImageModel;
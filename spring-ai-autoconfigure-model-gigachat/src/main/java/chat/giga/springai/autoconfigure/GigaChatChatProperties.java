@@ -2,6 +2,10 @@ package chat.giga.springai.autoconfigure;
 
 import chat.giga.springai.GigaChatModel;
 import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.cache.FileIdCache;
+import chat.giga.springai.cache.InMemoryFileIdCache;
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -14,6 +18,10 @@ public class GigaChatChatProperties {
     private GigaChatOptions options =
             GigaChatOptions.builder().model(GigaChatModel.DEFAULT_MODEL_NAME).build();
 
+    private FileCache fileCache = new FileCache();
+
+    private ToolExecution toolExecution = new ToolExecution();
+
     public void setOptions(GigaChatOptions options) {
         this.options = options;
     }
@@ -21,4 +29,112 @@ public class GigaChatChatProperties {
     public GigaChatOptions getOptions() {
         return this.options;
     }
+
+    public FileCache getFileCache() {
+        return this.fileCache;
+    }
+
+    public void setFileCache(FileCache fileCache) {
+        this.fileCache = fileCache;
+    }
+
+    public ToolExecution getToolExecution() {
+        return this.toolExecution;
+    }
+
+    public void setToolExecution(ToolExecution toolExecution) {
+        this.toolExecution = toolExecution;
+    }
+
+    public static class FileCache {
+
+        /**
+         * Cache type of uploaded media file ids: none, in-memory or file-system.
+         */
+        private Type type = Type.NONE;
+
+        /**
+         * Time to live of a cached file id. Should not exceed the file retention period of GigaChat.
+         */
+        private Duration ttl = FileIdCache.DEFAULT_TTL;
+
+        /**
+         * Maximum number of entries of the in-memory cache.
+         */
+        private int maxSize = InMemoryFileIdCache.DEFAULT_MAX_SIZE;
+
+        /**
+         * Directory of the file-system cache.
+         */
+        private Path directory;
+
+        public Type getType() {
+            return this.type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Duration getTtl() {
+            return this.ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxSize() {
+            return this.maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Path getDirectory() {
+            return this.directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public enum Type {
+            NONE,
+            IN_MEMORY,
+            FILE_SYSTEM
+        }
+    }
+
+    public static class ToolExecution {
+
+        /**
+         * Whether to execute tool calls of one model response concurrently with GigaChatToolCallingManager
+         * instead of the ToolCallingManager bean. Tool callbacks are still resolved with the ToolCallbackResolver bean.
+         * A custom ToolCallingManager bean is ignored, a warning is logged at startup.
+         */
+        private boolean parallel = false;
+
+        /**
+         * Maximum execution time of each tool call, counted from its start. No limit by default.
+         */
+        private Duration timeout;
+
+        public boolean isParallel() {
+            return this.parallel;
+        }
+
+        public void setParallel(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public Duration getTimeout() {
+            return this.timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
 }
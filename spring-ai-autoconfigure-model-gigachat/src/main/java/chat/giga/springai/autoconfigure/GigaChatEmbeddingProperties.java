@@ -16,8 +16,12 @@
 
 package chat.giga.springai.autoconfigure;
 
+import chat.giga.springai.GigaChatEmbeddingBatchingProperties;
 import chat.giga.springai.GigaChatEmbeddingOptions;
 import chat.giga.springai.api.chat.embedding.EmbeddingsModel;
+import chat.giga.springai.cache.InMemoryEmbeddingCache;
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.ai.document.MetadataMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -45,6 +49,11 @@ public class GigaChatEmbeddingProperties {
             .withModel(DEFAULT_EMBEDDING_MODEL)
             .build();
 
+    @NestedConfigurationProperty
+    private GigaChatEmbeddingBatchingProperties batching = new GigaChatEmbeddingBatchingProperties();
+
+    private Cache cache = new Cache();
+
     public GigaChatEmbeddingOptions getOptions() {
         return this.options;
     }
@@ -76,4 +85,82 @@ public class GigaChatEmbeddingProperties {
     public void setEmbeddingsPath(String embeddingsPath) {
         this.embeddingsPath = embeddingsPath;
     }
+
+    public GigaChatEmbeddingBatchingProperties getBatching() {
+        return this.batching;
+    }
+
+    public void setBatching(GigaChatEmbeddingBatchingProperties batching) {
+        this.batching = batching;
+    }
+
+    public Cache getCache() {
+        return this.cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public static class Cache {
+
+        /**
+         * Cache type: none, in-memory or file-system.
+         */
+        private Type type = Type.NONE;
+
+        /**
+         * Maximum number of cache entries. When the file-system cache overflows, the oldest entries are removed
+         * until 90% of the limit remains.
+         */
+        private int maxSize = InMemoryEmbeddingCache.DEFAULT_MAX_SIZE;
+
+        /**
+         * Time to live of a cache entry since it was stored. Entries do not expire if not set.
+         */
+        private Duration ttl;
+
+        /**
+         * Directory of the file-system cache.
+         */
+        private Path directory;
+
+        public Type getType() {
+            return this.type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public int getMaxSize() {
+            return this.maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return this.ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Path getDirectory() {
+            return this.directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public enum Type {
+            NONE,
+            IN_MEMORY,
+            FILE_SYSTEM
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package chat.giga.springai.autoconfigure;
 
+import chat.giga.springai.image.GigaChatImageModel;
 import chat.giga.springai.image.GigaChatImageOptions;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -12,6 +13,11 @@ public class GigaChatImageProperties {
     @NestedConfigurationProperty
     private GigaChatImageOptions options = GigaChatImageOptions.builder().build();
 
+    /**
+     * Maximum number of concurrent image generation requests when a prompt has several instructions or n > 1.
+     */
+    private int maxConcurrency = GigaChatImageModel.DEFAULT_MAX_CONCURRENCY;
+
     public GigaChatImageOptions getOptions() {
         return options;
     }
@@ -19,4 +25,12 @@ public class GigaChatImageProperties {
     public void setOptions(GigaChatImageOptions options) {
         this.options = options;
     }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
 }
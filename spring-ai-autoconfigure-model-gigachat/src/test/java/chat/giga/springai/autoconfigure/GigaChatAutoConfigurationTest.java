@@ -6,15 +6,29 @@ import static org.assertj.core.api.Assertions.assertThat;
 import chat.giga.springai.GigaChatEmbeddingModel;
 import chat.giga.springai.GigaChatModel;
 import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatHttpClientMetrics;
 import chat.giga.springai.api.GigaChatInternalProperties;
+import chat.giga.springai.api.GigaChatRateLimitProperties;
 import chat.giga.springai.api.auth.GigaChatAuthProperties;
 import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.GigaChatAsyncApi;
+import chat.giga.springai.cache.EmbeddingCache;
+import chat.giga.springai.cache.FileIdCache;
+import chat.giga.springai.cache.FileSystemEmbeddingCache;
+import chat.giga.springai.cache.FileSystemFileIdCache;
+import chat.giga.springai.cache.InMemoryEmbeddingCache;
+import chat.giga.springai.cache.InMemoryFileIdCache;
 import chat.giga.springai.image.GigaChatImageModel;
+import chat.giga.springai.tool.execution.GigaChatToolCallingManager;
+import chat.giga.springai.tool.execution.GigaChatToolLoopMetrics;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
 import org.springframework.ai.model.tool.autoconfigure.ToolCallingAutoConfiguration;
 import org.springframework.ai.retry.autoconfigure.SpringAiRetryAutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -25,6 +39,7 @@ import org.springframework.boot.autoconfigure.web.reactive.function.client.WebCl
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class GigaChatAutoConfigurationTest {
 
@@ -49,7 +64,9 @@ public class GigaChatAutoConfigurationTest {
     void defaultBeanAutoConfigurationTest() {
         contextRunner.run(context -> {
             assertThat(context).hasSingleBean(GigaChatApi.class);
+            assertThat(context).hasSingleBean(GigaChatAsyncApi.class);
             assertThat(context).hasSingleBean(GigaChatModel.class);
+            assertThat(context).hasSingleBean(GigaChatToolLoopMetrics.class);
             assertThat(context).hasSingleBean(GigaChatChatProperties.class);
             assertThat(context).hasSingleBean(GigaChatEmbeddingModel.class);
             assertThat(context).hasSingleBean(GigaChatEmbeddingProperties.class);
@@ -102,13 +119,192 @@ public class GigaChatAutoConfigurationTest {
         contextRunner
                 .withPropertyValues(
                         "spring.ai.gigachat.embedding.options.model=Embeddings-2",
-                        "spring.ai.gigachat.embedding.options.dimensions=1024")
+                        "spring.ai.gigachat.embedding.options.dimensions=1024",
+                        "spring.ai.gigachat.embedding.batching.enabled=true",
+                        "spring.ai.gigachat.embedding.batching.max-inputs=16",
+                        "spring.ai.gigachat.embedding.batching.max-tokens=4096",
+                        "spring.ai.gigachat.embedding.batching.parallelism=8")
                 .run(context -> {
                     GigaChatEmbeddingProperties embeddingProperties =
                             context.getBean(GigaChatEmbeddingProperties.class);
                     assertThat(embeddingProperties.isEnabled()).isTrue();
                     assertThat(embeddingProperties.getOptions().getModel()).isEqualTo("Embeddings-2");
                     assertThat(embeddingProperties.getOptions().getDimensions()).isEqualTo(1024);
+                    assertThat(embeddingProperties.getBatching().isEnabled()).isTrue();
+                    assertThat(embeddingProperties.getBatching().getMaxInputs()).isEqualTo(16);
+                    assertThat(embeddingProperties.getBatching().getMaxTokens()).isEqualTo(4096);
+                    assertThat(embeddingProperties.getBatching().getParallelism())
+                            .isEqualTo(8);
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию параметров HTTP-транспорта")
+    void customInternalPropertiesAutoConfigurationTest() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.internal.connect-timeout=5s",
+                        "spring.ai.gigachat.internal.http-version=http-1-1")
+                .run(context -> {
+                    GigaChatInternalProperties internalProperties = context.getBean(GigaChatInternalProperties.class);
+                    assertThat(internalProperties.getConnectTimeout()).isEqualTo(Duration.ofSeconds(5));
+                    assertThat(internalProperties.getHttpVersion()).isEqualTo(HttpClient.Version.HTTP_1_1);
+                    assertThat(internalProperties.isVirtualThreads()).isFalse();
+
+                    HttpClient httpClient = context.getBean(GigaChatApi.class).getHttpClient();
+                    assertThat(httpClient.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+                    assertThat(context).hasSingleBean(GigaChatHttpClientMetrics.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию фонового обновления bearer-токена")
+    void backgroundRefreshAutoConfigurationTest() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.auth.bearer.background-refresh.enabled=true",
+                        "spring.ai.gigachat.auth.bearer.background-refresh.ahead=2m",
+                        "spring.ai.gigachat.auth.bearer.background-refresh.max-backoff=1m")
+                .run(context -> {
+                    GigaChatAuthProperties.BackgroundRefresh backgroundRefresh = context.getBean(
+                                    GigaChatAuthProperties.class)
+                            .getBearer()
+                            .getBackgroundRefresh();
+                    assertThat(backgroundRefresh.isEnabled()).isTrue();
+                    assertThat(backgroundRefresh.getAhead()).isEqualTo(Duration.ofMinutes(2));
+                    assertThat(backgroundRefresh.getMinBackoff()).isEqualTo(Duration.ofSeconds(1));
+                    assertThat(backgroundRefresh.getMaxBackoff()).isEqualTo(Duration.ofMinutes(1));
+                    assertThat(context).hasSingleBean(GigaChatApi.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию пула учетных записей")
+    void credentialPoolAutoConfigurationTest() {
+        new ApplicationContextRunner()
+                .withConfiguration(gigaChatFullAutoConfigurations)
+                .withPropertyValues(
+                        "spring.ai.gigachat.auth.bearer.pool.credentials[0].api-key=first",
+                        "spring.ai.gigachat.auth.bearer.pool.credentials[1].client-id=id",
+                        "spring.ai.gigachat.auth.bearer.pool.credentials[1].client-secret=secret",
+                        "spring.ai.gigachat.auth.bearer.pool.strategy=least-recently-throttled",
+                        "spring.ai.gigachat.auth.bearer.pool.ejection-duration=1m")
+                .run(context -> {
+                    GigaChatAuthProperties authProperties = context.getBean(GigaChatAuthProperties.class);
+                    assertThat(authProperties.isBearerAuth()).isTrue();
+                    assertThat(authProperties.isCredentialPool()).isTrue();
+
+                    GigaChatAuthProperties.CredentialPool pool =
+                            authProperties.getBearer().getPool();
+                    assertThat(pool.getCredentials())
+                            .extracting(GigaChatAuthProperties.Credential::buildApiKey)
+                            .containsExactly("first", "aWQ6c2VjcmV0");
+                    assertThat(pool.getStrategy())
+                            .isEqualTo(GigaChatAuthProperties.CredentialPool.Strategy.LEAST_RECENTLY_THROTTLED);
+                    assertThat(pool.getEjectionDuration()).isEqualTo(Duration.ofMinutes(1));
+                    assertThat(context).hasSingleBean(GigaChatApi.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию ограничителя запросов")
+    void rateLimitAutoConfigurationTest() {
+        contextRunner.run(context -> {
+            assertThat(context.getBean(GigaChatApi.class).getRateLimiter()).isNull();
+            assertThat(context).doesNotHaveBean("gigaChatRateLimiterMetrics");
+        });
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.rate-limit.enabled=true",
+                        "spring.ai.gigachat.rate-limit.max-wait=5s",
+                        "spring.ai.gigachat.rate-limit.endpoints.completions.permits-per-second=5",
+                        "spring.ai.gigachat.rate-limit.endpoints.completions.max-in-flight=4",
+                        "spring.ai.gigachat.rate-limit.models.GigaChat-2-Max.max-in-flight=2")
+                .run(context -> {
+                    GigaChatRateLimitProperties rateLimit =
+                            context.getBean(GigaChatApiProperties.class).getRateLimit();
+                    assertThat(rateLimit.getMaxWait()).isEqualTo(Duration.ofSeconds(5));
+                    GigaChatRateLimitProperties.Limit completions =
+                            rateLimit.getEndpoints().get(GigaChatRateLimitProperties.Endpoint.COMPLETIONS);
+                    assertThat(completions.getPermitsPerSecond()).isEqualTo(5);
+                    assertThat(completions.getBurst()).isEqualTo(1);
+                    assertThat(completions.getMaxInFlight()).isEqualTo(4);
+                    assertThat(rateLimit.getModels().get("GigaChat-2-Max").getMaxInFlight())
+                            .isEqualTo(2);
+
+                    assertThat(context.getBean(GigaChatApi.class).getRateLimiter())
+                            .isNotNull();
+                    assertThat(context).hasBean("gigaChatRateLimiterMetrics");
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию кэша эмбеддингов")
+    void embeddingCacheAutoConfigurationTest() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(EmbeddingCache.class));
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.embedding.cache.type=in-memory",
+                        "spring.ai.gigachat.embedding.cache.max-size=10")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(InMemoryEmbeddingCache.class);
+                    assertThat(context.getBean(GigaChatEmbeddingProperties.class)
+                                    .getCache()
+                                    .getType())
+                            .isEqualTo(GigaChatEmbeddingProperties.Cache.Type.IN_MEMORY);
+                });
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.embedding.cache.type=file-system",
+                        "spring.ai.gigachat.embedding.cache.directory=target/embedding-cache",
+                        "spring.ai.gigachat.embedding.cache.ttl=30d")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(FileSystemEmbeddingCache.class);
+                    assertThat(context.getBean(GigaChatEmbeddingProperties.class)
+                                    .getCache()
+                                    .getTtl())
+                            .isEqualTo(Duration.ofDays(30));
+                });
+    }
+
+    @Test
+    @DisplayName("Тест проверяет автоконфигурацию кэша идентификаторов загруженных файлов")
+    void fileIdCacheAutoConfigurationTest() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(FileIdCache.class));
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.chat.file-cache.type=in-memory",
+                        "spring.ai.gigachat.chat.file-cache.ttl=12h")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(InMemoryFileIdCache.class);
+                    assertThat(context.getBean(GigaChatChatProperties.class)
+                                    .getFileCache()
+                                    .getTtl())
+                            .isEqualTo(Duration.ofHours(12));
+                });
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.chat.file-cache.type=file-system",
+                        "spring.ai.gigachat.chat.file-cache.directory=target/file-id-cache")
+                .run(context -> assertThat(context).hasSingleBean(FileSystemFileIdCache.class));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет включение параллельного выполнения функций")
+    void parallelToolExecutionAutoConfigurationTest() {
+        contextRunner.run(context -> assertThat(
+                        ReflectionTestUtils.getField(context.getBean(GigaChatModel.class), "toolCallingManager"))
+                .isInstanceOf(DefaultToolCallingManager.class));
+        contextRunner
+                .withPropertyValues(
+                        "spring.ai.gigachat.chat.tool-execution.parallel=true",
+                        "spring.ai.gigachat.chat.tool-execution.timeout=30s")
+                .run(context -> {
+                    Object toolCallingManager =
+                            ReflectionTestUtils.getField(context.getBean(GigaChatModel.class), "toolCallingManager");
+                    assertThat(toolCallingManager).isInstanceOf(GigaChatToolCallingManager.class);
+                    assertThat(ReflectionTestUtils.getField(toolCallingManager, "toolTimeout"))
+                            .isEqualTo(Duration.ofSeconds(30));
                 });
     }
 
@@ -0,0 +1,29 @@
+package chat.giga.springai.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.Main;
+
+/**
+ * Точка входа {@code benchmarks.jar}: запускает JMH и по умолчанию сохраняет результаты в {@value #RESULT_FILE}
+ * (формат JSON) для сравнения запусков между собой.
+ * <p>
+ * Файл можно переименовать опцией {@code -rff}, если же формат указан явно ({@code -rf}),
+ * результат сохраняется по правилам JMH.
+ */
+public final class BenchmarkMain {
+    static final String RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(List.of("-rf", "json"));
+            if (!arguments.contains("-rff")) {
+                arguments.addAll(List.of("-rff", RESULT_FILE));
+            }
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+}
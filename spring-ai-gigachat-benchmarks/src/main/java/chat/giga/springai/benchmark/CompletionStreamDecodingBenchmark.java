@@ -0,0 +1,124 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.completion.CompletionStreamDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.ServerSentEventHttpMessageReader;
+import reactor.core.publisher.Flux;
+
+/**
+ * Сравнивает разбор потокового ответа /chat/completions через {@link CompletionStreamDecoder}
+ * и прежним способом: {@code bodyToFlux(String.class)} + {@link ModelOptionsUtils#jsonToObject}.
+ * <p>
+ * Результат приведен к одному чанку: score - чанков в секунду,
+ * {@code gc.alloc.rate.norm} при запуске с {@code -prof gc} - байт на чанк.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(CompletionStreamDecodingBenchmark.CHUNKS)
+public class CompletionStreamDecodingBenchmark {
+    static final int CHUNKS = 256;
+
+    private static final Predicate<String> SSE_DONE_PREDICATE = "[DONE]"::equals;
+
+    /**
+     * Размер сетевого буфера, которыми приходит тело ответа.
+     */
+    @Param({"64", "8192"})
+    int bufferSize;
+
+    private List<ByteBuffer> body;
+    private CompletionStreamDecoder decoder;
+    private ServerSentEventHttpMessageReader sseReader;
+
+    @Setup
+    public void setUp() {
+        this.body = split(buildStream(CHUNKS), bufferSize);
+        this.decoder = new CompletionStreamDecoder();
+        this.sseReader = new ServerSentEventHttpMessageReader();
+    }
+
+    @Benchmark
+    public List<CompletionResponse> completionStreamDecoder() {
+        return decoder.decode(body()).collectList().block();
+    }
+
+    @Benchmark
+    public List<CompletionResponse> stringSseReader() {
+        ReactiveHttpInputMessage message = new ReactiveHttpInputMessage() {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.TEXT_EVENT_STREAM);
+                return headers;
+            }
+        };
+        return sseReader
+                .read(ResolvableType.forClass(String.class), message, Map.of())
+                .cast(String.class)
+                .takeUntil(SSE_DONE_PREDICATE)
+                .filter(SSE_DONE_PREDICATE.negate())
+                .map(content -> ModelOptionsUtils.jsonToObject(content, CompletionResponse.class))
+                .collectList()
+                .block();
+    }
+
+    private Flux<DataBuffer> body() {
+        return Flux.fromIterable(body).map(buffer -> DefaultDataBufferFactory.sharedInstance.wrap(buffer.duplicate()));
+    }
+
+    static byte[] buildStream(int chunks) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < chunks; i++) {
+            sb.append("data: {\"choices\":[{\"delta\":{\"content\":\"токен ")
+                    .append(i)
+                    .append("\",\"role\":\"assistant\"},\"index\":0}],")
+                    .append(
+                            "\"created\":1700000000,\"model\":\"GigaChat-2:2.0.28.2\",\"object\":\"chat.completion\"}\n\n");
+        }
+        return sb.append("data: [DONE]\n\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<ByteBuffer> split(byte[] bytes, int size) {
+        List<ByteBuffer> parts = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            parts.add(
+                    ByteBuffer.wrap(bytes, i, Math.min(size, bytes.length - i)).slice());
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,151 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.GigaChatAsyncApi;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Нагрузочный бенчмарк: {@value #CONCURRENCY} одновременных запросов к /chat/completions
+ * заглушки {@link StubGigaChatServer}, отвечающей с задержкой {@code latencyMs}.
+ * <p>
+ * Сравнивает блокирующий {@link GigaChatApi} на пуле платформенных потоков (по потоку на запрос)
+ * и {@link GigaChatAsyncApi} в режимах {@code reactive} и {@code virtual-threads} (Java 21+).
+ * Score - запросов в секунду, дополнительный результат {@code peakThreads} - пиковое число потоков JVM за итерацию.
+ * <p>
+ * На Java 17 режим {@code virtual-threads} нужно исключить: {@code -p mode=blocking,reactive}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@OperationsPerInvocation(ConcurrentCompletionBenchmark.CONCURRENCY)
+public class ConcurrentCompletionBenchmark {
+    static final int CONCURRENCY = 1000;
+
+    @Param({"blocking", "reactive", "virtual-threads"})
+    String mode;
+
+    @Param({"50"})
+    int latencyMs;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private StubGigaChatServer server;
+    private GigaChatApi gigaChatApi;
+    private GigaChatAsyncApi asyncApi;
+    private ExecutorService blockingExecutor;
+    private CompletionRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.server = new StubGigaChatServer(Duration.ofMillis(latencyMs));
+        this.gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(server.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        switch (mode) {
+            case "blocking" ->
+                this.blockingExecutor =
+                        Executors.newFixedThreadPool(CONCURRENCY, new CustomizableThreadFactory("blocking-"));
+            case "reactive" -> this.asyncApi = new GigaChatAsyncApi(gigaChatApi, GigaChatAsyncApi.Mode.REACTIVE);
+            case "virtual-threads" ->
+                this.asyncApi = new GigaChatAsyncApi(gigaChatApi, GigaChatAsyncApi.Mode.VIRTUAL_THREADS);
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        this.request = new CompletionRequest();
+        this.request.setModel("GigaChat-2");
+        this.request.setStream(false);
+        this.request.setMessages(List.of(new CompletionRequest.Message(CompletionRequest.Role.user, "Привет")));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakThreads() {
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdownNow();
+        }
+        gigaChatApi.close();
+        server.close();
+    }
+
+    @Benchmark
+    public long completions(ThreadCounters counters) {
+        long completions = runCompletions();
+        counters.peakThreads = Math.max(counters.peakThreads, threads.getPeakThreadCount());
+        return completions;
+    }
+
+    private long runCompletions() {
+        if (blockingExecutor != null) {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[CONCURRENCY];
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures[i] = CompletableFuture.supplyAsync(
+                        () -> gigaChatApi.chatCompletionEntity(request), blockingExecutor);
+            }
+            CompletableFuture.allOf(futures).join();
+            return futures.length;
+        }
+        return Flux.range(0, CONCURRENCY)
+                .flatMap(i -> asyncApi.chatCompletion(request), CONCURRENCY)
+                .count()
+                .block();
+    }
+
+    /**
+     * Пиковое число потоков JVM за итерацию, выводится JMH отдельным результатом {@code completions:peakThreads}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ThreadCounters {
+        public long peakThreads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakThreads = 0;
+        }
+    }
+}
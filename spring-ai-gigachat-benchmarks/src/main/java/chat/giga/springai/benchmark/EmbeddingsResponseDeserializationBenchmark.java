@@ -0,0 +1,91 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.api.chat.embedding.EmbeddingsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнивает десериализацию ответа /embeddings через
+ * {@link chat.giga.springai.api.chat.embedding.EmbeddingVectorDeserializer}
+ * и через стандартный десериализатор {@code float[]} из Jackson.
+ * <p>
+ * Аллокации на операцию можно посмотреть, запустив бенчмарк с профайлером {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingsResponseDeserializationBenchmark {
+
+    @Param({"16", "128"})
+    int batchSize;
+
+    @Param({"1024", "2560"})
+    int dimensions;
+
+    private byte[] json;
+    private ObjectMapper objectMapper;
+    private ObjectMapper jacksonDefaultObjectMapper;
+
+    @Setup
+    public void setUp() {
+        this.json = buildResponse(batchSize, dimensions);
+        this.objectMapper = new ObjectMapper();
+        this.jacksonDefaultObjectMapper =
+                new ObjectMapper().addMixIn(EmbeddingsResponse.EmbeddingData.class, JacksonDefaultMixIn.class);
+    }
+
+    @Benchmark
+    public EmbeddingsResponse embeddingVectorDeserializer() throws IOException {
+        return objectMapper.readValue(json, EmbeddingsResponse.class);
+    }
+
+    @Benchmark
+    public EmbeddingsResponse jacksonDefaultDeserializer() throws IOException {
+        return jacksonDefaultObjectMapper.readValue(json, EmbeddingsResponse.class);
+    }
+
+    static byte[] buildResponse(int batchSize, int dimensions) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder("{\"object\":\"list\",\"model\":\"EmbeddingsGigaR\",\"data\":[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"object\":\"embedding\",\"index\":").append(i).append(",\"embedding\":[");
+            for (int j = 0; j < dimensions; j++) {
+                if (j > 0) {
+                    sb.append(',');
+                }
+                sb.append(random.nextFloat() * 2 - 1);
+            }
+            sb.append("],\"usage\":{\"prompt_tokens\":12}}");
+        }
+        return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Возвращает стандартный десериализатор Jackson для поля {@code embedding}.
+     */
+    abstract static class JacksonDefaultMixIn {
+        @JsonDeserialize
+        float[] embedding;
+    }
+}
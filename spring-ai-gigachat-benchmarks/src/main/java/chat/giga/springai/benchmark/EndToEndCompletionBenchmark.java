@@ -0,0 +1,94 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.GigaChatModel;
+import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatInternalProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.GigaChatApi;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Сквозной бенчмарк {@link GigaChatModel} через настоящий {@link GigaChatApi} и HTTP к заглушке
+ * {@link StubGigaChatServer}, воспроизводящей записанные ответы GigaChat без задержки.
+ * <p>
+ * {@code call} - обычный ответ, {@code stream} - поток SSE из записанных фрагментов, собранный целиком.
+ * Score - запросов в секунду на {@value #THREADS} потоках.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(EndToEndCompletionBenchmark.THREADS)
+public class EndToEndCompletionBenchmark {
+    static final int THREADS = 4;
+
+    private StubGigaChatServer server;
+    private GigaChatApi gigaChatApi;
+    private GigaChatModel gigaChatModel;
+    private Prompt prompt;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.server = new StubGigaChatServer(Duration.ZERO);
+        this.gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(server.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        this.gigaChatModel = GigaChatModel.builder()
+                .gigaChatApi(gigaChatApi)
+                .internalProperties(new GigaChatInternalProperties())
+                .build();
+        this.prompt = new Prompt(
+                List.of(new UserMessage("Расскажи коротко о Москве")),
+                GigaChatOptions.builder()
+                        .model(GigaChatApi.ChatModel.GIGA_CHAT_2_MAX)
+                        .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        gigaChatApi.close();
+        server.close();
+    }
+
+    @Benchmark
+    public ChatResponse call() {
+        return gigaChatModel.call(prompt);
+    }
+
+    @Benchmark
+    public List<ChatResponse> stream() {
+        return gigaChatModel.stream(prompt).collectList().block();
+    }
+}
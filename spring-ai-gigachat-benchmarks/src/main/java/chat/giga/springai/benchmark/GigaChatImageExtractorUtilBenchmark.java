@@ -0,0 +1,54 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.image.GigaChatImageExtractorUtil;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link GigaChatImageExtractorUtil#extract(String)} на ответе модели около 2 КБ:
+ * без изображений (обычный текстовый ответ) и с несколькими тегами {@code <img>}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GigaChatImageExtractorUtilBenchmark {
+    private static final String PARAGRAPH =
+            "Москва - столица России, крупнейший по численности населения город страны и её экономический центр. ";
+
+    @Param({"0", "3"})
+    int images;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 2048; i++) {
+            sb.append(PARAGRAPH);
+            if (i < images) {
+                sb.append("<img src=\"").append(UUID.randomUUID()).append("\" fuse=\"true\"/> ");
+            }
+        }
+        this.content = sb.toString();
+    }
+
+    @Benchmark
+    public List<String> extract() {
+        return GigaChatImageExtractorUtil.extract(content);
+    }
+}
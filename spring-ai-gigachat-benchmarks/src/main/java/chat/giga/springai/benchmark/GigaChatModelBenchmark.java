@@ -0,0 +1,131 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.GigaChatModel;
+import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatInternalProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.tool.function.GigaFunctionToolCallback;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Накладные расходы {@link GigaChatModel#call(Prompt)} без сети: сборка {@link CompletionRequest}
+ * из промпта с историей и функциями и преобразование записанного ответа в {@link ChatResponse}.
+ * <p>
+ * {@link GigaChatApi} подменен и сразу возвращает ответ из {@code recorded/}, разобранный один раз,
+ * поэтому в замер попадают только преобразования модели. Сценарии: текстовый ответ и вызов функции.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GigaChatModelBenchmark {
+
+    @Param({"text", "function_call"})
+    String scenario;
+
+    private RecordedGigaChatApi gigaChatApi;
+    private GigaChatModel gigaChatModel;
+    private Prompt prompt;
+
+    @Setup
+    public void setUp() {
+        String recorded =
+                "function_call".equals(scenario) ? "chat-completion-function-call.json" : "chat-completion.json";
+        this.gigaChatApi = new RecordedGigaChatApi(ModelOptionsUtils.jsonToObject(
+                new String(StubGigaChatServer.recorded(recorded), StandardCharsets.UTF_8), CompletionResponse.class));
+        this.gigaChatModel = GigaChatModel.builder()
+                .gigaChatApi(gigaChatApi)
+                .internalProperties(new GigaChatInternalProperties())
+                .build();
+        this.prompt = new Prompt(
+                List.of(
+                        new SystemMessage("Ты - вежливый помощник, отвечай кратко."),
+                        new UserMessage("Привет! Что ты умеешь?"),
+                        new AssistantMessage("Отвечаю на вопросы и подсказываю погоду."),
+                        new UserMessage("Какая погода будет в Москве в ближайшие три дня?")),
+                GigaChatOptions.builder()
+                        .model(GigaChatApi.ChatModel.GIGA_CHAT_2_MAX)
+                        .temperature(0.2)
+                        .toolCallbacks(GigaFunctionToolCallback.builder(
+                                        "weather_forecast", (WeatherRequest request) -> "+5, облачно")
+                                .description("Прогноз погоды на несколько дней")
+                                .inputType(WeatherRequest.class)
+                                .build())
+                        // ответ с вызовом функции возвращается вызывающему коду без выполнения инструмента
+                        .internalToolExecutionEnabled(false)
+                        .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        gigaChatApi.close();
+    }
+
+    @Benchmark
+    public ChatResponse call() {
+        return gigaChatModel.call(prompt);
+    }
+
+    public record WeatherRequest(String location, String format, int numDays) {}
+
+    /**
+     * {@link GigaChatApi}, отвечающий записанным ответом без обращения к серверу.
+     */
+    static final class RecordedGigaChatApi extends GigaChatApi {
+        private final ResponseEntity<CompletionResponse> response;
+
+        RecordedGigaChatApi(CompletionResponse response) {
+            super(
+                    GigaChatApiProperties.builder()
+                            .baseUrl("http://localhost")
+                            .auth(GigaChatAuthProperties.builder().build())
+                            .build(),
+                    new NoopGigaAuthToken(),
+                    HttpClient.newHttpClient(),
+                    RestClient.builder(),
+                    WebClient.builder(),
+                    RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+            this.response = ResponseEntity.ok(response);
+        }
+
+        @Override
+        public ResponseEntity<CompletionResponse> chatCompletionEntity(
+                CompletionRequest chatRequest, @Nullable HttpHeaders headers) {
+            return response;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package chat.giga.springai.benchmark;
+
+import chat.giga.springai.tool.support.GigaToolUtils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link GigaToolUtils#toJsonIfNeeded(Object)} - преобразование результата инструмента перед отправкой в GigaChat:
+ * строка с JSON проверяется разбором, обычная строка и объект сериализуются.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GigaToolUtilsBenchmark {
+    private final String json = "{\"location\":\"Москва\",\"forecast\":[{\"day\":1,\"temperature\":5,"
+            + "\"description\":\"облачно\"},{\"day\":2,\"temperature\":3,\"description\":\"дождь\"},"
+            + "{\"day\":3,\"temperature\":7,\"description\":\"ясно\"}]}";
+    private final String text = "В Москве ближайшие три дня: +5 и облачно, +3 и дождь, +7 и ясно.";
+    private final Forecast forecast =
+            new Forecast("Москва", List.of(new Day(1, 5, "облачно"), new Day(2, 3, "дождь"), new Day(3, 7, "ясно")));
+
+    @Benchmark
+    public String jsonString() {
+        return GigaToolUtils.toJsonIfNeeded(json);
+    }
+
+    @Benchmark
+    public String plainString() {
+        return GigaToolUtils.toJsonIfNeeded(text);
+    }
+
+    @Benchmark
+    public String object() {
+        return GigaToolUtils.toJsonIfNeeded(forecast);
+    }
+
+    public record Forecast(String location, List<Day> forecast) {}
+
+    public record Day(int day, int temperature, String description) {}
+}
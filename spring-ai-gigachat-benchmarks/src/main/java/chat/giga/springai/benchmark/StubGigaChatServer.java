@@ -0,0 +1,138 @@
+package chat.giga.springai.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Заглушка GigaChat API на {@link HttpServer} из JDK для сквозных и нагрузочных бенчмарков.
+ * <p>
+ * На {@code /chat/completions} воспроизводит записанные ответы GigaChat из {@code recorded/}:
+ * {@code chat-completion.json} для обычного запроса и {@code chat-completion-stream.txt} - событиями SSE,
+ * если в запросе {@code "stream":true}.
+ * <p>
+ * Задержка ответа выдерживается планировщиком, а не спящим потоком, поэтому сервер держит тысячи
+ * одновременных запросов на нескольких потоках и не влияет на количество потоков клиента.
+ */
+final class StubGigaChatServer implements AutoCloseable {
+    static final byte[] COMPLETION_RESPONSE = recorded("chat-completion.json");
+    static final List<byte[]> COMPLETION_STREAM_EVENTS = events(recorded("chat-completion-stream.txt"));
+
+    private static final byte[] STREAM_FLAG = "\"stream\":true".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        // без TCP_NODELAY небольшие ответы ждут подтверждения клиента и каждый запрос занимает десятки миллисекунд
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    StubGigaChatServer(Duration latency) throws IOException {
+        this.executor = Executors.newFixedThreadPool(4, new CustomizableThreadFactory("stub-gigachat-"));
+        this.scheduler = Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("stub-gigachat-delay-"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        this.server.setExecutor(executor);
+        this.server.createContext("/chat/completions", exchange -> {
+            boolean stream = contains(exchange.getRequestBody().readAllBytes(), STREAM_FLAG);
+            Runnable respond = () -> respond(exchange, stream);
+            if (latency.isZero()) {
+                respond.run();
+            } else {
+                scheduler.schedule(respond, latency.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort();
+    }
+
+    /**
+     * Записанный ответ GigaChat из ресурсов модуля.
+     */
+    static byte[] recorded(String name) {
+        try (InputStream resource = StubGigaChatServer.class.getResourceAsStream("/recorded/" + name)) {
+            if (resource == null) {
+                throw new IllegalArgumentException("Recorded response not found: " + name);
+            }
+            return resource.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, boolean stream) {
+        try (exchange) {
+            if (stream) {
+                exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    for (byte[] event : COMPLETION_STREAM_EVENTS) {
+                        body.write(event);
+                        body.flush();
+                    }
+                }
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, COMPLETION_RESPONSE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(COMPLETION_RESPONSE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Делит поток SSE на события, чтобы отправлять их отдельными фрагментами.
+     */
+    private static List<byte[]> events(byte[] stream) {
+        String text = new String(stream, StandardCharsets.UTF_8);
+        List<byte[]> events = new ArrayList<>();
+        int start = 0;
+        for (int end = text.indexOf("\n\n"); end >= 0; end = text.indexOf("\n\n", start)) {
+            events.add(text.substring(start, end + 2).getBytes(StandardCharsets.UTF_8));
+            start = end + 2;
+        }
+        return events;
+    }
+
+    private static boolean contains(byte[] bytes, byte[] part) {
+        outer:
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (bytes[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package chat.giga.springai;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Параметры разбиения запроса к Embedding модели на батчи.
+ * <p>
+ * При включенном батчинге инструкции из {@link org.springframework.ai.embedding.EmbeddingRequest}
+ * разбиваются на несколько запросов к /embeddings с учетом ограничений {@link #maxInputs} и {@link #maxTokens},
+ * батчи отправляются параллельно (не более {@link #parallelism} одновременно),
+ * а результаты собираются в исходном порядке.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GigaChatEmbeddingBatchingProperties {
+    public static final String CONFIG_PREFIX = "spring.ai.gigachat.embedding.batching";
+
+    /**
+     * Включает разбиение запроса на батчи. По умолчанию выключено - все инструкции отправляются одним запросом.
+     */
+    @Builder.Default
+    private boolean enabled = false;
+
+    /**
+     * Максимальное количество текстов в одном батче.
+     */
+    @Builder.Default
+    private int maxInputs = 100;
+
+    /**
+     * Максимальное количество токенов в одном батче. {@code null} - без ограничения.
+     * <p>
+     * Токены оцениваются приблизительно, словарем cl100k_base (JTokkit), а не токенизатором GigaChat,
+     * поэтому ограничение стоит задавать с запасом.
+     */
+    private Integer maxTokens;
+
+    /**
+     * Максимальное количество одновременно отправляемых батчей.
+     */
+    @Builder.Default
+    private int parallelism = 4;
+}
@@ -4,11 +4,23 @@ import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.embedding.EmbeddingsModel;
 import chat.giga.springai.api.chat.embedding.EmbeddingsRequest;
 import chat.giga.springai.api.chat.embedding.EmbeddingsResponse;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.cache.EmbeddingCache;
+import chat.giga.springai.observation.GigaChatObservationDocumentation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
@@ -21,13 +33,26 @@ import org.springframework.ai.embedding.observation.DefaultEmbeddingModelObserva
 import org.springframework.ai.embedding.observation.EmbeddingModelObservationContext;
 import org.springframework.ai.embedding.observation.EmbeddingModelObservationConvention;
 import org.springframework.ai.embedding.observation.EmbeddingModelObservationDocumentation;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Embedding модель GigaChat.
+ * <p>
+ * Число попаданий и промахов кэша эмбеддингов публикуется в Micrometer после {@link #bindTo(MeterRegistry)}.
+ */
 @Slf4j
-public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
+public class GigaChatEmbeddingModel extends AbstractEmbeddingModel implements MeterBinder {
+    public static final String CACHE_GETS = "gigachat.embedding.cache.gets";
+
     private static final EmbeddingModelObservationConvention DEFAULT_OBSERVATION_CONVENTION =
             new DefaultEmbeddingModelObservationConvention();
 
@@ -38,18 +63,48 @@ public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
     private final GigaChatEmbeddingOptions defaultOptions;
     private final RetryTemplate retryTemplate;
     private final ObservationRegistry observationRegistry;
+    private final GigaChatEmbeddingBatchingProperties batchingProperties;
+    /**
+     * Создается при первом батче с ограничением {@link GigaChatEmbeddingBatchingProperties#getMaxTokens()}.
+     */
+    @Nullable
+    private volatile TokenCountEstimator tokenCountEstimator;
 
     private EmbeddingModelObservationConvention observationConvention;
 
+    @Nullable
+    private EmbeddingCache embeddingCache;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
     public GigaChatEmbeddingModel(
             GigaChatApi gigaChatApi,
             GigaChatEmbeddingOptions defaultOptions,
             RetryTemplate retryTemplate,
             ObservationRegistry observationRegistry) {
+        this(
+                gigaChatApi,
+                defaultOptions,
+                retryTemplate,
+                observationRegistry,
+                new GigaChatEmbeddingBatchingProperties());
+    }
+
+    public GigaChatEmbeddingModel(
+            GigaChatApi gigaChatApi,
+            GigaChatEmbeddingOptions defaultOptions,
+            RetryTemplate retryTemplate,
+            ObservationRegistry observationRegistry,
+            GigaChatEmbeddingBatchingProperties batchingProperties) {
+        Assert.notNull(batchingProperties, "batchingProperties must not be null");
+        Assert.isTrue(batchingProperties.getMaxInputs() > 0, "batching maxInputs must be positive");
+        Assert.isTrue(batchingProperties.getParallelism() > 0, "batching parallelism must be positive");
         this.gigaChatApi = gigaChatApi;
         this.defaultOptions = defaultOptions;
         this.retryTemplate = retryTemplate;
         this.observationRegistry = observationRegistry;
+        this.batchingProperties = batchingProperties;
     }
 
     @Override
@@ -58,7 +113,6 @@ public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
         String model = StringUtils.hasText(request.getOptions().getModel())
                 ? request.getOptions().getModel()
                 : defaultOptions.getModel();
-        EmbeddingsRequest embeddingsRequest = new EmbeddingsRequest(model, request.getInstructions());
 
         var observationContext = EmbeddingModelObservationContext.builder()
                 .embeddingRequest(request)
@@ -72,34 +126,89 @@ public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
                         () -> observationContext,
                         this.observationRegistry)
                 .observe(() -> {
-                    ResponseEntity<EmbeddingsResponse> embeddingsResponseResponseEntity =
-                            this.retryTemplate.execute(ctx -> gigaChatApi.embeddings(embeddingsRequest));
-
-                    Optional<EmbeddingsResponse> embeddingsResponseOptional = Optional.ofNullable(
-                                    embeddingsResponseResponseEntity)
-                            .map(ResponseEntity::getBody);
-
-                    if (embeddingsResponseOptional.isEmpty()
-                            || embeddingsResponseOptional
-                                    .map(EmbeddingsResponse::getData)
-                                    .orElseGet(List::of)
-                                    .isEmpty()) {
-                        log.warn("No embeddings returned for request: {}", request);
-                        return new EmbeddingResponse(List.of());
+                    List<String> instructions = request.getInstructions();
+                    List<String> cacheKeys = this.embeddingCache != null
+                            ? instructions.stream()
+                                    .map(text -> EmbeddingCache.key(model, text))
+                                    .toList()
+                            : List.of();
+
+                    List<Embedding> embeddings = new ArrayList<>();
+                    // индексы инструкций, для которых эмбеддинг не найден в кэше и должен быть посчитан в GigaChat
+                    List<Integer> missedIndices = new ArrayList<>();
+                    List<String> missedInstructions = new ArrayList<>();
+                    if (this.embeddingCache != null) {
+                        lookupCache(model, cacheKeys, embeddings, missedIndices);
+                        missedIndices.forEach(i -> missedInstructions.add(instructions.get(i)));
+                    } else {
+                        IntStream.range(0, instructions.size()).forEach(missedIndices::add);
+                        missedInstructions.addAll(instructions);
                     }
 
-                    EmbeddingsResponse apiEmbeddingResponse = embeddingsResponseOptional.get();
-                    EmbeddingsResponse.EmbeddingData embeddingData =
-                            apiEmbeddingResponse.getData().stream().findFirst().orElse(null);
+                    List<List<String>> batches =
+                            missedInstructions.isEmpty() ? List.of() : partition(missedInstructions);
+                    List<Optional<EmbeddingsResponse>> batchResponses = embedBatches(model, batches);
+
+                    String responseModel = null;
+                    int promptTokens = 0;
+                    int offset = 0;
+                    for (int i = 0; i < batches.size(); i++) {
+                        int batchSize = batches.get(i).size();
+                        List<EmbeddingsResponse.EmbeddingData> data = batchResponses
+                                .get(i)
+                                .map(EmbeddingsResponse::getData)
+                                .orElseGet(List::of);
+                        if (data.size() != batchSize) {
+                            throw new IllegalStateException("Embeddings batch at offset " + offset + " returned "
+                                    + data.size() + " embeddings for " + batchSize + " inputs");
+                        }
+                        boolean[] received = new boolean[batchSize];
+                        for (int j = 0; j < data.size(); j++) {
+                            EmbeddingsResponse.EmbeddingData embeddingData = data.get(j);
+                            Assert.notNull(embeddingData, "Embedding data must not be null");
+                            // индексы в ответе API считаются относительно батча,
+                            // переводим их в индексы исходного запроса
+                            int batchIndex = Objects.requireNonNullElse(embeddingData.getIndex(), j);
+                            if (batchIndex < 0 || batchIndex >= batchSize || received[batchIndex]) {
+                                throw new IllegalStateException("Embeddings batch at offset " + offset
+                                        + " returned unexpected index " + batchIndex + " for " + batchSize
+                                        + " inputs");
+                            }
+                            received[batchIndex] = true;
+                            int index = missedIndices.get(offset + batchIndex);
+                            embeddings.add(new Embedding(embeddingData.getEmbedding(), index));
+                            if (this.embeddingCache != null) {
+                                this.embeddingCache.put(cacheKeys.get(index), embeddingData.getEmbedding());
+                            }
+                            if (embeddingData.getUsage() != null
+                                    && embeddingData.getUsage().getPromptTokens() != null) {
+                                promptTokens += embeddingData.getUsage().getPromptTokens();
+                            }
+                        }
+                        if (responseModel == null) {
+                            responseModel = batchResponses
+                                    .get(i)
+                                    .map(EmbeddingsResponse::getModel)
+                                    .orElse(null);
+                        }
+                        offset += batches.get(i).size();
+                    }
+                    if (responseModel == null && batches.isEmpty()) {
+                        // все эмбеддинги взяты из кэша
+                        responseModel = model;
+                    }
 
-                    Assert.notNull(embeddingData, "Embedding data must not be null");
+                    if (embeddings.isEmpty()) {
+                        log.warn("No embeddings returned for request: {}", request);
+                        return new EmbeddingResponse(List.of());
+                    }
 
-                    var metadata =
-                            new EmbeddingResponseMetadata(apiEmbeddingResponse.getModel(), embeddingData.getUsage());
+                    embeddings.sort(Comparator.comparing(Embedding::getIndex));
 
-                    List<Embedding> embeddings = apiEmbeddingResponse.getData().stream()
-                            .map(e -> new Embedding(e.getEmbedding(), e.getIndex()))
-                            .toList();
+                    var usage = EmbeddingsResponse.GigaChatEmbeddingsUsage.builder()
+                            .promptTokens(promptTokens)
+                            .build();
+                    var metadata = new EmbeddingResponseMetadata(responseModel, usage);
 
                     EmbeddingResponse embeddingResponse = new EmbeddingResponse(embeddings, metadata);
 
@@ -109,6 +218,116 @@ public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
                 });
     }
 
+    /**
+     * Ищет эмбеддинги в кэше. Найденные значения добавляются в {@code embeddings},
+     * индексы ненайденных - в {@code missedIndices}.
+     */
+    private void lookupCache(
+            String model, List<String> cacheKeys, List<Embedding> embeddings, List<Integer> missedIndices) {
+        Observation observation = GigaChatObservationDocumentation.EMBEDDING_CACHE
+                .observation(this.observationRegistry)
+                .lowCardinalityKeyValue(
+                        GigaChatObservationDocumentation.LowCardinalityKeyNames.MODEL.asString(), model);
+        observation.observe(() -> {
+            for (int i = 0; i < cacheKeys.size(); i++) {
+                float[] cached = this.embeddingCache.get(cacheKeys.get(i));
+                if (cached != null) {
+                    embeddings.add(new Embedding(cached, i));
+                } else {
+                    missedIndices.add(i);
+                }
+            }
+            // счетчики обновляются один раз за вызов, а не на каждый текст
+            int hits = embeddings.size();
+            int misses = missedIndices.size();
+            this.cacheHits.addAndGet(hits);
+            this.cacheMisses.addAndGet(misses);
+            observation
+                    .highCardinalityKeyValue(
+                            GigaChatObservationDocumentation.HighCardinalityKeyNames.CACHE_HITS.asString(),
+                            String.valueOf(hits))
+                    .highCardinalityKeyValue(
+                            GigaChatObservationDocumentation.HighCardinalityKeyNames.CACHE_MISSES.asString(),
+                            String.valueOf(misses));
+            log.debug("Embedding cache: {} hits, {} misses", hits, misses);
+        });
+    }
+
+    /**
+     * Разбивает инструкции на батчи согласно {@link GigaChatEmbeddingBatchingProperties}.
+     * Если батчинг выключен, то все инструкции попадают в один батч.
+     */
+    private List<List<String>> partition(List<String> instructions) {
+        if (!this.batchingProperties.isEnabled()) {
+            return List.of(instructions);
+        }
+        Integer maxTokens = this.batchingProperties.getMaxTokens();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> currentBatch = new ArrayList<>();
+        int currentBatchTokens = 0;
+        for (String instruction : instructions) {
+            int tokens = maxTokens != null ? tokenCountEstimator().estimate(instruction) : 0;
+            if (!currentBatch.isEmpty()
+                    && (currentBatch.size() >= this.batchingProperties.getMaxInputs()
+                            || maxTokens != null && currentBatchTokens + tokens > maxTokens)) {
+                batches.add(currentBatch);
+                currentBatch = new ArrayList<>();
+                currentBatchTokens = 0;
+            }
+            currentBatch.add(instruction);
+            currentBatchTokens += tokens;
+        }
+        if (!currentBatch.isEmpty()) {
+            batches.add(currentBatch);
+        }
+        return batches;
+    }
+
+    /**
+     * Токенизатор GigaChat недоступен на клиенте, поэтому токены оцениваются по словарю cl100k_base (JTokkit).
+     * Оценка приблизительная.
+     */
+    private TokenCountEstimator tokenCountEstimator() {
+        TokenCountEstimator estimator = this.tokenCountEstimator;
+        if (estimator == null) {
+            // гонка безопасна: оценщик не хранит состояния, лишний экземпляр просто отбрасывается
+            estimator = new JTokkitTokenCountEstimator();
+            this.tokenCountEstimator = estimator;
+        }
+        return estimator;
+    }
+
+    /**
+     * Отправляет батчи в API, не более {@link GigaChatEmbeddingBatchingProperties#getParallelism()} одновременно.
+     * Порядок ответов совпадает с порядком батчей.
+     */
+    private List<Optional<EmbeddingsResponse>> embedBatches(String model, List<List<String>> batches) {
+        if (batches.isEmpty()) {
+            return List.of();
+        }
+        if (batches.size() == 1) {
+            return List.of(embedBatch(model, batches.get(0)));
+        }
+        log.debug("Embedding request is split into {} batches", batches.size());
+        // батчи уходят из других потоков, приоритет запросов переносим явно
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        return Flux.fromIterable(batches)
+                .flatMapSequential(
+                        batch -> Mono.fromCallable(() ->
+                                        GigaChatRateLimiter.withPriority(priority, () -> embedBatch(model, batch)))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        this.batchingProperties.getParallelism())
+                .collectList()
+                .block();
+    }
+
+    private Optional<EmbeddingsResponse> embedBatch(String model, List<String> batch) {
+        EmbeddingsRequest embeddingsRequest = new EmbeddingsRequest(model, batch);
+        ResponseEntity<EmbeddingsResponse> embeddingsResponseEntity =
+                this.retryTemplate.execute(ctx -> gigaChatApi.embeddings(embeddingsRequest));
+        return Optional.ofNullable(embeddingsResponseEntity).map(ResponseEntity::getBody);
+    }
+
     @Override
     public float[] embed(Document document) {
         Assert.notNull(document, "Document must not be null");
@@ -128,6 +347,28 @@ public class GigaChatEmbeddingModel extends AbstractEmbeddingModel {
         this.observationConvention = observationConvention;
     }
 
+    /**
+     * Use the provided cache to skip already embedded texts.
+     * Only cache misses are sent to GigaChat API.
+     *
+     * @param embeddingCache The embedding cache, {@code null} to disable caching
+     */
+    public void setEmbeddingCache(@Nullable EmbeddingCache embeddingCache) {
+        this.embeddingCache = embeddingCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(CACHE_GETS, cacheHits, AtomicLong::get)
+                .description("Number of GigaChat embedding cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(CACHE_GETS, cacheMisses, AtomicLong::get)
+                .description("Number of GigaChat embedding cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
     @Override
     public int dimensions() {
         String model = this.defaultOptions.getModel();
@@ -3,23 +3,38 @@ package chat.giga.springai;
 import static chat.giga.springai.api.chat.GigaChatApi.X_REQUEST_ID;
 
 import chat.giga.springai.api.GigaChatInternalProperties;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
 import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.completion.CompletionRequest;
 import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.file.GigaChatFileResource;
 import chat.giga.springai.api.chat.models.ModelDescription;
+import chat.giga.springai.api.latency.GigaChatLatencyMetrics;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.cache.FileIdCache;
 import chat.giga.springai.image.GigaChatImageExtractorUtil;
+import chat.giga.springai.observation.GigaChatObservationDocumentation;
 import chat.giga.springai.tool.definition.GigaToolDefinition;
+import chat.giga.springai.tool.execution.GigaChatToolLoopMetrics;
+import chat.giga.springai.tool.execution.ToolResponseCompactor;
+import io.micrometer.common.KeyValue;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -50,11 +65,12 @@ import org.springframework.ai.model.tool.ToolCallingChatOptions;
 import org.springframework.ai.model.tool.ToolCallingManager;
 import org.springframework.ai.model.tool.ToolExecutionEligibilityPredicate;
 import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.retry.NonTransientAiException;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.ai.support.UsageCalculator;
 import org.springframework.ai.tool.definition.ToolDefinition;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.retry.support.RetryTemplate;
@@ -62,7 +78,10 @@ import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 public class GigaChatModel implements ChatModel {
@@ -113,6 +132,24 @@ public class GigaChatModel implements ChatModel {
     @Setter
     private ChatModelObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
 
+    /**
+     * Кэш идентификаторов загруженных файлов, {@code null} - файлы загружаются при каждом запросе.
+     */
+    @Setter
+    @Nullable
+    private FileIdCache fileIdCache;
+
+    /**
+     * Сжатие результатов функций из предыдущих раундов перед повторной отправкой переписки в модель,
+     * {@code null} - результаты отправляются как есть. По умолчанию задается
+     * {@link GigaChatInternalProperties#getToolResponseMaxLength()}.
+     */
+    @Setter
+    @Nullable
+    private ToolResponseCompactor toolResponseCompactor;
+
+    private final GigaChatToolLoopMetrics toolLoopMetrics = new GigaChatToolLoopMetrics();
+
     public GigaChatModel(
             GigaChatApi gigaChatApi,
             GigaChatOptions defaultOptions,
@@ -135,77 +172,114 @@ public class GigaChatModel implements ChatModel {
         this.observationRegistry = observationRegistry;
         this.internalProperties = internalProperties;
         this.toolExecutionEligibilityPredicate = toolExecutionEligibilityPredicate;
+        if (internalProperties.getToolResponseMaxLength() > 0) {
+            this.toolResponseCompactor =
+                    ToolResponseCompactor.truncating(internalProperties.getToolResponseMaxLength());
+        }
     }
 
     @Override
     public ChatResponse call(Prompt prompt) {
-        // Before moving any further, build the final request Prompt,
-        // merging runtime and default options.
-        Prompt requestPrompt = buildRequestPrompt(prompt);
-        return this.internalCall(requestPrompt, null);
+        // загрузка файлов, запросы к модели и скачивание изображений идут от одной учетной записи:
+        // файлы GigaChat доступны только загрузившей их учетной записи
+        return GigaChatCredentialAffinity.withCredential(this.gigaChatApi.selectCredential(), () -> {
+            // Before moving any further, build the final request Prompt,
+            // merging runtime and default options.
+            Prompt requestPrompt = buildRequestPrompt(prompt);
+            return this.internalCall(requestPrompt, null);
+        });
     }
 
     public ChatResponse internalCall(Prompt prompt, ChatResponse previousChatResponse) {
-        CompletionRequest request = createRequest(prompt, false);
+        // раунды вызова функций выполняются в цикле, а не рекурсивно, чтобы глубина стека не зависела от их числа
+        ToolRound toolRound = new ToolRound(prompt, previousChatResponse, 0);
+        boolean filesReuploaded = false;
+        while (true) {
+            Prompt roundPrompt = toolRound.prompt();
+            ChatResponse roundPreviousChatResponse = toolRound.previousChatResponse();
+            CompletionRequest request = createRequest(roundPrompt, false);
+            int round = toolRound.round();
 
-        ChatModelObservationContext observationContext = ChatModelObservationContext.builder()
-                .prompt(prompt)
-                .provider(GigaChatApi.PROVIDER_NAME)
-                .build();
+            ChatModelObservationContext observationContext = ChatModelObservationContext.builder()
+                    .prompt(roundPrompt)
+                    .provider(GigaChatApi.PROVIDER_NAME)
+                    .build();
 
-        ChatResponse response = ChatModelObservationDocumentation.CHAT_MODEL_OPERATION
-                .observation(
-                        this.observationConvention,
-                        DEFAULT_OBSERVATION_CONVENTION,
-                        () -> observationContext,
-                        this.observationRegistry)
-                .observe(() -> {
-                    ResponseEntity<CompletionResponse> completionEntity = this.retryTemplate.execute(
-                            ctx -> this.gigaChatApi.chatCompletionEntity(request, buildHeaders(prompt.getOptions())));
+            Observation observation = ChatModelObservationDocumentation.CHAT_MODEL_OPERATION.observation(
+                    this.observationConvention,
+                    DEFAULT_OBSERVATION_CONVENTION,
+                    () -> observationContext,
+                    this.observationRegistry);
+
+            ChatResponse response;
+            try {
+                response = observation.observe(() -> {
+                    ResponseEntity<CompletionResponse> completionEntity =
+                            this.retryTemplate.execute(ctx -> withRequestSizeMetric(
+                                    request,
+                                    round,
+                                    () -> this.gigaChatApi.chatCompletionEntity(
+                                            request, buildHeaders(roundPrompt.getOptions()))));
 
                     CompletionResponse completionResponse = completionEntity.getBody();
 
                     if (completionResponse == null) {
-                        log.warn("No chat completion returned for prompt: {}", prompt);
+                        log.warn("No chat completion returned for prompt: {}", roundPrompt);
                         return new ChatResponse(List.of());
                     }
 
                     completionResponse.setId(completionEntity.getHeaders().getFirst(X_REQUEST_ID));
 
-                    Usage currentChatResponseUsage = buildUsage(completionResponse.getUsage());
                     Usage accumulatedUsage =
-                            UsageCalculator.getCumulativeUsage(currentChatResponseUsage, previousChatResponse);
+                            cumulativeUsage(completionResponse.getUsage(), roundPreviousChatResponse, false);
 
-                    ChatResponse chatResponse = toChatResponse(completionResponse, accumulatedUsage, false);
+                    ChatResponse chatResponse =
+                            toChatResponse(completionResponse, accumulatedUsage, false, observation);
                     observationContext.setResponse(chatResponse);
 
                     return chatResponse;
                 });
+            } catch (NonTransientAiException e) {
+                Prompt reuploadedPrompt = filesReuploaded ? null : reuploadUnknownFiles(roundPrompt, e);
+                if (reuploadedPrompt == null) {
+                    throw e;
+                }
+                // повторяется только отклоненный запрос раунда: функции предыдущих раундов заново не выполняются
+                filesReuploaded = true;
+                toolRound = toolRound.withPrompt(reuploadedPrompt);
+                continue;
+            }
 
-        if (this.toolExecutionEligibilityPredicate.isToolExecutionRequired(prompt.getOptions(), response)) {
-            var toolExecutionResult = this.toolCallingManager.executeToolCalls(prompt, response);
+            if (!this.toolExecutionEligibilityPredicate.isToolExecutionRequired(roundPrompt.getOptions(), response)) {
+                return buildChatResponseWithCustomMetadata(roundPrompt, response);
+            }
+
+            checkToolRounds(toolRound);
+            var toolExecutionResult = executeToolCalls(roundPrompt, response, observation);
             if (toolExecutionResult.returnDirect()) {
                 // Return tool execution result directly to the client.
                 return ChatResponse.builder()
                         .from(response)
                         .generations(ToolExecutionResult.buildGenerations(toolExecutionResult))
                         .build();
-            } else {
-                // Send the tool execution result back to the model.
-                return this.internalCall(
-                        new Prompt(toolExecutionResult.conversationHistory(), prompt.getOptions()), response);
             }
+            // Send the tool execution result back to the model.
+            toolRound = toolRound.next(toolExecutionResult, response);
         }
-
-        return buildChatResponseWithCustomMetadata(prompt, response);
     }
 
     @Override
     public Flux<ChatResponse> stream(Prompt prompt) {
+        String credentialId = this.gigaChatApi.selectCredential();
         // Before moving any further, build the final request Prompt,
         // merging runtime and default options.
-        Prompt requestPrompt = buildRequestPrompt(prompt);
-        Flux<ChatResponse> chatResponseFlux = this.internalStream(requestPrompt, null);
+        Prompt requestPrompt =
+                GigaChatCredentialAffinity.withCredential(credentialId, () -> buildRequestPrompt(prompt));
+        Flux<ChatResponse> chatResponseFlux = this.internalStream(requestPrompt, null)
+                // запросы к модели отправляются при подписке, учетная запись передается через контекст
+                .contextWrite(ctx -> credentialId != null
+                        ? ctx.put(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE, credentialId)
+                        : ctx);
         if (log.isDebugEnabled()) {
             chatResponseFlux = chatResponseFlux.log();
         }
@@ -213,7 +287,20 @@ public class GigaChatModel implements ChatModel {
     }
 
     public Flux<ChatResponse> internalStream(Prompt prompt, ChatResponse previousChatResponse) {
-        return Flux.deferContextual(contextView -> {
+        // следующий раунд вызова функций подписывается через expand, а не вложенным internalStream,
+        // поэтому фрагменты ответа не проходят через цепочку операторов всех предыдущих раундов
+        return streamToolRound(new ToolRound(prompt, previousChatResponse, 0))
+                .expand(step -> step.nextRound() != null ? streamToolRound(step.nextRound()) : Flux.empty())
+                .mapNotNull(StreamStep::chatResponse);
+    }
+
+    private Flux<StreamStep> streamToolRound(ToolRound toolRound) {
+        return streamToolRound(toolRound, false);
+    }
+
+    private Flux<StreamStep> streamToolRound(ToolRound toolRound, boolean filesReuploaded) {
+        Prompt prompt = toolRound.prompt();
+        Flux<StreamStep> steps = Flux.deferContextual(contextView -> {
             CompletionRequest request = createRequest(prompt, true);
 
             ChatModelObservationContext observationContext = ChatModelObservationContext.builder()
@@ -230,23 +317,30 @@ public class GigaChatModel implements ChatModel {
                     .parentObservation(contextView.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
                     .start();
 
-            Flux<CompletionResponse> response = this.retryTemplate.execute(
-                    ctx -> this.gigaChatApi.chatCompletionStream(request, buildHeaders(prompt.getOptions())));
+            // повторы потокового запроса выполняет GigaChatApi при подписке, а не RetryTemplate
+            Flux<CompletionResponse> response = GigaChatCredentialAffinity.withCredential(
+                    contextView.getOrDefault(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE, null),
+                    () -> withRequestSizeMetric(
+                            request,
+                            toolRound.round(),
+                            () -> this.gigaChatApi.chatCompletionStream(request, buildHeaders(prompt.getOptions()))));
 
+            AtomicReference<ToolRound> nextRound = new AtomicReference<>();
             Flux<ChatResponse> chatResponseFlux = response.switchMap(completionResponse -> {
                         if (completionResponse == null) {
                             log.warn("No chat completion returned for prompt: {}", prompt);
                             return Flux.just(new ChatResponse(List.of()));
                         }
-                        Usage currentChatResponseUsage = buildUsage(completionResponse.getUsage());
-                        Usage accumulatedUsage =
-                                UsageCalculator.getCumulativeUsage(currentChatResponseUsage, previousChatResponse);
+                        Usage accumulatedUsage = cumulativeUsage(
+                                completionResponse.getUsage(), toolRound.previousChatResponse(), true);
 
-                        ChatResponse chatResponse = toChatResponse(completionResponse, accumulatedUsage, true);
+                        ChatResponse chatResponse =
+                                toChatResponse(completionResponse, accumulatedUsage, true, observation);
 
                         if (this.toolExecutionEligibilityPredicate.isToolExecutionRequired(
                                 prompt.getOptions(), chatResponse)) {
-                            var toolExecutionResult = this.toolCallingManager.executeToolCalls(prompt, chatResponse);
+                            checkToolRounds(toolRound);
+                            var toolExecutionResult = executeToolCalls(prompt, chatResponse, observation);
                             if (toolExecutionResult.returnDirect()) {
                                 // Return tool execution result directly to the client.
                                 return Flux.just(ChatResponse.builder()
@@ -255,9 +349,8 @@ public class GigaChatModel implements ChatModel {
                                         .build());
                             } else {
                                 // Send the tool execution result back to the model.
-                                return this.internalStream(
-                                        new Prompt(toolExecutionResult.conversationHistory(), prompt.getOptions()),
-                                        chatResponse);
+                                nextRound.set(toolRound.next(toolExecutionResult, chatResponse));
+                                return Flux.empty();
                             }
                         }
 
@@ -267,8 +360,23 @@ public class GigaChatModel implements ChatModel {
                     .doFinally(s -> observation.stop())
                     .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
 
-            return new MessageAggregator().aggregate(chatResponseFlux, observationContext::setResponse);
+            return new MessageAggregator()
+                    .aggregate(chatResponseFlux, observationContext::setResponse)
+                    .map(StreamStep::of)
+                    .concatWith(Mono.fromSupplier(nextRound::get).map(StreamStep::next));
         });
+        if (filesReuploaded) {
+            return steps;
+        }
+        // повторяется только отклоненный запрос раунда: функции предыдущих раундов заново не выполняются
+        return steps.onErrorResume(e -> Flux.deferContextual(contextView -> {
+            Prompt reuploadedPrompt = GigaChatCredentialAffinity.withCredential(
+                    contextView.getOrDefault(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE, null),
+                    () -> reuploadUnknownFiles(prompt, e));
+            return reuploadedPrompt != null
+                    ? streamToolRound(toolRound.withPrompt(reuploadedPrompt), true)
+                    : Flux.error(e);
+        }));
     }
 
     @SuppressWarnings("DataFlowIssue")
@@ -315,12 +423,13 @@ public class GigaChatModel implements ChatModel {
         ToolCallingChatOptions.validateToolCallbacks(requestOptions.getToolCallbacks());
 
         // Uploads media and sets an id to media
-        List<Message> messagesWithUploadedMediaIds = uploadMedia(prompt.getInstructions());
+        List<Message> messagesWithUploadedMediaIds = uploadMedia(prompt.getInstructions(), requestOptions.getModel());
 
         return new Prompt(messagesWithUploadedMediaIds, requestOptions);
     }
 
     private CompletionRequest createRequest(Prompt prompt, boolean stream) {
+        Message lastMessage = CollectionUtils.lastElement(prompt.getInstructions());
         List<CompletionRequest.Message> messages = prompt.getInstructions().stream()
                 .map(message -> {
                     if (message instanceof UserMessage userMessage) {
@@ -360,8 +469,11 @@ public class GigaChatModel implements ChatModel {
                         }
                         return List.of(messageBuilder.build());
                     } else if (message instanceof ToolResponseMessage toolResponseMessage) {
+                        // результаты функций из предыдущих раундов сжимаются, последний отправляется как есть
+                        ToolResponseCompactor compactor = message != lastMessage ? this.toolResponseCompactor : null;
                         // по идее для гигачата тут всегда должен быть только один результат вызова функции
                         return toolResponseMessage.getResponses().stream()
+                                .map(toolResponse -> compactor != null ? compactor.compact(toolResponse) : toolResponse)
                                 .map(toolResponse -> CompletionRequest.Message.builder()
                                         .role(CompletionRequest.Role.function)
                                         .content(toolResponse.responseData())
@@ -394,16 +506,114 @@ public class GigaChatModel implements ChatModel {
         return request;
     }
 
+    /**
+     * Метрики цикла вызова функций, публикуются после {@link GigaChatToolLoopMetrics#bindTo}.
+     */
+    public GigaChatToolLoopMetrics getToolLoopMetrics() {
+        return this.toolLoopMetrics;
+    }
+
+    private void checkToolRounds(ToolRound toolRound) {
+        int maxToolRounds = this.internalProperties.getMaxToolRounds();
+        if (maxToolRounds > 0 && toolRound.round() >= maxToolRounds) {
+            throw new IllegalStateException("Exceeded the maximum number of tool rounds: " + maxToolRounds);
+        }
+    }
+
+    /**
+     * Вызывает GigaChatApi так, что размер отправленного тела запроса записывается в {@link GigaChatToolLoopMetrics}.
+     * Размер измеряет HTTP-клиент, поэтому запрос не сериализуется повторно.
+     */
+    private <T> T withRequestSizeMetric(CompletionRequest request, int round, Supplier<T> action) {
+        if (!this.toolLoopMetrics.isEnabled()) {
+            return action.get();
+        }
+        return GigaChatLatencyMetrics.withRequestSizeListener(
+                bytes -> this.toolLoopMetrics.recordRequestSize(request.getModel(), round, bytes), action);
+    }
+
+    /**
+     * Выполняет вызовы функций из ответа модели под наблюдением {@link GigaChatObservationDocumentation#TOOL_EXECUTION},
+     * дочерним к наблюдению запроса к модели.
+     */
+    private ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse response, Observation chatObservation) {
+        ChatResponseMetadata metadata = response.getMetadata();
+        Observation observation = GigaChatObservationDocumentation.TOOL_EXECUTION
+                .observation(this.observationRegistry)
+                .parentObservation(chatObservation)
+                .lowCardinalityKeyValue(GigaChatObservationDocumentation.LowCardinalityKeyNames.MODEL.withValue(
+                        StringUtils.hasText(metadata.getModel()) ? metadata.getModel() : KeyValue.NONE_VALUE));
+        if (StringUtils.hasText(metadata.getId())) {
+            observation.highCardinalityKeyValue(
+                    GigaChatObservationDocumentation.HighCardinalityKeyNames.REQUEST_ID.withValue(metadata.getId()));
+        }
+        return observation.observe(() -> this.toolCallingManager.executeToolCalls(prompt, response));
+    }
+
     /**
      * Загружает медиа файлы, если они переданы в UserMessage, и проставляет к ним id.
+     * <p>
+     * Файлы всех сообщений загружаются параллельно, не более
+     * {@link GigaChatInternalProperties#getMediaUploadParallelism()} одновременно.
+     * Файлы с одинаковым содержимым и типом загружаются один раз, а если задан {@link FileIdCache} -
+     * берутся из кэша без загрузки.
      * @param messages - исходные сообщения
      * @return - обновленные сообщения с проставленными id для media
      */
-    private List<Message> uploadMedia(List<Message> messages) {
+    private List<Message> uploadMedia(List<Message> messages, @Nullable String model) {
+        Map<Object, Media> mediaToUpload = new LinkedHashMap<>();
+        int duplicates = 0;
+        for (Message message : messages) {
+            if (message instanceof UserMessage userMessage && !CollectionUtils.isEmpty(userMessage.getMedia())) {
+                for (Media media : userMessage.getMedia()) {
+                    // если id указан - значит файл уже загружен
+                    if (media.getId() == null && mediaToUpload.putIfAbsent(uploadKey(media), media) != null) {
+                        duplicates++;
+                    }
+                }
+            }
+        }
+        if (mediaToUpload.isEmpty()) {
+            return messages;
+        }
+
+        String credentialId = GigaChatCredentialAffinity.currentCredential();
+        Observation observation = GigaChatObservationDocumentation.MEDIA_UPLOAD
+                .observation(this.observationRegistry)
+                .lowCardinalityKeyValue(GigaChatObservationDocumentation.LowCardinalityKeyNames.MODEL.withValue(
+                        model != null ? model : KeyValue.NONE_VALUE));
+        int deduplicated = duplicates;
+        Map<Object, String> uploadedIds = observation.observe(() -> {
+            for (int i = 0; i < deduplicated; i++) {
+                observation.event(GigaChatObservationDocumentation.MediaUploadEvents.DEDUPLICATED);
+            }
+            Map<Object, String> ids = new HashMap<>();
+            if (this.fileIdCache != null) {
+                for (var iterator = mediaToUpload.entrySet().iterator(); iterator.hasNext(); ) {
+                    var entry = iterator.next();
+                    String cachedId = entry.getValue().getData() instanceof byte[] bytes
+                            ? this.fileIdCache.get(
+                                    FileIdCache.key(credentialId, entry.getValue().getMimeType(), bytes))
+                            : null;
+                    if (cachedId != null) {
+                        ids.put(entry.getKey(), cachedId);
+                        iterator.remove();
+                        observation.event(GigaChatObservationDocumentation.MediaUploadEvents.CACHED);
+                    }
+                }
+            }
+            Map<Object, String> uploaded = uploadAll(mediaToUpload, credentialId);
+            for (int i = 0; i < uploaded.size(); i++) {
+                observation.event(GigaChatObservationDocumentation.MediaUploadEvents.UPLOADED);
+            }
+            ids.putAll(uploaded);
+            return ids;
+        });
+
         return messages.stream()
                 .map(message -> {
                     if (message instanceof UserMessage userMessage) {
-                        return buildUserMessageWithUploadedMedia(userMessage);
+                        return buildUserMessageWithUploadedMedia(userMessage, uploadedIds);
                     } else {
                         return message;
                     }
@@ -411,14 +621,53 @@ public class GigaChatModel implements ChatModel {
                 .toList();
     }
 
-    private UserMessage buildUserMessageWithUploadedMedia(UserMessage userMessage) {
+    private Map<Object, String> uploadAll(Map<Object, Media> mediaToUpload, @Nullable String credentialId) {
+        if (mediaToUpload.isEmpty()) {
+            return Map.of();
+        }
+        int parallelism = this.internalProperties.getMediaUploadParallelism();
+        if (mediaToUpload.size() == 1 || parallelism <= 1) {
+            Map<Object, String> ids = new HashMap<>();
+            mediaToUpload.forEach((key, media) -> ids.put(key, uploadFile(media, credentialId)));
+            return ids;
+        }
+        log.debug("Uploading {} media files, {} in parallel", mediaToUpload.size(), parallelism);
+        // загрузки уходят из других потоков, приоритет запросов и учетную запись переносим явно
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        return Flux.fromIterable(mediaToUpload.entrySet())
+                .flatMap(
+                        entry -> Mono.fromCallable(() -> Map.entry(
+                                        entry.getKey(),
+                                        GigaChatCredentialAffinity.withCredential(
+                                                credentialId,
+                                                () -> GigaChatRateLimiter.withPriority(
+                                                        priority, () -> uploadFile(entry.getValue(), credentialId)))))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        parallelism)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    /**
+     * Ключ для поиска одинаковых файлов: содержимое и тип для байтов, иначе сам объект media.
+     */
+    private static Object uploadKey(Media media) {
+        if (media.getData() instanceof byte[] bytes) {
+            return List.of(media.getMimeType(), ByteBuffer.wrap(bytes));
+        }
+        return media;
+    }
+
+    private UserMessage buildUserMessageWithUploadedMedia(UserMessage userMessage, Map<Object, String> uploadedIds) {
         List<Media> mediaList = userMessage.getMedia();
 
         // Если нет медиа, то ничего не меняем
         if (CollectionUtils.isEmpty(mediaList)) {
             return userMessage;
         }
-        var mediaWithIds = mediaList.stream().map(this::uploadMediaAndSetId).toList();
+        var mediaWithIds = mediaList.stream()
+                .map(media -> media.getId() != null ? media : withId(media, uploadedIds.get(uploadKey(media))))
+                .toList();
         return UserMessage.builder()
                 .text(userMessage.getText())
                 .metadata(userMessage.getMetadata())
@@ -426,15 +675,77 @@ public class GigaChatModel implements ChatModel {
                 .build();
     }
 
-    // Загрузка файла в GigaChat, если у media нет id.
-    private Media uploadMediaAndSetId(Media media) {
-        // если id указан - значит файл уже загружен и можно возвращать media как есть
-        if (media.getId() != null) {
-            return media;
+    // Загрузка файла в GigaChat
+    private String uploadFile(Media media, @Nullable String credentialId) {
+        String fileId = gigaChatApi.uploadFile(media).getBody().id().toString();
+        if (this.fileIdCache != null && media.getData() instanceof byte[] bytes) {
+            this.fileIdCache.put(FileIdCache.key(credentialId, media.getMimeType(), bytes), fileId);
         }
-        // иначе загружаем файл и получаем его id
-        String mediaId = gigaChatApi.uploadFile(media).getBody().id().toString();
+        return fileId;
+    }
 
+    /**
+     * Если GigaChat ответил, что не знает файл, удаляет из кэша идентификаторы файлов промпта
+     * и загружает эти файлы заново.
+     *
+     * @return промпт с новыми идентификаторами файлов или null, если повторять запрос не имеет смысла
+     */
+    @Nullable
+    private Prompt reuploadUnknownFiles(Prompt prompt, Throwable error) {
+        if (this.fileIdCache == null || !isUnknownFileError(error)) {
+            return null;
+        }
+        String credentialId = GigaChatCredentialAffinity.currentCredential();
+        Set<String> evictedIds = new HashSet<>();
+        for (Message message : prompt.getInstructions()) {
+            if (message instanceof UserMessage userMessage && !CollectionUtils.isEmpty(userMessage.getMedia())) {
+                for (Media media : userMessage.getMedia()) {
+                    if (media.getId() != null && media.getData() instanceof byte[] bytes) {
+                        String key = FileIdCache.key(credentialId, media.getMimeType(), bytes);
+                        if (media.getId().equals(this.fileIdCache.get(key))) {
+                            this.fileIdCache.evict(key);
+                            evictedIds.add(media.getId());
+                        }
+                    }
+                }
+            }
+        }
+        if (evictedIds.isEmpty()) {
+            return null;
+        }
+        log.warn("GigaChat rejected cached file ids, uploading files again: {}", error.getMessage());
+        List<Message> messages = prompt.getInstructions().stream()
+                .map(message -> message instanceof UserMessage userMessage
+                        ? withoutMediaIds(userMessage, evictedIds)
+                        : message)
+                .toList();
+        return new Prompt(uploadMedia(messages, prompt.getOptions().getModel()), prompt.getOptions());
+    }
+
+    private static Message withoutMediaIds(UserMessage userMessage, Set<String> mediaIds) {
+        if (CollectionUtils.isEmpty(userMessage.getMedia())) {
+            return userMessage;
+        }
+        return UserMessage.builder()
+                .text(userMessage.getText())
+                .metadata(userMessage.getMetadata())
+                .media(userMessage.getMedia().stream()
+                        .map(media -> mediaIds.contains(media.getId()) ? withId(media, null) : media)
+                        .toList())
+                .build();
+    }
+
+    /**
+     * GigaChat отвечает на запрос с неизвестным идентификатором файла статусом 404.
+     */
+    private static boolean isUnknownFileError(Throwable error) {
+        // RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER и GigaChatApi.toAiException начинают сообщение с кода статуса
+        return error instanceof NonTransientAiException
+                && error.getMessage() != null
+                && error.getMessage().startsWith(HttpStatus.NOT_FOUND.value() + " - ");
+    }
+
+    private static Media withId(Media media, @Nullable String mediaId) {
         return Media.builder()
                 .id(mediaId)
                 .name(media.getName())
@@ -495,14 +806,19 @@ public class GigaChatModel implements ChatModel {
                 .toList();
     }
 
-    private ChatResponse toChatResponse(CompletionResponse completionResponse, Usage usage, boolean streaming) {
+    /**
+     * @param observation наблюдение запроса к модели, родительское для скачивания изображений из ответа
+     */
+    private ChatResponse toChatResponse(
+            CompletionResponse completionResponse, Usage usage, boolean streaming, Observation observation) {
         List<Generation> generations = completionResponse.getChoices().stream()
-                .map(choice -> buildGeneration(completionResponse.getId(), choice, streaming))
+                .map(choice -> buildGeneration(completionResponse.getId(), choice, streaming, observation))
                 .toList();
         return new ChatResponse(generations, from(completionResponse, usage));
     }
 
-    private Generation buildGeneration(String id, CompletionResponse.Choice choice, boolean streaming) {
+    private Generation buildGeneration(
+            String id, CompletionResponse.Choice choice, boolean streaming, Observation observation) {
         CompletionResponse.MessagesRes message = streaming ? choice.getDelta() : choice.getMessage();
         String finishReason = choice.getFinishReason() != null ? choice.getFinishReason() : "";
         String functionsStateId = message.getFunctionsStateId();
@@ -526,7 +842,8 @@ public class GigaChatModel implements ChatModel {
             toolCalls = List.of();
         }
 
-        List<Media> medias = streaming ? List.of() : extractImageMediaFromTextContent(message.getContent());
+        List<Media> medias =
+                streaming ? List.of() : extractImageMediaFromTextContent(message.getContent(), observation);
 
         var assistantMessage = AssistantMessage.builder()
                 .content(message.getContent())
@@ -546,31 +863,77 @@ public class GigaChatModel implements ChatModel {
         return new Generation(assistantMessage, generationMetadata);
     }
 
-    private List<Media> extractImageMediaFromTextContent(String content) {
-        List<Media> media = new ArrayList<>();
+    private List<Media> extractImageMediaFromTextContent(String content, Observation observation) {
+        if (content == null) {
+            return List.of();
+        }
+        List<String> fileIds = GigaChatImageExtractorUtil.extract(content);
+        if (fileIds.isEmpty()) {
+            return List.of();
+        }
+        var imageFetchPolicy = Objects.requireNonNullElse(
+                this.internalProperties.getImageFetchPolicy(), GigaChatInternalProperties.ImageFetchPolicy.EAGER);
+        return switch (imageFetchPolicy) {
+            case IDS_ONLY ->
+                fileIds.stream()
+                        .map(fileId -> imageMedia(fileId, gigaChatApi.getFileUrl(fileId)))
+                        .toList();
+            // cast к Object, иначе Media.Builder сразу прочитает ресурс в массив байт
+            case LAZY ->
+                fileIds.stream()
+                        .map(fileId -> imageMedia(
+                                fileId,
+                                (Object) new GigaChatFileResource(
+                                        gigaChatApi, fileId, GigaChatCredentialAffinity.currentCredential())))
+                        .toList();
+            case EAGER -> downloadImages(fileIds, observation);
+        };
+    }
 
-        if (content != null) {
-            for (String fileId : GigaChatImageExtractorUtil.extract(content)) {
-                byte[] imageBytes = gigaChatApi.downloadFile(fileId);
+    private List<Media> downloadImages(List<String> fileIds, Observation parent) {
+        int parallelism = this.internalProperties.getImageDownloadParallelism();
+        if (fileIds.size() == 1 || parallelism <= 1) {
+            return fileIds.stream().map(fileId -> downloadImage(fileId, parent)).toList();
+        }
+        // скачивания уходят из других потоков, приоритет запросов и учетную запись переносим явно:
+        // изображения доступны только учетной записи, от которой шел запрос к модели
+        String credentialId = GigaChatCredentialAffinity.currentCredential();
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        return Flux.fromIterable(fileIds)
+                .flatMapSequential(
+                        fileId -> Mono.fromCallable(() -> GigaChatCredentialAffinity.withCredential(
+                                        credentialId,
+                                        () -> GigaChatRateLimiter.withPriority(
+                                                priority, () -> downloadImage(fileId, parent))))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        parallelism)
+                .collectList()
+                .block();
+    }
 
-                if (imageBytes == null) {
-                    throw new IllegalStateException("Failed to download image for fileId: " + fileId);
-                }
+    private Media downloadImage(String fileId, Observation parent) {
+        byte[] imageBytes = GigaChatObservationDocumentation.MEDIA_DOWNLOAD
+                .observation(this.observationRegistry)
+                .parentObservation(parent)
+                .observe(() -> gigaChatApi.downloadFile(fileId));
 
-                media.add(Media.builder()
-                        .id(fileId)
-                        .mimeType(GIGA_CHAT_IMAGE_MIME_TYPE)
-                        .data(new ByteArrayResource(imageBytes))
-                        .build());
-            }
+        if (imageBytes == null) {
+            throw new IllegalStateException("Failed to download image for fileId: " + fileId);
         }
 
-        return media;
+        return imageMedia(fileId, imageBytes);
+    }
+
+    private static Media imageMedia(String fileId, Object data) {
+        return Media.builder()
+                .id(fileId)
+                .mimeType(GIGA_CHAT_IMAGE_MIME_TYPE)
+                .data(data)
+                .build();
     }
 
     private ChatResponse buildChatResponseWithCustomMetadata(Prompt prompt, ChatResponse originalResponse) {
-        // т.к. этот метод вызывается при обратном проходе из рекурсии internalCall/internalStream,
-        // то нужно заполнять метаданные только один раз при первом вызове
+        // метаданные заполняются только один раз, даже если ответ проходит через этот метод повторно
         if (originalResponse.getMetadata().containsKey(INTERNAL_CONVERSATION_HISTORY)) {
             return originalResponse;
         }
@@ -655,6 +1018,38 @@ public class GigaChatModel implements ChatModel {
         return new DefaultUsage(usage.getPromptTokens(), usage.getCompletionTokens(), usage.getTotalTokens(), usage);
     }
 
+    /**
+     * Расход токенов раунда вместе с предыдущими раундами вызова функций.
+     * <p>
+     * В отличие от {@link UsageCalculator#getCumulativeUsage}, сумма остается {@link CompletionResponse.Usage}
+     * в {@link Usage#getNativeUsage()}, поэтому {@code precached_prompt_tokens} тоже суммируются по раундам.
+     * Фрагменты потока без usage не получают usage предыдущих раундов, иначе он учитывался бы для каждого фрагмента.
+     */
+    private Usage cumulativeUsage(
+            @Nullable CompletionResponse.Usage usage, @Nullable ChatResponse previousChatResponse, boolean streaming) {
+        Usage previousUsage = previousChatResponse != null && previousChatResponse.getMetadata() != null
+                ? previousChatResponse.getMetadata().getUsage()
+                : null;
+        if (usage == null) {
+            return streaming || previousUsage == null ? new EmptyUsage() : previousUsage;
+        }
+        if (UsageCalculator.isEmpty(previousUsage)) {
+            return getDefaultUsage(usage);
+        }
+        if (!(previousUsage.getNativeUsage() instanceof CompletionResponse.Usage previous)) {
+            return UsageCalculator.getCumulativeUsage(getDefaultUsage(usage), previousChatResponse);
+        }
+        return getDefaultUsage(new CompletionResponse.Usage(
+                sum(usage.getPromptTokens(), previous.getPromptTokens()),
+                sum(usage.getCompletionTokens(), previous.getCompletionTokens()),
+                sum(usage.getTotalTokens(), previous.getTotalTokens()),
+                sum(usage.getPrecachedPromptTokens(), previous.getPrecachedPromptTokens())));
+    }
+
+    private static int sum(@Nullable Integer first, @Nullable Integer second) {
+        return (first != null ? first : 0) + (second != null ? second : 0);
+    }
+
     // Ставит сообщение с системным промптом на первое место в списке сообщений (Из-за требований GigaChat API)
     // удалить когда исправят на стороне GigaChat
     private void makeSystemPromptMessageFirst(List<CompletionRequest.Message> messages) {
@@ -694,6 +1089,39 @@ public class GigaChatModel implements ChatModel {
         return new GigaChatModel.Builder();
     }
 
+    /**
+     * Раунд цикла вызова функций: промпт для запроса к модели, предыдущий ответ для подсчета usage
+     * и число уже выполненных раундов вызова функций.
+     */
+    private record ToolRound(Prompt prompt, @Nullable ChatResponse previousChatResponse, int round) {
+
+        ToolRound withPrompt(Prompt prompt) {
+            return new ToolRound(prompt, previousChatResponse, round);
+        }
+
+        ToolRound next(ToolExecutionResult toolExecutionResult, ChatResponse chatResponse) {
+            return new ToolRound(
+                    new Prompt(toolExecutionResult.conversationHistory(), prompt.getOptions()),
+                    chatResponse,
+                    round + 1);
+        }
+    }
+
+    /**
+     * Элемент потока раунда: фрагмент ответа для клиента или следующий раунд вызова функций.
+     */
+    private record StreamStep(
+            @Nullable ChatResponse chatResponse, @Nullable ToolRound nextRound) {
+
+        static StreamStep of(ChatResponse chatResponse) {
+            return new StreamStep(chatResponse, null);
+        }
+
+        static StreamStep next(ToolRound nextRound) {
+            return new StreamStep(null, nextRound);
+        }
+    }
+
     public static class Builder {
 
         private GigaChatApi gigaChatApi;
@@ -0,0 +1,189 @@
+package chat.giga.springai.advisor;
+
+import chat.giga.springai.advisor.cache.CachedResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+/**
+ * Общая часть advisor'ов кеша ответов GigaChat: отбор кешируемых запросов, счетчики попаданий и промахов,
+ * нарезка ответа из кеша для {@code stream} и сохранение ответа после успешного завершения потока.
+ * <p>
+ * Ответы с {@code finish_reason = error} не кешируются.
+ *
+ * @see GigaChatResponseCacheAdvisor
+ * @see GigaChatSemanticCacheAdvisor
+ */
+public abstract class AbstractGigaChatCacheAdvisor implements CallAdvisor, StreamAdvisor, MeterBinder {
+    public static final int DEFAULT_STREAM_CHUNK_SIZE = 32;
+
+    private static final String ERROR_FINISH_REASON = "error";
+
+    private final Predicate<ChatClientRequest> cacheable;
+    private final int streamChunkSize;
+    private final int order;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    protected AbstractGigaChatCacheAdvisor(CacheAdvisorBuilder<?> builder) {
+        Assert.notNull(builder.cacheable, "cacheable must not be null");
+        Assert.isTrue(builder.streamChunkSize > 0, "streamChunkSize must be positive");
+        this.cacheable = builder.cacheable;
+        this.streamChunkSize = builder.streamChunkSize;
+        this.order = builder.order;
+    }
+
+    /**
+     * Доля попаданий в кеш среди кешируемых запросов.
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    protected boolean isCacheable(ChatClientRequest chatClientRequest) {
+        return cacheable.test(chatClientRequest);
+    }
+
+    protected void recordLookup(boolean hit) {
+        (hit ? hits : misses).incrementAndGet();
+    }
+
+    /**
+     * Регистрирует счетчики попаданий и промахов с тегом {@code result} = {@code hit}/{@code miss}.
+     */
+    protected void bindGets(MeterRegistry registry, String name, String description) {
+        FunctionCounter.builder(name, hits, AtomicLong::get)
+                .description(description)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(name, misses, AtomicLong::get)
+                .description(description)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    /**
+     * Ответ из кеша, нарезанный на фрагменты потока.
+     *
+     * @param context ключи, добавляемые в контекст каждого фрагмента
+     */
+    protected Flux<ChatClientResponse> cachedStream(
+            ChatClientRequest request, CachedResponse cached, Map<String, Object> context) {
+        return Flux.fromIterable(cached.toChunks(streamChunkSize))
+                .map(chunk -> cachedResponse(request, chunk, context));
+    }
+
+    /**
+     * Поток GigaChat, ответ которого после успешного завершения собирается из фрагментов и, если его можно
+     * кешировать, передается в {@code store}.
+     */
+    protected static Flux<ChatClientResponse> storeOnComplete(
+            Flux<ChatClientResponse> responses, Consumer<CachedResponse> store) {
+        return Flux.defer(() -> {
+            List<ChatResponse> chunks = new ArrayList<>();
+            return responses
+                    .doOnNext(response -> {
+                        if (response.chatResponse() != null) {
+                            chunks.add(response.chatResponse());
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!chunks.isEmpty()) {
+                            CachedResponse response = CachedResponse.aggregate(chunks);
+                            if (isCacheable(response.toChatResponse())) {
+                                store.accept(response);
+                            }
+                        }
+                    });
+        });
+    }
+
+    protected static ChatClientResponse cachedResponse(
+            ChatClientRequest request, ChatResponse chatResponse, Map<String, Object> context) {
+        Map<String, Object> responseContext = new HashMap<>(request.context());
+        responseContext.putAll(context);
+        return ChatClientResponse.builder()
+                .chatResponse(chatResponse)
+                .context(responseContext)
+                .build();
+    }
+
+    protected static boolean isCacheable(ChatResponse chatResponse) {
+        return chatResponse != null
+                && !chatResponse.getResults().isEmpty()
+                && chatResponse.getResults().stream()
+                        .map(Generation::getMetadata)
+                        .noneMatch(metadata -> ERROR_FINISH_REASON.equals(metadata.getFinishReason()));
+    }
+
+    public abstract static class CacheAdvisorBuilder<B extends CacheAdvisorBuilder<B>> {
+        private Predicate<ChatClientRequest> cacheable = request -> true;
+        private int streamChunkSize = DEFAULT_STREAM_CHUNK_SIZE;
+        private int order;
+
+        protected CacheAdvisorBuilder(int order) {
+            this.order = order;
+        }
+
+        /**
+         * Какие запросы кешировать, по умолчанию - все.
+         */
+        public B cacheable(Predicate<ChatClientRequest> cacheable) {
+            this.cacheable = cacheable;
+            return self();
+        }
+
+        /**
+         * Размер фрагментов (в символах), на которые нарезается ответ из кеша для {@code stream}.
+         */
+        public B streamChunkSize(int streamChunkSize) {
+            this.streamChunkSize = streamChunkSize;
+            return self();
+        }
+
+        public B order(int order) {
+            this.order = order;
+            return self();
+        }
+
+        @SuppressWarnings("unchecked")
+        private B self() {
+            return (B) this;
+        }
+    }
+}
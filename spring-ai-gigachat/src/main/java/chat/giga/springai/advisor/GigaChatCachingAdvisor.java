@@ -1,38 +1,119 @@
 package chat.giga.springai.advisor;
 
 import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.advisor.cache.ResponseCacheKey;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
 import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 
 /**
  * Advisor, который перекладывает sessionId из контекста в запрос.
+ * <p>
+ * В режиме {@link Builder#autoSessionId(boolean)} sessionId, если его нет в контексте, вычисляется из переписки
+ * (см. {@link #deriveSessionId(ChatClientRequest)}), чтобы запросы одного диалога попадали в кеш контекста
+ * на стороне GigaChat. По {@code precached_prompt_tokens} из ответов считается доля закешированных токенов
+ * для каждой сессии, она доступна через {@link #getSessionStats(String)} и в контексте ответа
+ * {@link #SESSION_CACHE_HIT_RATIO}.
  */
-public class GigaChatCachingAdvisor implements CallAdvisor, StreamAdvisor {
+public class GigaChatCachingAdvisor implements CallAdvisor, StreamAdvisor, MeterBinder {
     public static final String X_SESSION_ID = "X-Session-ID";
 
+    /**
+     * Ключ контекста {@link ChatClientResponse} с долей закешированных входных токенов за всю сессию.
+     */
+    public static final String SESSION_CACHE_HIT_RATIO = "gigachat_session_cache_hit_ratio";
+
+    public static final String PROMPT_TOKENS = "gigachat.session.prompt.tokens";
+
+    public static final int DEFAULT_MAX_TRACKED_SESSIONS = 10_000;
+
+    private final boolean autoSessionId;
+    private final Function<ChatClientRequest, String> sessionIdResolver;
+    private final Map<String, SessionStats> sessions;
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cachedTokens = new AtomicLong();
+
+    public GigaChatCachingAdvisor() {
+        this(false, GigaChatCachingAdvisor::deriveSessionId, DEFAULT_MAX_TRACKED_SESSIONS);
+    }
+
+    private GigaChatCachingAdvisor(
+            boolean autoSessionId, Function<ChatClientRequest, String> sessionIdResolver, int maxTrackedSessions) {
+        this.autoSessionId = autoSessionId;
+        this.sessionIdResolver = sessionIdResolver;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SessionStats> eldest) {
+                return size() > maxTrackedSessions;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
     @Override
     public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
-        fillOptions(chatClientRequest);
+        String sessionId = fillOptions(chatClientRequest);
 
-        return callAdvisorChain.nextCall(chatClientRequest);
+        ChatClientResponse response = callAdvisorChain.nextCall(chatClientRequest);
+        return sessionId != null ? trackUsage(sessionId, response) : response;
     }
 
     @Override
     public Flux<ChatClientResponse> adviseStream(
             ChatClientRequest chatClientRequest, StreamAdvisorChain streamAdvisorChain) {
-        fillOptions(chatClientRequest);
+        String sessionId = fillOptions(chatClientRequest);
+
+        Flux<ChatClientResponse> stream = streamAdvisorChain.nextStream(chatClientRequest);
+        return sessionId != null ? stream.map(response -> trackUsage(sessionId, response)) : stream;
+    }
 
-        return streamAdvisorChain.nextStream(chatClientRequest);
+    /**
+     * Статистика кеша контекста для сессии.
+     *
+     * @return статистика или null, если по сессии еще не было ответов с расходом токенов
+     */
+    @Nullable
+    public SessionStats getSessionStats(String sessionId) {
+        synchronized (sessions) {
+            return sessions.get(sessionId);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(PROMPT_TOKENS, promptTokens, AtomicLong::get)
+                .description("Number of prompt tokens processed anew in GigaChat responses with a session id")
+                .tag("type", "prompt")
+                .register(registry);
+        FunctionCounter.builder(PROMPT_TOKENS, cachedTokens, AtomicLong::get)
+                .description("Number of prompt tokens taken from the GigaChat context cache for a session id")
+                .tag("type", "precached")
+                .register(registry);
     }
 
     @Override
@@ -45,12 +126,29 @@ public class GigaChatCachingAdvisor implements CallAdvisor, StreamAdvisor {
         return 0;
     }
 
-    private void fillOptions(ChatClientRequest chatClientRequest) {
-        Optional.of(chatClientRequest.prompt())
+    /**
+     * sessionId по умолчанию для режима {@link Builder#autoSessionId(boolean)}:
+     * идентификатор диалога из памяти чата ({@link ChatMemory#CONVERSATION_ID}), если он задан и не равен
+     * {@link ChatMemory#DEFAULT_CONVERSATION_ID}, иначе UUID от общего начала переписки - модели, функций,
+     * системных сообщений и первого сообщения пользователя ({@link ResponseCacheKey#prefixOf(Prompt)}).
+     * Начало не меняется от реплики к реплике, поэтому все запросы диалога получают один sessionId.
+     */
+    public static String deriveSessionId(ChatClientRequest chatClientRequest) {
+        Object conversationId = chatClientRequest.context().get(ChatMemory.CONVERSATION_ID);
+        if (conversationId != null && !ChatMemory.DEFAULT_CONVERSATION_ID.equals(conversationId.toString())) {
+            return conversationId.toString();
+        }
+        String prefix = ResponseCacheKey.prefixOf(chatClientRequest.prompt());
+        return UUID.nameUUIDFromBytes(prefix.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Nullable
+    private String fillOptions(ChatClientRequest chatClientRequest) {
+        return Optional.of(chatClientRequest.prompt())
                 .map(Prompt::getOptions)
                 .map(GigaChatOptions.class::cast)
-                .ifPresent(it -> {
-                    String sessionId = (String) chatClientRequest.context().get(X_SESSION_ID);
+                .map(it -> {
+                    String sessionId = resolveSessionId(chatClientRequest, it);
                     if (sessionId != null) {
                         Map<String, String> httpHeaders = new HashMap<>();
                         if (!CollectionUtils.isEmpty(it.getHttpHeaders())) {
@@ -59,6 +157,112 @@ public class GigaChatCachingAdvisor implements CallAdvisor, StreamAdvisor {
                         httpHeaders.put(X_SESSION_ID, sessionId);
                         it.setHttpHeaders(httpHeaders);
                     }
-                });
+                    return sessionId;
+                })
+                .orElse(null);
+    }
+
+    @Nullable
+    private String resolveSessionId(ChatClientRequest chatClientRequest, GigaChatOptions options) {
+        String sessionId = (String) chatClientRequest.context().get(X_SESSION_ID);
+        if (sessionId != null || !autoSessionId) {
+            return sessionId;
+        }
+        // заголовок, заданный в Options, не переопределяем
+        if (!CollectionUtils.isEmpty(options.getHttpHeaders())) {
+            String headerValue = options.getHttpHeaders().get(X_SESSION_ID);
+            if (headerValue != null) {
+                return headerValue;
+            }
+        }
+        return sessionIdResolver.apply(chatClientRequest);
+    }
+
+    private ChatClientResponse trackUsage(String sessionId, ChatClientResponse response) {
+        CompletionResponse.Usage usage = Optional.ofNullable(response)
+                .map(ChatClientResponse::chatResponse)
+                .map(ChatResponse::getMetadata)
+                .map(metadata -> metadata.getUsage().getNativeUsage())
+                .filter(CompletionResponse.Usage.class::isInstance)
+                .map(CompletionResponse.Usage.class::cast)
+                .orElse(null);
+        if (usage == null || usage.getPromptTokens() == null) {
+            return response;
+        }
+        long prompt = usage.getPromptTokens();
+        long cached = usage.getPrecachedPromptTokens() != null ? usage.getPrecachedPromptTokens() : 0;
+        promptTokens.addAndGet(prompt);
+        cachedTokens.addAndGet(cached);
+        SessionStats stats;
+        synchronized (sessions) {
+            stats = sessions.merge(sessionId, new SessionStats(1, prompt, cached), SessionStats::plus);
+        }
+        return response.mutate()
+                .context(X_SESSION_ID, sessionId)
+                .context(SESSION_CACHE_HIT_RATIO, stats.getCacheHitRatio())
+                .build();
+    }
+
+    /**
+     * Накопленный расход входных токенов сессии.
+     *
+     * @param responses число ответов с расходом токенов
+     * @param promptTokens входные токены, обработанные заново ({@code prompt_tokens})
+     * @param precachedPromptTokens входные токены, взятые из кеша ({@code precached_prompt_tokens})
+     */
+    public record SessionStats(long responses, long promptTokens, long precachedPromptTokens) {
+
+        /**
+         * Доля закешированных токенов среди всех входных: {@code precached / (prompt + precached)}.
+         */
+        public double getCacheHitRatio() {
+            long total = promptTokens + precachedPromptTokens;
+            return total == 0 ? 0 : (double) precachedPromptTokens / total;
+        }
+
+        SessionStats plus(SessionStats other) {
+            return new SessionStats(
+                    responses + other.responses,
+                    promptTokens + other.promptTokens,
+                    precachedPromptTokens + other.precachedPromptTokens);
+        }
+    }
+
+    public static class Builder {
+        private boolean autoSessionId;
+        private Function<ChatClientRequest, String> sessionIdResolver = GigaChatCachingAdvisor::deriveSessionId;
+        private int maxTrackedSessions = DEFAULT_MAX_TRACKED_SESSIONS;
+
+        private Builder() {}
+
+        /**
+         * Вычислять sessionId, если он не передан в контексте. По умолчанию выключено.
+         */
+        public Builder autoSessionId(boolean autoSessionId) {
+            this.autoSessionId = autoSessionId;
+            return this;
+        }
+
+        /**
+         * Способ вычисления sessionId, по умолчанию {@link #deriveSessionId(ChatClientRequest)}.
+         */
+        public Builder sessionIdResolver(Function<ChatClientRequest, String> sessionIdResolver) {
+            this.sessionIdResolver = sessionIdResolver;
+            return this;
+        }
+
+        /**
+         * Сколько последних сессий хранить в статистике.
+         */
+        public Builder maxTrackedSessions(int maxTrackedSessions) {
+            this.maxTrackedSessions = maxTrackedSessions;
+            return this;
+        }
+
+        public GigaChatCachingAdvisor build() {
+            Assert.notNull(sessionIdResolver, "sessionIdResolver must not be null");
+            Assert.isTrue(maxTrackedSessions > 0, "maxTrackedSessions must be positive");
+            return new GigaChatCachingAdvisor(autoSessionId, sessionIdResolver, maxTrackedSessions);
+        }
     }
 }
@@ -0,0 +1,122 @@
+package chat.giga.springai.advisor;
+
+import chat.giga.springai.advisor.cache.CachedResponse;
+import chat.giga.springai.advisor.cache.InMemoryResponseCache;
+import chat.giga.springai.advisor.cache.ResponseCache;
+import chat.giga.springai.advisor.cache.ResponseCacheKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+/**
+ * Advisor, который кеширует ответы GigaChat на одинаковые запросы.
+ * <p>
+ * Ключ - хеш нормализованного запроса ({@link ResponseCacheKey}): модель, сообщения, функции и параметры генерации.
+ * Имеет смысл для детерминированных запросов, например с {@code temperature = 0}, какие запросы кешировать,
+ * задается через {@link CacheAdvisorBuilder#cacheable(Predicate)}.
+ * <p>
+ * Для {@code stream} ответ из кеша отдается заново нарезанными фрагментами, ответ GigaChat сохраняется
+ * после успешного завершения потока. Ответы с {@code finish_reason = error} не кешируются.
+ * В контексте ответа из кеша выставляется {@link #CACHE_HIT}.
+ * <p>
+ * Число попаданий и промахов публикуется в Micrometer после {@link #bindTo(MeterRegistry)}.
+ */
+public class GigaChatResponseCacheAdvisor extends AbstractGigaChatCacheAdvisor {
+    public static final String CACHE_GETS = "gigachat.response.cache.gets";
+    public static final String CACHE_SIZE = "gigachat.response.cache.size";
+
+    /**
+     * Ключ контекста {@link ChatClientResponse}, равный {@code true}, если ответ взят из кеша.
+     */
+    public static final String CACHE_HIT = "gigachat_response_cache_hit";
+
+    /**
+     * Порядок по умолчанию - после advisor'ов памяти чата, чтобы история входила в ключ.
+     */
+    public static final int DEFAULT_ORDER = Ordered.LOWEST_PRECEDENCE - 1000;
+
+    private final ResponseCache cache;
+
+    private GigaChatResponseCacheAdvisor(Builder builder) {
+        super(builder);
+        this.cache = Objects.requireNonNullElseGet(builder.cache, InMemoryResponseCache::new);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        if (!isCacheable(chatClientRequest)) {
+            return callAdvisorChain.nextCall(chatClientRequest);
+        }
+        String key = ResponseCacheKey.of(chatClientRequest.prompt());
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            return cachedResponse(chatClientRequest, cached.toChatResponse(), Map.of(CACHE_HIT, true));
+        }
+        ChatClientResponse response = callAdvisorChain.nextCall(chatClientRequest);
+        if (isCacheable(response.chatResponse())) {
+            cache.put(key, CachedResponse.from(response.chatResponse()));
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(
+            ChatClientRequest chatClientRequest, StreamAdvisorChain streamAdvisorChain) {
+        if (!isCacheable(chatClientRequest)) {
+            return streamAdvisorChain.nextStream(chatClientRequest);
+        }
+        String key = ResponseCacheKey.of(chatClientRequest.prompt());
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            return cachedStream(chatClientRequest, cached, Map.of(CACHE_HIT, true));
+        }
+        return storeOnComplete(
+                streamAdvisorChain.nextStream(chatClientRequest), response -> cache.put(key, response));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindGets(registry, CACHE_GETS, "Number of GigaChat response cache lookups");
+        Gauge.builder(CACHE_SIZE, cache, ResponseCache::size)
+                .description("Number of entries in the GigaChat response cache")
+                .register(registry);
+    }
+
+    private CachedResponse lookup(String key) {
+        CachedResponse cached = cache.get(key);
+        recordLookup(cached != null);
+        return cached;
+    }
+
+    public static class Builder extends CacheAdvisorBuilder<Builder> {
+        private ResponseCache cache;
+
+        private Builder() {
+            super(DEFAULT_ORDER);
+        }
+
+        /**
+         * Хранилище ответов, по умолчанию {@link InMemoryResponseCache}.
+         */
+        public Builder cache(ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public GigaChatResponseCacheAdvisor build() {
+            return new GigaChatResponseCacheAdvisor(this);
+        }
+    }
+}
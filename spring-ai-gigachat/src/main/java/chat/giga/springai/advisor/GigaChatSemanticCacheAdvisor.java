@@ -0,0 +1,243 @@
+package chat.giga.springai.advisor;
+
+import chat.giga.springai.advisor.cache.CachedResponse;
+import chat.giga.springai.advisor.cache.ResponseCacheKey;
+import chat.giga.springai.advisor.cache.SemanticResponseIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Advisor семантического кеша: отвечает сохраненным ответом на вопрос, близкий по смыслу к уже заданному.
+ * <p>
+ * Последнее сообщение пользователя переводится в эмбеддинг через {@link EmbeddingModel}
+ * (например, {@code GigaChatEmbeddingModel}) и сравнивается с сохраненными в {@link SemanticResponseIndex}.
+ * Сравниваются только запросы с одинаковыми моделью, функциями, параметрами генерации, предшествующей историей
+ * и вложениями последнего сообщения ({@link ResponseCacheKey#scopeOf}). Если косинусная близость не ниже
+ * {@code similarityThreshold}, /chat/completions не вызывается, в контексте ответа выставляются {@link #CACHE_HIT}
+ * и {@link #SIMILARITY}. Если эмбеддинг получить не удалось, запрос выполняется без кеша.
+ * <p>
+ * Для {@code stream} ответ из кеша отдается заново нарезанными фрагментами. Ответы с {@code finish_reason = error}
+ * не кешируются. Число попаданий, промахов и время поиска (эмбеддинг и перебор индекса) публикуются
+ * в Micrometer после {@link #bindTo(MeterRegistry)}.
+ *
+ * @see GigaChatResponseCacheAdvisor
+ */
+@Slf4j
+public class GigaChatSemanticCacheAdvisor extends AbstractGigaChatCacheAdvisor {
+    public static final String CACHE_GETS = "gigachat.semantic.cache.gets";
+    public static final String CACHE_LOOKUP = "gigachat.semantic.cache.lookup";
+    public static final String CACHE_SIZE = "gigachat.semantic.cache.size";
+
+    /**
+     * Ключ контекста {@link ChatClientResponse}, равный {@code true}, если ответ взят из кеша.
+     */
+    public static final String CACHE_HIT = "gigachat_semantic_cache_hit";
+
+    /**
+     * Ключ контекста {@link ChatClientResponse} с косинусной близостью вопроса к сохраненному.
+     */
+    public static final String SIMILARITY = "gigachat_semantic_cache_similarity";
+
+    /**
+     * Порядок по умолчанию - сразу после {@link GigaChatResponseCacheAdvisor}, чтобы точные совпадения
+     * находились без запроса эмбеддинга.
+     */
+    public static final int DEFAULT_ORDER = GigaChatResponseCacheAdvisor.DEFAULT_ORDER + 1;
+
+    public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.9;
+
+    private final EmbeddingModel embeddingModel;
+    private final SemanticResponseIndex index;
+    private final double similarityThreshold;
+
+    @Nullable
+    private volatile MeterRegistry meterRegistry;
+
+    private GigaChatSemanticCacheAdvisor(Builder builder) {
+        super(builder);
+        Assert.notNull(builder.embeddingModel, "embeddingModel must not be null");
+        Assert.isTrue(
+                builder.similarityThreshold > 0 && builder.similarityThreshold <= 1,
+                "similarityThreshold must be in (0, 1]");
+        this.embeddingModel = builder.embeddingModel;
+        this.index = Objects.requireNonNullElseGet(builder.index, SemanticResponseIndex::new);
+        this.similarityThreshold = builder.similarityThreshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        String question = question(chatClientRequest);
+        Lookup lookup = question != null ? lookup(chatClientRequest.prompt(), question) : null;
+        if (lookup == null) {
+            return callAdvisorChain.nextCall(chatClientRequest);
+        }
+        if (lookup.match() != null) {
+            return cachedResponse(
+                    chatClientRequest,
+                    lookup.match().response().toChatResponse(),
+                    hitContext(lookup.match()));
+        }
+        ChatClientResponse response = callAdvisorChain.nextCall(chatClientRequest);
+        if (isCacheable(response.chatResponse())) {
+            store(lookup, CachedResponse.from(response.chatResponse()));
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(
+            ChatClientRequest chatClientRequest, StreamAdvisorChain streamAdvisorChain) {
+        String question = question(chatClientRequest);
+        if (question == null) {
+            return streamAdvisorChain.nextStream(chatClientRequest);
+        }
+        // запрос эмбеддинга блокирующий, поэтому не выполняется в потоке подписчика
+        return Mono.fromCallable(() -> Optional.ofNullable(lookup(chatClientRequest.prompt(), question)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(result -> {
+                    if (result.isEmpty()) {
+                        return streamAdvisorChain.nextStream(chatClientRequest);
+                    }
+                    Lookup lookup = result.get();
+                    if (lookup.match() != null) {
+                        return cachedStream(
+                                chatClientRequest, lookup.match().response(), hitContext(lookup.match()));
+                    }
+                    return storeOnComplete(
+                            streamAdvisorChain.nextStream(chatClientRequest), response -> store(lookup, response));
+                });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindGets(registry, CACHE_GETS, "Number of GigaChat semantic cache lookups");
+        Gauge.builder(CACHE_SIZE, index, SemanticResponseIndex::size)
+                .description("Number of entries in the GigaChat semantic cache")
+                .register(registry);
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Текст последнего сообщения, если это вопрос пользователя и запрос можно кешировать.
+     */
+    @Nullable
+    private String question(ChatClientRequest chatClientRequest) {
+        List<Message> messages = chatClientRequest.prompt().getInstructions();
+        if (CollectionUtils.isEmpty(messages) || !isCacheable(chatClientRequest)) {
+            return null;
+        }
+        Message last = messages.get(messages.size() - 1);
+        if (last.getMessageType() != MessageType.USER || !StringUtils.hasText(last.getText())) {
+            return null;
+        }
+        return last.getText().strip();
+    }
+
+    /**
+     * Ищет ответ на вопрос в индексе.
+     *
+     * @return результат поиска или null, если эмбеддинг вопроса получить не удалось
+     */
+    @Nullable
+    private Lookup lookup(Prompt prompt, String question) {
+        long start = System.nanoTime();
+        float[] embedding;
+        try {
+            embedding = embeddingModel.embed(question);
+        } catch (RuntimeException e) {
+            log.warn("Failed to embed the question, GigaChat semantic cache is skipped", e);
+            return null;
+        }
+        String scope = ResponseCacheKey.scopeOf(prompt);
+        SemanticResponseIndex.Match match = index.find(scope, embedding, similarityThreshold);
+        recordLookup(match != null);
+        MeterRegistry registry = this.meterRegistry;
+        if (registry != null) {
+            Timer.builder(CACHE_LOOKUP)
+                    .description("Time to embed the question and search the GigaChat semantic cache")
+                    .tag("result", match != null ? "hit" : "miss")
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new Lookup(scope, embedding, match);
+    }
+
+    /**
+     * Сохраняет ответ; запись с близким вопросом, сохраненная параллельным запросом, заменяется.
+     */
+    private void store(Lookup lookup, CachedResponse response) {
+        index.put(lookup.scope(), lookup.embedding(), response, similarityThreshold);
+    }
+
+    private static Map<String, Object> hitContext(SemanticResponseIndex.Match match) {
+        return Map.of(CACHE_HIT, true, SIMILARITY, match.similarity());
+    }
+
+    private record Lookup(
+            String scope, float[] embedding, @Nullable SemanticResponseIndex.Match match) {}
+
+    public static class Builder extends CacheAdvisorBuilder<Builder> {
+        private EmbeddingModel embeddingModel;
+        private SemanticResponseIndex index;
+        private double similarityThreshold = DEFAULT_SIMILARITY_THRESHOLD;
+
+        private Builder() {
+            super(DEFAULT_ORDER);
+        }
+
+        /**
+         * Модель для эмбеддингов вопросов, например {@code GigaChatEmbeddingModel}.
+         */
+        public Builder embeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        /**
+         * Индекс ответов, по умолчанию {@link SemanticResponseIndex} на {@value SemanticResponseIndex#DEFAULT_MAX_ENTRIES}
+         * записей.
+         */
+        public Builder index(SemanticResponseIndex index) {
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * Минимальная косинусная близость вопросов, при которой возвращается сохраненный ответ.
+         */
+        public Builder similarityThreshold(double similarityThreshold) {
+            this.similarityThreshold = similarityThreshold;
+            return this;
+        }
+
+        public GigaChatSemanticCacheAdvisor build() {
+            return new GigaChatSemanticCacheAdvisor(this);
+        }
+    }
+}
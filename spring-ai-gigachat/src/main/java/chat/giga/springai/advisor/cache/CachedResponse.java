@@ -0,0 +1,201 @@
+package chat.giga.springai.advisor.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.EmptyUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Сохраненный в кеше ответ GigaChat: текст, вызовы функций, причина завершения и расход токенов каждой генерации.
+ * <p>
+ * Прочие метаданные {@link ChatResponse} и вложения (изображения) не сохраняются.
+ */
+public record CachedResponse(
+        List<CachedGeneration> generations,
+        @Nullable String id,
+        @Nullable String model,
+        @Nullable Integer promptTokens,
+        @Nullable Integer completionTokens,
+        @Nullable Integer totalTokens) {
+
+    public record CachedGeneration(
+            @Nullable String text,
+            @Nullable String finishReason,
+            Map<String, Object> properties,
+            List<CachedToolCall> toolCalls) {}
+
+    public record CachedToolCall(String id, String type, String name, String arguments) {}
+
+    public static CachedResponse from(ChatResponse chatResponse) {
+        List<CachedGeneration> generations = chatResponse.getResults().stream()
+                .map(generation -> new CachedGeneration(
+                        generation.getOutput().getText(),
+                        generation.getMetadata().getFinishReason(),
+                        new HashMap<>(generation.getOutput().getMetadata()),
+                        generation.getOutput().getToolCalls().stream()
+                                .map(toolCall -> new CachedToolCall(
+                                        toolCall.id(), toolCall.type(), toolCall.name(), toolCall.arguments()))
+                                .toList()))
+                .toList();
+        ChatResponseMetadata metadata = chatResponse.getMetadata();
+        Usage usage = metadata.getUsage();
+        return new CachedResponse(
+                generations,
+                metadata.getId(),
+                metadata.getModel(),
+                usage.getPromptTokens(),
+                usage.getCompletionTokens(),
+                usage.getTotalTokens());
+    }
+
+    /**
+     * Собирает ответ из фрагментов потока: текст склеивается, вызовы функций накапливаются,
+     * причина завершения и расход токенов берутся из фрагментов, где они есть.
+     */
+    public static CachedResponse aggregate(List<ChatResponse> chunks) {
+        List<GenerationAggregate> generations = new ArrayList<>();
+        CachedResponse usage = null;
+        String id = null;
+        String model = null;
+        for (ChatResponse chunk : chunks) {
+            CachedResponse current = from(chunk);
+            for (int i = 0; i < current.generations().size(); i++) {
+                if (i == generations.size()) {
+                    generations.add(new GenerationAggregate());
+                }
+                generations.get(i).add(current.generations().get(i));
+            }
+            if (current.id() != null) {
+                id = current.id();
+            }
+            if (current.model() != null) {
+                model = current.model();
+            }
+            if (current.totalTokens() != null && current.totalTokens() > 0) {
+                usage = current;
+            }
+        }
+        return new CachedResponse(
+                generations.stream().map(GenerationAggregate::build).toList(),
+                id,
+                model,
+                usage != null ? usage.promptTokens() : null,
+                usage != null ? usage.completionTokens() : null,
+                usage != null ? usage.totalTokens() : null);
+    }
+
+    public ChatResponse toChatResponse() {
+        return new ChatResponse(
+                generations.stream()
+                        .map(generation -> generation(
+                                generation.text(),
+                                generation.properties(),
+                                generation.toolCalls(),
+                                generation.finishReason()))
+                        .toList(),
+                metadata(true));
+    }
+
+    /**
+     * Разбивает ответ на фрагменты потока по {@code chunkSize} символов текста. Вызовы функций,
+     * причина завершения и расход токенов передаются в последнем фрагменте, как в потоке GigaChat.
+     */
+    public List<ChatResponse> toChunks(int chunkSize) {
+        List<List<String>> parts = generations.stream()
+                .map(generation -> split(generation.text(), chunkSize))
+                .toList();
+        int count = parts.stream().mapToInt(List::size).max().orElse(1);
+        List<ChatResponse> chunks = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            boolean lastChunk = c == count - 1;
+            List<Generation> chunkGenerations = new ArrayList<>(generations.size());
+            for (int i = 0; i < generations.size(); i++) {
+                CachedGeneration generation = generations.get(i);
+                List<String> generationParts = parts.get(i);
+                chunkGenerations.add(generation(
+                        c < generationParts.size() ? generationParts.get(c) : "",
+                        generation.properties(),
+                        lastChunk ? generation.toolCalls() : List.of(),
+                        lastChunk ? generation.finishReason() : null));
+            }
+            chunks.add(new ChatResponse(chunkGenerations, metadata(lastChunk)));
+        }
+        return chunks;
+    }
+
+    private ChatResponseMetadata metadata(boolean withUsage) {
+        Usage usage = withUsage && totalTokens != null
+                ? new DefaultUsage(promptTokens, completionTokens, totalTokens)
+                : new EmptyUsage();
+        return ChatResponseMetadata.builder().id(id).model(model).usage(usage).build();
+    }
+
+    private static Generation generation(
+            @Nullable String text,
+            Map<String, Object> properties,
+            List<CachedToolCall> toolCalls,
+            @Nullable String finishReason) {
+        AssistantMessage message = AssistantMessage.builder()
+                .content(text)
+                .properties(properties)
+                .toolCalls(toolCalls.stream()
+                        .map(toolCall -> new AssistantMessage.ToolCall(
+                                toolCall.id(), toolCall.type(), toolCall.name(), toolCall.arguments()))
+                        .toList())
+                .build();
+        return new Generation(
+                message,
+                ChatGenerationMetadata.builder().finishReason(finishReason).build());
+    }
+
+    private static List<String> split(@Nullable String text, int chunkSize) {
+        if (!StringUtils.hasLength(text)) {
+            return List.of("");
+        }
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + chunkSize, text.length());
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end++;
+            }
+            parts.add(text.substring(start, end));
+            start = end;
+        }
+        return parts;
+    }
+
+    private static final class GenerationAggregate {
+        private final StringBuilder text = new StringBuilder();
+        private final List<CachedToolCall> toolCalls = new ArrayList<>();
+        private String finishReason;
+        private Map<String, Object> properties = Map.of();
+
+        void add(CachedGeneration chunk) {
+            if (chunk.text() != null) {
+                text.append(chunk.text());
+            }
+            toolCalls.addAll(chunk.toolCalls());
+            if (StringUtils.hasText(chunk.finishReason())) {
+                finishReason = chunk.finishReason();
+                properties = chunk.properties();
+            } else if (properties.isEmpty()) {
+                properties = chunk.properties();
+            }
+        }
+
+        CachedGeneration build() {
+            return new CachedGeneration(text.toString(), finishReason, properties, List.copyOf(toolCalls));
+        }
+    }
+}
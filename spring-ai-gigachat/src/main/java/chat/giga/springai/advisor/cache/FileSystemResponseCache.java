@@ -0,0 +1,149 @@
+package chat.giga.springai.advisor.cache;
+
+import chat.giga.springai.support.CacheFiles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Кеш ответов на локальном диске: по JSON-файлу на запись в каталоге {@code directory}.
+ * <p>
+ * Запись живет {@code ttl} с момента сохранения (по времени изменения файла). Когда записей становится больше
+ * {@code maxEntries}, удаляются устаревшие и самые старые, пока их не останется 90% от {@code maxEntries}:
+ * так каталог обходится не на каждой записи, а один раз на десятую часть {@code maxEntries}.
+ * Кеш переживает перезапуск приложения, ошибки чтения и записи не прерывают запрос к GigaChat и только пишутся в лог.
+ */
+@Slf4j
+public class FileSystemResponseCache implements ResponseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final Duration DEFAULT_TTL = Duration.ofDays(1);
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong entries;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public FileSystemResponseCache(Path directory) {
+        this(directory, DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    public FileSystemResponseCache(Path directory, int maxEntries, Duration ttl) {
+        this(directory, maxEntries, ttl, Clock.systemUTC());
+    }
+
+    FileSystemResponseCache(Path directory, int maxEntries, Duration ttl, Clock clock) {
+        Assert.notNull(directory, "directory must not be null");
+        Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+        CacheFiles.checkTtl(ttl);
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create response cache directory " + directory, e);
+        }
+        this.entries = new AtomicLong(files().size());
+    }
+
+    @Nullable
+    @Override
+    public CachedResponse get(String key) {
+        Path file = file(key);
+        try {
+            if (CacheFiles.isExpired(Files.getLastModifiedTime(file), ttl, clock)) {
+                delete(file);
+                return null;
+            }
+            return objectMapper.readValue(file.toFile(), CachedResponse.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read cached response {}", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        Path file = file(key);
+        try {
+            boolean exists = Files.exists(file);
+            CacheFiles.writeAtomically(file, key, temp -> objectMapper.writeValue(temp.toFile(), response));
+            if (!exists && entries.incrementAndGet() > maxEntries) {
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write cached response {}", file, e);
+        }
+    }
+
+    @Override
+    public long size() {
+        return entries.get();
+    }
+
+    @Override
+    public void clear() {
+        files().forEach(this::delete);
+        entries.set(0);
+    }
+
+    /**
+     * Удаляет устаревшие записи и самые старые, пока их не останется 90% от {@code maxEntries}.
+     * Если вытеснение уже выполняется другим потоком, запись его не ждет.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.set(CacheFiles.evictOldest(files(), maxEntries, ttl, clock, this::delete));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private Path file(String key) {
+        Assert.isTrue(key.matches("[0-9a-zA-Z_-]+"), "Invalid cache key: " + key);
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list response cache directory {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            if (Files.deleteIfExists(file)) {
+                entries.decrementAndGet();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete cached response {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package chat.giga.springai.advisor.cache;
+
+import chat.giga.springai.support.ExpiringLruCache;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Кеш ответов в памяти: не больше {@code maxEntries} записей с вытеснением давно не использованных (LRU),
+ * запись живет {@code ttl} с момента сохранения.
+ */
+public class InMemoryResponseCache implements ResponseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private final ExpiringLruCache<CachedResponse> entries;
+
+    public InMemoryResponseCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    public InMemoryResponseCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    InMemoryResponseCache(int maxEntries, Duration ttl, Clock clock) {
+        Assert.notNull(ttl, "ttl must not be null");
+        this.entries = new ExpiringLruCache<>(maxEntries, ttl, clock);
+    }
+
+    @Nullable
+    @Override
+    public CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        entries.put(key, response);
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,30 @@
+package chat.giga.springai.advisor.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Хранилище ответов GigaChat для {@link chat.giga.springai.advisor.GigaChatResponseCacheAdvisor}.
+ * <p>
+ * Реализации должны быть потокобезопасными и сами удалять устаревшие записи.
+ *
+ * @see InMemoryResponseCache
+ * @see FileSystemResponseCache
+ */
+public interface ResponseCache {
+
+    /**
+     * @param key ключ запроса, см. {@link ResponseCacheKey}
+     * @return сохраненный ответ или null, если его нет или срок хранения истек
+     */
+    @Nullable
+    CachedResponse get(String key);
+
+    void put(String key, CachedResponse response);
+
+    /**
+     * @return текущее число записей
+     */
+    long size();
+
+    void clear();
+}
@@ -0,0 +1,177 @@
+package chat.giga.springai.advisor.cache;
+
+import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.support.HashUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.MediaContent;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.lang.Nullable;
+
+/**
+ * Ключ кеша ответов - SHA-256 от нормализованного представления запроса к GigaChat.
+ * <p>
+ * В ключ входят те же данные, что уходят в /chat/completions: модель, сообщения с вложениями, вызовами функций
+ * и их результатами, описания функций и параметры генерации. Текст сообщений берется без пробелов по краям,
+ * JSON-схемы функций и аргументы - с упорядоченными ключами. HTTP-заголовки и контекст инструментов в ключ не входят.
+ */
+public final class ResponseCacheKey {
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private ResponseCacheKey() {}
+
+    public static String of(Prompt prompt) {
+        return HashUtils.sha256Hex(toJson(request(prompt, prompt.getInstructions())));
+    }
+
+    /**
+     * Ключ запроса без текста последнего сообщения: модель, функции, параметры генерации, предшествующая история
+     * и вложения последнего сообщения. Используется семантическим кешем, чтобы похожие вопросы сравнивались
+     * только в одинаковом контексте и к одним и тем же файлам.
+     */
+    public static String scopeOf(Prompt prompt) {
+        List<Message> messages = prompt.getInstructions();
+        if (messages.isEmpty()) {
+            return HashUtils.sha256Hex(toJson(request(prompt, messages)));
+        }
+        Map<String, Object> request = request(prompt, messages.subList(0, messages.size() - 1));
+        List<String> attachments = attachments(messages.get(messages.size() - 1));
+        if (!attachments.isEmpty()) {
+            request.put("attachments", attachments);
+        }
+        return HashUtils.sha256Hex(toJson(request));
+    }
+
+    /**
+     * Ключ общего начала переписки: модель, функции, системные сообщения и первое сообщение пользователя.
+     * Не меняется от реплики к реплике одного диалога и не зависит от параметров генерации.
+     */
+    public static String prefixOf(Prompt prompt) {
+        List<Message> prefix = new ArrayList<>();
+        for (Message message : prompt.getInstructions()) {
+            prefix.add(message);
+            if (message.getMessageType() != MessageType.SYSTEM) {
+                break;
+            }
+        }
+        return HashUtils.sha256Hex(toJson(request(prompt, prefix, false)));
+    }
+
+    private static Map<String, Object> request(Prompt prompt, List<Message> messages) {
+        return request(prompt, messages, true);
+    }
+
+    private static Map<String, Object> request(Prompt prompt, List<Message> messages, boolean withParameters) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        ChatOptions options = prompt.getOptions();
+        if (options != null) {
+            request.put("model", options.getModel());
+        }
+        if (options != null && withParameters) {
+            request.put("temperature", options.getTemperature());
+            request.put("top_p", options.getTopP());
+            request.put("max_tokens", options.getMaxTokens());
+        }
+        if (options instanceof GigaChatOptions gigaChatOptions) {
+            if (withParameters) {
+                request.put("repetition_penalty", gigaChatOptions.getRepetitionPenalty());
+                request.put("function_call_mode", gigaChatOptions.getFunctionCallMode());
+                request.put("function_call_param", gigaChatOptions.getFunctionCallParam());
+                request.put("profanity_check", gigaChatOptions.getProfanityCheck());
+            }
+            request.put(
+                    "functions",
+                    gigaChatOptions.getToolCallbacks().stream()
+                            .map(toolCallback -> function(toolCallback.getToolDefinition()))
+                            .sorted(Comparator.comparing(function -> (String) function.get("name")))
+                            .toList());
+            request.put(
+                    "function_names",
+                    gigaChatOptions.getToolNames().stream().sorted().toList());
+        }
+        request.put("messages", messages.stream().map(ResponseCacheKey::message).toList());
+        return request;
+    }
+
+    private static Map<String, Object> message(Message message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("role", message.getMessageType().getValue());
+        result.put("content", message.getText() != null ? message.getText().strip() : null);
+        List<String> attachments = attachments(message);
+        if (!attachments.isEmpty()) {
+            result.put("attachments", attachments);
+        }
+        if (message instanceof AssistantMessage assistantMessage && assistantMessage.hasToolCalls()) {
+            result.put(
+                    "function_calls",
+                    assistantMessage.getToolCalls().stream()
+                            .map(toolCall -> List.of(toolCall.name(), normalizeJson(toolCall.arguments())))
+                            .toList());
+        }
+        if (message instanceof ToolResponseMessage toolResponseMessage) {
+            List<Object> responses = new ArrayList<>();
+            toolResponseMessage
+                    .getResponses()
+                    .forEach(response ->
+                            responses.add(List.of(response.name(), normalizeJson(response.responseData()))));
+            result.put("function_results", responses);
+        }
+        return result;
+    }
+
+    private static List<String> attachments(Message message) {
+        if (!(message instanceof MediaContent mediaContent)) {
+            return List.of();
+        }
+        return mediaContent.getMedia().stream()
+                .map(media -> media.getMimeType() + ":"
+                        + (media.getData() instanceof byte[] bytes ? HashUtils.sha256Hex(bytes) : media.getData()))
+                .toList();
+    }
+
+    private static Map<String, Object> function(ToolDefinition toolDefinition) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", toolDefinition.name());
+        result.put("description", toolDefinition.description());
+        result.put("parameters", normalizeJson(toolDefinition.inputSchema()));
+        return result;
+    }
+
+    /**
+     * JSON с упорядоченными ключами, чтобы порядок полей не влиял на ключ. Не-JSON возвращается как есть.
+     */
+    @Nullable
+    private static Object normalizeJson(@Nullable String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, Object.class);
+        } catch (JsonProcessingException e) {
+            return json;
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to build response cache key", e);
+        }
+    }
+}
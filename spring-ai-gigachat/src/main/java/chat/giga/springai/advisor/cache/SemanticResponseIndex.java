@@ -0,0 +1,147 @@
+package chat.giga.springai.advisor.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Индекс ответов в памяти для семантического кеша: поиск ближайшего по косинусной близости эмбеддинга
+ * среди записей с тем же контекстом ({@code scope}).
+ * <p>
+ * Хранит не больше {@code maxEntries} записей с вытеснением давно не использованных (LRU), запись живет {@code ttl}
+ * с момента сохранения. Поиск - полный перебор нормированных векторов, рассчитан на тысячи записей.
+ */
+public class SemanticResponseIndex {
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long nextId;
+
+    public SemanticResponseIndex() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    public SemanticResponseIndex(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    SemanticResponseIndex(int maxEntries, Duration ttl, Clock clock) {
+        Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+        Assert.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Ищет самый близкий сохраненный ответ.
+     *
+     * @param scope контекст запроса, см. {@link ResponseCacheKey#scopeOf}
+     * @param embedding эмбеддинг вопроса
+     * @param threshold минимальная косинусная близость
+     * @return найденный ответ или null
+     */
+    @Nullable
+    public synchronized Match find(String scope, float[] embedding, double threshold) {
+        float[] vector = normalize(embedding);
+        Long bestId = closest(scope, vector, threshold, clock.instant());
+        if (bestId == null) {
+            return null;
+        }
+        // обращение по ключу поднимает запись в порядке LRU
+        Entry entry = entries.get(bestId);
+        return new Match(entry.response(), dot(entry.vector(), vector));
+    }
+
+    /**
+     * Сохраняет ответ. Самая близкая запись того же контекста с косинусной близостью не ниже {@code threshold}
+     * заменяется, чтобы одинаковые вопросы, промахнувшиеся одновременно, не копились в индексе.
+     *
+     * @param scope контекст запроса, см. {@link ResponseCacheKey#scopeOf}
+     * @param embedding эмбеддинг вопроса
+     * @param response ответ
+     * @param threshold минимальная косинусная близость, при которой запись заменяется
+     */
+    public synchronized void put(String scope, float[] embedding, CachedResponse response, double threshold) {
+        float[] vector = normalize(embedding);
+        Long closestId = closest(scope, vector, threshold, clock.instant());
+        if (closestId != null) {
+            entries.remove(closestId);
+        }
+        entries.put(nextId++, new Entry(scope, vector, response, clock.instant().plus(ttl)));
+    }
+
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Идентификатор самой близкой записи контекста с близостью не ниже {@code threshold}; истекшие записи удаляются.
+     */
+    @Nullable
+    private Long closest(String scope, float[] vector, double threshold, Instant now) {
+        Long bestId = null;
+        double bestSimilarity = threshold;
+        for (Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Entry> candidate = it.next();
+            Entry entry = candidate.getValue();
+            if (!now.isBefore(entry.expiresAt())) {
+                it.remove();
+                continue;
+            }
+            if (!entry.scope().equals(scope) || entry.vector().length != vector.length) {
+                continue;
+            }
+            double similarity = dot(entry.vector(), vector);
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                bestId = candidate.getKey();
+            }
+        }
+        return bestId;
+    }
+
+    private static float[] normalize(float[] embedding) {
+        double norm = Math.sqrt(dot(embedding, embedding));
+        float[] vector = new float[embedding.length];
+        if (norm > 0) {
+            for (int i = 0; i < embedding.length; i++) {
+                vector[i] = (float) (embedding[i] / norm);
+            }
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param response сохраненный ответ
+     * @param similarity косинусная близость вопроса к сохраненному
+     */
+    public record Match(CachedResponse response, double similarity) {}
+
+    private record Entry(String scope, float[] vector, CachedResponse response, Instant expiresAt) {}
+}
@@ -22,4 +22,13 @@ public class GigaChatApiProperties {
 
     @Builder.Default
     private GigaChatInternalProperties internal = new GigaChatInternalProperties();
+
+    @Builder.Default
+    private GigaChatRateLimitProperties rateLimit = new GigaChatRateLimitProperties();
+
+    @Builder.Default
+    private GigaChatStreamRetryProperties streamRetry = new GigaChatStreamRetryProperties();
+
+    @Builder.Default
+    private GigaChatLoggingProperties logging = new GigaChatLoggingProperties();
 }
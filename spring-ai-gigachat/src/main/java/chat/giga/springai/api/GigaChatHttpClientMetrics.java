@@ -0,0 +1,38 @@
+package chat.giga.springai.api;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.http.HttpClient;
+import java.util.Collections;
+import javax.net.ssl.SSLSessionContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Метрики транспорта GigaChat.
+ * <p>
+ * JDK HttpClient не публикует статистику пула соединений и не считает TLS-рукопожатия, поэтому публикуется
+ * только размер кэша TLS-сессий клиента. Полное рукопожатие добавляет сессию в кэш, но сессии вытесняются
+ * из него по истечении срока жизни и размеру, так что это не счетчик рукопожатий.
+ */
+@RequiredArgsConstructor
+public class GigaChatHttpClientMetrics implements MeterBinder {
+    public static final String TLS_SESSION_CACHE_SIZE = "gigachat.http.client.tls.session.cache.size";
+
+    private final HttpClient httpClient;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(TLS_SESSION_CACHE_SIZE, httpClient, GigaChatHttpClientMetrics::tlsSessionCacheSize)
+                .description("Number of entries in the TLS session cache of the GigaChat HTTP client")
+                .tag("http.version", httpClient.version().name())
+                .register(registry);
+    }
+
+    private static double tlsSessionCacheSize(HttpClient httpClient) {
+        SSLSessionContext sessionContext = httpClient.sslContext().getClientSessionContext();
+        return sessionContext == null
+                ? 0
+                : Collections.list(sessionContext.getIds()).size();
+    }
+}
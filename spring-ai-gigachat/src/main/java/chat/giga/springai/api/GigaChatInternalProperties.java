@@ -1,5 +1,7 @@
 package chat.giga.springai.api;
 
+import chat.giga.springai.api.chat.GigaChatAsyncApi;
+import java.net.http.HttpClient;
 import java.time.Duration;
 import lombok.Data;
 
@@ -10,4 +12,51 @@ public class GigaChatInternalProperties {
     private boolean makeSystemPromptFirstMessageInMemory = true;
     private Duration connectTimeout = Duration.ofSeconds(15L);
     private Duration readTimeout;
+    /**
+     * Предпочитаемая версия HTTP. При HTTP/2 запросы мультиплексируются в одном соединении,
+     * если сервер не поддерживает HTTP/2 - используется HTTP/1.1.
+     */
+    private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+    /**
+     * Выполнять на виртуальных потоках асинхронные задачи HttpClient, фоновое обновление токена, вызовы функций
+     * и запросы {@link GigaChatAsyncApi} (режим {@link GigaChatAsyncApi.Mode#VIRTUAL_THREADS}). Требует Java 21+.
+     */
+    private boolean virtualThreads = false;
+    /**
+     * Сколько медиа файлов одного промпта загружается в GigaChat параллельно.
+     */
+    private int mediaUploadParallelism = 4;
+    /**
+     * Как получать изображения из ответа Chat модели, см. {@link ImageFetchPolicy}.
+     */
+    private ImageFetchPolicy imageFetchPolicy = ImageFetchPolicy.EAGER;
+    /**
+     * Сколько изображений одного ответа скачивается параллельно при {@link ImageFetchPolicy#EAGER}.
+     */
+    private int imageDownloadParallelism = 4;
+    /**
+     * Максимальное число раундов вызова функций в одном запросе к Chat модели. 0 - без ограничения.
+     */
+    private int maxToolRounds = 25;
+    /**
+     * Результаты функций из предыдущих раундов длиннее этого числа символов обрезаются при повторной отправке
+     * переписки в модель. 0 - не обрезать.
+     */
+    private int toolResponseMaxLength = 0;
+
+    public enum ImageFetchPolicy {
+        /**
+         * Скачивать все изображения сразу при получении ответа. Данными media будет массив байт.
+         */
+        EAGER,
+        /**
+         * Скачивать изображение только при чтении данных media.
+         * Данными media будет {@link chat.giga.springai.api.chat.file.GigaChatFileResource}.
+         */
+        LAZY,
+        /**
+         * Не скачивать изображения. Данными media будет ссылка на файл в GigaChat.
+         */
+        IDS_ONLY
+    }
 }
@@ -0,0 +1,45 @@
+package chat.giga.springai.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Логирование запросов и ответов GigaChat API на уровне DEBUG логгера {@code chat.giga.springai.api.logging}.
+ * <p>
+ * Тело запроса и ответа не буферизуется целиком: копируются только первые {@link #maxBodySize} байт
+ * по мере чтения тела клиентом.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GigaChatLoggingProperties {
+    public static final String CONFIG_PREFIX = "spring.ai.gigachat.logging";
+
+    /**
+     * Сколько байт тела запроса и ответа попадает в лог, остальное обрезается.
+     */
+    @Builder.Default
+    private int maxBodySize = 16 * 1024;
+
+    /**
+     * Логировать один запрос из N. 1 - логировать все запросы.
+     */
+    @Builder.Default
+    private int sampleRate = 1;
+
+    /**
+     * Форматировать и писать запись в лог в отдельном потоке, а не в потоке HTTP-клиента.
+     * Если очередь записей переполнена, новые записи отбрасываются.
+     */
+    @Builder.Default
+    private boolean async = true;
+
+    /**
+     * Форматировать JSON с отступами. Обрезанное тело выводится как есть.
+     */
+    @Builder.Default
+    private boolean prettyPrint = true;
+}
@@ -0,0 +1,83 @@
+package chat.giga.springai.api;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ограничение частоты и параллельности запросов к GigaChat на стороне клиента.
+ * <p>
+ * Лимиты задаются отдельно для эндпоинтов и для моделей. Запрос к модели с настроенным лимитом
+ * должен получить разрешение и у эндпоинта, и у модели.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GigaChatRateLimitProperties {
+    public static final String CONFIG_PREFIX = "spring.ai.gigachat.rate-limit";
+
+    private boolean enabled;
+
+    /**
+     * Максимальное время ожидания разрешения. По его истечении запрос завершается ошибкой
+     * {@link org.springframework.ai.retry.TransientAiException}.
+     */
+    @Builder.Default
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Лимиты эндпоинтов.
+     */
+    @Builder.Default
+    private Map<Endpoint, Limit> endpoints = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Лимиты моделей, ключ - название модели, например GigaChat-2-Max.
+     */
+    @Builder.Default
+    private Map<String, Limit> models = new HashMap<>();
+
+    public enum Endpoint {
+        /**
+         * /chat/completions
+         */
+        COMPLETIONS,
+        /**
+         * /embeddings
+         */
+        EMBEDDINGS,
+        /**
+         * /files
+         */
+        FILES
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /**
+         * Запросов в секунду, 0 - без ограничения.
+         */
+        private double permitsPerSecond;
+
+        /**
+         * Сколько запросов можно отправить разом после простоя.
+         */
+        @Builder.Default
+        private int burst = 1;
+
+        /**
+         * Максимум одновременных запросов, 0 - без ограничения.
+         * Потоковый ответ занимает место до своего завершения.
+         */
+        private int maxInFlight;
+    }
+}
@@ -0,0 +1,56 @@
+package chat.giga.springai.api;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Повторы потоковых запросов /chat/completions.
+ * <p>
+ * Повторяются ошибки соединения и ответы 429, 500, 502, 503 и 504.
+ * Пауза между попытками растет экспоненциально со случайным разбросом,
+ * при наличии заголовка Retry-After используется его значение.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GigaChatStreamRetryProperties {
+    public static final String CONFIG_PREFIX = "spring.ai.gigachat.stream-retry";
+
+    @Builder.Default
+    private boolean enabled = true;
+
+    /**
+     * Максимальное количество попыток, включая первую.
+     */
+    @Builder.Default
+    private int maxAttempts = 3;
+
+    /**
+     * Пауза перед первым повтором.
+     */
+    @Builder.Default
+    private Duration minBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Максимальная пауза между попытками. Если Retry-After требует ждать дольше, запрос не повторяется.
+     */
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Случайный разброс паузы, доля от 0 до 1.
+     */
+    @Builder.Default
+    private double jitter = 0.5;
+
+    /**
+     * Повторять запрос, только пока не получен первый токен ответа.
+     * Если выключить, после обрыва поток начнется заново и уже полученные токены придут повторно.
+     */
+    @Builder.Default
+    private boolean onlyBeforeFirstToken = true;
+}
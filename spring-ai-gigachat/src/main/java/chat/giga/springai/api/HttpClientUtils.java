@@ -2,28 +2,62 @@ package chat.giga.springai.api;
 
 import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.Executor;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.TrustManagerFactory;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import nl.altindag.ssl.SSLFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 @UtilityClass
 @Slf4j
 public class HttpClientUtils {
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "gigachat-http-";
 
     public static HttpClient buildHttpClient(SSLFactory sslFactory, Duration connectTimeout) {
+        return buildHttpClient(sslFactory, connectTimeout, HttpClient.Version.HTTP_2, null);
+    }
+
+    /**
+     * Создает HttpClient по настройкам транспорта из {@link GigaChatInternalProperties}.
+     * <p>
+     * Клиент держит собственный пул соединений, поэтому его следует создавать один раз
+     * и переиспользовать для всех обращений к GigaChat, включая получение токена.
+     */
+    public static HttpClient buildSharedHttpClient(
+            SSLFactory sslFactory, GigaChatInternalProperties internalProperties) {
+        Assert.notNull(internalProperties, "internalProperties must not be null");
+        return buildHttpClient(
+                sslFactory,
+                internalProperties.getConnectTimeout(),
+                internalProperties.getHttpVersion(),
+                internalProperties.isVirtualThreads()
+                        ? new VirtualThreadTaskExecutor(VIRTUAL_THREAD_NAME_PREFIX)
+                        : null);
+    }
+
+    public static HttpClient buildHttpClient(
+            SSLFactory sslFactory,
+            Duration connectTimeout,
+            HttpClient.Version httpVersion,
+            @Nullable Executor executor) {
         Assert.notNull(sslFactory, "sslFactory must not be null");
         Assert.notNull(connectTimeout, "connectTimeout must not be null");
         Assert.state(connectTimeout.getSeconds() > 0, "connectTimeout must be positive");
+        Assert.notNull(httpVersion, "httpVersion must not be null");
 
-        return HttpClient.newBuilder()
+        HttpClient.Builder builder = HttpClient.newBuilder()
                 .sslParameters(sslFactory.getSslParameters())
                 .sslContext(sslFactory.getSslContext())
                 .connectTimeout(connectTimeout)
-                .build();
+                .version(httpVersion);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
     }
 
     public static SSLFactory buildSslFactory(
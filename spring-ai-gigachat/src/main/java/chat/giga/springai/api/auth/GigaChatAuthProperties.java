@@ -3,6 +3,9 @@ package chat.giga.springai.api.auth;
 import static org.springframework.util.StringUtils.hasText;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -36,7 +39,21 @@ public class GigaChatAuthProperties {
      */
     public boolean isBearerAuth() {
         return bearer != null
-                && (hasText(bearer.getApiKey()) || hasText(bearer.getClientId()) && hasText(bearer.getClientSecret()));
+                        && (hasText(bearer.getApiKey())
+                                || hasText(bearer.getClientId()) && hasText(bearer.getClientSecret()))
+                || isCredentialPool();
+    }
+
+    /**
+     * Checks whether properties set up a pool of several credentials for Bearer authorization.
+     * @return {@code true} - if at least one credential is present in {@link Bearer#getPool()}
+     *         <p>{@code false} - otherwise
+     */
+    public boolean isCredentialPool() {
+        return bearer != null
+                && bearer.getPool() != null
+                && bearer.getPool().getCredentials() != null
+                && !bearer.getPool().getCredentials().isEmpty();
     }
 
     /**
@@ -57,7 +74,11 @@ public class GigaChatAuthProperties {
      */
     public String getApiKey() {
         if (this.isBearerAuth()) {
-            return this.getBearer().buildApiKey();
+            String apiKey = this.getBearer().buildApiKey();
+            if (apiKey == null && this.isCredentialPool()) {
+                return this.getBearer().getPool().getCredentials().get(0).buildApiKey();
+            }
+            return apiKey;
         }
         return null;
     }
@@ -86,22 +107,125 @@ public class GigaChatAuthProperties {
          */
         private String clientSecret;
 
+        @Builder.Default
+        private BackgroundRefresh backgroundRefresh = new BackgroundRefresh();
+
+        /**
+         * Pool of several credentials to spread requests across their rate limits.
+         * Note: if the pool is not empty, it has higher priority than {@link #apiKey},
+         * {@link #clientId} and {@link #clientSecret}.
+         */
+        @Builder.Default
+        private CredentialPool pool = new CredentialPool();
+
         /**
          * Returns {@link #apiKey} if present.
          * Otherwise, build api key as base64-encoded '{@link #clientId}:{@link #clientSecret}' pair.
          * @return base64-encoded api key or {@code null} if neither apiKey nor clientId/clientSecret are present
          */
         public String buildApiKey() {
-            if (StringUtils.hasText(this.apiKey)) {
-                return this.apiKey;
-            }
-            if (StringUtils.hasText(this.clientId) && StringUtils.hasText(this.clientSecret)) {
-                return HttpHeaders.encodeBasicAuth(this.clientId, this.clientSecret, StandardCharsets.UTF_8);
-            }
-            return null;
+            return GigaChatAuthProperties.buildApiKey(this.apiKey, this.clientId, this.clientSecret);
+        }
+    }
+
+    /**
+     * Pool of client credentials, each with its own cached access token.
+     * Requests are spread across the credentials, and a credential answered with 429 or 401
+     * is temporarily ejected from the pool.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CredentialPool {
+        @Builder.Default
+        private List<Credential> credentials = new ArrayList<>();
+
+        @Builder.Default
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+
+        /**
+         * How long an ejected credential is skipped.
+         */
+        @Builder.Default
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+
+        public enum Strategy {
+            /**
+             * Credentials take turns.
+             */
+            ROUND_ROBIN,
+            /**
+             * The credential that received 429 least recently is preferred.
+             */
+            LEAST_RECENTLY_THROTTLED
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Credential {
+        /**
+         * Note: {@link #apiKey} has higher priority over {@link #clientId} and {@link #clientSecret} if all present.
+         */
+        private String apiKey;
+
+        private String clientId;
+
+        private String clientSecret;
+
+        /**
+         * @return base64-encoded api key or {@code null} if neither apiKey nor clientId/clientSecret are present
+         * @see Bearer#buildApiKey()
+         */
+        public String buildApiKey() {
+            return GigaChatAuthProperties.buildApiKey(this.apiKey, this.clientId, this.clientSecret);
         }
     }
 
+    /**
+     * Proactive token refresh in a background thread.
+     * While the refresh is running, requests keep using the current token until it expires.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BackgroundRefresh {
+        @Builder.Default
+        private boolean enabled = false;
+
+        /**
+         * How long before the token refresh time to start the background refresh.
+         */
+        @Builder.Default
+        private Duration ahead = Duration.ofMinutes(1);
+
+        /**
+         * Initial delay between retries of a failed refresh. Grows exponentially with random jitter.
+         */
+        @Builder.Default
+        private Duration minBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound of the delay between retries of a failed refresh.
+         */
+        @Builder.Default
+        private Duration maxBackoff = Duration.ofSeconds(30);
+    }
+
+    private static String buildApiKey(String apiKey, String clientId, String clientSecret) {
+        if (StringUtils.hasText(apiKey)) {
+            return apiKey;
+        }
+        if (StringUtils.hasText(clientId) && StringUtils.hasText(clientSecret)) {
+            return HttpHeaders.encodeBasicAuth(clientId, clientSecret, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,17 @@
+package chat.giga.springai.api.auth.bearer;
+
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Receives API response statuses of requests made with a {@link CredentialToken}.
+ * Lets the token source react to rejected credentials, e.g. on 401 or 429.
+ */
+@FunctionalInterface
+public interface CredentialStatusListener {
+
+    /**
+     * @param token token the request was made with
+     * @param status response status
+     */
+    void onResponse(CredentialToken token, HttpStatusCode status);
+}
@@ -0,0 +1,23 @@
+package chat.giga.springai.api.auth.bearer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bearer token together with the credential it was issued for.
+ * Lets the response status of a request be attributed to the right credential,
+ * even if the credential's token has been refreshed since the request was sent.
+ *
+ * @param credentialId id of the credential that owns the token
+ * @param accessToken bearer token value
+ */
+public record CredentialToken(String credentialId, String accessToken) {
+    public CredentialToken {
+        Assert.hasText(credentialId, "credentialId must not be empty");
+        Assert.hasText(accessToken, "accessToken must not be empty");
+    }
+
+    @Override
+    public String toString() {
+        return "CredentialToken{credentialId='" + credentialId + "', accessToken='***'}";
+    }
+}
@@ -0,0 +1,34 @@
+package chat.giga.springai.api.auth.bearer;
+
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of bearer tokens of several credentials.
+ *
+ * @see GigaChatCredentialPool
+ * @see GigaChatCredentialAffinity
+ */
+public interface CredentialTokenProvider {
+
+    /**
+     * Returns a token of the given credential or, if none is given, of any available one.
+     *
+     * @param credentialId credential the request must be made with, e.g. the owner of the files it refers to
+     * @return token with the id of its credential
+     */
+    CredentialToken getToken(@Nullable String credentialId);
+
+    /**
+     * Non-blocking variant of {@link #getToken(String)}.
+     */
+    Mono<CredentialToken> getReactiveToken(@Nullable String credentialId);
+
+    /**
+     * Chooses the credential for a chain of requests that must share one credential,
+     * e.g. uploading a file and referring to it in a completion request.
+     *
+     * @return credential id
+     */
+    String selectCredential();
+}
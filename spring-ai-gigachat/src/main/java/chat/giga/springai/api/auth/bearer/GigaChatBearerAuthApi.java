@@ -1,8 +1,25 @@
 package chat.giga.springai.api.auth.bearer;
 
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.observation.GigaChatObservationDocumentation;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
-import org.springframework.ai.model.ApiKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
 
 /**
  * Thread-safe manager for GigaChat OAuth 2.0 bearer token authentication.
@@ -11,18 +28,33 @@ import org.springframework.util.Assert;
  * <p><b>Thread Safety Guarantees:</b>
  * <ul>
  *   <li>Multiple threads can call {@link #getValue()} concurrently</li>
- *   <li>Only one thread performs token refresh at a time (others wait)</li>
+ *   <li>Only one token request is in flight at a time, concurrent callers wait for its result</li>
  *   <li>Fast path (valid token) is lock-free using volatile read</li>
+ *   <li>No lock is held during the OAuth call, the lock only guards publishing a new token</li>
  *   <li>Compatible with both virtual threads (Project Loom) and platform threads</li>
  * </ul>
  *
+ * <p><b>Background Refresh:</b> when enabled, the token is renewed by a scheduled task
+ * ahead of its refresh time. Until the new token arrives, callers keep receiving the current one
+ * as long as it is not expired, so request threads never wait for the OAuth round trip.
+ * Failed background refreshes are retried with exponential backoff and jitter, including the case when the scheduled
+ * task finds an on-demand refresh in flight and that refresh fails.
+ * Every token request is observed as {@link GigaChatObservationDocumentation#TOKEN_REFRESH}.
+ *
  * @see GigaChatOAuthClient
  * @see GigaChatBearerToken
  */
-public class GigaChatBearerAuthApi implements ApiKey {
+@Slf4j
+public class GigaChatBearerAuthApi implements ReactiveApiKey, AutoCloseable {
+
+    private static final String REFRESH_THREAD_NAME_PREFIX = "gigachat-token-refresh-";
+
+    private static final String BACKGROUND_REFRESH_MODE = "background";
+
+    private static final String ON_DEMAND_REFRESH_MODE = "on-demand";
 
     /**
-     * Lock for synchronizing token refresh operations.
+     * Lock guarding publication of a new token and the background refresh schedule. Never held during an OAuth call.
      * ReentrantLock is used instead of synchronized for better virtual thread support.
      */
     private final ReentrantLock reentrantTokenLock;
@@ -33,12 +65,41 @@ public class GigaChatBearerAuthApi implements ApiKey {
      */
     private final GigaChatOAuthClient authClient;
 
+    /**
+     * Background refresh settings. Null if background refresh is disabled.
+     */
+    @Nullable
+    private final GigaChatAuthProperties.BackgroundRefresh backgroundRefresh;
+
+    /**
+     * Single-threaded scheduler for background refresh. Null if background refresh is disabled.
+     */
+    @Nullable
+    private final ScheduledExecutorService refreshScheduler;
+
+    /**
+     * Registry for token refresh observations.
+     */
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
     /**
      * Cached token. Volatile ensures visibility across threads without locks on read path.
      * Null initially, non-null after first successful token request.
      */
     private volatile GigaChatBearerToken token;
 
+    /**
+     * Next scheduled background refresh. Guarded by {@link #reentrantTokenLock}.
+     */
+    @Nullable
+    private ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * Token request shared by concurrent {@link #getValue()} callers, {@link #getReactiveValue()} subscribers
+     * and the background refresh. Null if none is in flight.
+     */
+    private final AtomicReference<CompletableFuture<GigaChatBearerToken>> inflightRefresh = new AtomicReference<>();
+
     /**
      * Creates a new authentication API instance with GigaChatOAuthClient build by custom RestClient.Builder
      * and SSL configuration.
@@ -47,8 +108,42 @@ public class GigaChatBearerAuthApi implements ApiKey {
      * @throws IllegalArgumentException if apiProperties or builder is null
      */
     public GigaChatBearerAuthApi(final GigaChatOAuthClient gigaChatOAuthClient) {
+        this(gigaChatOAuthClient, null, false);
+    }
+
+    /**
+     * Creates a new authentication API instance with optional background token refresh.
+     *
+     * @param gigaChatOAuthClient implementation for OAuth
+     * @param backgroundRefresh background refresh settings, null or disabled to refresh only on demand
+     * @param virtualThreads run background refresh on a virtual thread (requires Java 21+)
+     */
+    public GigaChatBearerAuthApi(
+            final GigaChatOAuthClient gigaChatOAuthClient,
+            @Nullable final GigaChatAuthProperties.BackgroundRefresh backgroundRefresh,
+            final boolean virtualThreads) {
         this.authClient = gigaChatOAuthClient;
         this.reentrantTokenLock = new ReentrantLock();
+        if (backgroundRefresh != null && backgroundRefresh.isEnabled()) {
+            Assert.notNull(backgroundRefresh.getAhead(), "ahead must not be null");
+            Assert.isTrue(
+                    !backgroundRefresh.getMinBackoff().isNegative()
+                            && !backgroundRefresh.getMinBackoff().isZero(),
+                    "minBackoff must be positive");
+            Assert.isTrue(
+                    backgroundRefresh.getMaxBackoff().compareTo(backgroundRefresh.getMinBackoff()) >= 0,
+                    "maxBackoff must not be less than minBackoff");
+            this.backgroundRefresh = backgroundRefresh;
+            this.refreshScheduler = buildRefreshScheduler(virtualThreads);
+        } else {
+            this.backgroundRefresh = null;
+            this.refreshScheduler = null;
+        }
+    }
+
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        Assert.notNull(observationRegistry, "observationRegistry must not be null");
+        this.observationRegistry = observationRegistry;
     }
 
     /**
@@ -58,14 +153,16 @@ public class GigaChatBearerAuthApi implements ApiKey {
      * <ol>
      *   <li>Fast path: Check cached token without lock (volatile read)</li>
      *   <li>If valid (not null and not expired), return immediately</li>
-     *   <li>If invalid, acquire lock and double-check (another thread might have refreshed)</li>
-     *   <li>If still invalid, request new token from API</li>
+     *   <li>If invalid, join the token request in flight, if any</li>
+     *   <li>Otherwise start a request, double-check the cached token (another thread might have refreshed)
+     *   and, if still invalid, request new token from API on the calling thread</li>
      *   <li>Cache new token and return</li>
      * </ol>
      *
      * <p>This method is thread-safe and can be called concurrently from multiple threads,
      * including virtual threads. If the token needs refresh, only one thread will perform
-     * the refresh while others wait and receive the new token.
+     * the refresh while others wait and receive the new token. A refresh already started by
+     * {@link #getReactiveValue()} or the background refresh is awaited instead of sending a second token request.
      *
      * @return valid bearer token string (never null or empty)
      * @throws IllegalStateException if token request fails or returns invalid response
@@ -75,32 +172,276 @@ public class GigaChatBearerAuthApi implements ApiKey {
     public String getValue() {
         // Fast path: check cached token without lock (volatile read)
         GigaChatBearerToken currentToken = this.token;
-        if (currentToken != null && !currentToken.needsRefresh()) {
+        if (isUsable(currentToken)) {
             return currentToken.accessToken();
         }
         // Slow path: token is missing or needs refresh
+        return refreshOnDemand().accessToken();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getValue()}.
+     *
+     * <p>A valid cached token is emitted immediately. Otherwise the token is requested with
+     * a non-blocking HTTP call, and concurrent subscribers share a single in-flight request (single-flight),
+     * also with concurrent {@link #getValue()} callers. Cancelling a subscription does not cancel the shared request.
+     *
+     * @return Mono emitting a valid bearer token string
+     */
+    @Override
+    public Mono<String> getReactiveValue() {
+        return Mono.defer(() -> {
+            GigaChatBearerToken currentToken = this.token;
+            if (isUsable(currentToken)) {
+                return Mono.just(currentToken.accessToken());
+            }
+            return Mono.fromFuture(sharedReactiveRefresh(), true).map(GigaChatBearerToken::accessToken);
+        });
+    }
+
+    private CompletableFuture<GigaChatBearerToken> sharedReactiveRefresh() {
+        CompletableFuture<GigaChatBearerToken> refresh = new CompletableFuture<>();
+        CompletableFuture<GigaChatBearerToken> inflight = inflightRefresh.compareAndExchange(null, refresh);
+        if (inflight != null) {
+            return inflight;
+        }
+        // Double-check: a request might have completed between the fast path and the CAS
+        GigaChatBearerToken currentToken = this.token;
+        if (isUsable(currentToken)) {
+            complete(refresh, currentToken);
+            return refresh;
+        }
+        Observation observation = GigaChatObservationDocumentation.TOKEN_REFRESH
+                .observation(this.observationRegistry)
+                .lowCardinalityKeyValue(
+                        GigaChatObservationDocumentation.LowCardinalityKeyNames.REFRESH_MODE.asString(),
+                        ON_DEMAND_REFRESH_MODE)
+                .start();
+        authClient
+                .requestTokenReactive()
+                .map(GigaChatBearerAuthApi::toBearerToken)
+                .subscribe(
+                        newToken -> {
+                            observation.stop();
+                            publish(newToken);
+                            complete(refresh, newToken);
+                        },
+                        e -> {
+                            observation.error(e);
+                            observation.stop();
+                            fail(refresh, e);
+                        });
+        return refresh;
+    }
+
+    /**
+     * Drops the cached token if it is still the given one, so the next call requests a new token.
+     * Used when the API rejects the token before its expiration time.
+     *
+     * @param accessToken token rejected by the API
+     */
+    void invalidate(String accessToken) {
         reentrantTokenLock.lock();
         try {
-            // Double-check: another thread might have refreshed while we waited for lock
-            currentToken = this.token;
-            if (currentToken == null || currentToken.needsRefresh()) {
-                this.token = requestToken();
+            GigaChatBearerToken currentToken = this.token;
+            if (currentToken != null && currentToken.accessToken().equals(accessToken)) {
+                this.token = null;
             }
-            return this.token.accessToken();
         } finally {
             reentrantTokenLock.unlock();
         }
     }
 
     /**
-     * Requests new token from API and validates response.
+     * Stops the background refresh scheduler, if any.
+     */
+    @Override
+    public void close() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * With background refresh enabled, a token past its refresh time is still served until it expires:
+     * renewal is the scheduler's job.
+     */
+    private boolean isUsable(@Nullable GigaChatBearerToken token) {
+        if (token == null) {
+            return false;
+        }
+        return !token.needsRefresh() || refreshScheduler != null && !token.isExpired();
+    }
+
+    /**
+     * On-demand refresh for {@link #getValue()}: joins the token request in flight, otherwise requests a new token
+     * on the calling thread and shares it with callers arriving meanwhile.
+     */
+    private GigaChatBearerToken refreshOnDemand() {
+        CompletableFuture<GigaChatBearerToken> refresh = new CompletableFuture<>();
+        CompletableFuture<GigaChatBearerToken> inflight = inflightRefresh.compareAndExchange(null, refresh);
+        if (inflight != null) {
+            return join(inflight);
+        }
+        // Double-check: a request might have completed between the fast path and the CAS
+        GigaChatBearerToken currentToken = this.token;
+        if (isUsable(currentToken)) {
+            complete(refresh, currentToken);
+            return currentToken;
+        }
+        try {
+            GigaChatBearerToken newToken = refreshToken(ON_DEMAND_REFRESH_MODE);
+            complete(refresh, newToken);
+            return newToken;
+        } catch (RuntimeException | Error e) {
+            fail(refresh, e);
+            throw e;
+        }
+    }
+
+    private void complete(CompletableFuture<GigaChatBearerToken> refresh, GigaChatBearerToken newToken) {
+        inflightRefresh.set(null);
+        refresh.complete(newToken);
+    }
+
+    private void fail(CompletableFuture<GigaChatBearerToken> refresh, Throwable e) {
+        inflightRefresh.set(null);
+        refresh.completeExceptionally(e);
+    }
+
+    private static GigaChatBearerToken join(CompletableFuture<GigaChatBearerToken> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Requests a new token, then caches it and schedules the next background refresh.
+     * Must be called without the lock.
+     */
+    private GigaChatBearerToken refreshToken(String mode) {
+        GigaChatBearerToken newToken = GigaChatObservationDocumentation.TOKEN_REFRESH
+                .observation(this.observationRegistry)
+                .lowCardinalityKeyValue(
+                        GigaChatObservationDocumentation.LowCardinalityKeyNames.REFRESH_MODE.asString(), mode)
+                .observe(this::requestToken);
+        publish(newToken);
+        return newToken;
+    }
+
+    /**
+     * Caches a new token and schedules the next background refresh. The lock is held only for these two steps,
+     * so it is also taken on the reactive path.
+     */
+    private void publish(GigaChatBearerToken newToken) {
+        reentrantTokenLock.lock();
+        try {
+            this.token = newToken;
+            scheduleRefresh(newToken);
+        } finally {
+            reentrantTokenLock.unlock();
+        }
+    }
+
+    /**
      * Must be called under lock.
+     */
+    private void scheduleRefresh(GigaChatBearerToken token) {
+        if (refreshScheduler == null || refreshScheduler.isShutdown()) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        long delay = token.refreshTime() - backgroundRefresh.getAhead().toMillis() - System.currentTimeMillis();
+        scheduledRefresh =
+                refreshScheduler.schedule(() -> backgroundRefresh(0), Math.max(delay, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void backgroundRefresh(int attempt) {
+        CompletableFuture<GigaChatBearerToken> refresh = new CompletableFuture<>();
+        CompletableFuture<GigaChatBearerToken> inflight = inflightRefresh.compareAndExchange(null, refresh);
+        if (inflight != null) {
+            // publishing the result of the request in flight schedules the next refresh, a failure is retried here
+            inflight.whenComplete((newToken, e) -> {
+                if (e != null) {
+                    scheduleRetry(attempt, e);
+                }
+            });
+            return;
+        }
+        try {
+            complete(refresh, refreshToken(BACKGROUND_REFRESH_MODE));
+        } catch (RuntimeException e) {
+            fail(refresh, e);
+            scheduleRetry(attempt, e);
+        }
+    }
+
+    /**
+     * Schedules the next background refresh attempt with backoff. Attempts go on until a token is published,
+     * so background refresh never stops after a failure, whether its own or that of an on-demand refresh.
+     */
+    private void scheduleRetry(int attempt, Throwable e) {
+        reentrantTokenLock.lock();
+        try {
+            if (refreshScheduler.isShutdown()) {
+                return;
+            }
+            long delay = backoff(attempt);
+            log.warn("Token refresh failed (background attempt {}), retrying in {} ms", attempt + 1, delay, e);
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+            }
+            scheduledRefresh =
+                    refreshScheduler.schedule(() -> backgroundRefresh(attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } finally {
+            reentrantTokenLock.unlock();
+        }
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": a random delay between half and full exponential step.
+     */
+    private long backoff(int attempt) {
+        long minBackoff = backgroundRefresh.getMinBackoff().toMillis();
+        long maxBackoff = backgroundRefresh.getMaxBackoff().toMillis();
+        long exponential = Math.min(maxBackoff, minBackoff << Math.min(attempt, 20));
+        return exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+    }
+
+    private static ScheduledExecutorService buildRefreshScheduler(boolean virtualThreads) {
+        ThreadFactory threadFactory;
+        if (virtualThreads) {
+            threadFactory = new VirtualThreadTaskExecutor(REFRESH_THREAD_NAME_PREFIX).getVirtualThreadFactory();
+        } else {
+            CustomizableThreadFactory customizableThreadFactory =
+                    new CustomizableThreadFactory(REFRESH_THREAD_NAME_PREFIX);
+            customizableThreadFactory.setDaemon(true);
+            threadFactory = customizableThreadFactory;
+        }
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Requests new token from API and validates response.
      *
      * @return validated token
      * @throws IllegalStateException if response is invalid
      */
     private GigaChatBearerToken requestToken() {
-        var tokenResponse = authClient.requestToken();
+        return toBearerToken(authClient.requestToken());
+    }
+
+    private static GigaChatBearerToken toBearerToken(
+            @Nullable GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse) {
         Assert.notNull(tokenResponse, "Failed to get access token, response is null");
 
         var token = tokenResponse.accessToken();
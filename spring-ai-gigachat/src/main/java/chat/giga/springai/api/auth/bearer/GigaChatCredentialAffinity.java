@@ -0,0 +1,55 @@
+package chat.giga.springai.api.auth.bearer;
+
+import java.util.function.Supplier;
+import org.springframework.lang.Nullable;
+
+/**
+ * Binds GigaChat requests of the current thread to one credential.
+ *
+ * <p>Files uploaded to GigaChat, including generated images, are available only to the credential that created them.
+ * Requests of an upload → completion → download chain are therefore run inside
+ * {@link #withCredential(String, Supplier)}: GigaChatApi stores the credential in the
+ * {@link #CREDENTIAL_ATTRIBUTE} request attribute when a method is called, and the credential pool
+ * sends the request with a token of that credential.
+ */
+public final class GigaChatCredentialAffinity {
+
+    /**
+     * Request attribute with the id of the credential the request must be made with.
+     */
+    public static final String CREDENTIAL_ATTRIBUTE = GigaChatCredentialAffinity.class.getName() + ".credential";
+
+    private static final ThreadLocal<String> CURRENT_CREDENTIAL = new ThreadLocal<>();
+
+    private GigaChatCredentialAffinity() {}
+
+    /**
+     * Runs the action with requests of the current thread bound to the given credential.
+     *
+     * @param credentialId credential id, null to run the action without binding
+     */
+    public static <T> T withCredential(@Nullable String credentialId, Supplier<T> action) {
+        if (credentialId == null) {
+            return action.get();
+        }
+        String previous = CURRENT_CREDENTIAL.get();
+        CURRENT_CREDENTIAL.set(credentialId);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_CREDENTIAL.remove();
+            } else {
+                CURRENT_CREDENTIAL.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return credential requests of the current thread are bound to, or null
+     */
+    @Nullable
+    public static String currentCredential() {
+        return CURRENT_CREDENTIAL.get();
+    }
+}
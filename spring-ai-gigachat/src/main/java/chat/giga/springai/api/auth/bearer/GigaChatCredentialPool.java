@@ -0,0 +1,271 @@
+package chat.giga.springai.api.auth.bearer;
+
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pool of several GigaChat credentials, each with its own {@link GigaChatBearerAuthApi} and cached token.
+ *
+ * <p>Every request takes a token of the next credential chosen by
+ * {@link GigaChatAuthProperties.CredentialPool.Strategy}, so traffic is spread across the rate limits of all
+ * credentials. Requests bound to a credential by
+ * {@link GigaChatCredentialAffinity} always use that credential, because files uploaded to GigaChat are available only
+ * to the credential that created them.
+ * A credential is temporarily ejected from the pool when:
+ * <ul>
+ *   <li>the API answers 429 or 401 to a request made with its token (see {@link #onResponse})</li>
+ *   <li>its token request fails; the next credential is tried in this case</li>
+ * </ul>
+ * If all credentials are ejected, the one whose ejection ends first is used.
+ *
+ * @see chat.giga.springai.api.auth.bearer.interceptors.CredentialTokenInterceptor
+ * @see chat.giga.springai.api.auth.bearer.interceptors.CredentialTokenFilter
+ */
+@Slf4j
+public class GigaChatCredentialPool
+        implements ReactiveApiKey, CredentialTokenProvider, CredentialStatusListener, AutoCloseable {
+
+    private final List<Member> members;
+
+    private final Map<String, Member> membersById;
+
+    private final GigaChatAuthProperties.CredentialPool.Strategy strategy;
+
+    private final long ejectionMillis;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * Creates a pool whose credentials are identified by their position in the list.
+     *
+     * @param authApis token managers of the pooled credentials, one per credential
+     * @param poolProperties selection strategy and ejection settings
+     */
+    public GigaChatCredentialPool(
+            final List<GigaChatBearerAuthApi> authApis, final GigaChatAuthProperties.CredentialPool poolProperties) {
+        this(indexed(authApis), poolProperties);
+    }
+
+    /**
+     * @param authApis token managers of the pooled credentials by credential id, in the pool order
+     * @param poolProperties selection strategy and ejection settings
+     */
+    public GigaChatCredentialPool(
+            final Map<String, GigaChatBearerAuthApi> authApis,
+            final GigaChatAuthProperties.CredentialPool poolProperties) {
+        Assert.notEmpty(authApis, "authApis must not be empty");
+        Assert.notNull(poolProperties.getStrategy(), "strategy must not be null");
+        Duration ejectionDuration = poolProperties.getEjectionDuration();
+        Assert.isTrue(
+                ejectionDuration != null && !ejectionDuration.isNegative(), "ejectionDuration must not be negative");
+        this.members = authApis.entrySet().stream()
+                .map(entry -> new Member(entry.getKey(), entry.getValue()))
+                .toList();
+        this.membersById = members.stream().collect(Collectors.toMap(member -> member.id, Function.identity()));
+        this.strategy = poolProperties.getStrategy();
+        this.ejectionMillis = ejectionDuration.toMillis();
+    }
+
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        members.forEach(member -> member.authApi.setObservationRegistry(observationRegistry));
+    }
+
+    /**
+     * Returns a token of the next available credential.
+     *
+     * @return valid bearer token string
+     * @see #getToken(String)
+     */
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public String getValue() {
+        return getToken(null).accessToken();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getValue()}.
+     */
+    @Override
+    public Mono<String> getReactiveValue() {
+        return getReactiveToken(null).map(CredentialToken::accessToken);
+    }
+
+    /**
+     * Returns a token of the given credential or of the next available one.
+     * If an unbound request fails to obtain a token, the credential is ejected and the next one is tried.
+     * A bound request does not fail over: the files it refers to are not available to other credentials.
+     *
+     * @param credentialId credential the request is bound to, or null
+     * @return token with the id of its credential
+     * @throws RuntimeException the last failure if no credential could obtain a token
+     */
+    @Override
+    public CredentialToken getToken(@Nullable String credentialId) {
+        if (credentialId != null) {
+            Member member = member(credentialId);
+            return member.token(member.authApi.getValue());
+        }
+        RuntimeException lastError = null;
+        for (Member member : candidates()) {
+            try {
+                return member.token(member.authApi.getValue());
+            } catch (RuntimeException e) {
+                eject(member, "token request failed", false);
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Non-blocking variant of {@link #getToken(String)}.
+     */
+    @Override
+    public Mono<CredentialToken> getReactiveToken(@Nullable String credentialId) {
+        return Mono.defer(() -> {
+            if (credentialId != null) {
+                Member member = member(credentialId);
+                return member.authApi.getReactiveValue().map(member::token);
+            }
+            return reactiveToken(candidates(), 0);
+        });
+    }
+
+    private Mono<CredentialToken> reactiveToken(List<Member> candidates, int index) {
+        Member member = candidates.get(index);
+        return member.authApi.getReactiveValue().map(member::token).onErrorResume(e -> {
+            eject(member, "token request failed", false);
+            return index + 1 < candidates.size() ? reactiveToken(candidates, index + 1) : Mono.error(e);
+        });
+    }
+
+    /**
+     * Chooses the next available credential by the pool strategy.
+     */
+    @Override
+    public String selectCredential() {
+        return candidates().get(0).id;
+    }
+
+    /**
+     * Reports the API response to a request made with the given token.
+     * The credential owning the token is ejected on 429 Too Many Requests and 401 Unauthorized;
+     * on 401 its token is also dropped, unless it has already been refreshed,
+     * so that a new one is requested after the ejection.
+     *
+     * @param token token the request was made with
+     * @param status response status
+     */
+    @Override
+    public void onResponse(CredentialToken token, HttpStatusCode status) {
+        boolean throttled = status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        boolean unauthorized = status.isSameCodeAs(HttpStatus.UNAUTHORIZED);
+        if (!throttled && !unauthorized) {
+            return;
+        }
+        Member member = membersById.get(token.credentialId());
+        if (member == null) {
+            return;
+        }
+        if (unauthorized) {
+            member.authApi.invalidate(token.accessToken());
+        }
+        eject(member, "API responded with " + status, throttled);
+    }
+
+    /**
+     * Stops background refresh of all pooled credentials.
+     */
+    @Override
+    public void close() {
+        members.forEach(member -> member.authApi.close());
+    }
+
+    /**
+     * Available credentials in the order defined by the strategy, then ejected ones by ejection end.
+     */
+    private List<Member> candidates() {
+        long now = System.currentTimeMillis();
+        int size = members.size();
+        int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        List<Member> available = new ArrayList<>(size);
+        List<Member> ejected = new ArrayList<>(0);
+        for (int i = 0; i < size; i++) {
+            Member member = members.get((start + i) % size);
+            (member.isEjected(now) ? ejected : available).add(member);
+        }
+        if (strategy == GigaChatAuthProperties.CredentialPool.Strategy.LEAST_RECENTLY_THROTTLED) {
+            // the sort is stable, so ties keep the round-robin order
+            available.sort(Comparator.comparingLong(member -> member.lastThrottledAt));
+        }
+        ejected.sort(Comparator.comparingLong(member -> member.ejectedUntil));
+        available.addAll(ejected);
+        return available;
+    }
+
+    private Member member(String credentialId) {
+        Member member = membersById.get(credentialId);
+        Assert.notNull(member, () -> "Unknown GigaChat credential: " + credentialId);
+        return member;
+    }
+
+    private static Map<String, GigaChatBearerAuthApi> indexed(List<GigaChatBearerAuthApi> authApis) {
+        Assert.notEmpty(authApis, "authApis must not be empty");
+        Map<String, GigaChatBearerAuthApi> indexed = new LinkedHashMap<>();
+        for (int i = 0; i < authApis.size(); i++) {
+            indexed.put(String.valueOf(i), authApis.get(i));
+        }
+        return indexed;
+    }
+
+    private void eject(Member member, String reason, boolean throttled) {
+        long now = System.currentTimeMillis();
+        member.ejectedUntil = now + ejectionMillis;
+        if (throttled) {
+            member.lastThrottledAt = now;
+        }
+        log.warn(
+                "GigaChat credential {} is ejected from the pool for {} ms: {}",
+                member.id,
+                ejectionMillis,
+                reason);
+    }
+
+    private static final class Member {
+        private final String id;
+
+        private final GigaChatBearerAuthApi authApi;
+
+        private volatile long ejectedUntil;
+
+        private volatile long lastThrottledAt;
+
+        private Member(String id, GigaChatBearerAuthApi authApi) {
+            this.id = id;
+            this.authApi = authApi;
+        }
+
+        private CredentialToken token(String accessToken) {
+            return new CredentialToken(id, accessToken);
+        }
+
+        private boolean isEjected(long now) {
+            return now < ejectedUntil;
+        }
+    }
+}
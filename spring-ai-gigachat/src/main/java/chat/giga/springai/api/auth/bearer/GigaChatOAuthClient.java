@@ -9,19 +9,23 @@ import chat.giga.springai.api.auth.GigaChatApiScope;
 import chat.giga.springai.api.auth.GigaChatAuthProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.TrustManagerFactory;
 import lombok.extern.slf4j.Slf4j;
-import nl.altindag.ssl.SSLFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 /**
  * HTTP client for GigaChat OAuth 2.0 token endpoint.
@@ -44,6 +48,11 @@ public class GigaChatOAuthClient {
      */
     private final RestClient restClient;
 
+    /**
+     * Non-blocking HTTP client for OAuth interaction, shares the connection pool with {@link #restClient}.
+     */
+    private final WebClient webClient;
+
     /**
      * Scope requested scope for the access token.
      */
@@ -108,16 +117,96 @@ public class GigaChatOAuthClient {
             @Nullable TrustManagerFactory tmf,
             final GigaAuthToken authToken,
             final ObjectMapper objectMapper) {
+        this(
+                apiProperties,
+                builder,
+                HttpClientUtils.buildSharedHttpClient(
+                        HttpClientUtils.buildSslFactory(
+                                kmf, tmf, apiProperties.getAuth().isUnsafeSsl()),
+                        apiProperties.getInternal()),
+                authToken,
+                objectMapper);
+    }
+
+    /**
+     * Creates auth client on top of an existing JDK HttpClient with default ObjectMapper.
+     *
+     * @param apiProperties API configuration including auth URL and timeouts
+     * @param builder RestClient.Builder with custom interceptors, filters, or observers
+     * @param httpClient shared HttpClient with SSL already configured
+     * @param authToken token to use for authentication
+     */
+    public GigaChatOAuthClient(
+            final GigaChatApiProperties apiProperties,
+            final RestClient.Builder builder,
+            final HttpClient httpClient,
+            final GigaAuthToken authToken) {
+        this(apiProperties, builder, httpClient, authToken, DEFAULT_OBJECT_MAPPER);
+    }
+
+    /**
+     * Creates auth client on top of an existing JDK HttpClient.
+     * Allows sharing one connection pool and TLS sessions with {@link chat.giga.springai.api.chat.GigaChatApi}.
+     *
+     * @param apiProperties API configuration including auth URL and timeouts
+     * @param builder RestClient.Builder with custom interceptors, filters, or observers
+     * @param httpClient shared HttpClient with SSL already configured
+     * @param authToken token to use for authentication
+     * @param objectMapper ObjectMapper for deserializing error response bodies
+     */
+    public GigaChatOAuthClient(
+            final GigaChatApiProperties apiProperties,
+            final RestClient.Builder builder,
+            final HttpClient httpClient,
+            final GigaAuthToken authToken,
+            final ObjectMapper objectMapper) {
+        this(apiProperties, httpClient, builder, WebClient.builder(), authToken, objectMapper);
+    }
+
+    /**
+     * Creates auth client with both blocking and non-blocking transports and default ObjectMapper.
+     *
+     * @param apiProperties API configuration including auth URL and timeouts
+     * @param httpClient shared HttpClient with SSL already configured
+     * @param builder RestClient.Builder with custom interceptors, filters, or observers
+     * @param webClientBuilder WebClient.Builder for non-blocking token requests
+     * @param authToken token to use for authentication
+     */
+    public GigaChatOAuthClient(
+            final GigaChatApiProperties apiProperties,
+            final HttpClient httpClient,
+            final RestClient.Builder builder,
+            final WebClient.Builder webClientBuilder,
+            final GigaAuthToken authToken) {
+        this(apiProperties, httpClient, builder, webClientBuilder, authToken, DEFAULT_OBJECT_MAPPER);
+    }
+
+    /**
+     * Creates auth client with both blocking and non-blocking transports on top of an existing JDK HttpClient.
+     *
+     * @param apiProperties API configuration including auth URL and timeouts
+     * @param httpClient shared HttpClient with SSL already configured
+     * @param builder RestClient.Builder with custom interceptors, filters, or observers
+     * @param webClientBuilder WebClient.Builder for non-blocking token requests
+     * @param authToken token to use for authentication
+     * @param objectMapper ObjectMapper for deserializing error response bodies
+     */
+    public GigaChatOAuthClient(
+            final GigaChatApiProperties apiProperties,
+            final HttpClient httpClient,
+            final RestClient.Builder builder,
+            final WebClient.Builder webClientBuilder,
+            final GigaAuthToken authToken,
+            final ObjectMapper objectMapper) {
         GigaChatAuthProperties authProps = apiProperties.getAuth();
         GigaChatInternalProperties internalProps = apiProperties.getInternal();
 
-        SSLFactory sslFactory = HttpClientUtils.buildSslFactory(kmf, tmf, authProps.isUnsafeSsl());
-
-        var clientHttpRequestFactory = new JdkClientHttpRequestFactory(
-                HttpClientUtils.buildHttpClient(sslFactory, internalProps.getConnectTimeout()));
+        var clientHttpRequestFactory = new JdkClientHttpRequestFactory(httpClient);
+        var clientHttpConnector = new JdkClientHttpConnector(httpClient);
 
         if (internalProps.getReadTimeout() != null) {
             clientHttpRequestFactory.setReadTimeout(internalProps.getReadTimeout());
+            clientHttpConnector.setReadTimeout(internalProps.getReadTimeout());
         }
 
         String authUrl = authProps.getBearer().getUrl();
@@ -125,6 +214,11 @@ public class GigaChatOAuthClient {
                 .baseUrl(authUrl)
                 .requestFactory(clientHttpRequestFactory)
                 .build();
+        this.webClient = webClientBuilder
+                .clone()
+                .baseUrl(authUrl)
+                .clientConnector(clientHttpConnector)
+                .build();
 
         this.authToken = authToken;
         this.scope = authProps.getScope();
@@ -159,41 +253,57 @@ public class GigaChatOAuthClient {
                 .post()
                 .headers(headers -> buildAuthHeaders(headers, this.authToken))
                 .body("scope=" + this.scope)
-                .exchange((request, response) -> {
-                    byte[] bodyBytes = response.getBody().readAllBytes();
-                    String body = new String(bodyBytes, StandardCharsets.UTF_8);
-                    String truncatedBody = truncate(body, MAX_LOGGED_BODY_LENGTH);
-                    String contentType = response.getHeaders().getContentType() != null
-                            ? response.getHeaders().getContentType().toString()
-                            : "unknown";
-
-                    if (response.getStatusCode().isError() && !contentType.contains("json")) {
-                        log.warn(
-                                "Token request failed: status={}, contentType={}, body={}",
-                                response.getStatusCode(),
-                                contentType,
-                                truncatedBody);
-                        throw new RestClientException("Auth endpoint returned non-JSON response (status="
-                                + response.getStatusCode() + ", contentType=" + contentType
-                                + "): " + truncatedBody);
-                    }
-
-                    // Try to parse JSON even for error HTTP response codes (API may return valid token with 4xx/5xx)
-                    try {
-                        return objectMapper.readValue(bodyBytes, GigaChatAccessTokenResponse.class);
-                    } catch (Exception e) {
-                        log.warn(
-                                "Token request failed: status={}, contentType={}, body={}",
-                                response.getStatusCode(),
-                                contentType,
-                                truncatedBody,
-                                e);
-                        throw new RestClientException(
-                                "Auth endpoint returned unparseable JSON (status=" + response.getStatusCode() + "): "
-                                        + truncatedBody,
-                                e);
-                    }
-                });
+                .exchange((request, response) -> parseTokenResponse(
+                        response.getStatusCode(),
+                        response.getHeaders().getContentType(),
+                        response.getBody().readAllBytes()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #requestToken()}.
+     * The request is sent on subscription, so every subscriber triggers a separate HTTP request.
+     *
+     * @return Mono emitting the token response, or an error with the same semantics as {@link #requestToken()}
+     */
+    Mono<GigaChatAccessTokenResponse> requestTokenReactive() {
+        return this.webClient
+                .post()
+                .headers(headers -> buildAuthHeaders(headers, this.authToken))
+                .bodyValue("scope=" + this.scope)
+                .exchangeToMono(response -> response.bodyToMono(byte[].class)
+                        .defaultIfEmpty(new byte[0])
+                        .map(body -> parseTokenResponse(
+                                response.statusCode(),
+                                response.headers().contentType().orElse(null),
+                                body)));
+    }
+
+    private GigaChatAccessTokenResponse parseTokenResponse(
+            HttpStatusCode statusCode, @Nullable MediaType mediaType, byte[] bodyBytes) {
+        String body = new String(bodyBytes, StandardCharsets.UTF_8);
+        String truncatedBody = truncate(body, MAX_LOGGED_BODY_LENGTH);
+        String contentType = mediaType != null ? mediaType.toString() : "unknown";
+
+        if (statusCode.isError() && !contentType.contains("json")) {
+            log.warn(
+                    "Token request failed: status={}, contentType={}, body={}", statusCode, contentType, truncatedBody);
+            throw new RestClientException("Auth endpoint returned non-JSON response (status=" + statusCode
+                    + ", contentType=" + contentType + "): " + truncatedBody);
+        }
+
+        // Try to parse JSON even for error HTTP response codes (API may return valid token with 4xx/5xx)
+        try {
+            return objectMapper.readValue(bodyBytes, GigaChatAccessTokenResponse.class);
+        } catch (Exception e) {
+            log.warn(
+                    "Token request failed: status={}, contentType={}, body={}",
+                    statusCode,
+                    contentType,
+                    truncatedBody,
+                    e);
+            throw new RestClientException(
+                    "Auth endpoint returned unparseable JSON (status=" + statusCode + "): " + truncatedBody, e);
+        }
     }
 
     private static String truncate(String text, int maxLength) {
@@ -0,0 +1,18 @@
+package chat.giga.springai.api.auth.bearer;
+
+import org.springframework.ai.model.ApiKey;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ApiKey} that can supply its value without blocking the calling thread.
+ * Used by reactive clients, where a blocking call would stall an event-loop thread.
+ */
+public interface ReactiveApiKey extends ApiKey {
+
+    /**
+     * Returns the key value lazily: any I/O needed to obtain it starts on subscription.
+     *
+     * @return Mono emitting the current key value
+     */
+    Mono<String> getReactiveValue();
+}
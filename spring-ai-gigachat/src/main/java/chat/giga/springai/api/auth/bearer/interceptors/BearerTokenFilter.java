@@ -2,6 +2,7 @@ package chat.giga.springai.api.auth.bearer.interceptors;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 
+import chat.giga.springai.api.auth.bearer.ReactiveApiKey;
 import org.springframework.ai.model.ApiKey;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
@@ -15,7 +16,8 @@ import reactor.core.publisher.Mono;
  *
  * <p>This filter intercepts outgoing HTTP requests and automatically injects a Bearer token
  * into the Authorization header. The token is obtained from the provided {@link ApiKey}
- * instance, which may implement token renewal logic.
+ * instance, which may implement token renewal logic. If the provider is a {@link ReactiveApiKey},
+ * the token is obtained without blocking the event-loop thread.
  *
  * @param tokenRenewer the API key provider that supplies the Bearer token value
  *
@@ -37,8 +39,19 @@ public record BearerTokenFilter(ApiKey tokenRenewer) implements ExchangeFilterFu
     @Override
     @SuppressWarnings("NullableProblems")
     public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
-        return next.exchange(ClientRequest.from(request)
-                .header(AUTHORIZATION, "Bearer " + tokenRenewer.getValue())
-                .build());
+        return token().flatMap(token -> next.exchange(ClientRequest.from(request)
+                .header(AUTHORIZATION, "Bearer " + token)
+                .build()));
+    }
+
+    /**
+     * Obtains the token without blocking if the provider is a {@link ReactiveApiKey}.
+     * Otherwise falls back to {@link ApiKey#getValue()} on subscription.
+     */
+    private Mono<String> token() {
+        if (tokenRenewer instanceof ReactiveApiKey reactiveApiKey) {
+            return reactiveApiKey.getReactiveValue();
+        }
+        return Mono.fromSupplier(tokenRenewer::getValue);
     }
 }
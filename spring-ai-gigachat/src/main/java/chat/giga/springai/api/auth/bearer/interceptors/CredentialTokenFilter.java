@@ -0,0 +1,40 @@
+package chat.giga.springai.api.auth.bearer.interceptors;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import chat.giga.springai.api.auth.bearer.CredentialStatusListener;
+import chat.giga.springai.api.auth.bearer.CredentialTokenProvider;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * An {@link ExchangeFilterFunction} implementation that adds a Bearer token of one of several credentials
+ * to reactive WebClient requests. The token is obtained without blocking the event-loop thread.
+ *
+ * <p>The credential is taken from the {@link GigaChatCredentialAffinity#CREDENTIAL_ATTRIBUTE} request attribute,
+ * if present. The response status is reported to the status listener together with the token the request was
+ * made with.
+ *
+ * @param tokenProvider supplies the Bearer token
+ * @param statusListener receives response statuses
+ *
+ * @see chat.giga.springai.api.auth.bearer.GigaChatCredentialPool
+ */
+public record CredentialTokenFilter(CredentialTokenProvider tokenProvider, CredentialStatusListener statusListener)
+        implements ExchangeFilterFunction {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String credentialId = (String) request.attribute(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE)
+                .orElse(null);
+        return tokenProvider.getReactiveToken(credentialId).flatMap(token -> next.exchange(ClientRequest.from(request)
+                        .header(AUTHORIZATION, "Bearer " + token.accessToken())
+                        .build())
+                .doOnNext(response -> statusListener.onResponse(token, response.statusCode())));
+    }
+}
@@ -0,0 +1,40 @@
+package chat.giga.springai.api.auth.bearer.interceptors;
+
+import chat.giga.springai.api.auth.bearer.CredentialStatusListener;
+import chat.giga.springai.api.auth.bearer.CredentialToken;
+import chat.giga.springai.api.auth.bearer.CredentialTokenProvider;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import lombok.SneakyThrows;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A {@link ClientHttpRequestInterceptor} implementation that adds a Bearer token of one of several credentials
+ * to synchronous RestClient requests.
+ *
+ * <p>The credential is taken from the {@link GigaChatCredentialAffinity#CREDENTIAL_ATTRIBUTE} request attribute,
+ * if present. The response status is reported to the status listener together with the token the request was
+ * made with.
+ *
+ * @param tokenProvider supplies the Bearer token
+ * @param statusListener receives response statuses
+ *
+ * @see chat.giga.springai.api.auth.bearer.GigaChatCredentialPool
+ */
+public record CredentialTokenInterceptor(CredentialTokenProvider tokenProvider, CredentialStatusListener statusListener)
+        implements ClientHttpRequestInterceptor {
+
+    @Override
+    @SneakyThrows
+    @SuppressWarnings("NullableProblems")
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) {
+        String credentialId = (String) request.getAttributes().get(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE);
+        CredentialToken token = tokenProvider.getToken(credentialId);
+        request.getHeaders().setBearerAuth(token.accessToken());
+        ClientHttpResponse response = execution.execute(request, body);
+        statusListener.onResponse(token, response.getStatusCode());
+        return response;
+    }
+}
@@ -1,62 +1,129 @@
 package chat.giga.springai.api.chat;
 
-import static chat.giga.springai.api.HttpClientUtils.buildHttpClient;
+import static chat.giga.springai.api.HttpClientUtils.buildSharedHttpClient;
 import static chat.giga.springai.api.HttpClientUtils.buildSslFactory;
 
 import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatLoggingProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
 import chat.giga.springai.api.auth.bearer.GigaAuthToken;
 import chat.giga.springai.api.auth.bearer.GigaChatBearerAuthApi;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialPool;
 import chat.giga.springai.api.auth.bearer.GigaChatOAuthClient;
 import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
 import chat.giga.springai.api.auth.bearer.SimpleGigaAuthToken;
 import chat.giga.springai.api.auth.bearer.interceptors.BearerTokenFilter;
 import chat.giga.springai.api.auth.bearer.interceptors.BearerTokenInterceptor;
+import chat.giga.springai.api.auth.bearer.interceptors.CredentialTokenFilter;
+import chat.giga.springai.api.auth.bearer.interceptors.CredentialTokenInterceptor;
 import chat.giga.springai.api.chat.completion.CompletionRequest;
 import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.completion.CompletionStreamDecoder;
+import chat.giga.springai.api.chat.completion.CompletionStreamRetry;
 import chat.giga.springai.api.chat.embedding.EmbeddingsRequest;
 import chat.giga.springai.api.chat.embedding.EmbeddingsResponse;
 import chat.giga.springai.api.chat.file.DeleteFileResponse;
 import chat.giga.springai.api.chat.file.UploadFileResponse;
 import chat.giga.springai.api.chat.models.ModelsResponse;
+import chat.giga.springai.api.latency.GigaChatLatencyMetrics;
+import chat.giga.springai.api.latency.LatencyFilter;
+import chat.giga.springai.api.latency.LatencyInterceptor;
+import chat.giga.springai.api.logging.GigaChatHttpLogger;
+import chat.giga.springai.api.logging.LoggingFilter;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.api.ratelimit.RateLimitFilter;
+import chat.giga.springai.api.ratelimit.RateLimitInterceptor;
+import chat.giga.springai.support.HashUtils;
 import com.fasterxml.jackson.annotation.JsonValue;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.LongConsumer;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.TrustManagerFactory;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.content.Media;
 import org.springframework.ai.model.ChatModelDescription;
-import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.retry.NonTransientAiException;
 import org.springframework.ai.retry.RetryUtils;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.client.reactive.JdkClientHttpConnector;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.MimeType;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
-public class GigaChatApi {
+public class GigaChatApi implements AutoCloseable {
     public static final String DEFAULT_BASE_URL = "https://gigachat.devices.sberbank.ru/api/v1/";
     public static final String DEFAULT_COMPLETIONS_PATH = "/chat/completions";
     public static final String USER_AGENT_SPRING_AI_GIGACHAT = "Spring-AI-GigaChat";
     public static final String PROVIDER_NAME = "gigachat";
     public static final String X_REQUEST_ID = "x-request-id";
-    private static final Predicate<String> SSE_DONE_PREDICATE = "[DONE]"::equals;
 
+    private final HttpClient httpClient;
     private final RestClient restClient;
     private final WebClient webClient;
+    private final ResponseErrorHandler responseErrorHandler;
+    private final CompletionStreamDecoder completionStreamDecoder = new CompletionStreamDecoder();
+
+    @Nullable
+    private final CompletionStreamRetry completionStreamRetry;
+
     private final String baseUrl;
 
+    private final List<GigaChatBearerAuthApi> bearerAuthApis;
+
+    /**
+     * Пул учетных записей или null, если запросы идут от одной учетной записи.
+     */
+    @Nullable
+    private final GigaChatCredentialPool credentialPool;
+
+    /**
+     * Идентификатор единственной учетной записи или null, если используется пул или авторизация по сертификатам.
+     */
+    @Nullable
+    private final String credentialId;
+
+    @Nullable
+    private final GigaChatRateLimiter rateLimiter;
+
+    private final GigaChatHttpLogger httpLogger;
+
+    private final GigaChatLatencyMetrics latencyMetrics = new GigaChatLatencyMetrics();
+
     public GigaChatApi(GigaChatApiProperties properties) {
         this(properties, null, null);
     }
@@ -99,38 +166,124 @@ public class GigaChatApi {
             ResponseErrorHandler responseErrorHandler,
             @Nullable KeyManagerFactory kmf,
             @Nullable TrustManagerFactory tmf) {
+        this(
+                properties,
+                authToken,
+                buildSharedHttpClient(
+                        buildSslFactory(kmf, tmf, properties.getAuth().isUnsafeSsl()), properties.getInternal()),
+                restClientBuilder,
+                webClientBuilder,
+                responseErrorHandler);
+    }
+
+    /**
+     * Создает клиент поверх готового HttpClient.
+     * <p>
+     * Один HttpClient используется и для RestClient, и для WebClient, и для получения токена,
+     * поэтому все запросы идут через общий пул соединений и переиспользуют TLS-сессии.
+     * Можно передать один и тот же HttpClient в несколько экземпляров GigaChatApi.
+     * Переданные билдеры не изменяются: перехватчики добавляются в их копии.
+     */
+    public GigaChatApi(
+            GigaChatApiProperties properties,
+            GigaAuthToken authToken,
+            HttpClient httpClient,
+            RestClient.Builder restClientBuilder,
+            WebClient.Builder webClientBuilder,
+            ResponseErrorHandler responseErrorHandler) {
+        Assert.notNull(httpClient, "httpClient must not be null");
+        // билдеры могут быть общими для нескольких экземпляров (например, бины Spring Boot), поэтому перехватчики
+        // добавляются в копии, а OAuth-клиент получает билдеры без перехватчиков этого экземпляра
+        restClientBuilder = restClientBuilder.clone();
+        webClientBuilder = webClientBuilder.clone();
         this.baseUrl = properties.getBaseUrl();
+        this.httpClient = httpClient;
+        this.responseErrorHandler = responseErrorHandler;
         var authProps = properties.getAuth();
         var internalProps = properties.getInternal();
 
+        ClientHttpRequestInterceptor authInterceptor = null;
+        ExchangeFilterFunction authFilter = null;
         if (authProps.isBearerAuth()) {
-            final GigaChatOAuthClient gigaChatOAuthClient =
-                    new GigaChatOAuthClient(properties, restClientBuilder, null, tmf, authToken);
-            final GigaChatBearerAuthApi gigaChatBearerAuthApi = new GigaChatBearerAuthApi(gigaChatOAuthClient);
-            restClientBuilder.requestInterceptor(new BearerTokenInterceptor(gigaChatBearerAuthApi));
-            webClientBuilder.filter(new BearerTokenFilter(gigaChatBearerAuthApi));
+            if (authProps.isCredentialPool()) {
+                // у каждой учетной записи пула свой OAuth-клиент и свой кэшированный токен
+                Map<String, GigaChatBearerAuthApi> pooledAuthApis = new LinkedHashMap<>();
+                List<GigaChatAuthProperties.Credential> credentials =
+                        authProps.getBearer().getPool().getCredentials();
+                for (int i = 0; i < credentials.size(); i++) {
+                    String apiKey = credentials.get(i).buildApiKey();
+                    Assert.hasText(
+                            apiKey, "Credential pool entry " + i + " must set apiKey or both clientId and clientSecret");
+                    pooledAuthApis.putIfAbsent(
+                            credentialId(apiKey),
+                            buildBearerAuthApi(
+                                    properties,
+                                    new SimpleGigaAuthToken(apiKey),
+                                    httpClient,
+                                    restClientBuilder,
+                                    webClientBuilder));
+                }
+                this.bearerAuthApis = List.copyOf(pooledAuthApis.values());
+                this.credentialPool = new GigaChatCredentialPool(
+                        pooledAuthApis, authProps.getBearer().getPool());
+                this.credentialId = null;
+                authInterceptor = new CredentialTokenInterceptor(this.credentialPool, this.credentialPool);
+                authFilter = new CredentialTokenFilter(this.credentialPool, this.credentialPool);
+            } else {
+                final GigaChatBearerAuthApi gigaChatBearerAuthApi =
+                        buildBearerAuthApi(properties, authToken, httpClient, restClientBuilder, webClientBuilder);
+                this.bearerAuthApis = List.of(gigaChatBearerAuthApi);
+                this.credentialPool = null;
+                this.credentialId = credentialId(authToken.getValue());
+                authInterceptor = new BearerTokenInterceptor(gigaChatBearerAuthApi);
+                authFilter = new BearerTokenFilter(gigaChatBearerAuthApi);
+            }
+        } else {
+            this.bearerAuthApis = List.of();
+            this.credentialPool = null;
+            this.credentialId = null;
         }
 
-        var clientHttpRequestFactory = new JdkClientHttpRequestFactory(
-                buildHttpClient(buildSslFactory(kmf, tmf, authProps.isUnsafeSsl()), internalProps.getConnectTimeout()));
+        var streamRetryProps = properties.getStreamRetry();
+        this.completionStreamRetry = streamRetryProps != null && streamRetryProps.isEnabled()
+                ? new CompletionStreamRetry(streamRetryProps)
+                : null;
+
+        var rateLimitProps = properties.getRateLimit();
+        this.rateLimiter =
+                rateLimitProps != null && rateLimitProps.isEnabled() ? new GigaChatRateLimiter(rateLimitProps) : null;
+
+        var loggingProps = properties.getLogging();
+        this.httpLogger = new GigaChatHttpLogger(loggingProps != null ? loggingProps : new GigaChatLoggingProperties());
+
+        var clientHttpRequestFactory = new JdkClientHttpRequestFactory(httpClient);
         if (internalProps.getReadTimeout() != null) {
             clientHttpRequestFactory.setReadTimeout(internalProps.getReadTimeout());
         }
+        if (this.rateLimiter != null) {
+            restClientBuilder.requestInterceptor(new RateLimitInterceptor(this.rateLimiter));
+            webClientBuilder.filter(new RateLimitFilter(this.rateLimiter));
+        }
+        // токен берется после ожидания разрешения ограничителя, чтобы запрос не ушел с устаревшим токеном
+        if (authInterceptor != null) {
+            restClientBuilder.requestInterceptor(authInterceptor);
+            webClientBuilder.filter(authFilter);
+        }
         this.restClient = restClientBuilder
-                .clone()
                 .requestFactory(clientHttpRequestFactory)
-                .requestInterceptor(new GigachatLoggingInterceptor())
+                .requestInterceptor(new LatencyInterceptor(this.latencyMetrics))
+                .requestInterceptor(new GigachatLoggingInterceptor(this.httpLogger))
                 .defaultStatusHandler(responseErrorHandler)
                 .baseUrl(properties.getBaseUrl())
                 .build();
 
-        var clientHttpConnector = new JdkClientHttpConnector(
-                buildHttpClient(buildSslFactory(kmf, tmf, authProps.isUnsafeSsl()), internalProps.getConnectTimeout()));
+        var clientHttpConnector = new JdkClientHttpConnector(httpClient);
         if (internalProps.getReadTimeout() != null) {
             clientHttpConnector.setReadTimeout(internalProps.getReadTimeout());
         }
         this.webClient = webClientBuilder
-                .clone()
+                .filter(new LatencyFilter(this.latencyMetrics))
+                .filter(new LoggingFilter(this.httpLogger))
                 .clientConnector(clientHttpConnector)
                 .baseUrl(properties.getBaseUrl())
                 .build();
@@ -171,6 +324,7 @@ public class GigaChatApi {
                 .post()
                 .uri(DEFAULT_COMPLETIONS_PATH)
                 .headers(applyHeaders(headers))
+                .attributes(applyRequestAttributes(chatRequest.getModel()))
                 .body(chatRequest)
                 .retrieve()
                 .toEntity(CompletionResponse.class);
@@ -180,27 +334,37 @@ public class GigaChatApi {
         return chatCompletionStream(chatRequest, null);
     }
 
+    /**
+     * Потоковый запрос. Ошибки повторяются по правилам {@link GigaChatApiProperties#getStreamRetry()}.
+     * Ответ с кодом ошибки, оставшийся после повторов, завершает поток так же, как в блокирующих методах:
+     * 4xx - {@link NonTransientAiException}, остальные - {@link TransientAiException}.
+     */
     public Flux<CompletionResponse> chatCompletionStream(
             final CompletionRequest chatRequest, @Nullable final HttpHeaders headers) {
         Assert.notNull(chatRequest, "The request body can not be null.");
         Assert.isTrue(chatRequest.getStream(), "Request must set the steam property to true.");
-        return this.webClient
+        Flux<CompletionResponse> stream = this.webClient
                 .post()
                 .uri(DEFAULT_COMPLETIONS_PATH)
                 .headers(applyHeaders(headers))
+                .attributes(applyRequestAttributes(chatRequest.getModel()))
                 .body(Mono.just(chatRequest), CompletionRequest.class)
                 .exchangeToFlux(rs -> {
+                    if (rs.statusCode().isError()) {
+                        return rs.<CompletionResponse>createError().flux();
+                    }
                     String id = rs.headers().asHttpHeaders().getFirst(X_REQUEST_ID);
-                    return rs.bodyToFlux(String.class)
-                            .takeUntil(SSE_DONE_PREDICATE)
-                            .filter(SSE_DONE_PREDICATE.negate())
-                            .map(content -> {
-                                CompletionResponse completionResponse =
-                                        ModelOptionsUtils.jsonToObject(content, CompletionResponse.class);
-                                completionResponse.setId(id);
-                                return completionResponse;
-                            });
+                    return completionStreamDecoder
+                            .decode(
+                                    rs.bodyToFlux(DataBuffer.class),
+                                    latencyMetrics.streamDecodeTimer(chatRequest.getModel()))
+                            .map(completionResponse -> completionResponse.setId(id));
                 });
+        // повторы разбирают статус и Retry-After исходной ошибки WebClient, поэтому она преобразуется после них
+        return latencyMetrics.instrumentStream(
+                (completionStreamRetry != null ? completionStreamRetry.apply(stream) : stream)
+                        .onErrorMap(WebClientResponseException.class, GigaChatApi::toAiException),
+                chatRequest.getModel());
     }
 
     public ResponseEntity<EmbeddingsResponse> embeddings(final EmbeddingsRequest embeddingRequest) {
@@ -211,18 +375,30 @@ public class GigaChatApi {
                 .post()
                 .uri("/embeddings")
                 .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(applyRequestAttributes(embeddingRequest.getModel()))
                 .body(embeddingRequest)
                 .retrieve()
                 .toEntity(EmbeddingsResponse.class);
     }
 
+    /**
+     * Загружает файл в GigaChat.
+     * <p>
+     * Если данные media - массив байт, файл отправляется через RestClient. Если это {@link Resource},
+     * {@link Path}, {@link File} или {@link InputStream}, файл передается потоком через
+     * {@link #uploadFileReactive(Resource, MimeType, String)} и не копируется в память целиком.
+     */
     public ResponseEntity<UploadFileResponse> uploadFile(Media media) {
         Assert.notNull(media, "Media can not be null.");
         Assert.notNull(media.getData(), "Media data can not be null.");
 
+        if (!(media.getData() instanceof byte[] data)) {
+            return uploadFile(toResource(media.getData()), media.getMimeType(), media.getName());
+        }
+
         MultipartBodyBuilder builder = new MultipartBodyBuilder();
 
-        builder.part("file", media.getDataAsByteArray())
+        builder.part("file", data)
                 .contentType(MediaType.valueOf(media.getMimeType().toString()))
                 .header("Content-Disposition", "form-data; name=\"file\"; filename=\"" + media.getName() + "\"");
 
@@ -233,17 +409,91 @@ public class GigaChatApi {
                 .post()
                 .uri("/files")
                 .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(applyRequestAttributes(null))
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .body(builder.build())
                 .retrieve()
                 .toEntity(UploadFileResponse.class);
     }
 
+    /**
+     * Загружает файл в GigaChat потоком, блокируя текущий поток до получения ответа.
+     * <p>
+     * Перехватчики RestClient буферизуют тело запроса целиком, поэтому загрузка выполняется через WebClient.
+     * Ошибки ответа преобразуются так же, как в остальных методах RestClient: 4xx - в
+     * {@link NonTransientAiException}, остальные - в {@link TransientAiException}.
+     */
+    public ResponseEntity<UploadFileResponse> uploadFile(
+            Resource resource, MimeType mimeType, @Nullable String filename) {
+        try {
+            return uploadFileReactive(resource, mimeType, filename).block();
+        } catch (WebClientResponseException e) {
+            throw toAiException(e);
+        }
+    }
+
+    public Mono<ResponseEntity<UploadFileResponse>> uploadFileReactive(Media media) {
+        Assert.notNull(media, "Media can not be null.");
+        Assert.notNull(media.getData(), "Media data can not be null.");
+        Resource resource =
+                media.getData() instanceof byte[] data ? new ByteArrayResource(data) : toResource(media.getData());
+        return uploadFileReactive(resource, media.getMimeType(), media.getName());
+    }
+
+    /**
+     * Загружает файл в GigaChat без блокировки. Содержимое читается из ресурса частями по мере отправки,
+     * файлы на диске читаются через файловый канал, поэтому объем памяти на загрузку не зависит от размера файла.
+     *
+     * @param resource содержимое файла
+     * @param mimeType тип файла
+     * @param filename имя файла, если не задано - берется из ресурса
+     */
+    public Mono<ResponseEntity<UploadFileResponse>> uploadFileReactive(
+            Resource resource, MimeType mimeType, @Nullable String filename) {
+        Assert.notNull(resource, "Resource can not be null.");
+        Assert.notNull(mimeType, "MimeType can not be null.");
+        String name = filename != null ? filename : resource.getFilename();
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+
+        builder.part("file", resource)
+                .contentType(MediaType.valueOf(mimeType.toString()))
+                .header("Content-Disposition", "form-data; name=\"file\"; filename=\"" + name + "\"");
+
+        builder.part("purpose", "general", MediaType.TEXT_PLAIN)
+                .header("Content-Disposition", "form-data; name=\"purpose\"");
+
+        return this.webClient
+                .post()
+                .uri("/files")
+                .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(applyRequestAttributes(null))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .retrieve()
+                .toEntity(UploadFileResponse.class);
+    }
+
+    private static Resource toResource(Object data) {
+        if (data instanceof Resource resource) {
+            return resource;
+        } else if (data instanceof Path path) {
+            return new FileSystemResource(path);
+        } else if (data instanceof File file) {
+            return new FileSystemResource(file);
+        } else if (data instanceof InputStream inputStream) {
+            return new InputStreamResource(inputStream);
+        }
+        throw new IllegalArgumentException(
+                "Unsupported media data type: " + data.getClass().getName());
+    }
+
     public ResponseEntity<DeleteFileResponse> deleteFile(String fileId) {
         return this.restClient
                 .post()
                 .uri("/files/{fileId}/delete", fileId)
                 .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(applyRequestAttributes(null))
                 .retrieve()
                 .toEntity(DeleteFileResponse.class);
     }
@@ -257,20 +507,177 @@ public class GigaChatApi {
                 .get()
                 .uri("/files/{fileId}/content", fileId)
                 .headers(applyHeaders(headers))
+                .attributes(applyRequestAttributes(null))
                 .retrieve()
                 .body(byte[].class);
     }
 
+    /**
+     * Скачивает файл из GigaChat в outputStream, не загружая его в память целиком.
+     * Поток не закрывается.
+     *
+     * @return количество записанных байт
+     */
+    public long downloadFileTo(String fileId, OutputStream outputStream) {
+        return downloadFileTo(fileId, outputStream, null);
+    }
+
+    public long downloadFileTo(String fileId, OutputStream outputStream, @Nullable HttpHeaders headers) {
+        Assert.notNull(outputStream, "OutputStream can not be null.");
+        return this.restClient
+                .get()
+                .uri("/files/{fileId}/content", fileId)
+                .headers(applyHeaders(headers))
+                .attributes(applyRequestAttributes(null))
+                .exchange((request, response) -> {
+                    // exchange не применяет defaultStatusHandler, поэтому ошибки обрабатываем явно
+                    if (this.responseErrorHandler.hasError(response)) {
+                        this.responseErrorHandler.handleError(request.getURI(), request.getMethod(), response);
+                    }
+                    return response.getBody().transferTo(outputStream);
+                });
+    }
+
+    /**
+     * Скачивает файл из GigaChat в target, перезаписывая существующий файл.
+     *
+     * @return количество записанных байт
+     */
+    public long downloadFileTo(String fileId, Path target) {
+        Assert.notNull(target, "Target path can not be null.");
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            return downloadFileTo(fileId, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write file " + fileId + " to " + target, e);
+        }
+    }
+
+    /**
+     * Скачивает файл из GigaChat без блокировки. Буферы нужно освобождать после использования,
+     * например, через {@link org.springframework.core.io.buffer.DataBufferUtils#write}.
+     */
+    public Flux<DataBuffer> downloadFileReactive(String fileId) {
+        return downloadFileReactive(fileId, null);
+    }
+
+    public Flux<DataBuffer> downloadFileReactive(String fileId, @Nullable HttpHeaders headers) {
+        return this.webClient
+                .get()
+                .uri("/files/{fileId}/content", fileId)
+                .headers(applyHeaders(headers))
+                .attributes(applyRequestAttributes(null))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+    }
+
     public String getFileUrl(String fileId) {
         String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         return base + "/files/" + fileId + "/content";
     }
 
+    private static GigaChatBearerAuthApi buildBearerAuthApi(
+            GigaChatApiProperties properties,
+            GigaAuthToken authToken,
+            HttpClient httpClient,
+            RestClient.Builder restClientBuilder,
+            WebClient.Builder webClientBuilder) {
+        final GigaChatOAuthClient gigaChatOAuthClient =
+                new GigaChatOAuthClient(properties, httpClient, restClientBuilder, webClientBuilder, authToken);
+        return new GigaChatBearerAuthApi(
+                gigaChatOAuthClient,
+                properties.getAuth().getBearer().getBackgroundRefresh(),
+                properties.getInternal().isVirtualThreads());
+    }
+
+    /**
+     * Идентификатор учетной записи - префикс хэша ее ключа, чтобы сам ключ не попадал в логи и ключи кэшей.
+     */
+    private static String credentialId(String apiKey) {
+        return HashUtils.sha256Hex(apiKey).substring(0, 16);
+    }
+
+    /**
+     * Выбирает учетную запись для цепочки запросов, которые должны идти от одной учетной записи:
+     * загруженные в GigaChat файлы доступны только той учетной записи, которая их создала.
+     * Запросы цепочки выполняются внутри {@link GigaChatCredentialAffinity#withCredential}.
+     * <p>
+     * Если текущий поток уже привязан к учетной записи, возвращает ее.
+     *
+     * @return идентификатор учетной записи или null при авторизации по сертификатам
+     */
+    @Nullable
+    public String selectCredential() {
+        String current = GigaChatCredentialAffinity.currentCredential();
+        if (current != null) {
+            return current;
+        }
+        return this.credentialPool != null ? this.credentialPool.selectCredential() : this.credentialId;
+    }
+
+    /**
+     * Регистрирует наблюдения за получением bearer-токена и временем запросов.
+     */
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.bearerAuthApis.forEach(authApi -> authApi.setObservationRegistry(observationRegistry));
+        this.latencyMetrics.setObservationRegistry(observationRegistry);
+    }
+
+    /**
+     * @return разбивка времени запросов, таймеры публикуются после {@link GigaChatLatencyMetrics#bindTo}
+     */
+    public GigaChatLatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /**
+     * Останавливает фоновое обновление bearer-токена, если оно включено, и ограничитель запросов.
+     */
+    @Override
+    public void close() {
+        this.bearerAuthApis.forEach(GigaChatBearerAuthApi::close);
+        if (this.rateLimiter != null) {
+            this.rateLimiter.close();
+        }
+        this.httpLogger.close();
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return ограничитель запросов или null, если ограничение выключено
+     */
+    @Nullable
+    public GigaChatRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
     public ResponseEntity<ModelsResponse> models() {
         return this.restClient.get().uri("/models").retrieve().toEntity(ModelsResponse.class);
     }
 
-    private Consumer<HttpHeaders> applyHeaders(@Nullable HttpHeaders headers) {
+    RestClient getRestClient() {
+        return restClient;
+    }
+
+    WebClient getWebClient() {
+        return webClient;
+    }
+
+    /**
+     * Преобразует ошибку WebClient так же, как {@link RetryUtils#DEFAULT_RESPONSE_ERROR_HANDLER} для RestClient:
+     * 4xx - в {@link NonTransientAiException}, остальные - в {@link TransientAiException}.
+     */
+    static RuntimeException toAiException(WebClientResponseException e) {
+        String message = e.getStatusCode().value() + " - " + e.getResponseBodyAsString();
+        if (e.getStatusCode().is4xxClientError()) {
+            return new NonTransientAiException(message, e);
+        }
+        return new TransientAiException(message, e);
+    }
+
+    Consumer<HttpHeaders> applyHeaders(@Nullable HttpHeaders headers) {
         return httpHeaders -> {
             if (!CollectionUtils.isEmpty(headers)) {
                 httpHeaders.addAll(headers);
@@ -278,4 +685,26 @@ public class GigaChatApi {
             httpHeaders.set(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT);
         };
     }
+
+    /**
+     * Приоритет, учетная запись и получатель размера запроса запоминаются в момент вызова: потоковый запрос
+     * может уйти уже из другого потока.
+     */
+    Consumer<Map<String, Object>> applyRequestAttributes(@Nullable String model) {
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        String credential = GigaChatCredentialAffinity.currentCredential();
+        LongConsumer requestSizeListener = GigaChatLatencyMetrics.currentRequestSizeListener();
+        return attributes -> {
+            if (model != null) {
+                attributes.put(GigaChatRateLimiter.MODEL_ATTRIBUTE, model);
+            }
+            attributes.put(GigaChatRateLimiter.PRIORITY_ATTRIBUTE, priority);
+            if (credential != null) {
+                attributes.put(GigaChatCredentialAffinity.CREDENTIAL_ATTRIBUTE, credential);
+            }
+            if (requestSizeListener != null) {
+                attributes.put(GigaChatLatencyMetrics.REQUEST_SIZE_LISTENER_ATTRIBUTE, requestSizeListener);
+            }
+        };
+    }
 }
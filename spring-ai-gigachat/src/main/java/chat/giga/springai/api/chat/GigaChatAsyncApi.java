@@ -0,0 +1,200 @@
+package chat.giga.springai.api.chat;
+
+import static chat.giga.springai.api.chat.GigaChatApi.DEFAULT_COMPLETIONS_PATH;
+import static chat.giga.springai.api.chat.GigaChatApi.USER_AGENT_SPRING_AI_GIGACHAT;
+
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.embedding.EmbeddingsRequest;
+import chat.giga.springai.api.chat.embedding.EmbeddingsResponse;
+import chat.giga.springai.api.chat.file.DeleteFileResponse;
+import chat.giga.springai.api.chat.file.UploadFileResponse;
+import chat.giga.springai.api.chat.models.ModelsResponse;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.ai.content.Media;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Асинхронный API GigaChat: каждый метод возвращает {@link Mono}, а его вариант с суффиксом {@code Async} -
+ * {@link CompletableFuture}. Ожидание ответа не занимает поток вызывающего.
+ * <p>
+ * Работает в одном из режимов {@link Mode}:
+ * <ul>
+ *     <li>{@link Mode#REACTIVE} - запросы выполняются через WebClient {@link GigaChatApi}</li>
+ *     <li>{@link Mode#VIRTUAL_THREADS} - блокирующие методы {@link GigaChatApi} выполняются на виртуальных потоках,
+ *     требует Java 21+</li>
+ * </ul>
+ * В обоих режимах используются авторизация, ограничение частоты запросов и HttpClient исходного {@link GigaChatApi},
+ * а ответы с кодом ошибки завершаются {@link org.springframework.ai.retry.NonTransientAiException} (4xx)
+ * или {@link org.springframework.ai.retry.TransientAiException}, как и в блокирующем API.
+ */
+public class GigaChatAsyncApi {
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "gigachat-async-";
+
+    private final GigaChatApi gigaChatApi;
+    private final Mode mode;
+
+    @Nullable
+    private final Scheduler blockingScheduler;
+
+    public GigaChatAsyncApi(GigaChatApi gigaChatApi) {
+        this(gigaChatApi, Mode.REACTIVE);
+    }
+
+    public GigaChatAsyncApi(GigaChatApi gigaChatApi, Mode mode) {
+        Assert.notNull(gigaChatApi, "gigaChatApi must not be null");
+        Assert.notNull(mode, "mode must not be null");
+        this.gigaChatApi = gigaChatApi;
+        this.mode = mode;
+        this.blockingScheduler = mode == Mode.VIRTUAL_THREADS
+                ? Schedulers.fromExecutor(new VirtualThreadTaskExecutor(VIRTUAL_THREAD_NAME_PREFIX))
+                : null;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Mono<ResponseEntity<CompletionResponse>> chatCompletion(CompletionRequest chatRequest) {
+        return chatCompletion(chatRequest, null);
+    }
+
+    public Mono<ResponseEntity<CompletionResponse>> chatCompletion(
+            CompletionRequest chatRequest, @Nullable HttpHeaders headers) {
+        Assert.notNull(chatRequest, "The request body can not be null.");
+        Assert.isTrue(!chatRequest.getStream(), "Request must set the stream property to false.");
+        if (blockingScheduler != null) {
+            return blocking(() -> gigaChatApi.chatCompletionEntity(chatRequest, headers));
+        }
+        return reactive(gigaChatApi
+                .getWebClient()
+                .post()
+                .uri(DEFAULT_COMPLETIONS_PATH)
+                .headers(gigaChatApi.applyHeaders(headers))
+                .attributes(gigaChatApi.applyRequestAttributes(chatRequest.getModel()))
+                .bodyValue(chatRequest)
+                .retrieve()
+                .toEntity(CompletionResponse.class));
+    }
+
+    public CompletableFuture<ResponseEntity<CompletionResponse>> chatCompletionAsync(CompletionRequest chatRequest) {
+        return chatCompletion(chatRequest).toFuture();
+    }
+
+    public CompletableFuture<ResponseEntity<CompletionResponse>> chatCompletionAsync(
+            CompletionRequest chatRequest, @Nullable HttpHeaders headers) {
+        return chatCompletion(chatRequest, headers).toFuture();
+    }
+
+    public Mono<ResponseEntity<EmbeddingsResponse>> embeddings(EmbeddingsRequest embeddingRequest) {
+        Assert.notNull(embeddingRequest, "The request body can not be null.");
+        Assert.notNull(embeddingRequest.getInput(), "The input can not be null.");
+        Assert.isTrue(!embeddingRequest.getInput().isEmpty(), "The input can not be empty.");
+        if (blockingScheduler != null) {
+            return blocking(() -> gigaChatApi.embeddings(embeddingRequest));
+        }
+        return reactive(gigaChatApi
+                .getWebClient()
+                .post()
+                .uri("/embeddings")
+                .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(gigaChatApi.applyRequestAttributes(embeddingRequest.getModel()))
+                .bodyValue(embeddingRequest)
+                .retrieve()
+                .toEntity(EmbeddingsResponse.class));
+    }
+
+    public CompletableFuture<ResponseEntity<EmbeddingsResponse>> embeddingsAsync(EmbeddingsRequest embeddingRequest) {
+        return embeddings(embeddingRequest).toFuture();
+    }
+
+    public Mono<ResponseEntity<UploadFileResponse>> uploadFile(Media media) {
+        if (blockingScheduler != null) {
+            return blocking(() -> gigaChatApi.uploadFile(media));
+        }
+        return reactive(gigaChatApi.uploadFileReactive(media));
+    }
+
+    public CompletableFuture<ResponseEntity<UploadFileResponse>> uploadFileAsync(Media media) {
+        return uploadFile(media).toFuture();
+    }
+
+    public Mono<ResponseEntity<DeleteFileResponse>> deleteFile(String fileId) {
+        if (blockingScheduler != null) {
+            return blocking(() -> gigaChatApi.deleteFile(fileId));
+        }
+        return reactive(gigaChatApi
+                .getWebClient()
+                .post()
+                .uri("/files/{fileId}/delete", fileId)
+                .header(HttpHeaders.USER_AGENT, USER_AGENT_SPRING_AI_GIGACHAT)
+                .attributes(gigaChatApi.applyRequestAttributes(null))
+                .retrieve()
+                .toEntity(DeleteFileResponse.class));
+    }
+
+    public CompletableFuture<ResponseEntity<DeleteFileResponse>> deleteFileAsync(String fileId) {
+        return deleteFile(fileId).toFuture();
+    }
+
+    public Mono<byte[]> downloadFile(String fileId) {
+        if (blockingScheduler != null) {
+            return blocking(() -> gigaChatApi.downloadFile(fileId));
+        }
+        return reactive(
+                DataBufferUtils.join(gigaChatApi.downloadFileReactive(fileId)).map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                }));
+    }
+
+    public CompletableFuture<byte[]> downloadFileAsync(String fileId) {
+        return downloadFile(fileId).toFuture();
+    }
+
+    public Mono<ResponseEntity<ModelsResponse>> models() {
+        if (blockingScheduler != null) {
+            return blocking(gigaChatApi::models);
+        }
+        return reactive(
+                gigaChatApi.getWebClient().get().uri("/models").retrieve().toEntity(ModelsResponse.class));
+    }
+
+    public CompletableFuture<ResponseEntity<ModelsResponse>> modelsAsync() {
+        return models().toFuture();
+    }
+
+    private static <T> Mono<T> reactive(Mono<T> response) {
+        return response.onErrorMap(WebClientResponseException.class, GigaChatApi::toAiException);
+    }
+
+    /**
+     * Приоритет и учетная запись запоминаются в момент вызова, т.к. запрос уходит из другого потока.
+     */
+    private <T> Mono<T> blocking(Supplier<T> call) {
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        String credentialId = GigaChatCredentialAffinity.currentCredential();
+        return Mono.fromCallable(() -> GigaChatCredentialAffinity.withCredential(
+                        credentialId, () -> GigaChatRateLimiter.withPriority(priority, call)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    public enum Mode {
+        REACTIVE,
+        VIRTUAL_THREADS
+    }
+}
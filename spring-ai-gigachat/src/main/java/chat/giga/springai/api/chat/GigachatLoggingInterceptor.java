@@ -1,11 +1,11 @@
 package chat.giga.springai.api.chat;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import chat.giga.springai.api.GigaChatLoggingProperties;
+import chat.giga.springai.api.logging.GigaChatHttpLogger;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatusCode;
@@ -14,83 +14,129 @@ import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.StreamUtils;
 
-@Slf4j
+/**
+ * Логирует запросы RestClient через {@link GigaChatHttpLogger}.
+ * <p>
+ * Тело ответа не буферизуется: оно копируется в лог по мере чтения клиентом,
+ * запись уходит в лог при закрытии ответа.
+ */
 @SuppressWarnings("NullableProblems")
 public class GigachatLoggingInterceptor implements ClientHttpRequestInterceptor {
 
-    private final ObjectMapper objectMapper;
+    private final GigaChatHttpLogger httpLogger;
 
     public GigachatLoggingInterceptor() {
-        this.objectMapper = new ObjectMapper();
+        this(new GigaChatHttpLogger(new GigaChatLoggingProperties()));
+    }
+
+    public GigachatLoggingInterceptor(GigaChatHttpLogger httpLogger) {
+        this.httpLogger = httpLogger;
     }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
             throws IOException {
-        if (!log.isDebugEnabled()) return execution.execute(request, body);
+        GigaChatHttpLogger.Exchange exchange =
+                httpLogger.start(request.getMethod(), request.getURI(), request.getHeaders());
+        if (exchange == null) return execution.execute(request, body);
 
-        final ClientHttpResponse response = new BufferingClientHttpResponseWrapper(execution.execute(request, body));
-        log.debug(
-                """
-                        \n\tRequest URL:\s
-                        {} \
+        exchange.requestBody(body, 0, body.length);
+        final ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+            exchange.response(response.getStatusCode(), response.getHeaders());
+        } catch (IOException | RuntimeException e) {
+            exchange.complete(e);
+            throw e;
+        }
+        return new LoggingClientHttpResponse(response, exchange);
+    }
 
-                        \tRequest headers:\s
-                        {} \
+    /**
+     * Копирует прочитанные клиентом байты тела в запись лога и завершает ее при закрытии ответа
+     */
+    private static class LoggingClientHttpResponse implements ClientHttpResponse {
 
-                        \tRequest body:\s
-                        {} \
+        private final ClientHttpResponse response;
+        private final GigaChatHttpLogger.Exchange exchange;
+        private InputStream body;
 
-                        \tResponse headers:\s
-                        {} \
+        LoggingClientHttpResponse(ClientHttpResponse response, GigaChatHttpLogger.Exchange exchange) {
+            this.response = response;
+            this.exchange = exchange;
+        }
 
-                        \tResponse body:\s
-                        {}
-                        """,
-                request.getURI(),
-                formatHeaders(request.getHeaders()),
-                formatJson(new String(body)),
-                formatHeaders(response.getHeaders()),
-                formatJson(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8)));
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    // один буфер на поток, чтобы побайтовое чтение не создавало массив на каждый байт
+                    private final byte[] single = new byte[1];
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            single[0] = (byte) b;
+                            exchange.responseBody(single, 0, 1);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int count = super.read(b, off, len);
+                        if (count > 0) {
+                            exchange.responseBody(b, off, count);
+                        }
+                        return count;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            exchange.complete(null);
+                        }
+                    }
+                };
+            }
+            return body;
+        }
 
-        return response;
-    }
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.response.getStatusCode();
+        }
 
-    /**
-     * Функция форматирования json через object mapper, не очень производительно, зато не тащим в проект доп библиотеки
-     *
-     * @param json json для форматирования
-     * @return отформатированный json, или json без форматирования в случае некорректной структуры
-     */
-    private String formatJson(String json) {
-        try {
-            final Object validJson = objectMapper.readValue(json, Object.class);
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(validJson);
-        } catch (Exception ignored) {
-            return json;
+        @Override
+        public String getStatusText() throws IOException {
+            return this.response.getStatusText();
         }
-    }
 
-    /**
-     * Функция форматирования HttpHeaders в виде строки
-     *
-     * @param headers хедеры для форматирования
-     * @return строка с отформатированными хедерами
-     */
-    private String formatHeaders(HttpHeaders headers) {
-        final StringBuilder stringBuilder = new StringBuilder();
-        headers.forEach((k, v) -> stringBuilder.append(k).append(": ").append(v).append("\n"));
-        String string = stringBuilder.toString();
-        if (string.endsWith("\n")) {
-            string = string.substring(0, string.length() - 1);
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.response.close();
+            } finally {
+                exchange.complete(null);
+            }
         }
-        return string;
     }
 
     /**
      * Нужен для кэширования тела ответа,
      * т.к. по дефолту тело ответа имеет тип InputStream и может быть вычитано только один раз
+     *
+     * @deprecated интерцептор больше не буферизует тело ответа
      */
+    @Deprecated
     public static class BufferingClientHttpResponseWrapper implements ClientHttpResponse {
 
         private final ClientHttpResponse response;
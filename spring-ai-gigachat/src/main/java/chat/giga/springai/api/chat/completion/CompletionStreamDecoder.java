@@ -0,0 +1,174 @@
+package chat.giga.springai.api.chat.completion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Декодер потокового ответа /chat/completions в формате Server Sent Events.
+ * <p>
+ * Разбирает поле {@code data} событий прямо из байтов {@link DataBuffer}, без промежуточных строк,
+ * и десериализует его заранее подготовленным {@link ObjectReader}.
+ * Поток завершается на событии {@code [DONE]}, остальные поля событий игнорируются.
+ */
+public class CompletionStreamDecoder {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DONE = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+    // маркер конца потока, сравнивается по ссылке
+    private static final CompletionResponse END_OF_STREAM = new CompletionResponse();
+
+    private final ObjectReader reader;
+
+    public CompletionStreamDecoder() {
+        this(ModelOptionsUtils.OBJECT_MAPPER);
+    }
+
+    public CompletionStreamDecoder(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(CompletionResponse.class);
+    }
+
+    public Flux<CompletionResponse> decode(Flux<DataBuffer> body) {
+        return decode(body, null);
+    }
+
+    /**
+     * @param decodeTimeListener получает время десериализации каждого события в наносекундах
+     */
+    public Flux<CompletionResponse> decode(Flux<DataBuffer> body, @Nullable LongConsumer decodeTimeListener) {
+        return Flux.defer(() -> {
+                    EventReader eventReader = new EventReader(decodeTimeListener);
+                    return body.concatMapIterable(eventReader::read)
+                            .concatWith(Flux.defer(() -> Flux.fromIterable(eventReader.flush())));
+                })
+                .takeWhile(response -> response != END_OF_STREAM)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Состояние разбора одного потока. Не потокобезопасно, создается на каждую подписку.
+     */
+    private final class EventReader {
+        @Nullable
+        private final LongConsumer decodeTimeListener;
+
+        private byte[] pending = new byte[INITIAL_BUFFER_SIZE];
+        private int pendingLength;
+        private byte[] data = new byte[INITIAL_BUFFER_SIZE];
+        private int dataLength;
+        private boolean hasData;
+        private boolean done;
+
+        EventReader(@Nullable LongConsumer decodeTimeListener) {
+            this.decodeTimeListener = decodeTimeListener;
+        }
+
+        List<CompletionResponse> read(DataBuffer buffer) {
+            try {
+                List<CompletionResponse> events = new ArrayList<>(1);
+                if (done) {
+                    return events;
+                }
+                int count = buffer.readableByteCount();
+                pending = ensureCapacity(pending, pendingLength + count);
+                buffer.read(pending, pendingLength, count);
+
+                int lineStart = 0;
+                for (int i = pendingLength, end = pendingLength + count; i < end && !done; i++) {
+                    if (pending[i] == '\n') {
+                        readLine(lineStart, i, events);
+                        lineStart = i + 1;
+                    }
+                }
+                pendingLength += count - lineStart;
+                System.arraycopy(pending, lineStart, pending, 0, pendingLength);
+                return events;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<CompletionResponse> flush() {
+            List<CompletionResponse> events = new ArrayList<>(1);
+            if (!done) {
+                if (pendingLength > 0) {
+                    readLine(0, pendingLength, events);
+                    pendingLength = 0;
+                }
+                dispatch(events);
+            }
+            return events;
+        }
+
+        private void readLine(int start, int end, List<CompletionResponse> events) {
+            if (end > start && pending[end - 1] == '\r') {
+                end--;
+            }
+            if (start == end) {
+                dispatch(events);
+            } else if (startsWith(pending, start, end, DATA_FIELD)) {
+                int valueStart = start + DATA_FIELD.length;
+                if (valueStart < end && pending[valueStart] == ' ') {
+                    valueStart++;
+                }
+                appendData(valueStart, end);
+            }
+        }
+
+        private void appendData(int start, int end) {
+            int length = end - start;
+            data = ensureCapacity(data, dataLength + length + 1);
+            if (hasData) {
+                data[dataLength++] = '\n';
+            }
+            System.arraycopy(pending, start, data, dataLength, length);
+            dataLength += length;
+            hasData = true;
+        }
+
+        private void dispatch(List<CompletionResponse> events) {
+            if (!hasData) {
+                return;
+            }
+            if (Arrays.equals(data, 0, dataLength, DONE, 0, DONE.length)) {
+                done = true;
+                events.add(END_OF_STREAM);
+            } else {
+                try {
+                    long start = decodeTimeListener != null ? System.nanoTime() : 0;
+                    events.add(reader.readValue(data, 0, dataLength));
+                    if (decodeTimeListener != null) {
+                        decodeTimeListener.accept(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    throw new DecodingException(
+                            "Failed to decode completion chunk: "
+                                    + new String(data, 0, dataLength, StandardCharsets.UTF_8),
+                            e);
+                }
+            }
+            dataLength = 0;
+            hasData = false;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int start, int end, byte[] prefix) {
+        return end - start >= prefix.length
+                && Arrays.equals(bytes, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static byte[] ensureCapacity(byte[] bytes, int capacity) {
+        return capacity <= bytes.length ? bytes : Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+}
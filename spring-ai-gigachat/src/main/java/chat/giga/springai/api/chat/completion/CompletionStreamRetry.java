@@ -0,0 +1,123 @@
+package chat.giga.springai.api.chat.completion;
+
+import chat.giga.springai.api.GigaChatStreamRetryProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Неблокирующие повторы потокового ответа /chat/completions.
+ * <p>
+ * Повтор - это новая подписка на исходный поток, поэтому он должен быть холодным:
+ * каждая подписка отправляет запрос заново.
+ *
+ * @see GigaChatStreamRetryProperties
+ */
+@Slf4j
+public class CompletionStreamRetry {
+    private final GigaChatStreamRetryProperties properties;
+
+    public CompletionStreamRetry(GigaChatStreamRetryProperties properties) {
+        Assert.isTrue(properties.getMaxAttempts() >= 1, "maxAttempts must be positive");
+        Assert.isTrue(
+                !properties.getMinBackoff().isNegative()
+                        && properties.getMaxBackoff().compareTo(properties.getMinBackoff()) >= 0,
+                "maxBackoff must not be less than minBackoff");
+        Assert.isTrue(properties.getJitter() >= 0 && properties.getJitter() <= 1, "jitter must be between 0 and 1");
+        this.properties = properties;
+    }
+
+    public Flux<CompletionResponse> apply(Flux<CompletionResponse> stream) {
+        return Flux.defer(() -> {
+            AtomicBoolean firstTokenReceived = new AtomicBoolean();
+            return stream.doOnNext(response -> firstTokenReceived.set(true))
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                        Throwable error = signal.failure();
+                        long attempt = signal.totalRetries() + 1;
+                        if (attempt >= properties.getMaxAttempts()
+                                || !isRetryable(error)
+                                || properties.isOnlyBeforeFirstToken() && firstTokenReceived.get()) {
+                            return Mono.error(error);
+                        }
+                        Duration delay = delay(error, attempt);
+                        if (delay == null) {
+                            return Mono.error(error);
+                        }
+                        log.warn(
+                                "Completion stream failed (attempt {}), retrying in {} ms: {}",
+                                attempt,
+                                delay.toMillis(),
+                                error.toString());
+                        return Mono.delay(delay);
+                    })));
+        });
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+        }
+        return false;
+    }
+
+    /**
+     * @return пауза перед повтором или null, если Retry-After требует ждать дольше maxBackoff
+     */
+    @Nullable
+    private Duration delay(Throwable error, long attempt) {
+        Duration retryAfter = retryAfter(error);
+        if (retryAfter != null) {
+            return retryAfter.compareTo(properties.getMaxBackoff()) <= 0 ? retryAfter : null;
+        }
+        long minBackoff = properties.getMinBackoff().toMillis();
+        long maxBackoff = properties.getMaxBackoff().toMillis();
+        long exponential = Math.min(maxBackoff, minBackoff << Math.min(attempt - 1, 20));
+        long jitter = (long) (exponential * properties.getJitter());
+        long delay = exponential - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+        return Duration.ofMillis(Math.min(Math.max(delay, 0), maxBackoff));
+    }
+
+    /**
+     * Разбирает Retry-After в виде количества секунд или HTTP-даты.
+     */
+    @Nullable
+    static Duration retryAfter(Throwable error) {
+        if (!(error instanceof WebClientResponseException responseException)) {
+            return null;
+        }
+        String value = responseException.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(Long.parseLong(value.trim()), 0));
+        } catch (NumberFormatException e) {
+            // не секунды, пробуем дату
+        }
+        try {
+            Instant date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant();
+            Duration delay = Duration.between(Instant.now(), date);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package chat.giga.springai.api.chat.embedding;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.io.Serial;
+import java.util.Arrays;
+
+/**
+ * Потоковый десериализатор вектора эмбеддинга.
+ * <p>
+ * Читает JSON-массив чисел напрямую в {@code float[]}: значения накапливаются в переиспользуемом
+ * буфере потока, после чего копируются один раз в массив точного размера.
+ * В отличие от стандартного десериализатора Jackson не создает промежуточных чанков,
+ * поэтому на каждый вектор приходится ровно одна аллокация.
+ */
+public class EmbeddingVectorDeserializer extends StdDeserializer<float[]> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Хватает для всех известных моделей, см. EmbeddingsModel
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<float[]> BUFFER = ThreadLocal.withInitial(() -> new float[INITIAL_BUFFER_SIZE]);
+
+    public EmbeddingVectorDeserializer() {
+        super(float[].class);
+    }
+
+    @Override
+    public float[] deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return (float[]) ctxt.handleUnexpectedToken(float[].class, p);
+        }
+        float[] buffer = BUFFER.get();
+        int size = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_NUMBER_INT) {
+                return (float[]) ctxt.handleUnexpectedToken(float.class, p);
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                BUFFER.set(buffer);
+            }
+            buffer[size++] = p.getFloatValue();
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -1,6 +1,7 @@
 package chat.giga.springai.api.chat.embedding;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,7 +29,9 @@ public class EmbeddingsResponse {
         @Builder.Default
         private String object = "embedding";
 
+        @JsonDeserialize(using = EmbeddingVectorDeserializer.class)
         private float[] embedding;
+
         private Integer index;
         private GigaChatEmbeddingsUsage usage;
     }
@@ -0,0 +1,87 @@
+package chat.giga.springai.api.chat.file;
+
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import chat.giga.springai.api.chat.GigaChatApi;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Файл, хранящийся в GigaChat. Содержимое скачивается только при вызове {@link #getInputStream()}
+ * и читается потоком, без загрузки файла в память целиком. Каждый вызов скачивает файл заново.
+ * <p>
+ * {@link #contentLength()} также скачивает файл, поэтому его лучше не вызывать без необходимости.
+ * <p>
+ * Файл скачивается от учетной записи, переданной при создании ресурса, т.к. файлы GigaChat доступны только
+ * создавшей их учетной записи, см. {@link GigaChatCredentialAffinity}.
+ */
+public class GigaChatFileResource extends AbstractResource {
+    private static final int PREFETCH = 4;
+
+    private final GigaChatApi gigaChatApi;
+    private final String fileId;
+
+    @Nullable
+    private final String credentialId;
+
+    public GigaChatFileResource(GigaChatApi gigaChatApi, String fileId) {
+        this(gigaChatApi, fileId, null);
+    }
+
+    /**
+     * @param credentialId учетная запись, которой принадлежит файл, null - любая
+     */
+    public GigaChatFileResource(GigaChatApi gigaChatApi, String fileId, @Nullable String credentialId) {
+        Assert.notNull(gigaChatApi, "gigaChatApi must not be null");
+        Assert.hasText(fileId, "fileId must not be empty");
+        this.gigaChatApi = gigaChatApi;
+        this.fileId = fileId;
+        this.credentialId = credentialId;
+    }
+
+    public String getFileId() {
+        return this.fileId;
+    }
+
+    @Override
+    @NonNull
+    public InputStream getInputStream() throws IOException {
+        return DataBufferUtils.subscriberInputStream(
+                GigaChatCredentialAffinity.withCredential(
+                        this.credentialId, () -> this.gigaChatApi.downloadFileReactive(this.fileId)),
+                PREFETCH);
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getFilename() {
+        return this.fileId;
+    }
+
+    @Override
+    @NonNull
+    public String getDescription() {
+        return "GigaChat file [" + this.fileId + "]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || other instanceof GigaChatFileResource that
+                        && this.fileId.equals(that.fileId)
+                        && this.gigaChatApi == that.gigaChatApi;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.fileId.hashCode();
+    }
+}
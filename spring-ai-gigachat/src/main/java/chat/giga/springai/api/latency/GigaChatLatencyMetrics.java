@@ -0,0 +1,249 @@
+package chat.giga.springai.api.latency;
+
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.observation.GigaChatObservationDocumentation;
+import chat.giga.springai.observation.GigaChatObservationDocumentation.HighCardinalityKeyNames;
+import chat.giga.springai.observation.GigaChatObservationDocumentation.LowCardinalityKeyNames;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+/**
+ * Разбивка времени запросов к GigaChat API по этапам.
+ * <p>
+ * Наблюдения {@link GigaChatObservationDocumentation#HTTP_REQUEST} (time to first byte) и
+ * {@link GigaChatObservationDocumentation#STREAM_FIRST_TOKEN} (time to first token) публикуются
+ * после {@link #setObservationRegistry(ObservationRegistry)} и содержат x-request-id.
+ * Таймеры чтения тела ответа, пауз между фрагментами потока и десериализации фрагментов публикуются
+ * после {@link #bindTo(MeterRegistry)}. Теги таймеров - только модель и группа методов API,
+ * чтобы число временных рядов не росло с каждым запросом.
+ */
+public class GigaChatLatencyMetrics implements MeterBinder {
+    /**
+     * Чтение и десериализация тела ответа RestClient - от получения заголовков до закрытия ответа.
+     */
+    public static final String RESPONSE_BODY = "gigachat.http.response.body";
+    /**
+     * Пауза между соседними фрагментами потокового ответа, с гистограммой.
+     */
+    public static final String STREAM_CHUNK_GAP = "gigachat.completion.stream.chunk.gap";
+    /**
+     * Десериализация одного фрагмента потокового ответа.
+     */
+    public static final String STREAM_DECODE = "gigachat.completion.stream.decode";
+    /**
+     * Атрибут запроса с получателем размера отправленного тела запроса в байтах.
+     */
+    public static final String REQUEST_SIZE_LISTENER_ATTRIBUTE =
+            GigaChatLatencyMetrics.class.getName() + ".requestSizeListener";
+
+    private static final String CLIENT_ERROR = "CLIENT_ERROR";
+
+    private static final ThreadLocal<LongConsumer> CURRENT_REQUEST_SIZE_LISTENER = new ThreadLocal<>();
+
+    private volatile ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+    private volatile MeterRegistry meterRegistry;
+
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        Assert.notNull(observationRegistry, "observationRegistry must not be null");
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Выполняет действие так, что размер тела запросов, созданных в нем, передается в {@code listener}.
+     * Размер считается по байтам, которые действительно отправлены, повторная отправка учитывается отдельно.
+     */
+    public static <T> T withRequestSizeListener(LongConsumer listener, Supplier<T> action) {
+        Assert.notNull(listener, "listener must not be null");
+        LongConsumer previous = CURRENT_REQUEST_SIZE_LISTENER.get();
+        CURRENT_REQUEST_SIZE_LISTENER.set(listener);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_REQUEST_SIZE_LISTENER.remove();
+            } else {
+                CURRENT_REQUEST_SIZE_LISTENER.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return получатель размера тела запроса, заданный {@link #withRequestSizeListener}, или null
+     */
+    @Nullable
+    public static LongConsumer currentRequestSizeListener() {
+        return CURRENT_REQUEST_SIZE_LISTENER.get();
+    }
+
+    /**
+     * Начинает наблюдение за HTTP-запросом, которое завершается при получении заголовков ответа.
+     */
+    public RequestTiming startRequest(URI uri, @Nullable String model) {
+        Observation observation = GigaChatObservationDocumentation.HTTP_REQUEST
+                .observation(this.observationRegistry)
+                .lowCardinalityKeyValue(modelKeyValue(model))
+                .lowCardinalityKeyValue(LowCardinalityKeyNames.ENDPOINT.withValue(endpoint(uri)))
+                .start();
+        return new RequestTiming(observation, uri, model);
+    }
+
+    /**
+     * Добавляет к потоковому ответу наблюдение time to first token и таймер пауз между фрагментами.
+     * Время отсчитывается от подписки, поэтому включает получение токена, ожидание разрешения и повторы.
+     */
+    public Flux<CompletionResponse> instrumentStream(Flux<CompletionResponse> stream, @Nullable String model) {
+        return Flux.defer(() -> {
+            Observation firstToken = GigaChatObservationDocumentation.STREAM_FIRST_TOKEN
+                    .observation(this.observationRegistry)
+                    .lowCardinalityKeyValue(modelKeyValue(model))
+                    .start();
+            AtomicBoolean firstTokenStopped = new AtomicBoolean();
+            long[] lastChunkAt = new long[1];
+            return stream.doOnNext(response -> {
+                        long now = System.nanoTime();
+                        if (firstTokenStopped.compareAndSet(false, true)) {
+                            if (response.getId() != null) {
+                                firstToken.highCardinalityKeyValue(
+                                        HighCardinalityKeyNames.REQUEST_ID.withValue(response.getId()));
+                            }
+                            firstToken.stop();
+                        } else {
+                            record(STREAM_CHUNK_GAP, model, now - lastChunkAt[0], true);
+                        }
+                        lastChunkAt[0] = now;
+                    })
+                    .doOnError(e -> {
+                        if (firstTokenStopped.compareAndSet(false, true)) {
+                            firstToken.error(e);
+                            firstToken.stop();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (firstTokenStopped.compareAndSet(false, true)) {
+                            firstToken.stop();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * @return получатель времени десериализации фрагмента в наносекундах или null, если метрики не подключены
+     */
+    @Nullable
+    public LongConsumer streamDecodeTimer(@Nullable String model) {
+        return this.meterRegistry == null ? null : nanos -> record(STREAM_DECODE, model, nanos, false);
+    }
+
+    private void record(String name, @Nullable String model, long nanos, boolean histogram) {
+        record(name, Tags.of(LowCardinalityKeyNames.MODEL.asString(), valueOrNone(model)), nanos, histogram);
+    }
+
+    private void record(String name, Tags tags, long nanos, boolean histogram) {
+        MeterRegistry registry = this.meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram(histogram)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static KeyValue modelKeyValue(@Nullable String model) {
+        return LowCardinalityKeyNames.MODEL.withValue(valueOrNone(model));
+    }
+
+    private static String valueOrNone(@Nullable String value) {
+        return value != null ? value : KeyValue.NONE_VALUE;
+    }
+
+    static String endpoint(URI uri) {
+        GigaChatRateLimitProperties.Endpoint endpoint = GigaChatRateLimiter.endpoint(uri);
+        return endpoint != null ? endpoint.name().toLowerCase(Locale.ROOT) : "other";
+    }
+
+    /**
+     * Замер одного HTTP-запроса. Повторные вызовы после завершения игнорируются.
+     */
+    public final class RequestTiming {
+        private final Observation observation;
+        private final URI uri;
+        private final String model;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private long headersReceivedAt;
+
+        private RequestTiming(Observation observation, URI uri, @Nullable String model) {
+            this.observation = observation;
+            this.uri = uri;
+            this.model = model;
+        }
+
+        public void headersReceived(HttpStatusCode status, HttpHeaders headers) {
+            if (stopped.compareAndSet(false, true)) {
+                this.headersReceivedAt = System.nanoTime();
+                observation.lowCardinalityKeyValue(
+                        LowCardinalityKeyNames.STATUS.withValue(String.valueOf(status.value())));
+                String requestId = headers.getFirst(GigaChatApi.X_REQUEST_ID);
+                if (requestId != null) {
+                    observation.highCardinalityKeyValue(HighCardinalityKeyNames.REQUEST_ID.withValue(requestId));
+                }
+                observation.stop();
+            }
+        }
+
+        public void failed(Throwable error) {
+            if (stopped.compareAndSet(false, true)) {
+                observation.lowCardinalityKeyValue(LowCardinalityKeyNames.STATUS.withValue(CLIENT_ERROR));
+                observation.error(error);
+                observation.stop();
+            }
+        }
+
+        public void cancelled() {
+            if (stopped.compareAndSet(false, true)) {
+                observation.lowCardinalityKeyValue(LowCardinalityKeyNames.STATUS.withValue(CLIENT_ERROR));
+                observation.stop();
+            }
+        }
+
+        /**
+         * Записывает время от получения заголовков до конца чтения тела ответа.
+         */
+        public void bodyRead() {
+            if (headersReceivedAt != 0) {
+                record(
+                        RESPONSE_BODY,
+                        Tags.of(
+                                LowCardinalityKeyNames.MODEL.asString(), valueOrNone(model),
+                                LowCardinalityKeyNames.ENDPOINT.asString(), endpoint(uri)),
+                        System.nanoTime() - headersReceivedAt,
+                        false);
+            }
+        }
+    }
+}
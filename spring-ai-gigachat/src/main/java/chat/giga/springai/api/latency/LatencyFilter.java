@@ -0,0 +1,79 @@
+package chat.giga.springai.api.latency;
+
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * An {@link ExchangeFilterFunction} implementation that measures time to first byte of WebClient requests
+ * with {@link GigaChatLatencyMetrics}.
+ *
+ * <p>For streaming responses this is the time until the stream starts; chunk timings are recorded
+ * by {@link GigaChatLatencyMetrics#instrumentStream}. The model is taken from the
+ * {@link GigaChatRateLimiter#MODEL_ATTRIBUTE} request attribute. The number of request body bytes written
+ * is passed to the {@link GigaChatLatencyMetrics#REQUEST_SIZE_LISTENER_ATTRIBUTE} listener, if any.
+ *
+ * @param latencyMetrics the metrics
+ */
+public record LatencyFilter(GigaChatLatencyMetrics latencyMetrics) implements ExchangeFilterFunction {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String model =
+                (String) request.attribute(GigaChatRateLimiter.MODEL_ATTRIBUTE).orElse(null);
+        ClientRequest measuredRequest = request.attribute(GigaChatLatencyMetrics.REQUEST_SIZE_LISTENER_ATTRIBUTE)
+                .map(listener -> withRequestSize(request, (LongConsumer) listener))
+                .orElse(request);
+        return Mono.defer(() -> {
+            GigaChatLatencyMetrics.RequestTiming timing = latencyMetrics.startRequest(request.url(), model);
+            return next.exchange(measuredRequest)
+                    .doOnNext(response -> timing.headersReceived(
+                            response.statusCode(), response.headers().asHttpHeaders()))
+                    .doOnError(timing::failed)
+                    .doOnCancel(timing::cancelled);
+        });
+    }
+
+    /**
+     * Считает байты тела запроса по мере отправки и передает их число в {@code listener}, когда тело отправлено.
+     * Коннектор может отправлять тело уже после завершения {@code writeWith}, поэтому ждем завершения самого тела.
+     */
+    private static ClientRequest withRequestSize(ClientRequest request, LongConsumer listener) {
+        return ClientRequest.from(request)
+                .body((outputMessage, context) -> {
+                    AtomicLong bytes = new AtomicLong();
+                    return request.body()
+                            .insert(
+                                    new ClientHttpRequestDecorator(outputMessage) {
+                                        @Override
+                                        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                                            return super.writeWith(Flux.from(body)
+                                                    .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                                                    .doOnComplete(() -> listener.accept(bytes.get())));
+                                        }
+
+                                        @Override
+                                        public Mono<Void> writeAndFlushWith(
+                                                Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                                            return super.writeAndFlushWith(Flux.from(body)
+                                                    .map(part -> Flux.from(part)
+                                                            .doOnNext(buffer ->
+                                                                    bytes.addAndGet(buffer.readableByteCount())))
+                                                    .doOnComplete(() -> listener.accept(bytes.get())));
+                                        }
+                                    },
+                                    context);
+                })
+                .build();
+    }
+}
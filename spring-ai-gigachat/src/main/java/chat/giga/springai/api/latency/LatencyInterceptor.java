@@ -0,0 +1,92 @@
+package chat.giga.springai.api.latency;
+
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A {@link ClientHttpRequestInterceptor} implementation that measures time to first byte and response body
+ * read time of RestClient requests with {@link GigaChatLatencyMetrics}.
+ *
+ * <p>The model is taken from the {@link GigaChatRateLimiter#MODEL_ATTRIBUTE} request attribute. The request body
+ * size is passed to the {@link GigaChatLatencyMetrics#REQUEST_SIZE_LISTENER_ATTRIBUTE} listener, if any.
+ *
+ * @param latencyMetrics the metrics
+ */
+public record LatencyInterceptor(GigaChatLatencyMetrics latencyMetrics) implements ClientHttpRequestInterceptor {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String model = (String) request.getAttributes().get(GigaChatRateLimiter.MODEL_ATTRIBUTE);
+        LongConsumer requestSizeListener =
+                (LongConsumer) request.getAttributes().get(GigaChatLatencyMetrics.REQUEST_SIZE_LISTENER_ATTRIBUTE);
+        if (requestSizeListener != null) {
+            requestSizeListener.accept(body.length);
+        }
+        GigaChatLatencyMetrics.RequestTiming timing = latencyMetrics.startRequest(request.getURI(), model);
+        final ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+            timing.headersReceived(response.getStatusCode(), response.getHeaders());
+        } catch (IOException | RuntimeException e) {
+            timing.failed(e);
+            throw e;
+        }
+        return new TimedClientHttpResponse(response, timing);
+    }
+
+    /**
+     * Записывает время чтения тела при закрытии ответа
+     */
+    private static class TimedClientHttpResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final GigaChatLatencyMetrics.RequestTiming timing;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        TimedClientHttpResponse(ClientHttpResponse response, GigaChatLatencyMetrics.RequestTiming timing) {
+            this.response = response;
+            this.timing = timing;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return this.response.getBody();
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.response.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    timing.bodyRead();
+                }
+            }
+        }
+    }
+}
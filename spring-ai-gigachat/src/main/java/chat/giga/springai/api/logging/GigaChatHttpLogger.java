@@ -0,0 +1,300 @@
+package chat.giga.springai.api.logging;
+
+import chat.giga.springai.api.GigaChatLoggingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Логирование запросов и ответов GigaChat API, общее для RestClient и WebClient.
+ * <p>
+ * Пишет в лог на уровне DEBUG, если запрос попал в выборку {@link GigaChatLoggingProperties#getSampleRate()}.
+ * Тело копируется по мере чтения клиентом и не больше {@link GigaChatLoggingProperties#getMaxBodySize()} байт,
+ * запись форматируется после завершения ответа, по умолчанию в отдельном потоке.
+ * <p>
+ * Логгер сохраняет прежнее имя {@code chat.giga.springai.api.chat.GigachatLoggingInterceptor},
+ * поэтому существующие настройки уровня логирования продолжают работать.
+ *
+ * @see GigaChatLoggingProperties
+ */
+@Slf4j(topic = "chat.giga.springai.api.chat.GigachatLoggingInterceptor")
+public class GigaChatHttpLogger implements AutoCloseable {
+    static final int QUEUE_CAPACITY = 1024;
+
+    private static final String MASKED_VALUE = "******";
+
+    private final GigaChatLoggingProperties properties;
+    private final AtomicLong requests = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Nullable
+    private final ThreadPoolExecutor executor;
+
+    public GigaChatHttpLogger(GigaChatLoggingProperties properties) {
+        Assert.isTrue(properties.getMaxBodySize() >= 0, "maxBodySize must not be negative");
+        Assert.isTrue(properties.getSampleRate() >= 1, "sampleRate must be positive");
+        this.properties = properties;
+        if (properties.isAsync()) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gigachat-http-log-");
+            threadFactory.setDaemon(true);
+            this.executor = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    60,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                    threadFactory,
+                    new ThreadPoolExecutor.DiscardPolicy());
+            // поток логирования не держится, пока нет запросов
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Начинает запись обмена.
+     *
+     * @return запись или null, если DEBUG выключен или запрос не попал в выборку
+     */
+    @Nullable
+    public Exchange start(HttpMethod method, URI uri, HttpHeaders requestHeaders) {
+        if (!log.isDebugEnabled()) {
+            return null;
+        }
+        if (properties.getSampleRate() > 1 && requests.getAndIncrement() % properties.getSampleRate() != 0) {
+            return null;
+        }
+        return new Exchange(method, uri, requestHeaders, properties.getMaxBodySize());
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void write(Exchange exchange) {
+        if (executor == null) {
+            log.debug(format(exchange));
+        } else {
+            executor.execute(() -> log.debug(format(exchange)));
+        }
+    }
+
+    String format(Exchange exchange) {
+        StringBuilder message = new StringBuilder()
+                .append("\n\tRequest: ")
+                .append(exchange.method)
+                .append(' ')
+                .append(exchange.uri)
+                .append("\n\tRequest headers:\n")
+                .append(formatHeaders(exchange.requestHeaders))
+                .append("\n\tRequest body:\n")
+                .append(formatBody(exchange.requestBody, exchange.requestHeaders))
+                .append("\n\tResponse: ");
+        if (exchange.error != null) {
+            message.append(exchange.error);
+        } else {
+            message.append(exchange.status);
+        }
+        message.append(" in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(exchange.durationNanos))
+                .append(" ms");
+        if (exchange.responseHeaders != null) {
+            message.append("\n\tResponse headers:\n")
+                    .append(formatHeaders(exchange.responseHeaders))
+                    .append("\n\tResponse body:\n")
+                    .append(formatBody(exchange.responseBody, exchange.responseHeaders));
+        }
+        return message.toString();
+    }
+
+    private String formatBody(Body body, HttpHeaders headers) {
+        if (body.total == 0) {
+            return "";
+        }
+        MediaType contentType = headers.getContentType();
+        if (!isText(contentType)) {
+            return "[" + contentType + ", " + body.total + " bytes]";
+        }
+        String text = new String(body.bytes, 0, body.size, StandardCharsets.UTF_8);
+        if (body.isTruncated()) {
+            return text + "... [truncated, " + body.total + " bytes]";
+        }
+        if (properties.isPrettyPrint() && isJson(contentType)) {
+            return formatJson(text);
+        }
+        return text;
+    }
+
+    /**
+     * Функция форматирования json через object mapper, не очень производительно, зато не тащим в проект доп библиотеки
+     *
+     * @param json json для форматирования
+     * @return отформатированный json, или json без форматирования в случае некорректной структуры
+     */
+    private String formatJson(String json) {
+        try {
+            final Object validJson = objectMapper.readValue(json, Object.class);
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(validJson);
+        } catch (Exception ignored) {
+            return json;
+        }
+    }
+
+    /**
+     * Функция форматирования HttpHeaders в виде строки, значение Authorization маскируется
+     *
+     * @param headers хедеры для форматирования
+     * @return строка с отформатированными хедерами
+     */
+    private static String formatHeaders(HttpHeaders headers) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        headers.forEach((k, v) -> {
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append('\n');
+            }
+            stringBuilder
+                    .append(k)
+                    .append(": ")
+                    .append(HttpHeaders.AUTHORIZATION.equalsIgnoreCase(k) ? MASKED_VALUE : v);
+        });
+        return stringBuilder.toString();
+    }
+
+    private static boolean isText(@Nullable MediaType contentType) {
+        return contentType == null
+                || "text".equals(contentType.getType())
+                || isJson(contentType)
+                || MediaType.APPLICATION_FORM_URLENCODED.includes(contentType);
+    }
+
+    private static boolean isJson(@Nullable MediaType contentType) {
+        return contentType != null
+                && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                        || contentType.getSubtype().endsWith("+json"));
+    }
+
+    /**
+     * Запись одного обмена с сервером. Тело добавляется частями по мере передачи,
+     * запись уходит в лог один раз при вызове {@link #complete(Throwable)}.
+     */
+    public final class Exchange {
+        private final HttpMethod method;
+        private final URI uri;
+        private final HttpHeaders requestHeaders;
+        private final Body requestBody;
+        private final Body responseBody;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private volatile HttpStatusCode status;
+        private volatile HttpHeaders responseHeaders;
+        private volatile Throwable error;
+        private volatile long durationNanos;
+
+        private Exchange(HttpMethod method, URI uri, HttpHeaders requestHeaders, int maxBodySize) {
+            this.method = method;
+            this.uri = uri;
+            this.requestHeaders = requestHeaders;
+            this.requestBody = new Body(maxBodySize);
+            this.responseBody = new Body(maxBodySize);
+        }
+
+        public void requestBody(byte[] bytes, int offset, int length) {
+            requestBody.append(bytes, offset, length);
+        }
+
+        public void requestBody(DataBuffer buffer) {
+            requestBody.append(buffer);
+        }
+
+        public void response(HttpStatusCode status, HttpHeaders headers) {
+            this.status = status;
+            this.responseHeaders = headers;
+        }
+
+        public void responseBody(byte[] bytes, int offset, int length) {
+            responseBody.append(bytes, offset, length);
+        }
+
+        public void responseBody(DataBuffer buffer) {
+            responseBody.append(buffer);
+        }
+
+        /**
+         * Завершает обмен и отправляет запись в лог. Повторные вызовы игнорируются.
+         *
+         * @param error ошибка запроса или null
+         */
+        public void complete(@Nullable Throwable error) {
+            if (completed.compareAndSet(false, true)) {
+                this.durationNanos = System.nanoTime() - startNanos;
+                this.error = error;
+                write(this);
+            }
+        }
+    }
+
+    /**
+     * Первые maxSize байт тела и общий размер. Части тела передаются последовательно, поэтому без синхронизации.
+     */
+    static final class Body {
+        private final int maxSize;
+        private byte[] bytes = new byte[0];
+        private int size;
+        private long total;
+
+        Body(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        void append(byte[] source, int offset, int length) {
+            int count = reserve(length);
+            if (count > 0) {
+                System.arraycopy(source, offset, bytes, size, count);
+                size += count;
+            }
+        }
+
+        void append(DataBuffer buffer) {
+            int count = reserve(buffer.readableByteCount());
+            if (count > 0) {
+                // копирует без сдвига позиции чтения буфера
+                buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), size, count);
+                size += count;
+            }
+        }
+
+        private int reserve(int length) {
+            total += length;
+            int count = Math.min(length, maxSize - size);
+            if (count > 0 && bytes.length < size + count) {
+                bytes = Arrays.copyOf(bytes, Math.min(maxSize, Math.max(size + count, 2 * bytes.length)));
+            }
+            return count;
+        }
+
+        boolean isTruncated() {
+            return total > size;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package chat.giga.springai.api.logging;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * An {@link ExchangeFilterFunction} implementation that logs WebClient requests and responses
+ * through a {@link GigaChatHttpLogger}.
+ *
+ * <p>Request and response bodies are copied as they pass through, up to the configured size, without buffering
+ * the body, so streaming responses are logged once the stream ends.
+ *
+ * @param httpLogger the logger
+ */
+public record LoggingFilter(GigaChatHttpLogger httpLogger) implements ExchangeFilterFunction {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        GigaChatHttpLogger.Exchange exchange = httpLogger.start(request.method(), request.url(), request.headers());
+        if (exchange == null) {
+            return next.exchange(request);
+        }
+        ClientRequest loggedRequest = ClientRequest.from(request)
+                .body((outputMessage, context) -> request.body()
+                        .insert(
+                                new ClientHttpRequestDecorator(outputMessage) {
+                                    @Override
+                                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                                        return super.writeWith(Flux.from(body).doOnNext(exchange::requestBody));
+                                    }
+
+                                    @Override
+                                    public Mono<Void> writeAndFlushWith(
+                                            Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                                        return super.writeAndFlushWith(Flux.from(body)
+                                                .map(part -> Flux.from(part).doOnNext(exchange::requestBody)));
+                                    }
+                                },
+                                context))
+                .build();
+        return next.exchange(loggedRequest)
+                .map(response -> {
+                    exchange.response(response.statusCode(), response.headers().asHttpHeaders());
+                    return response.mutate()
+                            .body(body -> body.doOnNext(exchange::responseBody)
+                                    .doOnError(exchange::complete)
+                                    .doFinally(signal -> exchange.complete(null)))
+                            .build();
+                })
+                .doOnError(exchange::complete)
+                .doOnCancel(() -> exchange.complete(null));
+    }
+}
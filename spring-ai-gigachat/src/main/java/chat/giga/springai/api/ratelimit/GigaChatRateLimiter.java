@@ -0,0 +1,488 @@
+package chat.giga.springai.api.ratelimit;
+
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import chat.giga.springai.api.GigaChatRateLimitProperties.Endpoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ограничитель частоты (token bucket) и числа одновременных запросов к GigaChat на стороне клиента.
+ * <p>
+ * Для каждого настроенного эндпоинта и модели заводится отдельная очередь со своими лимитами.
+ * Ожидающие запросы разбиты на две полосы по {@link Priority}: пока есть ожидающие {@link Priority#INTERACTIVE},
+ * запросы {@link Priority#BATCH} не получают разрешений. Уже отправленные запросы не прерываются.
+ * <p>
+ * Приоритет задается вокруг вызова через {@link #withPriority(Priority, Supplier)}, по умолчанию - INTERACTIVE.
+ * Глубина очередей и время ожидания публикуются в Micrometer после {@link #bindTo(MeterRegistry)}.
+ *
+ * @see RateLimitInterceptor
+ * @see RateLimitFilter
+ */
+public class GigaChatRateLimiter implements MeterBinder, AutoCloseable {
+    public static final String QUEUE_SIZE = "gigachat.rate.limit.queue.size";
+    public static final String WAIT_TIME = "gigachat.rate.limit.wait";
+
+    /**
+     * Атрибут запроса с названием модели.
+     */
+    public static final String MODEL_ATTRIBUTE = GigaChatRateLimiter.class.getName() + ".model";
+
+    /**
+     * Атрибут запроса с {@link Priority}.
+     */
+    public static final String PRIORITY_ATTRIBUTE = GigaChatRateLimiter.class.getName() + ".priority";
+
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = new ThreadLocal<>();
+
+    private static final Permit NOOP_PERMIT = new Permit();
+
+    private final Duration maxWait;
+    private final Map<Endpoint, Lane> endpointLanes = new EnumMap<>(Endpoint.class);
+    private final Map<String, Lane> modelLanes = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    @Nullable
+    private volatile MeterRegistry meterRegistry;
+
+    public enum Priority {
+        /**
+         * Запросы, которые ждет пользователь.
+         */
+        INTERACTIVE,
+        /**
+         * Фоновые задачи, например индексация документов.
+         */
+        BATCH
+    }
+
+    public GigaChatRateLimiter(GigaChatRateLimitProperties properties) {
+        Assert.notNull(properties.getMaxWait(), "maxWait must not be null");
+        this.maxWait = properties.getMaxWait();
+        properties
+                .getEndpoints()
+                .forEach((endpoint, limit) -> endpointLanes.put(
+                        endpoint, new Lane("endpoint", endpoint.name().toLowerCase(Locale.ROOT), limit)));
+        properties.getModels().forEach((model, limit) -> modelLanes.put(model, new Lane("model", model, limit)));
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gigachat-rate-limit-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * Выполняет действие с заданным приоритетом запросов текущего потока.
+     * Приоритет потоковых запросов фиксируется в момент вызова метода GigaChatApi.
+     */
+    public static <T> T withPriority(Priority priority, Supplier<T> action) {
+        Assert.notNull(priority, "priority must not be null");
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_PRIORITY.remove();
+            } else {
+                CURRENT_PRIORITY.set(previous);
+            }
+        }
+    }
+
+    public static Priority currentPriority() {
+        Priority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : Priority.INTERACTIVE;
+    }
+
+    /**
+     * @return эндпоинт по пути запроса или null, если путь не относится к ограничиваемым эндпоинтам
+     */
+    @Nullable
+    public static Endpoint endpoint(URI uri) {
+        String path = uri.getPath();
+        if (path == null) {
+            return null;
+        }
+        if (path.endsWith("/chat/completions")) {
+            return Endpoint.COMPLETIONS;
+        }
+        if (path.endsWith("/embeddings")) {
+            return Endpoint.EMBEDDINGS;
+        }
+        if (path.contains("/files")) {
+            return Endpoint.FILES;
+        }
+        return null;
+    }
+
+    /**
+     * Блокирующе ждет разрешения у эндпоинта и модели.
+     *
+     * @throws TransientAiException если разрешение не получено за maxWait
+     */
+    public Permit acquire(Endpoint endpoint, @Nullable String model, Priority priority) {
+        List<Lane> lanes = lanes(endpoint, model);
+        if (lanes.isEmpty()) {
+            return NOOP_PERMIT;
+        }
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        Permit permit = new Permit();
+        try {
+            for (Lane lane : lanes) {
+                Waiter waiter = lane.acquire(priority);
+                try {
+                    waiter.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    lane.cancel(waiter);
+                    throw waitTimeout(lane);
+                } catch (InterruptedException e) {
+                    lane.cancel(waiter);
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for rate limit permit", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                permit.add(lane);
+            }
+        } catch (RuntimeException e) {
+            permit.cancel();
+            throw e;
+        }
+        return permit;
+    }
+
+    /**
+     * Неблокирующий вариант {@link #acquire}. Отмена подписки снимает запрос с очереди.
+     */
+    public Mono<Permit> acquireReactive(Endpoint endpoint, @Nullable String model, Priority priority) {
+        return Mono.defer(() -> {
+            List<Lane> lanes = lanes(endpoint, model);
+            if (lanes.isEmpty()) {
+                return Mono.just(NOOP_PERMIT);
+            }
+            Permit permit = new Permit();
+            return Flux.fromIterable(lanes)
+                    .concatMap(lane -> acquireLane(lane, priority).doOnSuccess(ignored -> permit.add(lane)))
+                    .then(Mono.just(permit))
+                    .doOnCancel(permit::cancel)
+                    .timeout(maxWait, Mono.error(() -> waitTimeout(null)))
+                    .doOnError(e -> permit.cancel());
+        });
+    }
+
+    private static Mono<Void> acquireLane(Lane lane, Priority priority) {
+        return Mono.defer(() -> {
+            Waiter waiter = lane.acquire(priority);
+            return Mono.fromFuture(waiter, true).doOnCancel(() -> lane.cancel(waiter));
+        });
+    }
+
+    private List<Lane> lanes(Endpoint endpoint, @Nullable String model) {
+        Lane endpointLane = endpointLanes.get(endpoint);
+        Lane modelLane = model != null ? modelLanes.get(model) : null;
+        if (endpointLane == null) {
+            return modelLane == null ? List.of() : List.of(modelLane);
+        }
+        return modelLane == null ? List.of(endpointLane) : List.of(endpointLane, modelLane);
+    }
+
+    private TransientAiException waitTimeout(@Nullable Lane lane) {
+        return new TransientAiException("Timed out after " + maxWait.toMillis() + " ms waiting for rate limit permit"
+                + (lane != null ? " of " + lane.type + " " + lane.name : ""));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        for (Lane lane : allLanes()) {
+            for (Priority priority : Priority.values()) {
+                Gauge.builder(QUEUE_SIZE, lane, l -> l.queueSize(priority))
+                        .description("Number of GigaChat requests waiting for a rate limit permit")
+                        .tags(lane.tags(priority))
+                        .register(registry);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private List<Lane> allLanes() {
+        List<Lane> lanes = new ArrayList<>(endpointLanes.values());
+        lanes.addAll(modelLanes.values());
+        return lanes;
+    }
+
+    /**
+     * Разрешение на запрос. Закрытие возвращает место в очередях, повторное закрытие ничего не делает.
+     * Если запрос так и не был отправлен (разрешение другой очереди не получено), очередям возвращаются и токены.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final List<Lane> lanes = new ArrayList<>(2);
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit() {}
+
+        private void add(Lane lane) {
+            synchronized (lanes) {
+                if (!closed.get()) {
+                    lanes.add(lane);
+                    return;
+                }
+            }
+            // ожидание уже отменено, запрос не будет отправлен
+            lane.release(true);
+        }
+
+        @Override
+        public void close() {
+            release(false);
+        }
+
+        private void cancel() {
+            release(true);
+        }
+
+        private void release(boolean returnToken) {
+            if (closed.compareAndSet(false, true)) {
+                synchronized (lanes) {
+                    lanes.forEach(lane -> lane.release(returnToken));
+                    lanes.clear();
+                }
+            }
+        }
+    }
+
+    private static final class Waiter extends CompletableFuture<Void> {
+        private final Priority priority;
+        private final long enqueuedAt = System.nanoTime();
+
+        private Waiter(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Очередь одного эндпоинта или модели.
+     */
+    private final class Lane {
+        private final String type;
+        private final String name;
+        private final double permitsPerSecond;
+        private final int burst;
+        private final int maxInFlight;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+
+        // guarded by lock
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private int inFlight;
+        private boolean drainScheduled;
+
+        private Lane(String type, String name, GigaChatRateLimitProperties.Limit limit) {
+            Assert.isTrue(limit.getPermitsPerSecond() >= 0, "permitsPerSecond must not be negative");
+            Assert.isTrue(limit.getBurst() >= 1, "burst must be positive");
+            Assert.isTrue(limit.getMaxInFlight() >= 0, "maxInFlight must not be negative");
+            this.type = type;
+            this.name = name;
+            this.permitsPerSecond = limit.getPermitsPerSecond();
+            this.burst = limit.getBurst();
+            this.maxInFlight = limit.getMaxInFlight();
+            this.tokens = burst;
+            for (Priority priority : Priority.values()) {
+                queues.put(priority, new ArrayDeque<>());
+            }
+        }
+
+        Waiter acquire(Priority priority) {
+            Waiter waiter = new Waiter(priority);
+            List<Waiter> granted;
+            lock.lock();
+            try {
+                queues.get(priority).add(waiter);
+                granted = drain();
+            } finally {
+                lock.unlock();
+            }
+            complete(granted);
+            return waiter;
+        }
+
+        /**
+         * Освобождает место одновременного запроса.
+         *
+         * @param returnToken вернуть и токен частоты - запрос с этим разрешением не отправлялся
+         */
+        void release(boolean returnToken) {
+            List<Waiter> granted;
+            lock.lock();
+            try {
+                inFlight--;
+                if (returnToken && permitsPerSecond > 0) {
+                    tokens = Math.min(burst, tokens + 1);
+                }
+                granted = drain();
+            } finally {
+                lock.unlock();
+            }
+            complete(granted);
+        }
+
+        /**
+         * Снимает ожидание с очереди. Если разрешение уже выдано - возвращает его.
+         */
+        void cancel(Waiter waiter) {
+            boolean removed;
+            lock.lock();
+            try {
+                removed = queues.get(waiter.priority).remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+            if (removed) {
+                waiter.cancel(false);
+            } else {
+                release(true);
+            }
+        }
+
+        int queueSize(Priority priority) {
+            lock.lock();
+            try {
+                return queues.get(priority).size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Выдает разрешения ожидающим, начиная с высшего приоритета. Вызывается под блокировкой,
+         * а сами ожидания завершаются после ее снятия, чтобы продолжения не выполнялись под ней.
+         */
+        private List<Waiter> drain() {
+            refill();
+            List<Waiter> granted = null;
+            for (ArrayDeque<Waiter> queue : queues.values()) {
+                while (!queue.isEmpty()) {
+                    if (!tryTake()) {
+                        scheduleDrain();
+                        return granted == null ? List.of() : granted;
+                    }
+                    if (granted == null) {
+                        granted = new ArrayList<>(1);
+                    }
+                    granted.add(queue.poll());
+                }
+            }
+            return granted == null ? List.of() : granted;
+        }
+
+        private void complete(List<Waiter> granted) {
+            if (granted.isEmpty()) {
+                return;
+            }
+            MeterRegistry registry = meterRegistry;
+            long now = System.nanoTime();
+            for (Waiter waiter : granted) {
+                if (registry != null) {
+                    Timer.builder(WAIT_TIME)
+                            .description("Time GigaChat requests wait for a rate limit permit")
+                            .tags(tags(waiter.priority))
+                            .register(registry)
+                            .record(now - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+                }
+                waiter.complete(null);
+            }
+        }
+
+        private boolean tryTake() {
+            if (maxInFlight > 0 && inFlight >= maxInFlight) {
+                return false;
+            }
+            if (permitsPerSecond > 0) {
+                if (tokens < 1) {
+                    return false;
+                }
+                tokens -= 1;
+            }
+            inFlight++;
+            return true;
+        }
+
+        private void refill() {
+            if (permitsPerSecond <= 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+        }
+
+        /**
+         * Если ожидание упирается в частоту, а не в число одновременных запросов,
+         * планирует раздачу разрешений к моменту появления следующего токена.
+         */
+        private void scheduleDrain() {
+            if (drainScheduled || permitsPerSecond <= 0 || maxInFlight > 0 && inFlight >= maxInFlight) {
+                return;
+            }
+            if (scheduler.isShutdown()) {
+                return;
+            }
+            long delay = (long) Math.ceil((1 - tokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+            drainScheduled = true;
+            scheduler.schedule(
+                    () -> {
+                        List<Waiter> granted;
+                        lock.lock();
+                        try {
+                            drainScheduled = false;
+                            granted = drain();
+                        } finally {
+                            lock.unlock();
+                        }
+                        complete(granted);
+                    },
+                    delay,
+                    TimeUnit.NANOSECONDS);
+        }
+
+        private List<Tag> tags(Priority priority) {
+            return List.of(
+                    Tag.of("gigachat.rate.limit.scope", type),
+                    Tag.of("gigachat.rate.limit.name", name),
+                    Tag.of("gigachat.request.priority", priority.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package chat.giga.springai.api.ratelimit;
+
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * An {@link ExchangeFilterFunction} implementation that waits for a {@link GigaChatRateLimiter} permit
+ * without blocking before sending WebClient requests.
+ *
+ * <p>The permit is held until the response body is consumed, so a streaming response occupies its in-flight slot
+ * until the stream ends. Model and priority are taken from the {@link GigaChatRateLimiter#MODEL_ATTRIBUTE}
+ * and {@link GigaChatRateLimiter#PRIORITY_ATTRIBUTE} request attributes.
+ *
+ * @param rateLimiter the rate limiter
+ */
+public record RateLimitFilter(GigaChatRateLimiter rateLimiter) implements ExchangeFilterFunction {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        GigaChatRateLimitProperties.Endpoint endpoint = GigaChatRateLimiter.endpoint(request.url());
+        if (endpoint == null) {
+            return next.exchange(request);
+        }
+        String model =
+                (String) request.attribute(GigaChatRateLimiter.MODEL_ATTRIBUTE).orElse(null);
+        GigaChatRateLimiter.Priority priority = request.attribute(GigaChatRateLimiter.PRIORITY_ATTRIBUTE)
+                .filter(GigaChatRateLimiter.Priority.class::isInstance)
+                .map(GigaChatRateLimiter.Priority.class::cast)
+                .orElse(GigaChatRateLimiter.Priority.INTERACTIVE);
+        return rateLimiter.acquireReactive(endpoint, model, priority).flatMap(permit -> next.exchange(request)
+                .map(response -> response.mutate()
+                        .body(body -> body.doFinally(signal -> permit.close()))
+                        .build())
+                .doOnError(e -> permit.close())
+                .doOnCancel(permit::close));
+    }
+}
@@ -0,0 +1,86 @@
+package chat.giga.springai.api.ratelimit;
+
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A {@link ClientHttpRequestInterceptor} implementation that waits for a {@link GigaChatRateLimiter} permit
+ * before sending RestClient requests.
+ *
+ * <p>The permit is held until the response is closed, that is until its body is read. Model and priority are taken
+ * from the {@link GigaChatRateLimiter#MODEL_ATTRIBUTE} and {@link GigaChatRateLimiter#PRIORITY_ATTRIBUTE} request
+ * attributes.
+ *
+ * @param rateLimiter the rate limiter
+ */
+public record RateLimitInterceptor(GigaChatRateLimiter rateLimiter) implements ClientHttpRequestInterceptor {
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        GigaChatRateLimitProperties.Endpoint endpoint = GigaChatRateLimiter.endpoint(request.getURI());
+        if (endpoint == null) {
+            return execution.execute(request, body);
+        }
+        String model = (String) request.getAttributes().get(GigaChatRateLimiter.MODEL_ATTRIBUTE);
+        Object priority = request.getAttributes().get(GigaChatRateLimiter.PRIORITY_ATTRIBUTE);
+        GigaChatRateLimiter.Permit permit = rateLimiter.acquire(
+                endpoint,
+                model,
+                priority instanceof GigaChatRateLimiter.Priority p ? p : GigaChatRateLimiter.Priority.INTERACTIVE);
+        boolean responded = false;
+        try {
+            ClientHttpResponse response = new PermitResponse(execution.execute(request, body), permit);
+            responded = true;
+            return response;
+        } finally {
+            if (!responded) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the permit when the response is closed.
+     */
+    private record PermitResponse(ClientHttpResponse delegate, GigaChatRateLimiter.Permit permit)
+            implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                permit.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.HashUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Кэш эмбеддингов, используемый {@link chat.giga.springai.GigaChatEmbeddingModel}
+ * для того, чтобы не отправлять повторно в GigaChat уже посчитанные тексты.
+ * <p>
+ * Ключом является хэш пары (модель, текст), см. {@link #key(String, String)}.
+ * Реализации должны быть потокобезопасными.
+ *
+ * @see InMemoryEmbeddingCache
+ * @see FileSystemEmbeddingCache
+ */
+public interface EmbeddingCache {
+
+    /**
+     * Возвращает эмбеддинг по ключу.
+     *
+     * @param key ключ, полученный через {@link #key(String, String)}
+     * @return эмбеддинг или {@code null}, если значения в кэше нет
+     */
+    @Nullable
+    float[] get(String key);
+
+    /**
+     * Сохраняет эмбеддинг в кэш.
+     *
+     * @param key ключ, полученный через {@link #key(String, String)}
+     * @param embedding эмбеддинг
+     */
+    void put(String key, float[] embedding);
+
+    /**
+     * Удаляет все значения из кэша.
+     */
+    void clear();
+
+    /**
+     * Вычисляет ключ кэша для пары (модель, текст).
+     *
+     * @param model название модели
+     * @param text текст, для которого считается эмбеддинг
+     * @return SHA-256 хэш в виде hex-строки
+     */
+    static String key(String model, String text) {
+        return HashUtils.sha256Hex(model, text);
+    }
+}
@@ -0,0 +1,77 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.HashUtils;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+/**
+ * Кэш идентификаторов загруженных в GigaChat файлов, используемый {@link chat.giga.springai.GigaChatModel}
+ * для того, чтобы не загружать повторно одни и те же медиа файлы.
+ * <p>
+ * Ключом является хэш тройки (учетная запись, тип, содержимое), см. {@link #key(String, MimeType, byte[])}:
+ * файл в GigaChat доступен только учетной записи, которая его загрузила.
+ * Время жизни записей не должно превышать срок хранения файлов в GigaChat.
+ * Реализации должны быть потокобезопасными.
+ *
+ * @see InMemoryFileIdCache
+ * @see FileSystemFileIdCache
+ */
+public interface FileIdCache {
+    Duration DEFAULT_TTL = Duration.ofDays(1);
+
+    /**
+     * Возвращает идентификатор файла по ключу.
+     *
+     * @param key ключ, полученный через {@link #key(String, MimeType, byte[])}
+     * @return идентификатор файла или {@code null}, если значения в кэше нет или оно устарело
+     */
+    @Nullable
+    String get(String key);
+
+    /**
+     * Сохраняет идентификатор файла в кэш.
+     *
+     * @param key ключ, полученный через {@link #key(String, MimeType, byte[])}
+     * @param fileId идентификатор файла в GigaChat
+     */
+    void put(String key, String fileId);
+
+    /**
+     * Удаляет значение из кэша, например, если GigaChat больше не знает такой файл.
+     *
+     * @param key ключ, полученный через {@link #key(String, MimeType, byte[])}
+     */
+    void evict(String key);
+
+    /**
+     * Удаляет все значения из кэша.
+     */
+    void clear();
+
+    /**
+     * Вычисляет ключ кэша для тройки (учетная запись, тип, содержимое).
+     *
+     * @param credentialId учетная запись, загрузившая файл,
+     *                     см. {@link chat.giga.springai.api.chat.GigaChatApi#selectCredential()}
+     * @param mimeType тип файла
+     * @param data содержимое файла
+     * @return SHA-256 хэш в виде hex-строки
+     */
+    static String key(@Nullable String credentialId, @Nullable MimeType mimeType, byte[] data) {
+        MessageDigest digest = HashUtils.newDigest();
+        if (credentialId != null) {
+            digest.update(credentialId.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        if (mimeType != null) {
+            digest.update(mimeType.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        digest.update(data);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
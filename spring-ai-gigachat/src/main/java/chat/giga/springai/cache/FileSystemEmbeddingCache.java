@@ -0,0 +1,160 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.CacheFiles;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Кэш эмбеддингов на локальном диске.
+ * <p>
+ * Каждый эмбеддинг хранится в отдельном файле {@code <directory>/<первые 2 символа ключа>/<ключ>.bin}
+ * в виде массива float (big-endian). Запись выполняется через временный файл и атомарное переименование,
+ * поэтому кэш можно использовать из нескольких потоков и процессов.
+ * Если задан {@code ttl}, запись живет {@code ttl} с момента сохранения (по времени изменения файла).
+ * Когда записей становится больше {@code maxSize}, удаляются устаревшие и самые старые, пока их не останется 90%
+ * от {@code maxSize}. Число записей считается при создании кэша, записи других процессов в него не попадают.
+ * Ошибки чтения/записи не прерывают вызов модели - значение просто считается отсутствующим в кэше.
+ */
+@Slf4j
+public class FileSystemEmbeddingCache implements EmbeddingCache {
+    public static final int DEFAULT_MAX_SIZE = InMemoryEmbeddingCache.DEFAULT_MAX_SIZE;
+
+    private static final String FILE_EXTENSION = ".bin";
+
+    private final Path directory;
+    private final int maxSize;
+
+    @Nullable
+    private final Duration ttl;
+
+    private final Clock clock;
+    private final AtomicLong entries;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public FileSystemEmbeddingCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE, null);
+    }
+
+    /**
+     * @param ttl время жизни записи или null, если записи не устаревают
+     */
+    public FileSystemEmbeddingCache(Path directory, int maxSize, @Nullable Duration ttl) {
+        this(directory, maxSize, ttl, Clock.systemUTC());
+    }
+
+    FileSystemEmbeddingCache(Path directory, int maxSize, @Nullable Duration ttl, Clock clock) {
+        Assert.notNull(directory, "directory must not be null");
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        if (ttl != null) {
+            CacheFiles.checkTtl(ttl);
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new AtomicLong(files().size());
+    }
+
+    @Override
+    @Nullable
+    public float[] get(String key) {
+        Path path = resolve(key);
+        try {
+            if (ttl != null && CacheFiles.isExpired(Files.getLastModifiedTime(path), ttl, clock)) {
+                delete(path);
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            float[] embedding = new float[buffer.remaining() / Float.BYTES];
+            buffer.asFloatBuffer().get(embedding);
+            return embedding;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read embedding from cache: {}", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, float[] embedding) {
+        Assert.notNull(embedding, "embedding must not be null");
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES);
+        buffer.asFloatBuffer().put(embedding);
+        Path path = resolve(key);
+        try {
+            boolean exists = Files.exists(path);
+            CacheFiles.writeAtomically(path, key, tmp -> Files.write(tmp, buffer.array()));
+            if (!exists && entries.incrementAndGet() > maxSize) {
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write embedding to cache: {}", key, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        CacheFiles.deleteContents(directory);
+        entries.set(0);
+    }
+
+    public long size() {
+        return entries.get();
+    }
+
+    /**
+     * Удаляет устаревшие записи и самые старые, пока их не останется 90% от {@code maxSize}.
+     * Если вытеснение уже выполняется другим потоком, запись его не ждет.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.set(CacheFiles.evictOldest(files(), maxSize, ttl, clock, this::delete));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private List<Path> files() {
+        if (!Files.exists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to list embedding cache directory: {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            if (Files.deleteIfExists(path)) {
+                entries.decrementAndGet();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete embedding from cache: {}", path, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,125 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.CacheFiles;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Кэш идентификаторов файлов на локальном диске.
+ * <p>
+ * Каждый идентификатор хранится в отдельном файле {@code <directory>/<первые 2 символа ключа>/<ключ>.id},
+ * время жизни записи отсчитывается от времени изменения этого файла. Запись выполняется через временный файл
+ * и атомарное переименование, поэтому кэш можно использовать из нескольких потоков и процессов.
+ * Устаревшие записи удаляются при чтении, а также при записи, не чаще раза в {@code ttl}, обходом всего каталога.
+ * Ошибки чтения/записи не прерывают вызов модели - файл просто загружается заново.
+ */
+@Slf4j
+public class FileSystemFileIdCache implements FileIdCache {
+    private static final String FILE_EXTENSION = ".id";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final Clock clock;
+    private final AtomicReference<Instant> nextSweep = new AtomicReference<>(Instant.MIN);
+
+    public FileSystemFileIdCache(Path directory) {
+        this(directory, DEFAULT_TTL);
+    }
+
+    public FileSystemFileIdCache(Path directory, Duration ttl) {
+        this(directory, ttl, Clock.systemUTC());
+    }
+
+    FileSystemFileIdCache(Path directory, Duration ttl, Clock clock) {
+        Assert.notNull(directory, "directory must not be null");
+        CacheFiles.checkTtl(ttl);
+        this.directory = directory;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    @Nullable
+    public String get(String key) {
+        Path path = resolve(key);
+        try {
+            if (CacheFiles.isExpired(Files.getLastModifiedTime(path), ttl, clock)) {
+                Files.deleteIfExists(path);
+                return null;
+            }
+            String fileId = Files.readString(path, StandardCharsets.UTF_8).trim();
+            return fileId.isEmpty() ? null : fileId;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read file id from cache: {}", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, String fileId) {
+        Assert.hasText(fileId, "fileId must not be empty");
+        try {
+            CacheFiles.writeAtomically(
+                    resolve(key), key, tmp -> Files.writeString(tmp, fileId, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Failed to write file id to cache: {}", key, e);
+        }
+        sweepIfDue();
+    }
+
+    @Override
+    public void evict(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            log.warn("Failed to evict file id from cache: {}", key, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        CacheFiles.deleteContents(directory);
+    }
+
+    /**
+     * Удаляет устаревшие записи и оставшиеся после сбоев временные файлы, если с прошлого обхода прошло {@code ttl}.
+     */
+    private void sweepIfDue() {
+        Instant now = clock.instant();
+        Instant due = nextSweep.get();
+        if (now.isBefore(due) || !nextSweep.compareAndSet(due, now.plus(ttl)) || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile).forEach(path -> {
+                try {
+                    if (CacheFiles.isExpired(Files.getLastModifiedTime(path), ttl, clock)) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (IOException e) {
+                    log.debug("Failed to sweep file id cache entry: {}", path, e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to sweep file id cache directory: {}", directory, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + FILE_EXTENSION);
+    }
+}
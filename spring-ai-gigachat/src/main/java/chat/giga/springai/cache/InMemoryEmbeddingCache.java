@@ -0,0 +1,56 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.ExpiringLruCache;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Потокобезопасный in-memory кэш эмбеддингов с ограничением по количеству записей.
+ * Если задан {@code ttl}, запись устаревает через {@code ttl} после сохранения.
+ * При переполнении вытесняется запись, к которой дольше всего не обращались (LRU).
+ * Массивы копируются при записи и чтении, поэтому изменение массива вызывающим кодом не портит кэш.
+ */
+public class InMemoryEmbeddingCache implements EmbeddingCache {
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final ExpiringLruCache<float[]> entries;
+
+    public InMemoryEmbeddingCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public InMemoryEmbeddingCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param ttl время жизни записи или null, если записи не устаревают
+     */
+    public InMemoryEmbeddingCache(int maxSize, @Nullable Duration ttl) {
+        this.entries = new ExpiringLruCache<>(maxSize, ttl, Clock.systemUTC());
+    }
+
+    @Override
+    @Nullable
+    public float[] get(String key) {
+        float[] embedding = entries.get(key);
+        return embedding != null ? embedding.clone() : null;
+    }
+
+    @Override
+    public void put(String key, float[] embedding) {
+        Assert.notNull(embedding, "embedding must not be null");
+        entries.put(key, embedding.clone());
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
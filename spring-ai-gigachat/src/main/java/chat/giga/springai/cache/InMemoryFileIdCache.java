@@ -0,0 +1,56 @@
+package chat.giga.springai.cache;
+
+import chat.giga.springai.support.ExpiringLruCache;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Потокобезопасный in-memory кэш идентификаторов файлов с ограничением по количеству записей и времени жизни.
+ * При переполнении вытесняется запись, к которой дольше всего не обращались (LRU).
+ */
+public class InMemoryFileIdCache implements FileIdCache {
+    public static final int DEFAULT_MAX_SIZE = 1_000;
+
+    private final ExpiringLruCache<String> entries;
+
+    public InMemoryFileIdCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    public InMemoryFileIdCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    InMemoryFileIdCache(int maxSize, Duration ttl, Clock clock) {
+        Assert.notNull(ttl, "ttl must not be null");
+        this.entries = new ExpiringLruCache<>(maxSize, ttl, clock);
+    }
+
+    @Override
+    @Nullable
+    public String get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void put(String key, String fileId) {
+        Assert.hasText(fileId, "fileId must not be empty");
+        entries.put(key, fileId);
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -1,17 +1,21 @@
 package chat.giga.springai.image;
 
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
 import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.completion.CompletionRequest;
 import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
 import io.micrometer.observation.ObservationRegistry;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.image.Image;
 import org.springframework.ai.image.ImageGeneration;
 import org.springframework.ai.image.ImageGenerationMetadata;
+import org.springframework.ai.image.ImageMessage;
 import org.springframework.ai.image.ImageModel;
 import org.springframework.ai.image.ImageOptions;
 import org.springframework.ai.image.ImagePrompt;
@@ -24,11 +28,16 @@ import org.springframework.ai.image.observation.ImageModelObservationDocumentati
 import org.springframework.http.ResponseEntity;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 public class GigaChatImageModel implements ImageModel {
     private static final String FUNCTION_CALL_AUTO = "auto";
 
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
     private static final ImageModelObservationConvention DEFAULT_OBSERVATION_CONVENTION =
             new DefaultImageModelObservationConvention();
 
@@ -39,6 +48,8 @@ public class GigaChatImageModel implements ImageModel {
 
     private ImageModelObservationConvention observationConvention;
 
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
     public GigaChatImageModel(
             GigaChatApi gigaChatApi,
             GigaChatImageOptions defaultOptions,
@@ -60,34 +71,78 @@ public class GigaChatImageModel implements ImageModel {
                 .provider(GigaChatApi.PROVIDER_NAME)
                 .build();
 
-        CompletionRequest request = buildCompletionRequest(effectivePrompt);
-
         return ImageModelObservationDocumentation.IMAGE_MODEL_OPERATION
                 .observation(
                         this.observationConvention,
                         DEFAULT_OBSERVATION_CONVENTION,
                         () -> observationContext,
                         this.observationRegistry)
-                .observe(() -> processRequest(effectivePrompt, request));
+                .observe(() -> processRequests(effectivePrompt, buildCompletionRequests(effectivePrompt)));
+    }
+
+    /**
+     * Выполняет запросы параллельно, не более {@link #maxConcurrency} одновременно,
+     * и собирает изображения в порядке запросов. Если запрос один и изображения нет, результат пустой.
+     * В пакете из нескольких запросов на месте запроса без изображения остается пустая генерация,
+     * поэтому индекс результата всегда соответствует инструкции и номеру изображения.
+     */
+    private ImageResponse processRequests(ImagePrompt prompt, List<CompletionRequest> requests) {
+        if (requests.size() == 1) {
+            return new ImageResponse(
+                    processRequestWithCredential(prompt, requests.get(0)).stream().toList(),
+                    new ImageResponseMetadata());
+        }
+        List<ImageGeneration> generations;
+        if (maxConcurrency <= 1) {
+            generations = requests.stream()
+                    .map(request -> alignedGeneration(prompt, request))
+                    .toList();
+        } else {
+            GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+            generations = Flux.fromIterable(requests)
+                    .flatMapSequential(
+                            request -> Mono.fromCallable(() -> GigaChatRateLimiter.withPriority(
+                                            priority, () -> alignedGeneration(prompt, request)))
+                                    .subscribeOn(Schedulers.boundedElastic()),
+                            maxConcurrency)
+                    .collectList()
+                    .block();
+        }
+        return new ImageResponse(Objects.requireNonNull(generations), new ImageResponseMetadata());
+    }
+
+    /**
+     * Изображение запроса из пакета или пустая генерация, если GigaChat его не вернул.
+     */
+    private ImageGeneration alignedGeneration(ImagePrompt prompt, CompletionRequest request) {
+        return processRequestWithCredential(prompt, request).orElseGet(this::emptyImageGeneration);
+    }
+
+    /**
+     * Генерация и скачивание изображения идут от одной учетной записи: файл доступен только создавшей его записи.
+     */
+    private Optional<ImageGeneration> processRequestWithCredential(ImagePrompt prompt, CompletionRequest request) {
+        return GigaChatCredentialAffinity.withCredential(
+                gigaChatApi.selectCredential(), () -> processRequest(prompt, request));
     }
 
-    private ImageResponse processRequest(ImagePrompt prompt, CompletionRequest request) {
+    private Optional<ImageGeneration> processRequest(ImagePrompt prompt, CompletionRequest request) {
         CompletionResponse completion = executeCompletion(request);
 
         if (isEmptyCompletion(completion)) {
             log.warn("GigaChat returned empty image result for prompt: {}", prompt);
-            return new ImageResponse(List.of());
+            return Optional.empty();
         }
 
         String fileId = extractFileId(completion);
         if (fileId == null) {
             log.warn("Unable to extract file_id from GigaChat response for prompt: {}", prompt);
-            return new ImageResponse(List.of());
+            return Optional.empty();
         }
 
         String responseFormat = prompt.getOptions().getResponseFormat();
         if (GigaChatImageOptions.RESPONSE_FORMAT_URL.equals(responseFormat)) {
-            return buildUrlImageResponse(fileId);
+            return Optional.of(buildUrlImageGeneration(fileId));
         }
 
         byte[] imageBytes = gigaChatApi.downloadFile(fileId);
@@ -95,7 +150,7 @@ public class GigaChatImageModel implements ImageModel {
             throw new IllegalStateException("Failed to download image for fileId: " + fileId);
         }
 
-        return buildBase64ImageResponse(fileId, imageBytes);
+        return Optional.of(buildBase64ImageGeneration(fileId, imageBytes));
     }
 
     private ImagePrompt normalizePrompt(ImagePrompt prompt) {
@@ -112,6 +167,7 @@ public class GigaChatImageModel implements ImageModel {
                         promptOptions.getResponseFormat() != null
                                 ? promptOptions.getResponseFormat()
                                 : defaultOptions.getResponseFormat())
+                .n(promptOptions.getN() != null ? promptOptions.getN() : defaultOptions.getN())
                 .build();
 
         return new ImagePrompt(prompt.getInstructions(), mergedOptions);
@@ -130,20 +186,25 @@ public class GigaChatImageModel implements ImageModel {
                 || completion.getChoices().isEmpty();
     }
 
-    private ImageResponse buildBase64ImageResponse(String fileId, byte[] imageBytes) {
+    private ImageGeneration buildBase64ImageGeneration(String fileId, byte[] imageBytes) {
         String base64 = Base64.getEncoder().encodeToString(imageBytes);
         Image image = new Image(null, base64);
         ImageGenerationMetadata metadata = new GigaChatImageGenerationMetadata(fileId);
-        ImageGeneration generation = new ImageGeneration(image, metadata);
-        return new ImageResponse(List.of(generation), new ImageResponseMetadata());
+        return new ImageGeneration(image, metadata);
+    }
+
+    /**
+     * Генерация без изображения: url, b64Json и fileId равны null. Занимает место запроса в пакете.
+     */
+    private ImageGeneration emptyImageGeneration() {
+        return new ImageGeneration(new Image(null, null), new GigaChatImageGenerationMetadata(null));
     }
 
-    private ImageResponse buildUrlImageResponse(String fileId) {
+    private ImageGeneration buildUrlImageGeneration(String fileId) {
         String url = gigaChatApi.getFileUrl(fileId);
         Image image = new Image(url, null);
         ImageGenerationMetadata metadata = new GigaChatImageGenerationMetadata(fileId);
-        ImageGeneration generation = new ImageGeneration(image, metadata);
-        return new ImageResponse(List.of(generation), new ImageResponseMetadata());
+        return new ImageGeneration(image, metadata);
     }
 
     private String extractFileId(CompletionResponse response) {
@@ -157,7 +218,21 @@ public class GigaChatImageModel implements ImageModel {
         return fileIds.iterator().next();
     }
 
-    private CompletionRequest buildCompletionRequest(ImagePrompt prompt) {
+    /**
+     * По запросу на каждую инструкцию промпта, каждый повторяется n раз.
+     */
+    private List<CompletionRequest> buildCompletionRequests(ImagePrompt prompt) {
+        int n = Math.max(Optional.ofNullable(prompt.getOptions().getN()).orElse(1), 1);
+        List<CompletionRequest> requests = new ArrayList<>();
+        for (ImageMessage instruction : prompt.getInstructions()) {
+            for (int i = 0; i < n; i++) {
+                requests.add(buildCompletionRequest(prompt, instruction));
+            }
+        }
+        return requests;
+    }
+
+    private CompletionRequest buildCompletionRequest(ImagePrompt prompt, ImageMessage instruction) {
 
         CompletionRequest req = new CompletionRequest();
 
@@ -176,10 +251,7 @@ public class GigaChatImageModel implements ImageModel {
             messages.add(sys);
         }
 
-        if (prompt.getInstructions().size() > 1) {
-            log.warn("GigaChat only supports one instruction, using the first one");
-        }
-        String userText = prompt.getInstructions().get(0).getText();
+        String userText = instruction.getText();
 
         CompletionRequest.Message user = new CompletionRequest.Message();
         user.setRole(CompletionRequest.Role.user);
@@ -205,4 +277,15 @@ public class GigaChatImageModel implements ImageModel {
         Assert.notNull(observationConvention, "observationConvention cannot be null");
         this.observationConvention = observationConvention;
     }
+
+    /**
+     * Максимальное число одновременных запросов генерации и скачивания изображений
+     * при нескольких инструкциях или n > 1
+     *
+     * @param maxConcurrency 1 - запросы выполняются последовательно
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        Assert.isTrue(maxConcurrency >= 1, "maxConcurrency must be positive");
+        this.maxConcurrency = maxConcurrency;
+    }
 }
@@ -21,16 +21,26 @@ public class GigaChatImageOptions implements ImageOptions {
     @Builder.Default
     private String responseFormat = RESPONSE_FORMAT_B64_JSON;
 
+    /**
+     * Сколько изображений сгенерировать на каждую инструкцию промпта.
+     * GigaChat возвращает одно изображение на запрос, поэтому выполняется n запросов.
+     */
+    private Integer n;
+
     public GigaChatImageOptions(String style, String model, String responseFormat) {
+        this(style, model, responseFormat, null);
+    }
+
+    public GigaChatImageOptions(String style, String model, String responseFormat, Integer n) {
         this.style = style;
         this.model = model;
         this.responseFormat = responseFormat;
+        this.n = n;
     }
 
     @Override
     public Integer getN() {
-        // GigaChat does not support N
-        return null;
+        return n;
     }
 
     @Override
@@ -0,0 +1,246 @@
+package chat.giga.springai.observation;
+
+import io.micrometer.common.docs.KeyName;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.docs.ObservationDocumentation;
+
+/**
+ * Описание наблюдений (observations), которые публикует библиотека в дополнение
+ * к стандартным наблюдениям Spring AI (например, {@code gen_ai.client.operation}).
+ * <p>
+ * При наличии {@code DefaultMeterObservationHandler} каждое наблюдение превращается в Micrometer-таймер,
+ * а события наблюдения - в счетчики вида {@code <имя наблюдения>.<имя события>}.
+ */
+public enum GigaChatObservationDocumentation implements ObservationDocumentation {
+
+    /**
+     * Обращение к кэшу эмбеддингов в рамках одного вызова Embedding модели.
+     */
+    EMBEDDING_CACHE {
+        @Override
+        public String getName() {
+            return "gigachat.embedding.cache";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {LowCardinalityKeyNames.MODEL};
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] {HighCardinalityKeyNames.CACHE_HITS, HighCardinalityKeyNames.CACHE_MISSES};
+        }
+    },
+
+    /**
+     * Получение нового bearer-токена в OAuth-сервисе GigaChat.
+     * Ошибки получения токена попадают в тег {@code error} таймера.
+     */
+    TOKEN_REFRESH {
+        @Override
+        public String getName() {
+            return "gigachat.auth.token.refresh";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {LowCardinalityKeyNames.REFRESH_MODE};
+        }
+    },
+
+    /**
+     * Загрузка медиа файлов промпта в GigaChat перед запросом к Chat модели - от начала загрузки до получения
+     * идентификаторов всех файлов.
+     */
+    MEDIA_UPLOAD {
+        @Override
+        public String getName() {
+            return "gigachat.media.upload";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {LowCardinalityKeyNames.MODEL};
+        }
+
+        @Override
+        public Observation.Event[] getEvents() {
+            return MediaUploadEvents.values();
+        }
+    },
+
+    /**
+     * Скачивание одного изображения из ответа Chat модели.
+     */
+    MEDIA_DOWNLOAD {
+        @Override
+        public String getName() {
+            return "gigachat.media.download";
+        }
+    },
+
+    /**
+     * Запрос к GigaChat API от отправки до получения статуса и заголовков ответа (time to first byte).
+     * Чтение тела ответа не входит, у потокового ответа - это время до начала потока.
+     */
+    HTTP_REQUEST {
+        @Override
+        public String getName() {
+            return "gigachat.http.request";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {
+                LowCardinalityKeyNames.MODEL, LowCardinalityKeyNames.ENDPOINT, LowCardinalityKeyNames.STATUS
+            };
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] {HighCardinalityKeyNames.REQUEST_ID};
+        }
+    },
+
+    /**
+     * Потоковый запрос к Chat модели от подписки до получения первого фрагмента ответа (time to first token),
+     * включая получение токена, ожидание ограничителя запросов и повторы.
+     */
+    STREAM_FIRST_TOKEN {
+        @Override
+        public String getName() {
+            return "gigachat.completion.stream.first.token";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {LowCardinalityKeyNames.MODEL};
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] {HighCardinalityKeyNames.REQUEST_ID};
+        }
+    },
+
+    /**
+     * Выполнение всех вызовов функций из одного ответа Chat модели.
+     */
+    TOOL_EXECUTION {
+        @Override
+        public String getName() {
+            return "gigachat.tool.execution";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] {LowCardinalityKeyNames.MODEL};
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] {HighCardinalityKeyNames.REQUEST_ID};
+        }
+    };
+
+    public enum LowCardinalityKeyNames implements KeyName {
+        /**
+         * Название модели GigaChat.
+         */
+        MODEL {
+            @Override
+            public String asString() {
+                return "gigachat.model";
+            }
+        },
+        /**
+         * Способ обновления токена: {@code background} - фоновое обновление заранее,
+         * {@code on-demand} - обновление в потоке запроса.
+         */
+        REFRESH_MODE {
+            @Override
+            public String asString() {
+                return "gigachat.auth.refresh.mode";
+            }
+        },
+        /**
+         * Группа методов API: {@code completions}, {@code embeddings}, {@code files} или {@code other}.
+         */
+        ENDPOINT {
+            @Override
+            public String asString() {
+                return "gigachat.endpoint";
+            }
+        },
+        /**
+         * HTTP-статус ответа или {@code CLIENT_ERROR}, если ответ не получен.
+         */
+        STATUS {
+            @Override
+            public String asString() {
+                return "http.status_code";
+            }
+        }
+    }
+
+    public enum HighCardinalityKeyNames implements KeyName {
+        /**
+         * Идентификатор запроса из заголовка {@code x-request-id}. Попадает в трассировку, но не в теги метрик.
+         */
+        REQUEST_ID {
+            @Override
+            public String asString() {
+                return "gigachat.request.id";
+            }
+        },
+        /**
+         * Число текстов вызова Embedding модели, эмбеддинги которых найдены в кэше.
+         */
+        CACHE_HITS {
+            @Override
+            public String asString() {
+                return "gigachat.embedding.cache.hits";
+            }
+        },
+        /**
+         * Число текстов вызова Embedding модели, эмбеддинги которых не найдены в кэше.
+         */
+        CACHE_MISSES {
+            @Override
+            public String asString() {
+                return "gigachat.embedding.cache.misses";
+            }
+        }
+    }
+
+    public enum MediaUploadEvents implements Observation.Event {
+        /**
+         * Файл загружен в GigaChat.
+         */
+        UPLOADED {
+            @Override
+            public String getName() {
+                return "uploaded";
+            }
+        },
+        /**
+         * Идентификатор файла найден в кэше, загрузка не нужна.
+         */
+        CACHED {
+            @Override
+            public String getName() {
+                return "cached";
+            }
+        },
+        /**
+         * Файл с тем же содержимым уже загружается в рамках этого промпта, повторная загрузка не нужна.
+         */
+        DEDUPLICATED {
+            @Override
+            public String getName() {
+                return "deduplicated";
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package chat.giga.springai.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.experimental.UtilityClass;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Утилиты файловых кэшей: атомарная запись через временный файл, время жизни записи по времени изменения файла,
+ * вытеснение самых старых записей и очистка каталога.
+ */
+@UtilityClass
+public class CacheFiles {
+
+    /**
+     * Доля от максимального числа записей, до которой кэш сокращается при переполнении.
+     */
+    private static final double LOW_WATER_MARK = 0.9;
+
+    /**
+     * Записывает содержимое файла целиком.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(Path file) throws IOException;
+    }
+
+    public static void checkTtl(Duration ttl) {
+        Assert.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+    }
+
+    /**
+     * Записывает файл через временный файл в том же каталоге и переименование, поэтому читатели из других потоков
+     * и процессов видят либо старое, либо новое содержимое целиком. Если файловая система не поддерживает
+     * атомарное переименование, файл переносится обычным. Временный файл удаляется и при ошибке.
+     *
+     * @param prefix префикс имени временного файла
+     */
+    public static void writeAtomically(Path target, String prefix, Writer writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), prefix, ".tmp");
+        try {
+            writer.write(temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return true, если с изменения файла прошло не меньше {@code ttl}
+     */
+    public static boolean isExpired(FileTime lastModified, Duration ttl, Clock clock) {
+        return !clock.instant().isBefore(lastModified.toInstant().plus(ttl));
+    }
+
+    /**
+     * @return время изменения файла или начало эпохи, если его не удалось прочитать
+     */
+    public static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Удаляет устаревшие файлы записей и самые старые, пока их не останется 90% от {@code maxEntries}:
+     * так каталог обходится не на каждой записи, а один раз на десятую часть {@code maxEntries}.
+     * Время изменения читается один раз на файл, а не при каждом сравнении в сортировке.
+     *
+     * @param ttl время жизни записи или null, если записи не устаревают
+     * @param delete удаляет файл записи
+     * @return число оставшихся записей
+     */
+    public static int evictOldest(
+            List<Path> files, int maxEntries, @Nullable Duration ttl, Clock clock, Consumer<Path> delete) {
+        List<CachedFile> sorted = files.stream()
+                .map(file -> new CachedFile(file, lastModified(file)))
+                .sorted(Comparator.comparing(CachedFile::lastModified))
+                .toList();
+        int target = (int) (maxEntries * LOW_WATER_MARK);
+        int remaining = sorted.size();
+        for (CachedFile file : sorted) {
+            if (remaining <= target && (ttl == null || !isExpired(file.lastModified(), ttl, clock))) {
+                break;
+            }
+            delete.accept(file.path());
+            remaining--;
+        }
+        return remaining;
+    }
+
+    /**
+     * Удаляет содержимое каталога, сам каталог остается.
+     */
+    public static void deleteContents(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .filter(path -> !path.equals(directory))
+                    .forEach(path -> {
+                        try {
+                            Files.deleteIfExists(path);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CachedFile(Path path, FileTime lastModified) {}
+}
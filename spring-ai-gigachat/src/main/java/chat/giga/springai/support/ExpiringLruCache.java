@@ -0,0 +1,101 @@
+package chat.giga.springai.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Потокобезопасное хранилище in-memory кэшей с ограничением по количеству записей и, если задано,
+ * по времени жизни записи с момента сохранения. При переполнении вытесняется запись, к которой дольше всего
+ * не обращались (LRU).
+ *
+ * @param <V> тип значений
+ */
+public class ExpiringLruCache<V> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Entry<V>> entries;
+    private final Duration ttl;
+    private final Clock clock;
+
+    /**
+     * @param ttl время жизни записи или null, если записи не устаревают
+     */
+    public ExpiringLruCache(int maxSize, @Nullable Duration ttl, Clock clock) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        Assert.isTrue(ttl == null || (!ttl.isNegative() && !ttl.isZero()), "ttl must be positive");
+        Assert.notNull(clock, "clock must not be null");
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return значение или null, если записи нет или она устарела. Устаревшая запись удаляется
+     */
+    @Nullable
+    public V get(String key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() != null && !clock.instant().isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, V value) {
+        Instant expiresAt = ttl != null ? clock.instant().plus(ttl) : null;
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, @Nullable Instant expiresAt) {}
+}
@@ -0,0 +1,53 @@
+package chat.giga.springai.support;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Утилиты для вычисления хэшей, используемых в качестве ключей кэшей.
+ */
+@UtilityClass
+public class HashUtils {
+    private static final String SHA_256 = "SHA-256";
+
+    /**
+     * Вычисляет SHA-256 от набора строк. Части разделяются нулевым символом,
+     * чтобы ("ab", "c") и ("a", "bc") давали разные хэши.
+     *
+     * @param parts части ключа, {@code null} трактуется как пустая строка
+     * @return хэш в виде hex-строки
+     */
+    public static String sha256Hex(String... parts) {
+        MessageDigest digest = newDigest();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                digest.update((byte) 0);
+            }
+            if (parts[i] != null) {
+                digest.update(parts[i].getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Вычисляет SHA-256 от массива байт.
+     *
+     * @param data данные
+     * @return хэш в виде hex-строки
+     */
+    public static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
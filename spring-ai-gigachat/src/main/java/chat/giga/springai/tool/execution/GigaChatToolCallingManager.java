@@ -0,0 +1,437 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package chat.giga.springai.tool.execution;
+
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.observation.DefaultToolCallingObservationConvention;
+import org.springframework.ai.tool.observation.ToolCallingObservationContext;
+import org.springframework.ai.tool.observation.ToolCallingObservationConvention;
+import org.springframework.ai.tool.observation.ToolCallingObservationDocumentation;
+import org.springframework.ai.tool.resolution.DelegatingToolCallbackResolver;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * An implementation of {@link ToolCallingManager} that executes the tool calls of one assistant message
+ * concurrently.
+ * <p>
+ * Each tool call runs on the configured {@link Executor} (virtual threads when
+ * {@link Builder#virtualThreads(boolean)} is enabled) and is recorded as a
+ * {@link ToolCallingObservationDocumentation#TOOL_CALL} observation, a child of the observation that was current
+ * when {@link #executeToolCalls(Prompt, ChatResponse)} was invoked. Responses keep the order of the tool calls.
+ * <p>
+ * A tool call that exceeds {@link Builder#toolTimeout(Duration)} is interrupted and reported to the model through
+ * the {@link ToolExecutionExceptionProcessor}, like any other {@link ToolExecutionException}. The same happens to
+ * a tool call that waits longer than the timeout for a free executor thread. The number of tool rounds is limited
+ * by {@code GigaChatModel}, see {@code GigaChatInternalProperties#getMaxToolRounds()}.
+ * <p>
+ * Tool calls run with the caller's {@link GigaChatCredentialAffinity credential}, {@link GigaChatRateLimiter}
+ * priority and MDC. Other thread-bound state, such as the Spring Security context, is not carried over to the
+ * executor threads.
+ */
+@Slf4j
+public final class GigaChatToolCallingManager implements ToolCallingManager {
+
+    /**
+     * Maximum number of tool calls running at once on the default platform-thread executor.
+     */
+    public static final int DEFAULT_CONCURRENCY_LIMIT = 64;
+
+    private static final String THREAD_NAME_PREFIX = "gigachat-tool-";
+
+    private static final ToolCallingObservationConvention DEFAULT_OBSERVATION_CONVENTION =
+            new DefaultToolCallingObservationConvention();
+
+    private final ObservationRegistry observationRegistry;
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
+    private final Executor executor;
+
+    @Nullable
+    private final Duration toolTimeout;
+
+    private final ToolCallingManager delegate;
+
+    private ToolCallingObservationConvention observationConvention = DEFAULT_OBSERVATION_CONVENTION;
+
+    private GigaChatToolCallingManager(
+            ObservationRegistry observationRegistry,
+            ToolCallbackResolver toolCallbackResolver,
+            ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+            Executor executor,
+            @Nullable Duration toolTimeout) {
+        this.observationRegistry = observationRegistry;
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.toolExecutionExceptionProcessor = toolExecutionExceptionProcessor;
+        this.executor = executor;
+        this.toolTimeout = toolTimeout;
+        this.delegate = new DefaultToolCallingManager(
+                observationRegistry, toolCallbackResolver, toolExecutionExceptionProcessor);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        Assert.notNull(prompt, "prompt cannot be null");
+        Assert.notNull(chatResponse, "chatResponse cannot be null");
+
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(AssistantMessage::hasToolCalls)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No tool call requested by the chat model"));
+
+        List<Message> historyBeforeExecution = new ArrayList<>(prompt.copy().getInstructions());
+        historyBeforeExecution.add(assistantMessage);
+        ToolContext toolContext = buildToolContext(prompt, historyBeforeExecution);
+
+        List<ToolCall> toolCalls = assistantMessage.getToolCalls().stream()
+                .map(toolCall -> new ToolCall(toolCall, resolveToolCallback(prompt, toolCall.name())))
+                .toList();
+        boolean returnDirect = toolCalls.stream()
+                .allMatch(toolCall -> toolCall.callback().getToolMetadata().returnDirect());
+
+        List<ToolResponseMessage.ToolResponse> toolResponses = execute(toolCalls, toolContext);
+        ToolResponseMessage toolResponseMessage =
+                ToolResponseMessage.builder().responses(toolResponses).build();
+
+        List<Message> conversationHistory = new ArrayList<>(historyBeforeExecution);
+        conversationHistory.add(toolResponseMessage);
+        return ToolExecutionResult.builder()
+                .conversationHistory(conversationHistory)
+                .returnDirect(returnDirect)
+                .build();
+    }
+
+    public void setObservationConvention(ToolCallingObservationConvention observationConvention) {
+        Assert.notNull(observationConvention, "observationConvention cannot be null");
+        this.observationConvention = observationConvention;
+    }
+
+    private List<ToolResponseMessage.ToolResponse> execute(List<ToolCall> toolCalls, ToolContext toolContext) {
+        Observation parent = observationRegistry.getCurrentObservation();
+        if (toolCalls.size() == 1 && toolTimeout == null) {
+            return List.of(call(toolCalls.get(0), toolContext, parent));
+        }
+
+        String credentialId = GigaChatCredentialAffinity.currentCredential();
+        GigaChatRateLimiter.Priority priority = GigaChatRateLimiter.currentPriority();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        List<ToolTask> tasks = new ArrayList<>(toolCalls.size());
+        for (ToolCall toolCall : toolCalls) {
+            ToolTask task = new ToolTask(
+                    () -> withCallerContext(credentialId, priority, mdc, () -> call(toolCall, toolContext, parent)));
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        List<ToolResponseMessage.ToolResponse> toolResponses = new ArrayList<>(toolCalls.size());
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                toolResponses.add(await(tasks.get(i), toolCalls.get(i)));
+            }
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+        return toolResponses;
+    }
+
+    private ToolResponseMessage.ToolResponse await(ToolTask task, ToolCall toolCall) {
+        try {
+            if (toolTimeout == null) {
+                return task.get();
+            }
+            // waiting for a free executor thread is limited by the timeout too, counted from submission
+            long waitForStart = task.submittedAt + toolTimeout.toNanos() - System.nanoTime();
+            if (!task.started.await(Math.max(0, waitForStart), TimeUnit.NANOSECONDS)) {
+                return timeoutResponse(task, toolCall, "did not start within " + toolTimeout, null);
+            }
+            // counted from the start of this call, waiting for a free executor thread is not included
+            long remaining = task.startedAt + toolTimeout.toNanos() - System.nanoTime();
+            return task.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return timeoutResponse(task, toolCall, "did not complete within " + toolTimeout, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tool '" + toolCall.name() + "'", e);
+        }
+    }
+
+    private ToolResponseMessage.ToolResponse timeoutResponse(
+            ToolTask task, ToolCall toolCall, String reason, @Nullable TimeoutException timeout) {
+        task.cancel(true);
+        log.warn("Tool '{}' {}", toolCall.name(), reason);
+        // the default processor rethrows checked causes, so the timeout is reported as a runtime exception
+        IllegalStateException cause = new IllegalStateException("Tool '" + toolCall.name() + "' " + reason, timeout);
+        String result = toolExecutionExceptionProcessor.process(
+                new ToolExecutionException(toolCall.callback().getToolDefinition(), cause));
+        return toolCall.response(result);
+    }
+
+    /**
+     * Runs the action on an executor thread with the credential, rate limiter priority and MDC of the caller.
+     */
+    private static <T> T withCallerContext(
+            @Nullable String credentialId,
+            GigaChatRateLimiter.Priority priority,
+            @Nullable Map<String, String> mdc,
+            Supplier<T> action) {
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+        setMdc(mdc);
+        try {
+            return GigaChatCredentialAffinity.withCredential(
+                    credentialId, () -> GigaChatRateLimiter.withPriority(priority, action));
+        } finally {
+            setMdc(previousMdc);
+        }
+    }
+
+    private static void setMdc(@Nullable Map<String, String> contextMap) {
+        if (contextMap != null) {
+            MDC.setContextMap(contextMap);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    private ToolResponseMessage.ToolResponse call(
+            ToolCall toolCall, ToolContext toolContext, @Nullable Observation parent) {
+        ToolCallback toolCallback = toolCall.callback();
+        ToolCallingObservationContext observationContext = ToolCallingObservationContext.builder()
+                .toolDefinition(toolCallback.getToolDefinition())
+                .toolMetadata(toolCallback.getToolMetadata())
+                .toolCallArguments(toolCall.arguments())
+                .build();
+
+        String result = ToolCallingObservationDocumentation.TOOL_CALL
+                .observation(
+                        this.observationConvention,
+                        DEFAULT_OBSERVATION_CONVENTION,
+                        () -> observationContext,
+                        this.observationRegistry)
+                .parentObservation(parent)
+                .observe(() -> {
+                    String toolResult;
+                    try {
+                        toolResult = toolCallback.call(toolCall.arguments(), toolContext);
+                    } catch (ToolExecutionException e) {
+                        toolResult = toolExecutionExceptionProcessor.process(e);
+                    }
+                    observationContext.setToolCallResult(toolResult);
+                    return toolResult;
+                });
+        return toolCall.response(result);
+    }
+
+    private ToolCallback resolveToolCallback(Prompt prompt, String toolName) {
+        List<ToolCallback> toolCallbacks =
+                prompt.getOptions() instanceof ToolCallingChatOptions options ? options.getToolCallbacks() : List.of();
+        ToolCallback toolCallback = toolCallbacks.stream()
+                .filter(callback -> toolName.equals(callback.getToolDefinition().name()))
+                .findFirst()
+                .orElseGet(() -> toolCallbackResolver.resolve(toolName));
+        if (toolCallback == null) {
+            throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+        }
+        return toolCallback;
+    }
+
+    private static ToolContext buildToolContext(Prompt prompt, List<Message> historyBeforeExecution) {
+        Map<String, Object> toolContextMap = Map.of();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options
+                && !CollectionUtils.isEmpty(options.getToolContext())) {
+            toolContextMap = new HashMap<>(options.getToolContext());
+            toolContextMap.put(ToolContext.TOOL_CALL_HISTORY, historyBeforeExecution);
+        }
+        return new ToolContext(toolContextMap);
+    }
+
+    /**
+     * Remembers when the tool call was submitted and when it actually started on the executor.
+     */
+    private static final class ToolTask extends FutureTask<ToolResponseMessage.ToolResponse> {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final long submittedAt = System.nanoTime();
+        private volatile long startedAt;
+
+        ToolTask(Callable<ToolResponseMessage.ToolResponse> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            startedAt = System.nanoTime();
+            started.countDown();
+            super.run();
+        }
+    }
+
+    private record ToolCall(AssistantMessage.ToolCall toolCall, ToolCallback callback) {
+
+        String name() {
+            return toolCall.name();
+        }
+
+        String arguments() {
+            // arguments may be missing in streaming mode
+            return StringUtils.hasText(toolCall.arguments()) ? toolCall.arguments() : "{}";
+        }
+
+        ToolResponseMessage.ToolResponse response(@Nullable String result) {
+            return new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), result != null ? result : "");
+        }
+    }
+
+    public static final class Builder {
+        private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+        private ToolCallbackResolver toolCallbackResolver = new DelegatingToolCallbackResolver(List.of());
+        private ToolExecutionExceptionProcessor toolExecutionExceptionProcessor =
+                DefaultToolExecutionExceptionProcessor.builder().build();
+
+        @Nullable
+        private Executor executor;
+
+        private boolean virtualThreads;
+
+        @Nullable
+        private Duration toolTimeout;
+
+        private Builder() {}
+
+        public Builder observationRegistry(ObservationRegistry observationRegistry) {
+            this.observationRegistry = observationRegistry;
+            return this;
+        }
+
+        public Builder toolCallbackResolver(ToolCallbackResolver toolCallbackResolver) {
+            this.toolCallbackResolver = toolCallbackResolver;
+            return this;
+        }
+
+        public Builder toolExecutionExceptionProcessor(
+                ToolExecutionExceptionProcessor toolExecutionExceptionProcessor) {
+            this.toolExecutionExceptionProcessor = toolExecutionExceptionProcessor;
+            return this;
+        }
+
+        /**
+         * Executor for tool calls. Takes precedence over {@link #virtualThreads(boolean)}.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Run tool calls on virtual threads (requires Java 21+). By default a new platform thread is started
+         * for each tool call, at most {@link #DEFAULT_CONCURRENCY_LIMIT} at once; further calls wait for a free
+         * thread when submitted.
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Maximum execution time of each tool call, counted from its start. A tool call that has not started
+         * within this time after submission fails as well. No limit by default.
+         */
+        public Builder toolTimeout(@Nullable Duration toolTimeout) {
+            this.toolTimeout = toolTimeout;
+            return this;
+        }
+
+        public GigaChatToolCallingManager build() {
+            Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+            Assert.notNull(toolCallbackResolver, "toolCallbackResolver cannot be null");
+            Assert.notNull(toolExecutionExceptionProcessor, "toolExecutionExceptionProcessor cannot be null");
+            Assert.isTrue(
+                    toolTimeout == null || (!toolTimeout.isNegative() && !toolTimeout.isZero()),
+                    "toolTimeout must be positive");
+            Executor toolExecutor = executor != null
+                    ? executor
+                    : virtualThreads ? new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX) : platformThreadExecutor();
+            return new GigaChatToolCallingManager(
+                    observationRegistry,
+                    toolCallbackResolver,
+                    toolExecutionExceptionProcessor,
+                    toolExecutor,
+                    toolTimeout);
+        }
+
+        private static Executor platformThreadExecutor() {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+            executor.setConcurrencyLimit(DEFAULT_CONCURRENCY_LIMIT);
+            return executor;
+        }
+    }
+}
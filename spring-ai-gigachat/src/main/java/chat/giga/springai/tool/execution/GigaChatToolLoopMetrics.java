@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package chat.giga.springai.tool.execution;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Metrics of the tool calling loop of {@link chat.giga.springai.GigaChatModel}.
+ * <p>
+ * Records the size in bytes of every chat completion request body the loop sends, as measured by the HTTP client
+ * of {@link chat.giga.springai.api.chat.GigaChatApi}, tagged with the tool round: 0 for the initial request, 1 after
+ * the first tool round, and so on up to {@value #MAX_ROUND_TAG}; later rounds share the tag {@code "10+"}, so an
+ * unlimited tool loop does not create a meter per round. A retried request is recorded once per attempt. Nothing is
+ * recorded until {@link #bindTo(MeterRegistry)} is called.
+ */
+public class GigaChatToolLoopMetrics implements MeterBinder {
+
+    /**
+     * Size of the chat completion request body sent in a tool round.
+     */
+    public static final String REQUEST_SIZE = "gigachat.tool.loop.request.size";
+
+    /**
+     * Highest tool round with its own tag value.
+     */
+    public static final int MAX_ROUND_TAG = 10;
+
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    public boolean isEnabled() {
+        return meterRegistry != null;
+    }
+
+    public void recordRequestSize(@Nullable String model, int round, long bytes) {
+        MeterRegistry registry = this.meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        DistributionSummary.builder(REQUEST_SIZE)
+                .description("Size of a chat completion request body per tool round")
+                .baseUnit("bytes")
+                .tag("model", StringUtils.hasText(model) ? model : "none")
+                .tag("round", round > MAX_ROUND_TAG ? MAX_ROUND_TAG + "+" : String.valueOf(round))
+                .register(registry)
+                .record(bytes);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package chat.giga.springai.tool.execution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Compacts the result of a tool call from an earlier tool round before the conversation is resent to the model.
+ * <p>
+ * Only the request sent to GigaChat is compacted: the conversation history of the response and the tool context keep
+ * the original results. The result of the latest tool round is never compacted. An implementation may truncate
+ * the result (see {@link #truncating(int)}) or, for example, replace it with a summary.
+ */
+@FunctionalInterface
+public interface ToolResponseCompactor {
+
+    ToolResponseMessage.ToolResponse compact(ToolResponseMessage.ToolResponse toolResponse);
+
+    /**
+     * Replaces a result longer than {@code maxLength} characters with a JSON object containing its first
+     * {@code maxLength} characters, so the function message content stays valid JSON.
+     */
+    static ToolResponseCompactor truncating(int maxLength) {
+        Assert.isTrue(maxLength > 0, "maxLength must be positive");
+        return toolResponse -> {
+            String data = toolResponse.responseData();
+            if (data == null || data.length() <= maxLength) {
+                return toolResponse;
+            }
+            int end = Character.isHighSurrogate(data.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+            Map<String, Object> truncated = new LinkedHashMap<>();
+            truncated.put("truncated", true);
+            truncated.put("length", data.length());
+            truncated.put("preview", data.substring(0, end));
+            return new ToolResponseMessage.ToolResponse(
+                    toolResponse.id(), toolResponse.name(), ModelOptionsUtils.toJsonString(truncated));
+        };
+    }
+}
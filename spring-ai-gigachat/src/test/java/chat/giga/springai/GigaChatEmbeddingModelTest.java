@@ -1,13 +1,27 @@
 package chat.giga.springai;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 
 import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.embedding.EmbeddingsModel;
+import chat.giga.springai.api.chat.embedding.EmbeddingsRequest;
+import chat.giga.springai.api.chat.embedding.EmbeddingsResponse;
+import chat.giga.springai.cache.InMemoryEmbeddingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.http.ResponseEntity;
 import org.springframework.retry.support.RetryTemplate;
 
 class GigaChatEmbeddingModelTest {
@@ -27,4 +41,163 @@ class GigaChatEmbeddingModelTest {
         assertEquals(1024, embeddingModel.dimensions());
         Mockito.verify(gigaChatApi, Mockito.never()).embeddings(any());
     }
+
+    @Test
+    @DisplayName("Тест проверяет, что без батчинга все тексты отправляются одним запросом")
+    void callWithoutBatching() {
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> embeddingsResponse(inv.getArgument(0)));
+
+        EmbeddingResponse response = embeddingModel.call(new EmbeddingRequest(texts(5), options));
+
+        Mockito.verify(gigaChatApi, Mockito.times(1)).embeddings(any());
+        assertEquals(5, response.getResults().size());
+        assertEquals(5, response.getMetadata().getUsage().getPromptTokens());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет разбиение запроса на батчи и сборку результатов в исходном порядке")
+    void callWithBatching() {
+        GigaChatEmbeddingModel batchingModel = new GigaChatEmbeddingModel(
+                gigaChatApi,
+                options,
+                retryTemplate,
+                ObservationRegistry.NOOP,
+                GigaChatEmbeddingBatchingProperties.builder()
+                        .enabled(true)
+                        .maxInputs(3)
+                        .parallelism(2)
+                        .build());
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> embeddingsResponse(inv.getArgument(0)));
+
+        EmbeddingResponse response = batchingModel.call(new EmbeddingRequest(texts(10), options));
+
+        ArgumentCaptor<EmbeddingsRequest> captor = ArgumentCaptor.forClass(EmbeddingsRequest.class);
+        Mockito.verify(gigaChatApi, Mockito.times(4)).embeddings(captor.capture());
+        assertEquals(
+                List.of(3, 3, 3, 1),
+                captor.getAllValues().stream()
+                        .sorted((a, b) ->
+                                a.getInput().get(0).compareTo(b.getInput().get(0)))
+                        .map(r -> r.getInput().size())
+                        .toList());
+
+        List<Embedding> results = response.getResults();
+        assertEquals(10, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            // вектор содержит номер текста, для которого он был посчитан
+            assertArrayEquals(new float[] {i}, results.get(i).getOutput());
+        }
+        assertEquals(10, response.getMetadata().getUsage().getPromptTokens());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ограничение батча по количеству токенов")
+    void callWithTokenBudget() {
+        GigaChatEmbeddingModel batchingModel = new GigaChatEmbeddingModel(
+                gigaChatApi,
+                options,
+                retryTemplate,
+                ObservationRegistry.NOOP,
+                GigaChatEmbeddingBatchingProperties.builder()
+                        .enabled(true)
+                        .maxTokens(1)
+                        .build());
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> embeddingsResponse(inv.getArgument(0)));
+
+        EmbeddingResponse response = batchingModel.call(new EmbeddingRequest(texts(3), options));
+
+        Mockito.verify(gigaChatApi, Mockito.times(3)).embeddings(any());
+        assertEquals(3, response.getResults().size());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что в API отправляются только тексты, отсутствующие в кэше")
+    void callWithCache() {
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache();
+        embeddingModel.setEmbeddingCache(cache);
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> embeddingsResponse(inv.getArgument(0)));
+
+        embeddingModel.call(new EmbeddingRequest(List.of("01", "03"), options));
+        EmbeddingResponse response = embeddingModel.call(new EmbeddingRequest(texts(5), options));
+
+        ArgumentCaptor<EmbeddingsRequest> captor = ArgumentCaptor.forClass(EmbeddingsRequest.class);
+        Mockito.verify(gigaChatApi, Mockito.times(2)).embeddings(captor.capture());
+        assertEquals(List.of("00", "02", "04"), captor.getValue().getInput());
+
+        List<Embedding> results = response.getResults();
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertArrayEquals(new float[] {i}, results.get(i).getOutput());
+        }
+        assertEquals(3, response.getMetadata().getUsage().getPromptTokens());
+        assertEquals(5, cache.size());
+
+        // все тексты уже в кэше - в API не ходим
+        embeddingModel.call(new EmbeddingRequest(texts(5), options));
+        Mockito.verify(gigaChatApi, Mockito.times(2)).embeddings(any());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        embeddingModel.bindTo(registry);
+        assertEquals(
+                7,
+                registry.get(GigaChatEmbeddingModel.CACHE_GETS)
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                5,
+                registry.get(GigaChatEmbeddingModel.CACHE_GETS)
+                        .tag("result", "miss")
+                        .functionCounter()
+                        .count());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку, если ответ батча не совпадает с ним по количеству или индексам")
+    void callWithMismatchedBatchResponse() {
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> {
+            EmbeddingsResponse body = embeddingsResponse(inv.getArgument(0)).getBody();
+            body.setData(body.getData().subList(0, 2));
+            return ResponseEntity.ok(body);
+        });
+
+        IllegalStateException shortResponse = assertThrows(
+                IllegalStateException.class, () -> embeddingModel.call(new EmbeddingRequest(texts(3), options)));
+        assertEquals("Embeddings batch at offset 0 returned 2 embeddings for 3 inputs", shortResponse.getMessage());
+
+        Mockito.when(gigaChatApi.embeddings(any())).thenAnswer(inv -> {
+            EmbeddingsResponse body = embeddingsResponse(inv.getArgument(0)).getBody();
+            body.getData().get(1).setIndex(3);
+            return ResponseEntity.ok(body);
+        });
+
+        IllegalStateException wrongIndex = assertThrows(
+                IllegalStateException.class, () -> embeddingModel.call(new EmbeddingRequest(texts(3), options)));
+        assertEquals(
+                "Embeddings batch at offset 0 returned unexpected index 3 for 3 inputs", wrongIndex.getMessage());
+    }
+
+    private static List<String> texts(int count) {
+        return IntStream.range(0, count).mapToObj(i -> String.format("%02d", i)).toList();
+    }
+
+    private static ResponseEntity<EmbeddingsResponse> embeddingsResponse(EmbeddingsRequest request) {
+        List<EmbeddingsResponse.EmbeddingData> data = IntStream.range(
+                        0, request.getInput().size())
+                .mapToObj(i -> EmbeddingsResponse.EmbeddingData.builder()
+                        .index(i)
+                        .embedding(
+                                new float[] {Integer.parseInt(request.getInput().get(i))})
+                        .usage(EmbeddingsResponse.GigaChatEmbeddingsUsage.builder()
+                                .promptTokens(1)
+                                .build())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(EmbeddingsResponse.builder()
+                .model(request.getModel())
+                .data(data)
+                .build());
+    }
 }
@@ -5,6 +5,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsStringIgnoringCase;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -19,15 +20,27 @@ import chat.giga.springai.api.GigaChatInternalProperties;
 import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.completion.CompletionRequest;
 import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.file.GigaChatFileResource;
+import chat.giga.springai.api.chat.file.UploadFileResponse;
 import chat.giga.springai.api.chat.param.FunctionCallParam;
+import chat.giga.springai.api.latency.GigaChatLatencyMetrics;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import chat.giga.springai.cache.FileIdCache;
+import chat.giga.springai.cache.InMemoryFileIdCache;
 import chat.giga.springai.tool.GigaTools;
 import chat.giga.springai.tool.annotation.GigaTool;
+import chat.giga.springai.tool.execution.GigaChatToolLoopMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
@@ -52,6 +65,7 @@ import org.springframework.ai.chat.metadata.ChatResponseMetadata;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
+import org.springframework.ai.retry.NonTransientAiException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
@@ -377,6 +391,171 @@ public class GigaChatModelTest {
         assertThat(exception.getMessage(), containsStringIgnoringCase("System prompt message must be the only one"));
     }
 
+    @Test
+    @DisplayName("Раунды вызова функций выполняются в цикле, результаты предыдущих раундов обрезаются")
+    void testCall_toolRoundsWithCompactionAndRequestSizeMetric() {
+        var internalProperties = new GigaChatInternalProperties();
+        internalProperties.setToolResponseMaxLength(3);
+        var model = GigaChatModel.builder()
+                .gigaChatApi(gigaChatApi)
+                .internalProperties(internalProperties)
+                .build();
+        var meterRegistry = new SimpleMeterRegistry();
+        model.getToolLoopMetrics().bindTo(meterRegistry);
+
+        var finalResponse = new CompletionResponse()
+                .setId(UUID.randomUUID().toString())
+                .setModel(GigaChatApi.ChatModel.GIGA_CHAT_2.getName())
+                .setChoices(List.of(new CompletionResponse.Choice()
+                        .setFinishReason(CompletionResponse.FinishReason.STOP)
+                        .setMessage(new CompletionResponse.MessagesRes()
+                                .setRole(CompletionResponse.Role.assistant)
+                                .setContent("Final test response"))));
+        var responses = new ArrayDeque<>(
+                List.of(functionCallResponse(false), functionCallResponse(false), finalResponse));
+        // размер тела запроса измеряет HTTP-клиент, здесь его заменяет число сообщений
+        when(gigaChatApi.chatCompletionEntity(any(), any())).thenAnswer(invocation -> {
+            CompletionRequest request = invocation.getArgument(0);
+            GigaChatLatencyMetrics.currentRequestSizeListener().accept(request.getMessages().size());
+            return new ResponseEntity<>(responses.poll(), HttpStatusCode.valueOf(200));
+        });
+
+        ChatResponse chatResponse = model.call(toolPrompt());
+
+        assertEquals("Final test response", chatResponse.getResult().getOutput().getText());
+        ArgumentCaptor<CompletionRequest> requestCaptor = ArgumentCaptor.forClass(CompletionRequest.class);
+        verify(gigaChatApi, times(3)).chatCompletionEntity(requestCaptor.capture(), any());
+
+        // в последнем запросе результат первого раунда обрезан, а результат второго - отправлен как есть
+        List<CompletionRequest.Message> messages =
+                requestCaptor.getAllValues().get(2).getMessages();
+        assertEquals(5, messages.size());
+        assertEquals(CompletionRequest.Role.function, messages.get(2).getRole());
+        assertEquals(
+                "{\"truncated\":true,\"length\":6,\"preview\":\"\\\"te\"}",
+                messages.get(2).getContent());
+        assertEquals(CompletionRequest.Role.function, messages.get(4).getRole());
+        assertEquals("\"test\"", messages.get(4).getContent());
+
+        // в истории переписки ответа результаты функций не обрезаны
+        @SuppressWarnings("unchecked")
+        var internalHistory = (List<org.springframework.ai.chat.messages.Message>)
+                chatResponse.getMetadata().get(GigaChatModel.INTERNAL_CONVERSATION_HISTORY);
+        assertEquals(
+                "\"test\"",
+                ((ToolResponseMessage) internalHistory.get(1))
+                        .getResponses()
+                        .get(0)
+                        .responseData());
+
+        DistributionSummary firstRound = meterRegistry
+                .get(GigaChatToolLoopMetrics.REQUEST_SIZE)
+                .tag("round", "0")
+                .summary();
+        DistributionSummary lastRound = meterRegistry
+                .get(GigaChatToolLoopMetrics.REQUEST_SIZE)
+                .tag("round", "2")
+                .summary();
+        assertEquals(1, lastRound.count());
+        assertTrue(lastRound.totalAmount() > firstRound.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Расход токенов суммируется по раундам вызова функций вместе с precached_prompt_tokens")
+    void testCall_toolRoundsUsage() {
+        var finalResponse = new CompletionResponse()
+                .setChoices(List.of(new CompletionResponse.Choice()
+                        .setFinishReason(CompletionResponse.FinishReason.STOP)
+                        .setMessage(new CompletionResponse.MessagesRes()
+                                .setRole(CompletionResponse.Role.assistant)
+                                .setContent("Final test response"))))
+                .setUsage(new CompletionResponse.Usage(30, 5, 35, 20));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(
+                        new ResponseEntity<>(
+                                functionCallResponse(false).setUsage(new CompletionResponse.Usage(10, 2, 12, 4)),
+                                HttpStatusCode.valueOf(200)),
+                        new ResponseEntity<>(finalResponse, HttpStatusCode.valueOf(200)));
+
+        ChatResponse chatResponse = gigaChatModel.call(toolPrompt());
+
+        var usage = chatResponse.getMetadata().getUsage();
+        assertEquals(40, usage.getPromptTokens());
+        assertEquals(47, usage.getTotalTokens());
+        var nativeUsage = assertInstanceOf(CompletionResponse.Usage.class, usage.getNativeUsage());
+        assertEquals(24, nativeUsage.getPrecachedPromptTokens());
+    }
+
+    @Test
+    @DisplayName("Превышение максимального числа раундов вызова функций завершается ошибкой")
+    void testCall_maxToolRoundsExceeded() {
+        var internalProperties = new GigaChatInternalProperties();
+        internalProperties.setMaxToolRounds(1);
+        var model = GigaChatModel.builder()
+                .gigaChatApi(gigaChatApi)
+                .internalProperties(internalProperties)
+                .build();
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenAnswer(
+                        invocation -> new ResponseEntity<>(functionCallResponse(false), HttpStatusCode.valueOf(200)));
+
+        var exception = assertThrows(IllegalStateException.class, () -> model.call(toolPrompt()));
+
+        assertThat(exception.getMessage(), containsStringIgnoringCase("maximum number of tool rounds"));
+        verify(gigaChatApi, times(2)).chatCompletionEntity(any(), any());
+    }
+
+    @Test
+    @DisplayName("Потоковый ответ после нескольких раундов вызова функций")
+    void testStream_multipleToolRounds() {
+        var finalResponse = new CompletionResponse()
+                .setId(UUID.randomUUID().toString())
+                .setModel(GigaChatApi.ChatModel.GIGA_CHAT_2.getName())
+                .setChoices(List.of(new CompletionResponse.Choice()
+                        .setFinishReason(CompletionResponse.FinishReason.STOP)
+                        .setDelta(new CompletionResponse.MessagesRes()
+                                .setRole(CompletionResponse.Role.assistant)
+                                .setContent("Final test response"))));
+        when(gigaChatApi.chatCompletionStream(any(), any()))
+                .thenReturn(
+                        Flux.just(functionCallResponse(true)),
+                        Flux.just(functionCallResponse(true)),
+                        Flux.just(functionCallResponse(true)),
+                        Flux.just(finalResponse));
+
+        StepVerifier.create(gigaChatModel.stream(toolPrompt()))
+                .assertNext(chatResponse -> assertEquals(
+                        "Final test response",
+                        chatResponse.getResult().getOutput().getText()))
+                .verifyComplete();
+
+        ArgumentCaptor<CompletionRequest> requestCaptor = ArgumentCaptor.forClass(CompletionRequest.class);
+        verify(gigaChatApi, times(4)).chatCompletionStream(requestCaptor.capture(), any());
+        assertEquals(7, requestCaptor.getAllValues().get(3).getMessages().size());
+    }
+
+    private static Prompt toolPrompt() {
+        return new Prompt(
+                List.of(new UserMessage("Hello, test!")),
+                GigaChatOptions.builder()
+                        .model(GigaChatApi.ChatModel.GIGA_CHAT_2)
+                        .toolCallbacks(GigaTools.from(new TestTool()))
+                        .build());
+    }
+
+    private static CompletionResponse functionCallResponse(boolean stream) {
+        var message = new CompletionResponse.MessagesRes()
+                .setRole(CompletionResponse.Role.assistant)
+                .setContent("")
+                .setFunctionsStateId(UUID.randomUUID().toString())
+                .setFunctionCall(new CompletionResponse.FunctionCall("testMethod", "{}"));
+        var choice = new CompletionResponse.Choice().setFinishReason(CompletionResponse.FinishReason.FUNCTION_CALL);
+        return new CompletionResponse()
+                .setId(UUID.randomUUID().toString())
+                .setModel(GigaChatApi.ChatModel.GIGA_CHAT_2.getName())
+                .setChoices(List.of(stream ? choice.setDelta(message) : choice.setMessage(message)));
+    }
+
     private static class TestTool {
         @GigaTool
         public String testMethod() {
@@ -384,6 +563,16 @@ public class GigaChatModelTest {
         }
     }
 
+    private static class CountingTool {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @GigaTool
+        public String testMethod() {
+            calls.incrementAndGet();
+            return "test";
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("promptAndMetadataProvider")
     @DisplayName("Тест проверяет наполнение ChatResponse кастомными метаданными")
@@ -552,4 +741,231 @@ public class GigaChatModelTest {
 
         Assertions.assertTrue(illegalStateException.getMessage().contains("Failed to download image for fileId"));
     }
+
+    @Test
+    @DisplayName("Тест проверяет параллельную загрузку медиа файлов и загрузку одинаковых файлов один раз")
+    void testUploadMedia_parallelAndDeduplicated() {
+        when(gigaChatInternalProperties.getMediaUploadParallelism()).thenReturn(4);
+        when(gigaChatApi.uploadFile(any()))
+                .thenAnswer(invocation -> ResponseEntity.ok(
+                        new UploadFileResponse(0, 0L, "image", UUID.randomUUID(), "file", "general", "private")));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(response, HttpStatusCode.valueOf(200)));
+        when(response.getChoices())
+                .thenReturn(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes().setContent("Ответ"))));
+
+        String uploadedId = UUID.randomUUID().toString();
+        byte[] cat = new byte[] {1, 2, 3};
+        byte[] dog = new byte[] {4, 5, 6};
+        Media uploaded = Media.builder()
+                .id(uploadedId)
+                .mimeType(MimeTypeUtils.IMAGE_PNG)
+                .data(new byte[] {7})
+                .build();
+        var prompt = new Prompt(List.of(
+                UserMessage.builder()
+                        .text("Первое")
+                        .media(image(cat), image(dog), uploaded)
+                        .build(),
+                UserMessage.builder().text("Второе").media(image(cat.clone())).build()));
+
+        gigaChatModel.call(prompt);
+
+        verify(gigaChatApi, times(2)).uploadFile(any());
+        ArgumentCaptor<CompletionRequest> requestCaptor = ArgumentCaptor.forClass(CompletionRequest.class);
+        verify(gigaChatApi).chatCompletionEntity(requestCaptor.capture(), any());
+        List<CompletionRequest.Message> messages = requestCaptor.getValue().getMessages();
+        List<?> first = messages.get(0).getAttachments();
+        List<?> second = messages.get(1).getAttachments();
+        assertEquals(3, first.size());
+        assertEquals(uploadedId, String.valueOf(first.get(2)));
+        assertEquals(first.get(0), second.get(0));
+        assertTrue(!first.get(0).equals(first.get(1)));
+    }
+
+    private static Media image(byte[] data) {
+        return Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data(data).build();
+    }
+
+    @Test
+    @DisplayName(
+            "Тест проверяет, что файл из кэша не загружается повторно, а неизвестный GigaChat файл загружается заново")
+    void testUploadMedia_fileIdCache() {
+        InMemoryFileIdCache fileIdCache = new InMemoryFileIdCache();
+        gigaChatModel.setFileIdCache(fileIdCache);
+        when(gigaChatApi.uploadFile(any()))
+                .thenAnswer(invocation -> ResponseEntity.ok(
+                        new UploadFileResponse(0, 0L, "image", UUID.randomUUID(), "file", "general", "private")));
+        when(response.getChoices())
+                .thenReturn(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes().setContent("Ответ"))));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(response, HttpStatusCode.valueOf(200)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatusCode.valueOf(200)))
+                .thenThrow(new NonTransientAiException("404 - {\"status\":404,\"message\":\"File not found\"}"))
+                .thenReturn(new ResponseEntity<>(response, HttpStatusCode.valueOf(200)));
+
+        byte[] logo = new byte[] {1, 2, 3};
+        var prompt = new Prompt(UserMessage.builder()
+                .text("Что на картинке?")
+                .media(image(logo))
+                .build());
+
+        gigaChatModel.call(prompt);
+        gigaChatModel.call(prompt);
+        verify(gigaChatApi, times(1)).uploadFile(any());
+        String cachedId = fileIdCache.get(FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, logo));
+        assertNotNull(cachedId);
+
+        // GigaChat удалил файл - идентификатор удаляется из кэша, файл загружается заново
+        gigaChatModel.call(prompt);
+        verify(gigaChatApi, times(2)).uploadFile(any());
+        verify(gigaChatApi, times(4)).chatCompletionEntity(any(), any());
+        assertNotNull(fileIdCache.get(FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, logo)));
+        assertTrue(!cachedId.equals(fileIdCache.get(FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, logo))));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что при неизвестном GigaChat файле повторяется только запрос текущего раунда")
+    void testUploadMedia_unknownFileRetriesOnlyFailedRound() {
+        gigaChatModel.setFileIdCache(new InMemoryFileIdCache());
+        when(gigaChatApi.uploadFile(any()))
+                .thenAnswer(invocation -> ResponseEntity.ok(
+                        new UploadFileResponse(0, 0L, "image", UUID.randomUUID(), "file", "general", "private")));
+        var finalResponse = new CompletionResponse()
+                .setChoices(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes().setContent("Ответ"))));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(functionCallResponse(false), HttpStatusCode.valueOf(200)))
+                .thenThrow(new NonTransientAiException("404 - {\"status\":404,\"message\":\"File not found\"}"))
+                .thenReturn(new ResponseEntity<>(finalResponse, HttpStatusCode.valueOf(200)));
+        CountingTool tool = new CountingTool();
+        var prompt = new Prompt(
+                UserMessage.builder()
+                        .text("Что на картинке?")
+                        .media(image(new byte[] {1, 2, 3}))
+                        .build(),
+                GigaChatOptions.builder().toolCallbacks(GigaTools.from(tool)).build());
+
+        ChatResponse chatResponse = gigaChatModel.call(prompt);
+
+        assertEquals("Ответ", chatResponse.getResult().getOutput().getText());
+        assertEquals(1, tool.calls.get());
+        verify(gigaChatApi, times(2)).uploadFile(any());
+        ArgumentCaptor<CompletionRequest> requestCaptor = ArgumentCaptor.forClass(CompletionRequest.class);
+        verify(gigaChatApi, times(3)).chatCompletionEntity(requestCaptor.capture(), any());
+        List<CompletionRequest> requests = requestCaptor.getAllValues();
+        assertEquals(requests.get(1).getMessages().size(), requests.get(2).getMessages().size());
+        assertNotEquals(
+                requests.get(1).getMessages().get(0).getAttachments(),
+                requests.get(2).getMessages().get(0).getAttachments());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ошибка 4xx, не связанная с файлами, не приводит к повторной загрузке")
+    void testUploadMedia_otherClientErrorNotRetried() {
+        gigaChatModel.setFileIdCache(new InMemoryFileIdCache());
+        when(gigaChatApi.uploadFile(any()))
+                .thenAnswer(invocation -> ResponseEntity.ok(
+                        new UploadFileResponse(0, 0L, "image", UUID.randomUUID(), "file", "general", "private")));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenThrow(new NonTransientAiException("422 - {\"status\":422,\"message\":\"Invalid file format\"}"));
+        var prompt = new Prompt(UserMessage.builder()
+                .text("Что на картинке?")
+                .media(image(new byte[] {1, 2, 3}))
+                .build());
+
+        assertThrows(NonTransientAiException.class, () -> gigaChatModel.call(prompt));
+        verify(gigaChatApi, times(1)).uploadFile(any());
+        verify(gigaChatApi, times(1)).chatCompletionEntity(any(), any());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что при ленивом скачивании изображения из ответа не скачиваются при вызове модели")
+    void testLazyMediaDownload() {
+        when(gigaChatInternalProperties.getImageFetchPolicy())
+                .thenReturn(GigaChatInternalProperties.ImageFetchPolicy.LAZY);
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(this.response, HttpStatusCode.valueOf(200)));
+        when(this.response.getChoices())
+                .thenReturn(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes()
+                                .setContent(
+                                        "Привет <img src=\"e5f8ce06-9742-48b9-b7f4-85e92acea7aa\" fuse=\"true\"/>"))));
+
+        ChatResponse chatResponse = gigaChatModel.call(
+                new Prompt(List.of(UserMessage.builder().text("Нарисуй кота").build())));
+
+        Media media = chatResponse.getResult().getOutput().getMedia().get(0);
+        assertEquals("e5f8ce06-9742-48b9-b7f4-85e92acea7aa", media.getId());
+        GigaChatFileResource resource = assertInstanceOf(GigaChatFileResource.class, media.getData());
+        assertEquals("e5f8ce06-9742-48b9-b7f4-85e92acea7aa", resource.getFileId());
+        verify(gigaChatApi, Mockito.never()).downloadFile(any());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет параллельное скачивание изображений из ответа с сохранением порядка и приоритета")
+    void testEagerParallelImageDownload() {
+        when(gigaChatInternalProperties.getImageDownloadParallelism()).thenReturn(4);
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(this.response, HttpStatusCode.valueOf(200)));
+        List<GigaChatRateLimiter.Priority> priorities = new CopyOnWriteArrayList<>();
+        when(gigaChatApi.downloadFile(any())).thenAnswer(invocation -> {
+            priorities.add(GigaChatRateLimiter.currentPriority());
+            return invocation.getArgument(0, String.class).getBytes();
+        });
+        List<String> fileIds = List.of(
+                "c2cac967-e8d3-4851-a93c-649e086b1856",
+                "e5f8ce06-9742-48b9-b7f4-85e92acea7aa",
+                "2011ccb8-b54d-4647-bd34-6b57d5df90cb");
+        when(this.response.getChoices())
+                .thenReturn(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes()
+                                .setContent(fileIds.stream()
+                                        .map(id -> "<img src=\"" + id + "\" fuse=\"true\"/>")
+                                        .collect(Collectors.joining(" "))))));
+
+        List<Media> media = GigaChatRateLimiter.withPriority(
+                GigaChatRateLimiter.Priority.BATCH,
+                () -> gigaChatModel
+                        .call(new Prompt(List.of(
+                                UserMessage.builder().text("Нарисуй три картинки").build())))
+                        .getResult()
+                        .getOutput()
+                        .getMedia());
+
+        assertEquals(fileIds, media.stream().map(Media::getId).toList());
+        for (Media m : media) {
+            assertEquals(m.getId(), new String(m.getDataAsByteArray()));
+        }
+        verify(gigaChatApi, times(3)).downloadFile(any());
+        assertEquals(Collections.nCopies(3, GigaChatRateLimiter.Priority.BATCH), priorities);
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что при политике IDS_ONLY изображения не скачиваются")
+    void testIdsOnlyImageFetchPolicy() {
+        when(gigaChatInternalProperties.getImageFetchPolicy())
+                .thenReturn(GigaChatInternalProperties.ImageFetchPolicy.IDS_ONLY);
+        when(gigaChatApi.getFileUrl(any())).thenAnswer(invocation -> "https://host/files/" + invocation.getArgument(0));
+        when(gigaChatApi.chatCompletionEntity(any(), any()))
+                .thenReturn(new ResponseEntity<>(this.response, HttpStatusCode.valueOf(200)));
+        when(this.response.getChoices())
+                .thenReturn(List.of(new CompletionResponse.Choice()
+                        .setMessage(new CompletionResponse.MessagesRes()
+                                .setContent("<img src=\"e5f8ce06-9742-48b9-b7f4-85e92acea7aa\" fuse=\"true\"/>"))));
+
+        Media media = gigaChatModel
+                .call(new Prompt(
+                        List.of(UserMessage.builder().text("Нарисуй кота").build())))
+                .getResult()
+                .getOutput()
+                .getMedia()
+                .get(0);
+
+        assertEquals("e5f8ce06-9742-48b9-b7f4-85e92acea7aa", media.getId());
+        assertEquals("https://host/files/e5f8ce06-9742-48b9-b7f4-85e92acea7aa", media.getData());
+        verify(gigaChatApi, Mockito.never()).downloadFile(any());
+    }
 }
@@ -0,0 +1,77 @@
+package chat.giga.springai.advisor;
+
+import chat.giga.springai.GigaChatOptions;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+@ExtendWith(MockitoExtension.class)
+abstract class AbstractCacheAdvisorTest {
+    @Mock
+    protected CallAdvisorChain chain;
+
+    @Mock
+    protected StreamAdvisorChain streamChain;
+
+    protected static ChatClientRequest request(String text) {
+        return request(text, 0.0);
+    }
+
+    protected static ChatClientRequest request(String text, double temperature) {
+        return request(options(temperature), new UserMessage(text));
+    }
+
+    protected static ChatClientRequest request(Message... messages) {
+        return request(options(0.0), messages);
+    }
+
+    protected static ChatClientRequest request(GigaChatOptions options, Message... messages) {
+        return ChatClientRequest.builder()
+                .prompt(new Prompt(List.of(messages), options))
+                .context(Map.of())
+                .build();
+    }
+
+    protected static GigaChatOptions options(double temperature) {
+        return GigaChatOptions.builder()
+                .model("GigaChat-2")
+                .temperature(temperature)
+                .build();
+    }
+
+    protected static ChatClientResponse response(ChatResponse chatResponse) {
+        return ChatClientResponse.builder().chatResponse(chatResponse).build();
+    }
+
+    protected static ChatResponse chatResponse(String text, String finishReason, int totalTokens) {
+        return new ChatResponse(
+                List.of(new Generation(
+                        AssistantMessage.builder()
+                                .content(text)
+                                .properties(Map.of("role", "assistant"))
+                                .build(),
+                        ChatGenerationMetadata.builder()
+                                .finishReason(finishReason)
+                                .build())),
+                ChatResponseMetadata.builder()
+                        .id("response-1")
+                        .model("GigaChat-2:2.0.28.2")
+                        .usage(new DefaultUsage(20, totalTokens - 20, totalTokens))
+                        .build());
+    }
+}
@@ -1,15 +1,20 @@
 package chat.giga.springai.advisor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,7 +26,14 @@ import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
 import reactor.core.publisher.Flux;
@@ -271,6 +283,123 @@ class GigaChatCachingAdvisorTest {
         assertEquals("custom-value", actualOptions.getHttpHeaders().get("X-Custom"));
     }
 
+    @Test
+    @DisplayName("Автоматический sessionId берется из идентификатора диалога памяти чата")
+    void testAutoSessionId_fromConversationId() {
+        GigaChatCachingAdvisor autoAdvisor =
+                GigaChatCachingAdvisor.builder().autoSessionId(true).build();
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt(
+                        new UserMessage("Привет"), GigaChatOptions.builder().build()))
+                .context(ChatMemory.CONVERSATION_ID, "conversation-1")
+                .build();
+
+        autoAdvisor.adviseCall(request, chain);
+
+        ArgumentCaptor<ChatClientRequest> requestCaptor = ArgumentCaptor.forClass(ChatClientRequest.class);
+        verify(chain).nextCall(requestCaptor.capture());
+        assertEquals(
+                "conversation-1", getSessionId(requestCaptor.getValue().prompt().getOptions()));
+    }
+
+    @Test
+    @DisplayName("Автоматический sessionId по началу переписки одинаков для всех реплик диалога")
+    void testAutoSessionId_fromPrefix() {
+        SystemMessage system = new SystemMessage("Ты - бот поддержки");
+        UserMessage question = new UserMessage("Как восстановить пароль?");
+        ChatClientRequest firstTurn = ChatClientRequest.builder()
+                .prompt(new Prompt(List.of(system, question), options(0.5)))
+                .build();
+        ChatClientRequest secondTurn = ChatClientRequest.builder()
+                .prompt(new Prompt(
+                        List.of(
+                                system,
+                                question,
+                                new AssistantMessage("Нажмите «Забыли пароль?»"),
+                                new UserMessage("А если нет доступа к почте?")),
+                        options(0.1)))
+                .context(ChatMemory.CONVERSATION_ID, ChatMemory.DEFAULT_CONVERSATION_ID)
+                .build();
+        ChatClientRequest otherDialog = ChatClientRequest.builder()
+                .prompt(new Prompt(List.of(system, new UserMessage("Как оформить доставку?")), options(0.5)))
+                .build();
+
+        String sessionId = GigaChatCachingAdvisor.deriveSessionId(firstTurn);
+
+        assertEquals(sessionId, GigaChatCachingAdvisor.deriveSessionId(secondTurn));
+        assertNotEquals(sessionId, GigaChatCachingAdvisor.deriveSessionId(otherDialog));
+        assertEquals(sessionId, UUID.fromString(sessionId).toString());
+    }
+
+    @Test
+    @DisplayName("Без autoSessionId sessionId не вычисляется")
+    void testAutoSessionId_disabledByDefault() {
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt(
+                        new UserMessage("Привет"), GigaChatOptions.builder().build()))
+                .context(ChatMemory.CONVERSATION_ID, "conversation-1")
+                .build();
+
+        advisor.adviseCall(request, chain);
+
+        ArgumentCaptor<ChatClientRequest> requestCaptor = ArgumentCaptor.forClass(ChatClientRequest.class);
+        verify(chain).nextCall(requestCaptor.capture());
+        assertNull(getSessionId(requestCaptor.getValue().prompt().getOptions()));
+    }
+
+    @Test
+    @DisplayName("Доля закешированных токенов считается по precached_prompt_tokens для каждой сессии")
+    void testSessionCacheHitRatio() {
+        GigaChatCachingAdvisor autoAdvisor =
+                GigaChatCachingAdvisor.builder().autoSessionId(true).build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        autoAdvisor.bindTo(meterRegistry);
+        when(chain.nextCall(any())).thenReturn(response(100, 0), response(20, 80));
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt(
+                        new UserMessage("Привет"), GigaChatOptions.builder().build()))
+                .context(ChatMemory.CONVERSATION_ID, "conversation-1")
+                .build();
+
+        autoAdvisor.adviseCall(request, chain);
+        ChatClientResponse response = autoAdvisor.adviseCall(request, chain);
+
+        GigaChatCachingAdvisor.SessionStats stats = autoAdvisor.getSessionStats("conversation-1");
+        assertEquals(2, stats.responses());
+        assertEquals(0.4, stats.getCacheHitRatio());
+        assertEquals(0.4, response.context().get(GigaChatCachingAdvisor.SESSION_CACHE_HIT_RATIO));
+        assertEquals("conversation-1", response.context().get(GigaChatCachingAdvisor.X_SESSION_ID));
+        assertEquals(
+                80,
+                meterRegistry
+                        .get(GigaChatCachingAdvisor.PROMPT_TOKENS)
+                        .tag("type", "precached")
+                        .functionCounter()
+                        .count());
+    }
+
+    private static GigaChatOptions options(double temperature) {
+        return GigaChatOptions.builder()
+                .model("GigaChat-2")
+                .temperature(temperature)
+                .build();
+    }
+
+    private static ChatClientResponse response(int promptTokens, int precachedPromptTokens) {
+        CompletionResponse.Usage usage = new CompletionResponse.Usage();
+        usage.setPromptTokens(promptTokens);
+        usage.setCompletionTokens(10);
+        usage.setTotalTokens(promptTokens + 10);
+        usage.setPrecachedPromptTokens(precachedPromptTokens);
+        return ChatClientResponse.builder()
+                .chatResponse(new ChatResponse(
+                        List.of(new Generation(new AssistantMessage("Привет!"))),
+                        ChatResponseMetadata.builder()
+                                .usage(new DefaultUsage(promptTokens, 10, promptTokens + 10, usage))
+                                .build()))
+                .build();
+    }
+
     private String getSessionId(ChatOptions options) {
         if (options == null) {
             return null;
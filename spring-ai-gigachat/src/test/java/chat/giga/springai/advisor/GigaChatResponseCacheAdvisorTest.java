@@ -0,0 +1,156 @@
+package chat.giga.springai.advisor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.advisor.cache.ResponseCacheKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+class GigaChatResponseCacheAdvisorTest extends AbstractCacheAdvisorTest {
+    private static final String ANSWER = "Москва - столица России, крупнейший город страны.";
+
+    private final GigaChatResponseCacheAdvisor advisor =
+            GigaChatResponseCacheAdvisor.builder().streamChunkSize(10).build();
+
+    @Test
+    @DisplayName("Повторный запрос 'call' возвращается из кеша без обращения к GigaChat")
+    void testAdviseCall_cacheHit() {
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        ChatClientResponse first = advisor.adviseCall(request("Что такое Москва?"), chain);
+        ChatClientResponse second = advisor.adviseCall(request("  Что такое Москва?\n"), chain);
+
+        verify(chain, times(1)).nextCall(any());
+        assertNull(first.context().get(GigaChatResponseCacheAdvisor.CACHE_HIT));
+        assertEquals(true, second.context().get(GigaChatResponseCacheAdvisor.CACHE_HIT));
+        assertEquals(ANSWER, second.chatResponse().getResult().getOutput().getText());
+        assertEquals("stop", second.chatResponse().getResult().getMetadata().getFinishReason());
+        assertEquals(30, second.chatResponse().getMetadata().getUsage().getTotalTokens());
+        assertEquals(0.5, advisor.getHitRate());
+    }
+
+    @Test
+    @DisplayName("Поток из кеша отдается заново нарезанными фрагментами")
+    void testAdviseStream_cacheHitIsRechunked() {
+        List<String> parts = List.of("Москва - ", "столица России, ", "крупнейший город страны.");
+        when(streamChain.nextStream(any()))
+                .thenReturn(Flux.fromIterable(parts)
+                        .index()
+                        .map(part -> response(chatResponse(
+                                part.getT2(),
+                                part.getT1() == parts.size() - 1 ? "stop" : null,
+                                part.getT1() == parts.size() - 1 ? 30 : 0))));
+
+        List<ChatClientResponse> first = advisor.adviseStream(request("Что такое Москва?"), streamChain)
+                .collectList()
+                .block();
+        List<ChatClientResponse> second = advisor.adviseStream(request("Что такое Москва?"), streamChain)
+                .collectList()
+                .block();
+
+        verify(streamChain, times(1)).nextStream(any());
+        assertEquals(3, first.size());
+        assertEquals(5, second.size());
+        assertEquals(
+                ANSWER,
+                second.stream()
+                        .map(chunk ->
+                                chunk.chatResponse().getResult().getOutput().getText())
+                        .collect(Collectors.joining()));
+        ChatResponse last = second.get(second.size() - 1).chatResponse();
+        assertEquals("stop", last.getResult().getMetadata().getFinishReason());
+        assertEquals(30, last.getMetadata().getUsage().getTotalTokens());
+        assertTrue(second.stream()
+                .allMatch(chunk -> Boolean.TRUE.equals(chunk.context().get(GigaChatResponseCacheAdvisor.CACHE_HIT))));
+    }
+
+    @Test
+    @DisplayName("Ответ с ошибкой и запросы вне cacheable не кешируются")
+    void testAdviseCall_notCached() {
+        GigaChatResponseCacheAdvisor advisor = GigaChatResponseCacheAdvisor.builder()
+                .cacheable(request -> request.prompt().getOptions().getTemperature() == 0)
+                .build();
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "error", 0)));
+
+        advisor.adviseCall(request("Что такое Москва?"), chain);
+        advisor.adviseCall(request("Что такое Москва?"), chain);
+        advisor.adviseCall(request("Что такое Москва?", 0.7), chain);
+
+        verify(chain, times(3)).nextCall(any());
+        assertEquals(2, advisor.getMissCount());
+        assertEquals(0, advisor.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Метрики попаданий и промахов кеша")
+    void testMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        advisor.bindTo(meterRegistry);
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request("Что такое Москва?"), chain);
+        advisor.adviseCall(request("Что такое Москва?"), chain);
+        advisor.adviseCall(request("Что такое Москва?"), chain);
+
+        assertEquals(
+                2,
+                meterRegistry
+                        .get(GigaChatResponseCacheAdvisor.CACHE_GETS)
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatResponseCacheAdvisor.CACHE_GETS)
+                        .tag("result", "miss")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatResponseCacheAdvisor.CACHE_SIZE)
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    @DisplayName("Ключ зависит от модели, истории и параметров генерации")
+    void testCacheKey() {
+        String key = ResponseCacheKey.of(request("Что такое Москва?").prompt());
+
+        assertEquals(key, ResponseCacheKey.of(request(" Что такое Москва? ").prompt()));
+        assertNotEquals(
+                key, ResponseCacheKey.of(request("Что такое Москва?", 0.7).prompt()));
+        assertNotEquals(
+                key,
+                ResponseCacheKey.of(new Prompt(
+                        List.of(new SystemMessage("Отвечай кратко"), new UserMessage("Что такое Москва?")),
+                        options(0.0))));
+        assertNotEquals(
+                key,
+                ResponseCacheKey.of(new Prompt(
+                        new UserMessage("Что такое Москва?"),
+                        GigaChatOptions.builder()
+                                .model("GigaChat-2-Max")
+                                .temperature(0.0)
+                                .build())));
+    }
+}
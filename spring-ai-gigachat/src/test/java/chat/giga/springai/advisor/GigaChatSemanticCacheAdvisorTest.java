@@ -0,0 +1,184 @@
+package chat.giga.springai.advisor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+
+class GigaChatSemanticCacheAdvisorTest extends AbstractCacheAdvisorTest {
+    private static final String QUESTION = "Как восстановить пароль?";
+    private static final String PARAPHRASE = "Что делать, если забыл пароль?";
+    private static final String OTHER_QUESTION = "Как оформить доставку?";
+    private static final String ANSWER = "Нажмите «Забыли пароль?» на странице входа и следуйте инструкции из письма.";
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private GigaChatSemanticCacheAdvisor advisor;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(embeddingModel.embed(QUESTION)).thenReturn(new float[] {1, 0, 0});
+        lenient().when(embeddingModel.embed(PARAPHRASE)).thenReturn(new float[] {0.95f, 0.2f, 0});
+        lenient().when(embeddingModel.embed(OTHER_QUESTION)).thenReturn(new float[] {0, 1, 0});
+        advisor = GigaChatSemanticCacheAdvisor.builder()
+                .embeddingModel(embeddingModel)
+                .similarityThreshold(0.9)
+                .streamChunkSize(20)
+                .build();
+    }
+
+    @Test
+    @DisplayName("На перефразированный вопрос возвращается сохраненный ответ без обращения к GigaChat")
+    void testAdviseCall_paraphraseHit() {
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request(QUESTION), chain);
+        ChatClientResponse cached = advisor.adviseCall(request(PARAPHRASE), chain);
+        advisor.adviseCall(request(OTHER_QUESTION), chain);
+
+        verify(chain, times(2)).nextCall(any());
+        assertEquals(true, cached.context().get(GigaChatSemanticCacheAdvisor.CACHE_HIT));
+        assertEquals(0.978, (double) cached.context().get(GigaChatSemanticCacheAdvisor.SIMILARITY), 0.001);
+        assertEquals(ANSWER, cached.chatResponse().getResult().getOutput().getText());
+        assertEquals(1, advisor.getHitCount());
+        assertEquals(2, advisor.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Вопросы сравниваются только при одинаковой предшествующей истории")
+    void testAdviseCall_differentHistoryMiss() {
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request(QUESTION), chain);
+        ChatClientResponse response =
+                advisor.adviseCall(request(new SystemMessage("Ты - бот банка"), new UserMessage(PARAPHRASE)), chain);
+
+        verify(chain, times(2)).nextCall(any());
+        assertNull(response.context().get(GigaChatSemanticCacheAdvisor.CACHE_HIT));
+    }
+
+    @Test
+    @DisplayName("Поток из кеша отдается заново нарезанными фрагментами")
+    void testAdviseStream_paraphraseHit() {
+        when(streamChain.nextStream(any()))
+                .thenReturn(Flux.just(
+                        response(chatResponse(ANSWER.substring(0, 30), null, 0)),
+                        response(chatResponse(ANSWER.substring(30), "stop", 30))));
+
+        advisor.adviseStream(request(QUESTION), streamChain).blockLast();
+        List<ChatClientResponse> cached = advisor.adviseStream(request(PARAPHRASE), streamChain)
+                .collectList()
+                .block();
+
+        verify(streamChain, times(1)).nextStream(any());
+        assertEquals(4, cached.size());
+        assertEquals(
+                ANSWER,
+                cached.stream()
+                        .map(chunk ->
+                                chunk.chatResponse().getResult().getOutput().getText())
+                        .collect(Collectors.joining()));
+    }
+
+    @Test
+    @DisplayName("Запрос без вопроса пользователя последним сообщением не кешируется")
+    void testAdviseCall_withoutUserQuestion() {
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request(new UserMessage(QUESTION), new AssistantMessage("Уточните вопрос")), chain);
+
+        verify(embeddingModel, never()).embed(anyString());
+        assertEquals(0, advisor.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Вопрос с другим вложением не получает сохраненный ответ")
+    void testAdviseCall_differentMediaMiss() {
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request(userMessage(QUESTION, new byte[] {1})), chain);
+        ChatClientResponse sameMedia = advisor.adviseCall(request(userMessage(QUESTION, new byte[] {1})), chain);
+        ChatClientResponse otherMedia = advisor.adviseCall(request(userMessage(QUESTION, new byte[] {2})), chain);
+
+        verify(chain, times(2)).nextCall(any());
+        assertEquals(true, sameMedia.context().get(GigaChatSemanticCacheAdvisor.CACHE_HIT));
+        assertNull(otherMedia.context().get(GigaChatSemanticCacheAdvisor.CACHE_HIT));
+    }
+
+    @Test
+    @DisplayName("При ошибке эмбеддинга запрос выполняется без кеша")
+    void testAdviseCall_embeddingFailure() {
+        when(embeddingModel.embed(QUESTION)).thenThrow(new IllegalStateException("embeddings are unavailable"));
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+        when(streamChain.nextStream(any())).thenReturn(Flux.just(response(chatResponse(ANSWER, "stop", 30))));
+
+        ChatClientResponse response = advisor.adviseCall(request(QUESTION), chain);
+        List<ChatClientResponse> streamed =
+                advisor.adviseStream(request(QUESTION), streamChain).collectList().block();
+
+        assertEquals(ANSWER, response.chatResponse().getResult().getOutput().getText());
+        assertEquals(1, streamed.size());
+        assertEquals(0, advisor.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Метрики попаданий, промахов и времени поиска")
+    void testMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        advisor.bindTo(meterRegistry);
+        when(chain.nextCall(any())).thenReturn(response(chatResponse(ANSWER, "stop", 30)));
+
+        advisor.adviseCall(request(QUESTION), chain);
+        advisor.adviseCall(request(PARAPHRASE), chain);
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatSemanticCacheAdvisor.CACHE_GETS)
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatSemanticCacheAdvisor.CACHE_LOOKUP)
+                        .tag("result", "miss")
+                        .timer()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatSemanticCacheAdvisor.CACHE_SIZE)
+                        .gauge()
+                        .value());
+    }
+
+    private static UserMessage userMessage(String text, byte[] image) {
+        return UserMessage.builder()
+                .text(text)
+                .media(Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data(image).build())
+                .build();
+    }
+}
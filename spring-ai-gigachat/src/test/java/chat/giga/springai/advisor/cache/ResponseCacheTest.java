@@ -0,0 +1,147 @@
+package chat.giga.springai.advisor.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResponseCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Кеш в памяти вытесняет давно не использованные и устаревшие записи")
+    void inMemoryCache() {
+        MutableClock clock = new MutableClock();
+        InMemoryResponseCache cache = new InMemoryResponseCache(2, Duration.ofMinutes(10), clock);
+
+        cache.put("a", response("a"));
+        cache.put("b", response("b"));
+        cache.get("a");
+        cache.put("c", response("c"));
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertEquals(2, cache.size());
+
+        clock.advance(Duration.ofMinutes(10));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Кеш на диске переживает пересоздание и ограничен по размеру и сроку хранения")
+    void fileSystemCache() throws Exception {
+        MutableClock clock = new MutableClock();
+        FileSystemResponseCache cache = new FileSystemResponseCache(directory, 2, Duration.ofMinutes(10), clock);
+
+        cache.put("a", response("Ответ a"));
+        cache.put("b", response("Ответ b"));
+        // время записи различается меньше разрешения файловой системы, задаем его явно
+        Files.setLastModifiedTime(
+                directory.resolve("a.json"), FileTime.from(clock.instant().minusSeconds(2)));
+        Files.setLastModifiedTime(
+                directory.resolve("b.json"), FileTime.from(clock.instant().minusSeconds(1)));
+
+        FileSystemResponseCache reopened = new FileSystemResponseCache(directory, 2, Duration.ofMinutes(10), clock);
+        assertEquals(2, reopened.size());
+        assertEquals(response("Ответ a"), reopened.get("a"));
+
+        // при переполнении остается 90% от maxEntries, то есть одна самая новая запись
+        reopened.put("c", response("Ответ c"));
+        assertEquals(1, reopened.size());
+        assertNull(reopened.get("a"));
+        assertNull(reopened.get("b"));
+        assertNotNull(reopened.get("c"));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertNull(reopened.get("c"));
+        reopened.clear();
+        assertEquals(0, reopened.size());
+    }
+
+    @Test
+    @DisplayName("Семантический индекс ищет ближайший ответ в пределах контекста и ограничен по размеру")
+    void semanticIndex() {
+        SemanticResponseIndex index = new SemanticResponseIndex(2, Duration.ofMinutes(10), new MutableClock());
+
+        index.put("scope", new float[] {1, 0}, response("a"), 0.9);
+        index.put("scope", new float[] {0, 2}, response("b"), 0.9);
+
+        SemanticResponseIndex.Match match = index.find("scope", new float[] {3, 1}, 0.9);
+        assertEquals(response("a"), match.response());
+        assertEquals(0.949, match.similarity(), 0.001);
+        assertNull(index.find("scope", new float[] {1, 1}, 0.9));
+        assertNull(index.find("other", new float[] {1, 0}, 0.9));
+
+        index.put("scope", new float[] {-1, 0}, response("c"), 0.9);
+        assertEquals(2, index.size());
+        assertNull(index.find("scope", new float[] {0, 1}, 0.9));
+        assertNotNull(index.find("scope", new float[] {1, 0}, 0.9));
+    }
+
+    @Test
+    @DisplayName("Ответ на близкий вопрос заменяет запись семантического индекса, а не дублирует ее")
+    void semanticIndexReplacesCloseEntry() {
+        SemanticResponseIndex index = new SemanticResponseIndex(10, Duration.ofMinutes(10), new MutableClock());
+
+        index.put("scope", new float[] {1, 0}, response("a"), 0.9);
+        index.put("scope", new float[] {1, 0.01f}, response("b"), 0.9);
+        index.put("other", new float[] {1, 0}, response("c"), 0.9);
+
+        assertEquals(2, index.size());
+        assertEquals(response("b"), index.find("scope", new float[] {1, 0}, 0.9).response());
+    }
+
+    private static CachedResponse response(String text) {
+        return new CachedResponse(
+                List.of(new CachedResponse.CachedGeneration(
+                        text,
+                        "stop",
+                        Map.of("role", "assistant", "index", 0),
+                        List.of(new CachedResponse.CachedToolCall(
+                                "state-1", "function", "weather", "{\"location\":\"Москва\"}")))),
+                "response-1",
+                "GigaChat-2",
+                10,
+                20,
+                30);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package chat.giga.springai.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.http.HttpClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GigaChatHttpClientMetricsTest {
+
+    @Test
+    @DisplayName("Тест проверяет регистрацию метрики размера кэша TLS-сессий HttpClient")
+    void bindTo() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HttpClient httpClient = HttpClientUtils.buildSharedHttpClient(
+                HttpClientUtils.buildSslFactory(null, null, false), new GigaChatInternalProperties());
+
+        new GigaChatHttpClientMetrics(httpClient).bindTo(registry);
+
+        Gauge gauge = registry.find(GigaChatHttpClientMetrics.TLS_SESSION_CACHE_SIZE)
+                .tag("http.version", "HTTP_2")
+                .gauge();
+        assertNotNull(gauge);
+        assertEquals(0, gauge.value());
+    }
+}
@@ -49,6 +49,26 @@ class HttpClientUtilsTest {
         verify(sslFactoryMock, times(1)).getSslContext();
     }
 
+    @Test
+    void testBuildHttpClientWithInternalProperties() {
+        GigaChatInternalProperties internalProperties = new GigaChatInternalProperties();
+        internalProperties.setConnectTimeout(Duration.ofSeconds(3));
+        internalProperties.setHttpVersion(HttpClient.Version.HTTP_1_1);
+
+        HttpClient httpClient = HttpClientUtils.buildSharedHttpClient(sslFactoryMock, internalProperties);
+
+        assertEquals(Duration.ofSeconds(3), httpClient.connectTimeout().orElseThrow());
+        assertEquals(HttpClient.Version.HTTP_1_1, httpClient.version());
+        assertTrue(httpClient.executor().isEmpty());
+    }
+
+    @Test
+    void testBuildHttpClientPrefersHttp2ByDefault() {
+        HttpClient httpClient = HttpClientUtils.buildSharedHttpClient(sslFactoryMock, new GigaChatInternalProperties());
+
+        assertEquals(HttpClient.Version.HTTP_2, httpClient.version());
+    }
+
     @Test
     void testBuildHttpClientWithNullSslFactory() {
         assertThrows(
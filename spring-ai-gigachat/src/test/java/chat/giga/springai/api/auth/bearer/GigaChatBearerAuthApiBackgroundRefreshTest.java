@@ -0,0 +1,111 @@
+package chat.giga.springai.api.auth.bearer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class GigaChatBearerAuthApiBackgroundRefreshTest {
+    private final GigaChatOAuthClient authClient = mock(GigaChatOAuthClient.class);
+    private final GigaChatAuthProperties.BackgroundRefresh backgroundRefresh =
+            GigaChatAuthProperties.BackgroundRefresh.builder()
+                    .enabled(true)
+                    .ahead(Duration.ofMillis(1500))
+                    .minBackoff(Duration.ofMillis(50))
+                    .maxBackoff(Duration.ofMillis(100))
+                    .build();
+    private final GigaChatBearerAuthApi authApi = new GigaChatBearerAuthApi(authClient, backgroundRefresh, false);
+
+    @AfterEach
+    void tearDown() {
+        authApi.close();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что токен обновляется в фоне заранее, до наступления времени обновления")
+    void refreshAheadOfTime() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        authApi.setObservationRegistry(observationRegistry);
+        when(authClient.requestToken())
+                .thenReturn(tokenResponse("token-1", 2000))
+                .thenReturn(tokenResponse("token-2", 3600_000));
+
+        assertEquals("token-1", authApi.getValue());
+
+        await().atMost(Duration.ofSeconds(3)).until(() -> "token-2".equals(authApi.getValue()));
+        verify(authClient, times(2)).requestToken();
+
+        Timer onDemand = meterRegistry
+                .find("gigachat.auth.token.refresh")
+                .tag("gigachat.auth.refresh.mode", "on-demand")
+                .timer();
+        Timer background = meterRegistry
+                .find("gigachat.auth.token.refresh")
+                .tag("gigachat.auth.refresh.mode", "background")
+                .timer();
+        assertEquals(1, onDemand.count());
+        assertEquals(1, background.count());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что при ошибках фонового обновления отдается текущий действующий токен")
+    void serveCurrentTokenWhileRefreshFails() {
+        when(authClient.requestToken())
+                .thenReturn(tokenResponse("token-1", 2000))
+                .thenThrow(new RestClientException("unavailable"))
+                .thenThrow(new RestClientException("unavailable"))
+                .thenReturn(tokenResponse("token-2", 3600_000));
+
+        assertEquals("token-1", authApi.getValue());
+
+        // пока идут повторы, запросы получают старый токен без обращения в OAuth-сервис
+        await().atMost(Duration.ofSeconds(3)).until(() -> "token-2".equals(authApi.getValue()));
+        verify(authClient, atLeast(4)).requestToken();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что фоновое обновление продолжается после ошибки обновления по запросу, которое шло"
+            + " в момент срабатывания расписания")
+    void rescheduleAfterFailedInflightRefresh() {
+        when(authClient.requestToken())
+                .thenReturn(tokenResponse("token-1", 2000))
+                .thenReturn(tokenResponse("token-2", 3600_000));
+        // обновление по запросу идет дольше, чем до срабатывания фонового обновления, и завершается ошибкой
+        when(authClient.requestTokenReactive())
+                .thenReturn(Mono.delay(Duration.ofMillis(800))
+                        .then(Mono.error(new RestClientException("unavailable"))));
+
+        assertEquals("token-1", authApi.getValue());
+        authApi.invalidate("token-1");
+        StepVerifier.create(authApi.getReactiveValue())
+                .expectError(RestClientException.class)
+                .verify(Duration.ofSeconds(3));
+
+        verify(authClient, timeout(3000).times(2)).requestToken();
+        assertEquals("token-2", authApi.getValue());
+        verify(authClient, times(2)).requestToken();
+    }
+
+    private static GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse(String token, long lifetimeMillis) {
+        return new GigaChatOAuthClient.GigaChatAccessTokenResponse(token, System.currentTimeMillis() + lifetimeMillis);
+    }
+}
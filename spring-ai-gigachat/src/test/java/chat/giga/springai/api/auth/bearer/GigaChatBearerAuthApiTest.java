@@ -11,6 +11,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -20,6 +21,10 @@ import chat.giga.springai.api.auth.GigaChatAuthProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +50,10 @@ import org.springframework.web.client.RestClientException;
 import org.wiremock.spring.ConfigureWireMock;
 import org.wiremock.spring.EnableWireMock;
 import org.wiremock.spring.InjectWireMock;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
 @EnableWireMock({@ConfigureWireMock(name = "auth-api")})
 @ExtendWith(SpringExtension.class)
@@ -182,6 +191,110 @@ public abstract class GigaChatBearerAuthApiTest {
                 "Exception message should contain response body, but was: " + ex.getMessage());
     }
 
+    @Test
+    @SneakyThrows
+    @DisplayName("Тест проверяет, что параллельные реактивные подписчики разделяют один запрос токена")
+    void testGetReactiveValue_SingleFlight() {
+        // Arrange
+        GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse =
+                new GigaChatOAuthClient.GigaChatAccessTokenResponse(
+                        "test-token", System.currentTimeMillis() + 3600_000);
+        mockServer.stubFor(post("/api/v2/oauth")
+                .withHeader(HttpHeaders.AUTHORIZATION, WireMock.matching("Basic .+"))
+                .withHeader("RqUID", WireMock.matching(".+"))
+                .withFormParam("scope", equalToIgnoreCase("GIGACHAT_API_CORP"))
+                .willReturn(jsonResponse(objectMapper.writeValueAsString(tokenResponse), 200)
+                        .withFixedDelay(300)));
+
+        // Act
+        List<String> tokens = Flux.range(0, 10)
+                .flatMap(i -> authApi.getReactiveValue())
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(Collections.nCopies(10, "test-token"), tokens);
+        assertEquals("test-token", authApi.getValue());
+        verify(exactly(1), postRequestedFor(urlEqualTo("/api/v2/oauth")));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Тест проверяет, что блокирующие и реактивные вызовы разделяют один запрос токена")
+    void testGetValueAndGetReactiveValue_SingleFlight() {
+        // Arrange
+        GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse =
+                new GigaChatOAuthClient.GigaChatAccessTokenResponse(
+                        "test-token", System.currentTimeMillis() + 3600_000);
+        mockServer.stubFor(post("/api/v2/oauth")
+                .willReturn(jsonResponse(objectMapper.writeValueAsString(tokenResponse), 200)
+                        .withFixedDelay(300)));
+
+        // Act
+        List<String> tokens = Flux.range(0, 10)
+                .flatMap(i -> i % 2 == 0
+                        ? authApi.getReactiveValue()
+                        : Mono.fromCallable(authApi::getValue).subscribeOn(Schedulers.boundedElastic()))
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(Collections.nCopies(10, "test-token"), tokens);
+        verify(exactly(1), postRequestedFor(urlEqualTo("/api/v2/oauth")));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Тест проверяет, что запрос токена в OAuth-сервис выполняется без блокировки")
+    void testGetValue_OAuthCallOutsideLock() {
+        // Arrange
+        GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse =
+                new GigaChatOAuthClient.GigaChatAccessTokenResponse(
+                        "test-token", System.currentTimeMillis() + 3600_000);
+        mockServer.stubFor(post("/api/v2/oauth")
+                .willReturn(jsonResponse(objectMapper.writeValueAsString(tokenResponse), 200)
+                        .withFixedDelay(1000)));
+        CompletableFuture<String> refresh = CompletableFuture.supplyAsync(authApi::getValue);
+        Thread.sleep(200);
+
+        // Act
+        long start = System.nanoTime();
+        authApi.invalidate("stale-token");
+        long invalidateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(invalidateMillis < 500, "invalidate waited for the OAuth call: " + invalidateMillis + " ms");
+        assertEquals("test-token", refresh.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что реактивное получение токена не обращается в OAuth-сервис при валидном токене")
+    void testGetReactiveValue_CachedToken() {
+        setToken(new GigaChatBearerToken("cached-token", System.currentTimeMillis() + 3600_000));
+
+        StepVerifier.create(authApi.getReactiveValue())
+                .expectNext("cached-token")
+                .verifyComplete();
+        verify(exactly(0), postRequestedFor(urlEqualTo("/api/v2/oauth")));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку реактивного получения токена при HTML-ответе вместо JSON")
+    void testGetReactiveValue_HtmlErrorResponse() {
+        mockServer.stubFor(post("/api/v2/oauth")
+                .willReturn(aResponse()
+                        .withStatus(502)
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_HTML_VALUE)
+                        .withBody("<html><body><h1>502 Bad Gateway</h1></body></html>")));
+
+        StepVerifier.create(authApi.getReactiveValue())
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(RestClientException.class, e);
+                    assertTrue(e.getMessage().contains("non-JSON response"));
+                })
+                .verify();
+    }
+
     public static Stream<Arguments> invalidTokenProvider() {
         return Stream.of(
                 Arguments.of(new GigaChatOAuthClient.GigaChatAccessTokenResponse(null, System.currentTimeMillis())),
@@ -0,0 +1,164 @@
+package chat.giga.springai.api.auth.bearer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClientException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class GigaChatCredentialPoolTest {
+    private final GigaChatOAuthClient firstClient = mock(GigaChatOAuthClient.class);
+    private final GigaChatOAuthClient secondClient = mock(GigaChatOAuthClient.class);
+
+    @Test
+    @DisplayName("Тест проверяет, что запросы распределяются по учетным записям пула по очереди")
+    void roundRobin() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1"));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        assertEquals("token-1", pool.getValue());
+        assertEquals("token-2", pool.getValue());
+        assertEquals("token-1", pool.getValue());
+        assertEquals("token-2", pool.getValue());
+        // токен каждой учетной записи кэшируется отдельно
+        verify(firstClient, times(1)).requestToken();
+        verify(secondClient, times(1)).requestToken();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что учетная запись, получившая 429, временно исключается из пула")
+    void ejectOnTooManyRequests() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1"));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        CredentialToken token = pool.getToken(null);
+        assertEquals(new CredentialToken("0", "token-1"), token);
+        pool.onResponse(token, HttpStatus.TOO_MANY_REQUESTS);
+
+        assertEquals("token-2", pool.getValue());
+        assertEquals("token-2", pool.getValue());
+        assertEquals("token-2", pool.getValue());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что после 401 токен учетной записи запрашивается заново")
+    void invalidateTokenOnUnauthorized() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1")).thenReturn(tokenResponse("token-1-new"));
+        GigaChatCredentialPool pool = new GigaChatCredentialPool(
+                List.of(new GigaChatBearerAuthApi(firstClient)),
+                GigaChatAuthProperties.CredentialPool.builder()
+                        .ejectionDuration(Duration.ZERO)
+                        .build());
+
+        pool.onResponse(pool.getToken(null), HttpStatus.UNAUTHORIZED);
+
+        assertEquals("token-1-new", pool.getValue());
+        verify(firstClient, times(2)).requestToken();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ответ, пришедший после обновления токена, относится к нужной учетной записи")
+    void lateResponseAfterTokenRefresh() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1")).thenReturn(tokenResponse("token-1-new"));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        CredentialToken staleToken = pool.getToken(null);
+        pool.onResponse(staleToken, HttpStatus.UNAUTHORIZED);
+        pool.getToken("0");
+        // 401 на запрос со старым токеном: учетная запись исключается, но новый токен не сбрасывается
+        pool.onResponse(staleToken, HttpStatus.UNAUTHORIZED);
+
+        assertEquals("token-2", pool.getValue());
+        assertEquals(new CredentialToken("0", "token-1-new"), pool.getToken("0"));
+        verify(firstClient, times(2)).requestToken();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что запрос, привязанный к учетной записи, идет от нее, даже если она исключена")
+    void boundRequestUsesItsCredential() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1"));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        when(secondClient.requestTokenReactive()).thenReturn(Mono.just(tokenResponse("token-2")));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        String credentialId = pool.selectCredential();
+        assertEquals("0", credentialId);
+        pool.onResponse(pool.getToken(credentialId), HttpStatus.TOO_MANY_REQUESTS);
+
+        assertEquals("1", pool.selectCredential());
+        assertEquals(new CredentialToken("0", "token-1"), pool.getToken(credentialId));
+        StepVerifier.create(pool.getReactiveToken("1"))
+                .expectNext(new CredentialToken("1", "token-2"))
+                .verifyComplete();
+        assertThrows(IllegalArgumentException.class, () -> pool.getToken("unknown"));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет переход к следующей учетной записи, если не удалось получить токен")
+    void failoverOnTokenRequestError() {
+        when(firstClient.requestToken()).thenThrow(new RestClientException("unauthorized"));
+        when(firstClient.requestTokenReactive()).thenReturn(Mono.error(new RestClientException("unauthorized")));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        assertEquals("token-2", pool.getValue());
+        StepVerifier.create(pool.getReactiveValue()).expectNext("token-2").verifyComplete();
+        // первая учетная запись исключена и больше не опрашивается
+        verify(firstClient, times(1)).requestToken();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку, если токен не удалось получить ни для одной учетной записи")
+    void allCredentialsFail() {
+        when(firstClient.requestToken()).thenThrow(new RestClientException("first"));
+        when(secondClient.requestToken()).thenThrow(new RestClientException("second"));
+        GigaChatCredentialPool pool = pool(GigaChatAuthProperties.CredentialPool.Strategy.ROUND_ROBIN);
+
+        assertThrows(RestClientException.class, pool::getValue);
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что стратегия LEAST_RECENTLY_THROTTLED предпочитает давно не получавшую 429 запись")
+    void leastRecentlyThrottled() {
+        when(firstClient.requestToken()).thenReturn(tokenResponse("token-1"));
+        when(secondClient.requestToken()).thenReturn(tokenResponse("token-2"));
+        GigaChatCredentialPool pool = new GigaChatCredentialPool(
+                List.of(new GigaChatBearerAuthApi(firstClient), new GigaChatBearerAuthApi(secondClient)),
+                GigaChatAuthProperties.CredentialPool.builder()
+                        .strategy(GigaChatAuthProperties.CredentialPool.Strategy.LEAST_RECENTLY_THROTTLED)
+                        .ejectionDuration(Duration.ZERO)
+                        .build());
+
+        pool.onResponse(pool.getToken(null), HttpStatus.TOO_MANY_REQUESTS);
+
+        // исключение уже закончилось, но вторая запись 429 не получала
+        assertEquals("token-2", pool.getValue());
+        assertEquals("token-2", pool.getValue());
+    }
+
+    private GigaChatCredentialPool pool(GigaChatAuthProperties.CredentialPool.Strategy strategy) {
+        return new GigaChatCredentialPool(
+                List.of(new GigaChatBearerAuthApi(firstClient), new GigaChatBearerAuthApi(secondClient)),
+                GigaChatAuthProperties.CredentialPool.builder()
+                        .strategy(strategy)
+                        .build());
+    }
+
+    private static GigaChatOAuthClient.GigaChatAccessTokenResponse tokenResponse(String token) {
+        return new GigaChatOAuthClient.GigaChatAccessTokenResponse(token, System.currentTimeMillis() + 3600_000);
+    }
+}
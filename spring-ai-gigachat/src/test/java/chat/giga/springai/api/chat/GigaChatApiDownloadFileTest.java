@@ -0,0 +1,107 @@
+package chat.giga.springai.api.chat;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.file.GigaChatFileResource;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class GigaChatApiDownloadFileTest {
+    private static final String FILE_ID = "6f0b1291-c7f3-43c6-bb2e-9f3efb2dc98e";
+
+    private final WireMockServer mockServer =
+            new WireMockServer(wireMockConfig().dynamicPort());
+    private final byte[] content = new byte[256 * 1024];
+
+    @TempDir
+    Path directory;
+
+    private GigaChatApi gigaChatApi;
+
+    @BeforeEach
+    void setUp() {
+        mockServer.start();
+        gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(mockServer.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        new Random(42).nextBytes(content);
+        mockServer.stubFor(get(urlEqualTo("/files/" + FILE_ID + "/content"))
+                .willReturn(aResponse().withHeader("Content-Type", "image/jpeg").withBody(content)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет потоковое скачивание файла в OutputStream и в файл на диске")
+    void downloadFileToOutputStreamAndPath() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(content.length, gigaChatApi.downloadFileTo(FILE_ID, outputStream));
+        assertArrayEquals(content, outputStream.toByteArray());
+
+        Path target = directory.resolve("image.jpg");
+        assertEquals(content.length, gigaChatApi.downloadFileTo(FILE_ID, target));
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет преобразование ошибки потокового скачивания так же, как в остальных методах")
+    void downloadFileClientError() {
+        mockServer.stubFor(
+                get(urlEqualTo("/files/unknown/content")).willReturn(aResponse().withStatus(404)));
+
+        assertThrows(
+                NonTransientAiException.class,
+                () -> gigaChatApi.downloadFileTo("unknown", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет реактивное скачивание и ленивое чтение файла через GigaChatFileResource")
+    void downloadFileReactiveAndLazyResource() throws Exception {
+        Path target = directory.resolve("reactive.jpg");
+        DataBufferUtils.write(gigaChatApi.downloadFileReactive(FILE_ID), target).block();
+        assertArrayEquals(content, Files.readAllBytes(target));
+
+        GigaChatFileResource resource = new GigaChatFileResource(gigaChatApi, FILE_ID);
+        mockServer.verify(exactly(1), getRequestedFor(urlEqualTo("/files/" + FILE_ID + "/content")));
+        try (InputStream inputStream = resource.getInputStream()) {
+            assertArrayEquals(content, inputStream.readAllBytes());
+        }
+        mockServer.verify(exactly(2), getRequestedFor(urlEqualTo("/files/" + FILE_ID + "/content")));
+    }
+}
@@ -1,9 +1,13 @@
 package chat.giga.springai.api.chat;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
-import static org.mockito.Mockito.never;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import chat.giga.springai.api.GigaChatApiProperties;
 import chat.giga.springai.api.auth.GigaChatAuthProperties;
@@ -11,15 +15,13 @@ import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
 import chat.giga.springai.api.auth.bearer.SimpleGigaAuthToken;
 import chat.giga.springai.api.auth.bearer.interceptors.BearerTokenFilter;
 import chat.giga.springai.api.auth.bearer.interceptors.BearerTokenInterceptor;
-import java.util.ArrayList;
+import java.net.http.HttpClient;
+import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.RestClient;
-import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 
 public class GigaChatApiTest {
@@ -27,7 +29,7 @@ public class GigaChatApiTest {
     @Test
     @DisplayName("""
             Тест проверяет добавление BearerTokenInterceptor/BearerTokenFilter
-            в RestClient.Builder и WebClient.Builder при bearer-авторизации
+            в RestClient и WebClient при bearer-авторизации без изменения переданных билдеров
             """)
     void bearerAuth_bearerTokenInterceptorExistsTest() {
         final GigaChatApiProperties properties = GigaChatApiProperties.builder()
@@ -38,26 +40,37 @@ public class GigaChatApiTest {
                         .build())
                 .build();
 
-        RestClient.Builder mockRestClientBuilder = Mockito.spy(RestClient.builder());
-        WebClient.Builder mockWebClientBuilder = Mockito.spy(WebClient.builder());
+        RestClient.Builder restClientBuilder = RestClient.builder();
+        WebClient.Builder webClientBuilder = WebClient.builder();
 
-        final GigaChatApi gigaChatApi = new GigaChatApi(
-                properties,
-                new SimpleGigaAuthToken(properties.getAuth().getApiKey()),
-                mockRestClientBuilder,
-                mockWebClientBuilder,
-                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER,
-                null,
-                null);
+        // общие билдеры: второй экземпляр не должен получить перехватчики первого
+        GigaChatApi gigaChatApi = null;
+        for (int i = 0; i < 2; i++) {
+            gigaChatApi = new GigaChatApi(
+                    properties,
+                    new SimpleGigaAuthToken(properties.getAuth().getApiKey()),
+                    restClientBuilder,
+                    webClientBuilder,
+                    RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER,
+                    null,
+                    null);
+        }
 
-        Mockito.verify(mockRestClientBuilder).requestInterceptor(Mockito.any(BearerTokenInterceptor.class));
-        Mockito.verify(mockWebClientBuilder).filter(Mockito.any(BearerTokenFilter.class));
+        restClientBuilder.requestInterceptors(interceptors -> assertTrue(interceptors.isEmpty()));
+        webClientBuilder.filters(filters -> assertTrue(filters.isEmpty()));
+        gigaChatApi.getRestClient().mutate().requestInterceptors(interceptors -> assertEquals(
+                1,
+                interceptors.stream()
+                        .filter(BearerTokenInterceptor.class::isInstance)
+                        .count()));
+        gigaChatApi.getWebClient().mutate().filters(filters -> assertEquals(
+                1, filters.stream().filter(BearerTokenFilter.class::isInstance).count()));
     }
 
     @Test
     @DisplayName("""
             Тест проверяет отсутствие BearerTokenInterceptor/BearerTokenFilter
-            в RestClient.Builder и WebClient.Builder при авторизации по TLS-сертификату
+            в RestClient и WebClient при авторизации по TLS-сертификату
             """)
     void certAuth_noBearerTokenInterceptorTest() {
         final GigaChatApiProperties properties = GigaChatApiProperties.builder()
@@ -69,29 +82,85 @@ public class GigaChatApiTest {
                         .build())
                 .build();
 
-        RestClient.Builder mockRestClientBuilder = Mockito.spy(RestClient.builder());
-        WebClient.Builder mockWebClientBuilder = Mockito.spy(WebClient.builder());
-
         final GigaChatApi gigaChatApi = new GigaChatApi(
                 properties,
                 new NoopGigaAuthToken(),
-                mockRestClientBuilder,
-                mockWebClientBuilder,
+                RestClient.builder(),
+                WebClient.builder(),
                 RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER,
                 null,
                 null);
 
-        Mockito.verify(mockRestClientBuilder, never()).requestInterceptor(Mockito.any(BearerTokenInterceptor.class));
-        Mockito.verify(mockRestClientBuilder, never()).requestInterceptors(Mockito.argThat(listConsumer -> {
-            var list = new ArrayList<ClientHttpRequestInterceptor>();
-            listConsumer.accept(list);
-            return not(hasItem(instanceOf(BearerTokenInterceptor.class))).matches(list);
-        }));
-        Mockito.verify(mockWebClientBuilder, never()).filter(Mockito.any(BearerTokenFilter.class));
-        Mockito.verify(mockWebClientBuilder, never()).filters(Mockito.argThat(listConsumer -> {
-            var list = new ArrayList<ExchangeFilterFunction>();
-            listConsumer.accept(list);
-            return not(hasItem(instanceOf(BearerTokenFilter.class))).matches(list);
-        }));
+        gigaChatApi
+                .getRestClient()
+                .mutate()
+                .requestInterceptors(interceptors ->
+                        assertThat(interceptors, not(hasItem(instanceOf(BearerTokenInterceptor.class)))));
+        gigaChatApi
+                .getWebClient()
+                .mutate()
+                .filters(filters -> assertThat(filters, not(hasItem(instanceOf(BearerTokenFilter.class)))));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что переданный HttpClient используется GigaChatApi без создания новых клиентов")
+    void sharedHttpClientTest() {
+        final GigaChatApiProperties properties = GigaChatApiProperties.builder()
+                .auth(GigaChatAuthProperties.builder()
+                        .bearer(GigaChatAuthProperties.Bearer.builder()
+                                .apiKey("apiKey")
+                                .build())
+                        .build())
+                .build();
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        final GigaChatApi first = new GigaChatApi(
+                properties,
+                new SimpleGigaAuthToken(properties.getAuth().getApiKey()),
+                httpClient,
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        final GigaChatApi second = new GigaChatApi(
+                properties,
+                new SimpleGigaAuthToken(properties.getAuth().getApiKey()),
+                httpClient,
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+
+        assertSame(httpClient, first.getHttpClient());
+        assertSame(httpClient, second.getHttpClient());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку при создании GigaChatApi, если учетная запись пула не содержит ключа")
+    void credentialPoolEntryWithoutKeyTest() {
+        final GigaChatApiProperties properties = GigaChatApiProperties.builder()
+                .auth(GigaChatAuthProperties.builder()
+                        .bearer(GigaChatAuthProperties.Bearer.builder()
+                                .pool(GigaChatAuthProperties.CredentialPool.builder()
+                                        .credentials(List.of(
+                                                GigaChatAuthProperties.Credential.builder()
+                                                        .apiKey("apiKey")
+                                                        .build(),
+                                                GigaChatAuthProperties.Credential.builder()
+                                                        .clientId("clientId")
+                                                        .build()))
+                                        .build())
+                                .build())
+                        .build())
+                .build();
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> new GigaChatApi(
+                        properties,
+                        new SimpleGigaAuthToken(properties.getAuth().getApiKey()),
+                        HttpClient.newHttpClient(),
+                        RestClient.builder(),
+                        WebClient.builder(),
+                        RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER));
+        assertEquals("Credential pool entry 1 must set apiKey or both clientId and clientSecret", e.getMessage());
     }
 }
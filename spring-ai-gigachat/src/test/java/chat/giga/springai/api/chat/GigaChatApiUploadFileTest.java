@@ -0,0 +1,141 @@
+package chat.giga.springai.api.chat;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aMultipart;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.binaryEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.file.UploadFileResponse;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+class GigaChatApiUploadFileTest {
+    private static final UUID FILE_ID = UUID.fromString("6f0b1291-c7f3-43c6-bb2e-9f3efb2dc98e");
+
+    private final WireMockServer mockServer =
+            new WireMockServer(wireMockConfig().dynamicPort());
+
+    @TempDir
+    Path directory;
+
+    private GigaChatApi gigaChatApi;
+
+    @BeforeEach
+    void setUp() {
+        mockServer.start();
+        gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(mockServer.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        mockServer.stubFor(post(urlEqualTo("/files"))
+                .willReturn(okJson("{\"id\":\"" + FILE_ID + "\",\"object\":\"file\",\"purpose\":\"general\"}")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет потоковую загрузку файла с диска без чтения в массив байт")
+    void uploadFileFromPath() throws Exception {
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(directory.resolve("report.pdf"), content);
+
+        Media media = Media.builder()
+                .mimeType(MimeTypeUtils.parseMimeType("application/pdf"))
+                .data((Object) file)
+                .name("report.pdf")
+                .build();
+        ResponseEntity<UploadFileResponse> response = gigaChatApi.uploadFile(media);
+
+        assertEquals(FILE_ID, response.getBody().id());
+        mockServer.verify(postRequestedFor(urlEqualTo("/files"))
+                .withRequestBodyPart(aMultipart("file")
+                        .withHeader("Content-Disposition", containing("filename=\"report.pdf\""))
+                        .withBody(binaryEqualTo(content))
+                        .build())
+                .withRequestBodyPart(
+                        aMultipart("purpose").withBody(containing("general")).build()));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет реактивную загрузку файла из ресурса и из InputStream")
+    void uploadFileReactive() throws Exception {
+        Path file = Files.write(directory.resolve("image.png"), new byte[] {1, 2, 3});
+
+        StepVerifier.create(gigaChatApi.uploadFileReactive(new FileSystemResource(file), MimeTypeUtils.IMAGE_PNG, null))
+                .expectNextMatches(response -> FILE_ID.equals(response.getBody().id()))
+                .verifyComplete();
+
+        Media media = Media.builder()
+                .mimeType(MimeTypeUtils.IMAGE_PNG)
+                .data((Object) new ByteArrayInputStream(new byte[] {4, 5, 6}))
+                .name("stream.png")
+                .build();
+        StepVerifier.create(gigaChatApi.uploadFileReactive(media))
+                .expectNextMatches(response -> FILE_ID.equals(response.getBody().id()))
+                .verifyComplete();
+
+        mockServer.verify(postRequestedFor(urlEqualTo("/files"))
+                .withRequestBodyPart(aMultipart("file")
+                        .withHeader("Content-Disposition", containing("filename=\"image.png\""))
+                        .withBody(binaryEqualTo(new byte[] {1, 2, 3}))
+                        .build()));
+        mockServer.verify(postRequestedFor(urlEqualTo("/files"))
+                .withRequestBodyPart(aMultipart("file")
+                        .withHeader("Content-Disposition", containing("filename=\"stream.png\""))
+                        .withBody(binaryEqualTo(new byte[] {4, 5, 6}))
+                        .build()));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет преобразование клиентской ошибки потоковой загрузки в NonTransientAiException")
+    void uploadFileClientError() throws Exception {
+        mockServer.stubFor(post(urlEqualTo("/files"))
+                .willReturn(aResponse().withStatus(413).withBody("File is too large")));
+        Path file = Files.write(directory.resolve("audio.mp3"), new byte[] {1});
+
+        NonTransientAiException exception = assertThrows(
+                NonTransientAiException.class,
+                () -> gigaChatApi.uploadFile(
+                        new FileSystemResource(file), MimeTypeUtils.parseMimeType("audio/mpeg"), null));
+        assertEquals("413 - File is too large", exception.getMessage());
+    }
+}
@@ -0,0 +1,143 @@
+package chat.giga.springai.api.chat;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import chat.giga.springai.api.chat.embedding.EmbeddingsRequest;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+class GigaChatAsyncApiTest {
+    private final WireMockServer mockServer =
+            new WireMockServer(wireMockConfig().dynamicPort());
+
+    private GigaChatApi gigaChatApi;
+
+    @BeforeEach
+    void setUp() {
+        mockServer.start();
+        gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(mockServer.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(okJson(
+                        "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Привет\"},\"index\":0}],"
+                                + "\"model\":\"GigaChat-2\",\"object\":\"chat.completion\"}")));
+        mockServer.stubFor(
+                get(urlEqualTo("/files/image/content")).willReturn(aResponse().withBody(new byte[] {1, 2, 3})));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет асинхронный запрос к Chat модели через WebClient")
+    void chatCompletionAsync() throws Exception {
+        GigaChatAsyncApi asyncApi = new GigaChatAsyncApi(gigaChatApi);
+
+        ResponseEntity<CompletionResponse> response =
+                asyncApi.chatCompletionAsync(request()).get();
+
+        assertEquals(
+                "Привет", response.getBody().getChoices().get(0).getMessage().getContent());
+        StepVerifier.create(asyncApi.downloadFile("image"))
+                .assertNext(bytes -> assertArrayEquals(new byte[] {1, 2, 3}, bytes))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ошибки асинхронного API такие же, как у блокирующего")
+    void errorsAreMappedToAiExceptions() {
+        mockServer.stubFor(post(urlEqualTo("/embeddings"))
+                .willReturn(aResponse().withStatus(400).withBody("bad request")));
+        mockServer.stubFor(get(urlEqualTo("/models")).willReturn(aResponse().withStatus(503)));
+        GigaChatAsyncApi asyncApi = new GigaChatAsyncApi(gigaChatApi);
+
+        ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> asyncApi.embeddingsAsync(EmbeddingsRequest.builder()
+                                .input(List.of("текст"))
+                                .model("Embeddings")
+                                .build())
+                        .get());
+        assertInstanceOf(NonTransientAiException.class, exception.getCause());
+        assertEquals("400 - bad request", exception.getCause().getMessage());
+
+        StepVerifier.create(asyncApi.models())
+                .expectError(TransientAiException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ошибки потокового запроса такие же, как у блокирующего")
+    void streamErrorsAreMappedToAiExceptions() {
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(aResponse().withStatus(400).withBody("bad request")));
+        CompletionRequest request = request();
+        request.setStream(true);
+
+        StepVerifier.create(gigaChatApi.chatCompletionStream(request))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(NonTransientAiException.class, error);
+                    assertEquals("400 - bad request", error.getMessage());
+                })
+                .verify();
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("Тест проверяет выполнение блокирующего API на виртуальных потоках")
+    void virtualThreads() {
+        GigaChatAsyncApi asyncApi = new GigaChatAsyncApi(gigaChatApi, GigaChatAsyncApi.Mode.VIRTUAL_THREADS);
+
+        StepVerifier.create(asyncApi.chatCompletion(request()))
+                .assertNext(response -> assertEquals(
+                        "Привет",
+                        response.getBody().getChoices().get(0).getMessage().getContent()))
+                .verifyComplete();
+    }
+
+    private static CompletionRequest request() {
+        CompletionRequest request = new CompletionRequest();
+        request.setModel("GigaChat-2");
+        request.setStream(false);
+        request.setMessages(List.of(new CompletionRequest.Message(CompletionRequest.Role.user, "Привет")));
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package chat.giga.springai.api.chat.completion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class CompletionStreamDecoderTest {
+    private final CompletionStreamDecoder decoder = new CompletionStreamDecoder();
+
+    @Test
+    @DisplayName("Тест проверяет разбор событий, разрезанных на произвольные куски, и остановку на [DONE]")
+    void decodeSplitEvents() {
+        String body = chunk("При") + chunk("вет") + ": комментарий\r\nevent: message\r\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"!\"},\"index\":0,\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":3,\"completion_tokens\":2,\"total_tokens\":5}}\r\n\r\n"
+                + "data: [DONE]\n\n"
+                + chunk("после DONE");
+
+        StepVerifier.create(decoder.decode(split(body, 7)))
+                .expectNextMatches(r -> "При".equals(content(r)))
+                .expectNextMatches(r -> "вет".equals(content(r)))
+                .expectNextMatches(r -> "!".equals(content(r))
+                        && "stop".equals(r.getChoices().get(0).getFinishReason())
+                        && r.getUsage().getTotalTokens() == 5)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет разбор последнего события без завершающей пустой строки")
+    void decodeLastEventWithoutBlankLine() {
+        StepVerifier.create(decoder.decode(split(chunk("a") + "data: {\"model\":\"GigaChat\"}", 1024)))
+                .expectNextMatches(r -> "a".equals(content(r)))
+                .expectNextMatches(r -> "GigaChat".equals(r.getModel()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку при некорректном JSON в событии")
+    void decodeInvalidJson() {
+        StepVerifier.create(decoder.decode(split("data: {oops\n\n", 1024)))
+                .expectError(DecodingException.class)
+                .verify();
+    }
+
+    private static String chunk(String content) {
+        return "data: {\"choices\":[{\"delta\":{\"content\":\"" + content + "\",\"role\":\"assistant\"},\"index\":0}],"
+                + "\"created\":1700000000,\"model\":\"GigaChat-2\",\"object\":\"chat.completion\"}\n\n";
+    }
+
+    private static String content(CompletionResponse response) {
+        return response.getChoices().get(0).getDelta().getContent();
+    }
+
+    // режет по байтам, в том числе посреди многобайтовых символов UTF-8
+    private static Flux<DataBuffer> split(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> parts = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            byte[] part = new byte[Math.min(size, bytes.length - i)];
+            System.arraycopy(bytes, i, part, 0, part.length);
+            parts.add(part);
+        }
+        return Flux.fromIterable(parts).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+}
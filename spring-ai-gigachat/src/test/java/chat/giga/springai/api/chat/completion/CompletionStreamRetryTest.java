@@ -0,0 +1,111 @@
+package chat.giga.springai.api.chat.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import chat.giga.springai.api.GigaChatStreamRetryProperties;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class CompletionStreamRetryTest {
+    private final CompletionStreamRetry retry = new CompletionStreamRetry(GigaChatStreamRetryProperties.builder()
+            .maxAttempts(3)
+            .minBackoff(Duration.ofMillis(10))
+            .maxBackoff(Duration.ofMillis(100))
+            .build());
+
+    @Test
+    @DisplayName("Тест проверяет повтор потокового запроса после 503 до получения первого токена")
+    void retryBeforeFirstToken() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<CompletionResponse> stream = Flux.defer(() -> subscriptions.incrementAndGet() < 3
+                ? Flux.error(responseException(503, null))
+                : Flux.just(new CompletionResponse().setId("ok")));
+
+        StepVerifier.create(retry.apply(stream))
+                .expectNextMatches(r -> "ok".equals(r.getId()))
+                .verifyComplete();
+        assertEquals(3, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что обрыв после первого токена не повторяется")
+    void noRetryAfterFirstToken() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<CompletionResponse> stream = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Flux.just(new CompletionResponse()).concatWith(Flux.error(responseException(503, null)));
+        });
+
+        StepVerifier.create(retry.apply(stream))
+                .expectNextCount(1)
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что клиентские ошибки не повторяются, а попытки ограничены")
+    void nonRetryableAndMaxAttempts() {
+        AtomicInteger badRequests = new AtomicInteger();
+        StepVerifier.create(retry.apply(Flux.defer(() -> {
+                    badRequests.incrementAndGet();
+                    return Flux.error(responseException(400, null));
+                })))
+                .expectError(WebClientResponseException.BadRequest.class)
+                .verify();
+        assertEquals(1, badRequests.get());
+
+        AtomicInteger throttled = new AtomicInteger();
+        StepVerifier.create(retry.apply(Flux.defer(() -> {
+                    throttled.incrementAndGet();
+                    return Flux.error(responseException(429, "0"));
+                })))
+                .expectError(WebClientResponseException.TooManyRequests.class)
+                .verify();
+        assertEquals(3, throttled.get());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет разбор заголовка Retry-After")
+    void retryAfter() {
+        assertEquals(Duration.ofSeconds(2), CompletionStreamRetry.retryAfter(responseException(429, "2")));
+        Duration fromDate = CompletionStreamRetry.retryAfter(responseException(
+                503,
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30))));
+        assertEquals(30, fromDate.toSeconds(), 2);
+        assertNull(CompletionStreamRetry.retryAfter(responseException(503, "soon")));
+        assertNull(CompletionStreamRetry.retryAfter(responseException(503, null)));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что слишком долгий Retry-After не ожидается")
+    void retryAfterAboveMaxBackoff() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        StepVerifier.create(retry.apply(Flux.defer(() -> {
+                    subscriptions.incrementAndGet();
+                    return Flux.error(responseException(429, "60"));
+                })))
+                .expectError(WebClientResponseException.TooManyRequests.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, subscriptions.get());
+    }
+
+    private static WebClientResponseException responseException(int status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(
+                status, "status " + status, headers, new byte[0], StandardCharsets.UTF_8);
+    }
+}
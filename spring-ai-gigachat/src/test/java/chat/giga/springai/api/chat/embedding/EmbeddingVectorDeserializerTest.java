@@ -0,0 +1,63 @@
+package chat.giga.springai.api.chat.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EmbeddingVectorDeserializerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Тест проверяет десериализацию ответа Embedding модели")
+    void deserializeEmbeddingsResponse() throws Exception {
+        String json = """
+                {
+                  "object": "list",
+                  "data": [
+                    {"object": "embedding", "embedding": [0.5, -1.25, 3], "index": 0, "usage": {"prompt_tokens": 2}},
+                    {"object": "embedding", "embedding": [], "index": 1, "usage": {"prompt_tokens": 1}}
+                  ],
+                  "model": "Embeddings"
+                }
+                """;
+
+        EmbeddingsResponse response = objectMapper.readValue(json, EmbeddingsResponse.class);
+
+        assertEquals(2, response.getData().size());
+        assertArrayEquals(
+                new float[] {0.5f, -1.25f, 3f}, response.getData().get(0).getEmbedding());
+        assertArrayEquals(new float[0], response.getData().get(1).getEmbedding());
+        assertEquals(2, response.getData().get(0).getUsage().getPromptTokens());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет десериализацию вектора, превышающего начальный размер буфера")
+    void deserializeLargeVector() throws Exception {
+        int dimensions = 10_000;
+        String json = IntStream.range(0, dimensions)
+                .mapToObj(i -> Float.toString(i / 2f))
+                .collect(Collectors.joining(",", "{\"embedding\": [", "]}"));
+
+        float[] embedding = objectMapper
+                .readValue(json, EmbeddingsResponse.EmbeddingData.class)
+                .getEmbedding();
+
+        assertEquals(dimensions, embedding.length);
+        assertEquals(4999.5f, embedding[dimensions - 1]);
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ошибку при некорректном значении вектора")
+    void deserializeInvalidVector() {
+        assertThrows(
+                MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"embedding\": [1, \"x\"]}", EmbeddingsResponse.EmbeddingData.class));
+    }
+}
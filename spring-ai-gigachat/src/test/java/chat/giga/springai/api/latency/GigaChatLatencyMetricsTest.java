@@ -0,0 +1,192 @@
+package chat.giga.springai.api.latency;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class GigaChatLatencyMetricsTest {
+    private final WireMockServer mockServer =
+            new WireMockServer(wireMockConfig().dynamicPort());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Observation.Context> observations = new CopyOnWriteArrayList<>();
+
+    private GigaChatApi gigaChatApi;
+
+    @BeforeEach
+    void setUp() {
+        mockServer.start();
+        gigaChatApi = new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(mockServer.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                observations.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        gigaChatApi.setObservationRegistry(observationRegistry);
+        gigaChatApi.getLatencyMetrics().bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gigaChatApi.close();
+        mockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет замер time to first byte и чтения тела ответа RestClient")
+    void blockingRequest() {
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(okJson("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Привет\"},"
+                                + "\"index\":0}],\"model\":\"GigaChat-2\",\"object\":\"chat.completion\"}")
+                        .withHeader(GigaChatApi.X_REQUEST_ID, "request-1")));
+
+        gigaChatApi.chatCompletionEntity(request(false));
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("gigachat.http.request")
+                        .tag("gigachat.model", "GigaChat-2")
+                        .tag("gigachat.endpoint", "completions")
+                        .tag("http.status_code", "200")
+                        .timer()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(GigaChatLatencyMetrics.RESPONSE_BODY)
+                        .tag("gigachat.model", "GigaChat-2")
+                        .timer()
+                        .count());
+        assertEquals("request-1", requestId("gigachat.http.request"));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет замер time to first token, пауз между фрагментами и десериализации потока")
+    void streamingRequest() {
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/event-stream")
+                        .withHeader(GigaChatApi.X_REQUEST_ID, "request-2")
+                        .withBody("data: {\"choices\":[{\"delta\":{\"content\":\"П\"},\"index\":0}]}\n\n"
+                                + "data: {\"choices\":[{\"delta\":{\"content\":\"ри\"},\"index\":0}]}\n\n"
+                                + "data: {\"choices\":[{\"delta\":{\"content\":\"вет\"},\"index\":0}]}\n\n"
+                                + "data: [DONE]\n\n")));
+
+        assertEquals(3, gigaChatApi.chatCompletionStream(request(true)).count().block());
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("gigachat.completion.stream.first.token")
+                        .tag("gigachat.model", "GigaChat-2")
+                        .timer()
+                        .count());
+        assertEquals(
+                2,
+                meterRegistry
+                        .get(GigaChatLatencyMetrics.STREAM_CHUNK_GAP)
+                        .timer()
+                        .count());
+        assertEquals(
+                3,
+                meterRegistry.get(GigaChatLatencyMetrics.STREAM_DECODE).timer().count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("gigachat.http.request")
+                        .tag("gigachat.endpoint", "completions")
+                        .timer()
+                        .count());
+        assertEquals("request-2", requestId("gigachat.completion.stream.first.token"));
+        assertEquals("request-2", requestId("gigachat.http.request"));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет передачу размера отправленного тела запроса RestClient и WebClient")
+    void requestSize() {
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(okJson("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Привет\"},"
+                        + "\"index\":0}],\"model\":\"GigaChat-2\",\"object\":\"chat.completion\"}")));
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .withRequestBody(containing("\"stream\":true"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/event-stream")
+                        .withBody("data: {\"choices\":[{\"delta\":{\"content\":\"Привет\"},\"index\":0}]}\n\n"
+                                + "data: [DONE]\n\n")));
+        List<Long> sizes = new CopyOnWriteArrayList<>();
+
+        GigaChatLatencyMetrics.withRequestSizeListener(
+                sizes::add, () -> gigaChatApi.chatCompletionEntity(request(false)));
+        GigaChatLatencyMetrics.withRequestSizeListener(
+                        sizes::add, () -> gigaChatApi.chatCompletionStream(request(true)))
+                .blockLast();
+        gigaChatApi.chatCompletionEntity(request(false));
+
+        List<Long> sentSizes = mockServer.getAllServeEvents().stream()
+                .map(event -> (long) event.getRequest().getBody().length)
+                .toList();
+        assertEquals(3, sentSizes.size());
+        // события WireMock идут от последнего запроса к первому
+        assertEquals(List.of(sentSizes.get(2), sentSizes.get(1)), sizes);
+    }
+
+    private String requestId(String observationName) {
+        return observations.stream()
+                .filter(context -> observationName.equals(context.getName()))
+                .findFirst()
+                .map(context -> context.getHighCardinalityKeyValue("gigachat.request.id"))
+                .map(keyValue -> keyValue.getValue())
+                .orElse(null);
+    }
+
+    private static CompletionRequest request(boolean stream) {
+        CompletionRequest request = new CompletionRequest();
+        request.setModel("GigaChat-2");
+        request.setStream(stream);
+        request.setMessages(List.of(new CompletionRequest.Message(CompletionRequest.Role.user, "Привет")));
+        return request;
+    }
+}
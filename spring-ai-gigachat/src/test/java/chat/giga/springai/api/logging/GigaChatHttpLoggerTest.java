@@ -0,0 +1,157 @@
+package chat.giga.springai.api.logging;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import chat.giga.springai.api.GigaChatApiProperties;
+import chat.giga.springai.api.GigaChatLoggingProperties;
+import chat.giga.springai.api.auth.GigaChatAuthProperties;
+import chat.giga.springai.api.auth.bearer.NoopGigaAuthToken;
+import chat.giga.springai.api.chat.GigaChatApi;
+import chat.giga.springai.api.chat.GigachatLoggingInterceptor;
+import chat.giga.springai.api.chat.completion.CompletionRequest;
+import chat.giga.springai.api.chat.completion.CompletionResponse;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.net.http.HttpClient;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class GigaChatHttpLoggerTest {
+    private static final String COMPLETION_RESPONSE =
+            "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Привет\"},\"index\":0}],"
+                    + "\"model\":\"GigaChat-2\",\"object\":\"chat.completion\"}";
+
+    private final WireMockServer mockServer =
+            new WireMockServer(wireMockConfig().dynamicPort());
+    private final Logger logger = (Logger) LoggerFactory.getLogger(GigachatLoggingInterceptor.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private GigaChatApi gigaChatApi;
+
+    @BeforeEach
+    void setUp() {
+        mockServer.start();
+        mockServer.stubFor(post(urlEqualTo("/chat/completions")).willReturn(okJson(COMPLETION_RESPONSE)));
+        logger.setLevel(Level.DEBUG);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+        if (gigaChatApi != null) {
+            gigaChatApi.close();
+        }
+        mockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что в лог попадает обрезанное тело ответа, а клиент получает его целиком")
+    void truncatedResponseBody() {
+        gigaChatApi = gigaChatApi(
+                GigaChatLoggingProperties.builder().maxBodySize(40).async(false).build());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("secret-token");
+
+        CompletionResponse response =
+                gigaChatApi.chatCompletionEntity(request(), headers).getBody();
+
+        assertEquals("Привет", response.getChoices().get(0).getMessage().getContent());
+        assertThat(appender.list).hasSize(1);
+        String message = appender.list.get(0).getFormattedMessage();
+        assertThat(message)
+                .contains("Request: POST " + mockServer.baseUrl() + "/chat/completions")
+                .contains("Response: 200 OK")
+                .contains("[truncated, " + COMPLETION_RESPONSE.getBytes().length + " bytes]")
+                .doesNotContain("secret-token");
+    }
+
+    @Test
+    @DisplayName("Тест проверяет логирование потокового ответа WebClient после завершения потока")
+    void streamingResponse() {
+        mockServer.stubFor(post(urlEqualTo("/chat/completions"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/event-stream")
+                        .withBody("data: {\"choices\":[{\"delta\":{\"content\":\"При\"},\"index\":0}]}\n\n"
+                                + "data: {\"choices\":[{\"delta\":{\"content\":\"вет\"},\"index\":0}]}\n\n"
+                                + "data: [DONE]\n\n")));
+        gigaChatApi =
+                gigaChatApi(GigaChatLoggingProperties.builder().async(false).build());
+        CompletionRequest request = request();
+        request.setStream(true);
+
+        List<CompletionResponse> chunks =
+                gigaChatApi.chatCompletionStream(request).collectList().block();
+
+        assertEquals(2, chunks.size());
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("\"stream\":true")
+                .contains("data: {\"choices\":[{\"delta\":{\"content\":\"При\"}")
+                .contains("data: [DONE]");
+    }
+
+    @Test
+    @DisplayName("Тест проверяет выборку запросов, двоичное тело и асинхронную запись в лог")
+    void samplingAndBinaryBody() throws Exception {
+        mockServer.stubFor(get(urlEqualTo("/files/image/content"))
+                .willReturn(aResponse().withHeader("Content-Type", "image/jpeg").withBody(new byte[] {1, 2, 3})));
+        gigaChatApi =
+                gigaChatApi(GigaChatLoggingProperties.builder().sampleRate(3).build());
+
+        for (int i = 0; i < 6; i++) {
+            assertArrayEquals(new byte[] {1, 2, 3}, gigaChatApi.downloadFile("image"));
+        }
+
+        gigaChatApi.close();
+        for (int i = 0; i < 50 && appender.list.size() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(appender.list).hasSize(2);
+        assertThat(appender.list.get(0).getThreadName()).startsWith("gigachat-http-log-");
+        assertThat(appender.list.get(0).getFormattedMessage()).contains("[image/jpeg, 3 bytes]");
+    }
+
+    private GigaChatApi gigaChatApi(GigaChatLoggingProperties logging) {
+        return new GigaChatApi(
+                GigaChatApiProperties.builder()
+                        .baseUrl(mockServer.baseUrl())
+                        .auth(GigaChatAuthProperties.builder().build())
+                        .logging(logging)
+                        .build(),
+                new NoopGigaAuthToken(),
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                RestClient.builder(),
+                WebClient.builder(),
+                RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+    }
+
+    private static CompletionRequest request() {
+        CompletionRequest request = new CompletionRequest();
+        request.setModel("GigaChat-2");
+        request.setStream(false);
+        request.setMessages(List.of(new CompletionRequest.Message(CompletionRequest.Role.user, "Привет")));
+        return request;
+    }
+}
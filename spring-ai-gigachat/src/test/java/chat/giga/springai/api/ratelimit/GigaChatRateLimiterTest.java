@@ -0,0 +1,201 @@
+package chat.giga.springai.api.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chat.giga.springai.api.GigaChatRateLimitProperties;
+import chat.giga.springai.api.GigaChatRateLimitProperties.Endpoint;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter.Permit;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.TransientAiException;
+import reactor.core.Disposable;
+
+class GigaChatRateLimiterTest {
+    private GigaChatRateLimiter rateLimiter;
+
+    @AfterEach
+    void tearDown() {
+        if (rateLimiter != null) {
+            rateLimiter.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ограничение числа одновременных запросов и ошибку по истечении ожидания")
+    void maxInFlight() {
+        rateLimiter = rateLimiter(
+                Map.of(
+                        Endpoint.COMPLETIONS,
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .maxInFlight(1)
+                                .build()),
+                Map.of());
+
+        Permit permit = rateLimiter.acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE);
+        assertThrows(
+                TransientAiException.class,
+                () -> rateLimiter.acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE));
+        // другие эндпоинты не ограничены
+        rateLimiter
+                .acquire(Endpoint.EMBEDDINGS, "Embeddings", Priority.INTERACTIVE)
+                .close();
+
+        permit.close();
+        rateLimiter
+                .acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE)
+                .close();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что интерактивные запросы получают разрешение раньше пакетных")
+    void interactiveBeforeBatch() {
+        rateLimiter = rateLimiter(
+                Map.of(),
+                Map.of(
+                        "GigaChat-2-Max",
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .maxInFlight(1)
+                                .build()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        rateLimiter.bindTo(meterRegistry);
+
+        Permit permit = rateLimiter.acquire(Endpoint.COMPLETIONS, "GigaChat-2-Max", Priority.INTERACTIVE);
+        List<Priority> granted = new CopyOnWriteArrayList<>();
+        List<Permit> permits = new CopyOnWriteArrayList<>();
+        rateLimiter
+                .acquireReactive(Endpoint.COMPLETIONS, "GigaChat-2-Max", Priority.BATCH)
+                .subscribe(p -> {
+                    granted.add(Priority.BATCH);
+                    permits.add(p);
+                });
+        rateLimiter
+                .acquireReactive(Endpoint.COMPLETIONS, "GigaChat-2-Max", Priority.INTERACTIVE)
+                .subscribe(p -> {
+                    granted.add(Priority.INTERACTIVE);
+                    permits.add(p);
+                });
+        assertThat(meterRegistry
+                        .get(GigaChatRateLimiter.QUEUE_SIZE)
+                        .tag("gigachat.rate.limit.name", "GigaChat-2-Max")
+                        .tag("gigachat.request.priority", "batch")
+                        .gauge()
+                        .value())
+                .isEqualTo(1);
+        assertThat(granted).isEmpty();
+
+        permit.close();
+        assertThat(granted).containsExactly(Priority.INTERACTIVE);
+        permits.get(0).close();
+        assertThat(granted).containsExactly(Priority.INTERACTIVE, Priority.BATCH);
+        permits.get(1).close();
+
+        assertThat(meterRegistry
+                        .get(GigaChatRateLimiter.WAIT_TIME)
+                        .tag("gigachat.request.priority", "batch")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Тест проверяет ограничение частоты запросов")
+    void permitsPerSecond() {
+        rateLimiter = rateLimiter(
+                Map.of(
+                        Endpoint.EMBEDDINGS,
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .permitsPerSecond(20)
+                                .build()),
+                Map.of());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.acquire(Endpoint.EMBEDDINGS, null, Priority.BATCH).close();
+        }
+        // первый запрос проходит сразу, остальные - раз в 50 мс
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(140));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что токен эндпоинта возвращается, если не получено разрешение модели")
+    void returnsEndpointTokenOnModelTimeout() {
+        rateLimiter = rateLimiter(
+                Map.of(
+                        Endpoint.COMPLETIONS,
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .permitsPerSecond(0.001)
+                                .burst(2)
+                                .build()),
+                Map.of(
+                        "GigaChat",
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .maxInFlight(1)
+                                .build()));
+
+        Permit permit = rateLimiter.acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE);
+        assertThrows(
+                TransientAiException.class,
+                () -> rateLimiter.acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE));
+        permit.close();
+
+        // второй токен эндпоинта не потрачен запросом, который так и не был отправлен
+        rateLimiter
+                .acquire(Endpoint.COMPLETIONS, "GigaChat", Priority.INTERACTIVE)
+                .close();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что отмена подписки снимает запрос с очереди")
+    void cancelReactiveAcquire() {
+        rateLimiter = rateLimiter(
+                Map.of(
+                        Endpoint.FILES,
+                        GigaChatRateLimitProperties.Limit.builder()
+                                .maxInFlight(1)
+                                .build()),
+                Map.of());
+
+        Permit permit = rateLimiter.acquire(Endpoint.FILES, null, Priority.INTERACTIVE);
+        Disposable waiting = rateLimiter
+                .acquireReactive(Endpoint.FILES, null, Priority.INTERACTIVE)
+                .subscribe();
+        waiting.dispose();
+        permit.close();
+
+        // место освободилось и не занято отмененным запросом
+        rateLimiter.acquire(Endpoint.FILES, null, Priority.INTERACTIVE).close();
+    }
+
+    @Test
+    @DisplayName("Тест проверяет определение эндпоинта по пути запроса")
+    void endpoint() {
+        assertThat(GigaChatRateLimiter.endpoint(URI.create("https://host/api/v1/chat/completions")))
+                .isEqualTo(Endpoint.COMPLETIONS);
+        assertThat(GigaChatRateLimiter.endpoint(URI.create("https://host/api/v1/embeddings")))
+                .isEqualTo(Endpoint.EMBEDDINGS);
+        assertThat(GigaChatRateLimiter.endpoint(URI.create("https://host/api/v1/files/123/content")))
+                .isEqualTo(Endpoint.FILES);
+        assertThat(GigaChatRateLimiter.endpoint(URI.create("https://host/api/v1/models")))
+                .isNull();
+    }
+
+    private static GigaChatRateLimiter rateLimiter(
+            Map<Endpoint, GigaChatRateLimitProperties.Limit> endpoints,
+            Map<String, GigaChatRateLimitProperties.Limit> models) {
+        return new GigaChatRateLimiter(GigaChatRateLimitProperties.builder()
+                .enabled(true)
+                .maxWait(Duration.ofMillis(200))
+                .endpoints(endpoints)
+                .models(models)
+                .build());
+    }
+}
@@ -0,0 +1,88 @@
+package chat.giga.springai.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemEmbeddingCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Тест проверяет сохранение и чтение эмбеддинга с диска")
+    void putAndGet() {
+        FileSystemEmbeddingCache cache = new FileSystemEmbeddingCache(directory);
+        String key = EmbeddingCache.key("Embeddings", "text");
+        float[] embedding = {0.1f, -2.5f, 3.0f};
+
+        assertNull(cache.get(key));
+        cache.put(key, embedding);
+
+        assertArrayEquals(embedding, cache.get(key));
+        assertArrayEquals(embedding, new FileSystemEmbeddingCache(directory).get(key));
+
+        cache.clear();
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет устаревание эмбеддинга на диске")
+    void expires() {
+        String key = EmbeddingCache.key("Embeddings", "text");
+        new FileSystemEmbeddingCache(directory).put(key, new float[] {1f});
+
+        Clock later = Clock.fixed(Instant.now().plus(Duration.ofHours(2)), ZoneOffset.UTC);
+        assertNotNull(new FileSystemEmbeddingCache(directory, 10, Duration.ofHours(3), later).get(key));
+        assertNull(new FileSystemEmbeddingCache(directory, 10, Duration.ofHours(1), later).get(key));
+        // устаревшая запись удаляется
+        assertNull(new FileSystemEmbeddingCache(directory).get(key));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет вытеснение самых старых эмбеддингов при переполнении кэша")
+    void evictsOldestEntriesOnOverflow() throws IOException {
+        FileSystemEmbeddingCache cache = new FileSystemEmbeddingCache(directory, 2, null);
+        String a = EmbeddingCache.key("Embeddings", "a");
+        String b = EmbeddingCache.key("Embeddings", "b");
+        String c = EmbeddingCache.key("Embeddings", "c");
+        cache.put(a, new float[] {1f});
+        cache.put(b, new float[] {2f});
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+            }
+        }
+        assertEquals(2, cache.size());
+
+        // сокращается до 90% от maxSize, то есть до одной записи
+        cache.put(c, new float[] {3f});
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertArrayEquals(new float[] {3f}, cache.get(c));
+        assertEquals(1, new FileSystemEmbeddingCache(directory).size());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ключ кэша зависит от модели")
+    void keyDependsOnModel() {
+        assertNotEquals(EmbeddingCache.key("Embeddings", "text"), EmbeddingCache.key("Embeddings-2", "text"));
+    }
+}
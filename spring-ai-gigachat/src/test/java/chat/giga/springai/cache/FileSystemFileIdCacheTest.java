@@ -0,0 +1,74 @@
+package chat.giga.springai.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.MimeTypeUtils;
+
+class FileSystemFileIdCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Тест проверяет сохранение, чтение и удаление идентификатора файла на диске")
+    void putGetAndEvict() {
+        FileSystemFileIdCache cache = new FileSystemFileIdCache(directory);
+        String key = FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, new byte[] {1, 2, 3});
+
+        assertNull(cache.get(key));
+        cache.put(key, "file-id");
+
+        assertEquals("file-id", cache.get(key));
+        assertEquals("file-id", new FileSystemFileIdCache(directory).get(key));
+
+        cache.evict(key);
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет устаревание идентификатора файла на диске")
+    void expires() {
+        String key = FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, new byte[] {1});
+        new FileSystemFileIdCache(directory).put(key, "file-id");
+
+        Clock later = Clock.fixed(Instant.now().plus(Duration.ofHours(2)), ZoneOffset.UTC);
+        assertEquals("file-id", new FileSystemFileIdCache(directory, Duration.ofHours(3), later).get(key));
+        assertNull(new FileSystemFileIdCache(directory, Duration.ofHours(1), later).get(key));
+        // устаревшая запись удаляется
+        assertNull(new FileSystemFileIdCache(directory).get(key));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что при записи удаляются устаревшие идентификаторы других файлов")
+    void sweepsExpiredEntriesOnPut() throws IOException {
+        String stale = FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, new byte[] {1});
+        String fresh = FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, new byte[] {2});
+        new FileSystemFileIdCache(directory).put(stale, "stale-id");
+        FileTime twoHoursAgo = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, twoHoursAgo);
+            }
+        }
+
+        new FileSystemFileIdCache(directory, Duration.ofHours(1)).put(fresh, "fresh-id");
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertEquals("fresh-id", new FileSystemFileIdCache(directory).get(fresh));
+    }
+}
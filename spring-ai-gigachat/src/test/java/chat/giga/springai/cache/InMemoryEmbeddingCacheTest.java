@@ -0,0 +1,39 @@
+package chat.giga.springai.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InMemoryEmbeddingCacheTest {
+
+    @Test
+    @DisplayName("Тест проверяет вытеснение давно неиспользуемых записей при переполнении кэша")
+    void evictsLeastRecentlyUsed() {
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache(2);
+        cache.put("a", new float[] {1});
+        cache.put("b", new float[] {2});
+        cache.get("a");
+        cache.put("c", new float[] {3});
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что изменение массива вызывающим кодом не меняет значение в кэше")
+    void copiesEmbeddings() {
+        InMemoryEmbeddingCache cache = new InMemoryEmbeddingCache();
+        float[] embedding = {1, 2};
+        cache.put("a", embedding);
+        embedding[0] = 0;
+        cache.get("a")[1] = 0;
+
+        assertArrayEquals(new float[] {1, 2}, cache.get("a"));
+    }
+}
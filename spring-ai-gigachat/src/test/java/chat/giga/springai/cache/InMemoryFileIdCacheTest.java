@@ -0,0 +1,72 @@
+package chat.giga.springai.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeTypeUtils;
+
+class InMemoryFileIdCacheTest {
+
+    @Test
+    @DisplayName("Тест проверяет устаревание идентификаторов файлов и удаление записи из кэша")
+    void expiresAndEvicts() {
+        MutableClock clock = new MutableClock();
+        InMemoryFileIdCache cache = new InMemoryFileIdCache(10, Duration.ofHours(1), clock);
+        cache.put("a", "file-a");
+        cache.put("b", "file-b");
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(59));
+        assertEquals("file-a", cache.get("a"));
+        cache.evict("b");
+        assertNull(cache.get("b"));
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(1));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Тест проверяет, что ключ кэша зависит от учетной записи, типа и содержимого файла")
+    void keyDependsOnCredentialMimeTypeAndContent() {
+        byte[] data = {1, 2, 3};
+        assertEquals(
+                FileIdCache.key("credential", MimeTypeUtils.IMAGE_PNG, data),
+                FileIdCache.key("credential", MimeTypeUtils.IMAGE_PNG, data.clone()));
+        assertNotEquals(
+                FileIdCache.key("credential", MimeTypeUtils.IMAGE_PNG, data),
+                FileIdCache.key("other-credential", MimeTypeUtils.IMAGE_PNG, data));
+        assertNotEquals(
+                FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, data),
+                FileIdCache.key(null, MimeTypeUtils.IMAGE_JPEG, data));
+        assertNotEquals(
+                FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, data),
+                FileIdCache.key(null, MimeTypeUtils.IMAGE_PNG, new byte[] {1, 2}));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2025-01-01T00:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
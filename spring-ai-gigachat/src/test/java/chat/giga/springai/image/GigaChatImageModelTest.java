@@ -10,8 +10,13 @@ import chat.giga.springai.api.chat.GigaChatApi;
 import chat.giga.springai.api.chat.completion.CompletionRequest;
 import chat.giga.springai.api.chat.completion.CompletionResponse;
 import io.micrometer.observation.ObservationRegistry;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -203,10 +208,130 @@ class GigaChatImageModelTest {
         Mockito.verify(gigaChatApi, Mockito.times(1)).downloadFile("11111111-2222-3333-4444-555555555555");
     }
 
+    @Test
+    void testMultipleInstructionsAndN_generatedInParallelInOrder() {
+        Map<String, String> instructionByFileId = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(gigaChatApi.chatCompletionEntity(any())).thenAnswer(invocation -> {
+            CompletionRequest request = invocation.getArgument(0);
+            String text = request.getMessages().get(0).getContent();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                // первый запрос отвечает дольше остальных, порядок результатов не должен измениться
+                Thread.sleep(text.endsWith("cat") ? 200 : 50);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            String fileId = UUID.randomUUID().toString();
+            instructionByFileId.put(fileId, text);
+            return ResponseEntity.ok(createCompletionResponse(fileId));
+        });
+        Mockito.when(gigaChatApi.downloadFile(any()))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).getBytes(StandardCharsets.UTF_8));
+        imageModel.setMaxConcurrency(2);
+
+        ImagePrompt prompt = new ImagePrompt(
+                List.of(new ImageMessage("Draw a cat", 1.0f), new ImageMessage("Draw a dog", 1.0f)),
+                GigaChatImageOptions.builder().n(2).build());
+
+        ImageResponse response = imageModel.call(prompt);
+
+        assertEquals(4, response.getResults().size());
+        List<String> fileIds = response.getResults().stream()
+                .map(gen -> ((GigaChatImageGenerationMetadata) gen.getMetadata()).getFileId())
+                .toList();
+        assertEquals(
+                List.of("Draw a cat", "Draw a cat", "Draw a dog", "Draw a dog"),
+                fileIds.stream().map(instructionByFileId::get).toList());
+        assertEquals(4, fileIds.stream().distinct().count());
+        response.getResults()
+                .forEach(gen -> assertEquals(
+                        Base64.getEncoder()
+                                .encodeToString(((GigaChatImageGenerationMetadata) gen.getMetadata())
+                                        .getFileId()
+                                        .getBytes(StandardCharsets.UTF_8)),
+                        gen.getOutput().getB64Json()));
+
+        assertEquals(2, maxInFlight.get(), "Concurrency must be capped by maxConcurrency");
+        Mockito.verify(gigaChatApi, Mockito.times(4)).chatCompletionEntity(any());
+        Mockito.verify(gigaChatApi, Mockito.times(4)).downloadFile(any());
+    }
+
+    @Test
+    void testMaxConcurrencyOne_requestsAreSequential() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(gigaChatApi.chatCompletionEntity(any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            inFlight.decrementAndGet();
+            return ResponseEntity.ok(createCompletionResponse());
+        });
+        Mockito.when(gigaChatApi.getFileUrl(any())).thenReturn("https://localhost/files/content");
+        imageModel.setMaxConcurrency(1);
+
+        ImagePrompt prompt = new ImagePrompt(
+                List.of(new ImageMessage("Draw a cat", 1.0f)),
+                GigaChatImageOptions.builder()
+                        .n(3)
+                        .responseFormat(GigaChatImageOptions.RESPONSE_FORMAT_URL)
+                        .build());
+
+        ImageResponse response = imageModel.call(prompt);
+
+        assertEquals(3, response.getResults().size());
+        assertEquals(1, maxInFlight.get());
+        Mockito.verify(gigaChatApi, Mockito.never()).downloadFile(any());
+    }
+
+    @Test
+    void testEmptyResult_keepsPlaceInResults() {
+        CompletionResponse.MessagesRes noImage = new CompletionResponse.MessagesRes();
+        noImage.setRole(CompletionResponse.Role.assistant);
+        noImage.setContent("Не могу нарисовать");
+        CompletionResponse.Choice choice = new CompletionResponse.Choice();
+        choice.setMessage(noImage);
+        CompletionResponse noImageResponse = new CompletionResponse();
+        noImageResponse.setChoices(List.of(choice));
+        Mockito.when(gigaChatApi.chatCompletionEntity(any())).thenAnswer(invocation -> {
+            CompletionRequest request = invocation.getArgument(0);
+            return request.getMessages().get(0).getContent().endsWith("cat")
+                    ? ResponseEntity.ok(noImageResponse)
+                    : ResponseEntity.ok(createCompletionResponse());
+        });
+        Mockito.when(gigaChatApi.getFileUrl(any())).thenReturn("https://localhost/files/content");
+
+        ImagePrompt prompt = new ImagePrompt(
+                List.of(new ImageMessage("Draw a cat", 1.0f), new ImageMessage("Draw a dog", 1.0f)),
+                GigaChatImageOptions.builder()
+                        .responseFormat(GigaChatImageOptions.RESPONSE_FORMAT_URL)
+                        .build());
+
+        ImageResponse response = imageModel.call(prompt);
+
+        assertEquals(2, response.getResults().size());
+        assertNull(response.getResults().get(0).getOutput().getUrl());
+        assertNull(((GigaChatImageGenerationMetadata) response.getResults().get(0).getMetadata()).getFileId());
+        assertEquals("https://localhost/files/content", response.getResults().get(1).getOutput().getUrl());
+    }
+
+    @Test
+    void testEmptyResult_singleRequestReturnsNoResults() {
+        Mockito.when(gigaChatApi.chatCompletionEntity(any())).thenReturn(ResponseEntity.ok(new CompletionResponse()));
+
+        ImageResponse response = imageModel.call(new ImagePrompt("Draw a cat"));
+
+        assertEquals(0, response.getResults().size());
+    }
+
     private CompletionResponse createCompletionResponse() {
+        return createCompletionResponse("11111111-2222-3333-4444-555555555555");
+    }
+
+    private CompletionResponse createCompletionResponse(String fileId) {
         CompletionResponse.MessagesRes message = new CompletionResponse.MessagesRes();
         message.setRole(CompletionResponse.Role.assistant);
-        message.setContent("Generated <img src=\"11111111-2222-3333-4444-555555555555\"/>");
+        message.setContent("Generated <img src=\"" + fileId + "\"/>");
 
         CompletionResponse.Choice choice = new CompletionResponse.Choice();
         choice.setMessage(message);
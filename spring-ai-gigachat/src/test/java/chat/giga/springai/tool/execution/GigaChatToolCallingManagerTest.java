@@ -0,0 +1,288 @@
+package chat.giga.springai.tool.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chat.giga.springai.GigaChatOptions;
+import chat.giga.springai.api.auth.bearer.GigaChatCredentialAffinity;
+import chat.giga.springai.api.ratelimit.GigaChatRateLimiter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.observation.ToolCallingObservationContext;
+
+class GigaChatToolCallingManagerTest {
+
+    @Test
+    @DisplayName("Функции одного ответа выполняются параллельно, ответы сохраняют порядок вызовов")
+    void executesToolCallsConcurrently() {
+        CountDownLatch latch = new CountDownLatch(2);
+        ToolCallback first = new LatchTool("first", latch);
+        ToolCallback second = new LatchTool("second", latch);
+        GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                .toolTimeout(Duration.ofSeconds(5))
+                .build();
+
+        ToolExecutionResult result = manager.executeToolCalls(
+                prompt(List.of(new UserMessage("q")), first, second), response("first", "second"));
+
+        List<Message> history = result.conversationHistory();
+        assertEquals(3, history.size());
+        ToolResponseMessage toolResponseMessage = (ToolResponseMessage) history.get(2);
+        assertEquals(
+                List.of("first", "second"),
+                toolResponseMessage.getResponses().stream()
+                        .map(ToolResponseMessage.ToolResponse::responseData)
+                        .toList());
+        assertFalse(result.returnDirect());
+    }
+
+    @Test
+    @DisplayName("Функция, не уложившаяся в таймаут, прерывается, а модель получает сообщение об ошибке")
+    void interruptsToolCallOnTimeout() {
+        CountDownLatch blocked = new CountDownLatch(2);
+        GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                .toolTimeout(Duration.ofMillis(100))
+                .build();
+
+        ToolExecutionResult result = manager.executeToolCalls(
+                prompt(List.of(new UserMessage("q")), new LatchTool("slow", blocked)), response("slow"));
+
+        ToolResponseMessage toolResponseMessage =
+                (ToolResponseMessage) result.conversationHistory().get(2);
+        String responseData = toolResponseMessage.getResponses().get(0).responseData();
+        assertTrue(responseData.contains("did not complete within"), responseData);
+    }
+
+    @Test
+    @DisplayName("Таймаут отсчитывается для каждой функции от ее начала, а не от начала раунда")
+    void appliesTimeoutToEachToolCall() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                    .executor(executor)
+                    .toolTimeout(Duration.ofMillis(500))
+                    .build();
+
+            ToolExecutionResult result = manager.executeToolCalls(
+                    prompt(
+                            List.of(new UserMessage("q")),
+                            new SleepTool("first", Duration.ofMillis(300)),
+                            new SleepTool("second", Duration.ofMillis(300))),
+                    response("first", "second"));
+
+            ToolResponseMessage toolResponseMessage =
+                    (ToolResponseMessage) result.conversationHistory().get(2);
+            assertEquals(
+                    List.of("first", "second"),
+                    toolResponseMessage.getResponses().stream()
+                            .map(ToolResponseMessage.ToolResponse::responseData)
+                            .toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Функция, не дождавшаяся свободного потока за время таймаута, завершается ошибкой")
+    void failsToolCallThatDoesNotStartWithinTimeout() {
+        GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                .executor(task -> {})
+                .toolTimeout(Duration.ofMillis(100))
+                .build();
+
+        ToolExecutionResult result = manager.executeToolCalls(
+                prompt(List.of(new UserMessage("q")), new SleepTool("queued", Duration.ZERO)), response("queued"));
+
+        ToolResponseMessage toolResponseMessage =
+                (ToolResponseMessage) result.conversationHistory().get(2);
+        String responseData = toolResponseMessage.getResponses().get(0).responseData();
+        assertTrue(responseData.contains("did not start within"), responseData);
+    }
+
+    @Test
+    @DisplayName("Функции выполняются с учетной записью, приоритетом и MDC вызывающего потока")
+    void propagatesCallerContextToToolCalls() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                    .executor(executor)
+                    .toolTimeout(Duration.ofSeconds(5))
+                    .build();
+            ToolCallback contextTool = new ContextTool("context");
+
+            MDC.put("traceId", "trace-1");
+            ToolExecutionResult result;
+            try {
+                result = GigaChatCredentialAffinity.withCredential(
+                        "credential-1",
+                        () -> GigaChatRateLimiter.withPriority(
+                                GigaChatRateLimiter.Priority.BATCH,
+                                () -> manager.executeToolCalls(
+                                        prompt(List.of(new UserMessage("q")), contextTool), response("context"))));
+            } finally {
+                MDC.remove("traceId");
+            }
+
+            ToolResponseMessage toolResponseMessage =
+                    (ToolResponseMessage) result.conversationHistory().get(2);
+            assertEquals(
+                    "credential-1 BATCH trace-1",
+                    toolResponseMessage.getResponses().get(0).responseData());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Вызов каждой функции записывается дочерним наблюдением текущего")
+    void recordsToolCallObservationsAsChildren() {
+        List<Observation.Context> contexts = new CopyOnWriteArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                contexts.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        GigaChatToolCallingManager manager = GigaChatToolCallingManager.builder()
+                .observationRegistry(observationRegistry)
+                .build();
+        CountDownLatch latch = new CountDownLatch(2);
+        Prompt prompt =
+                prompt(List.of(new UserMessage("q")), new LatchTool("first", latch), new LatchTool("second", latch));
+
+        Observation parent = Observation.start("parent", observationRegistry);
+        parent.scoped(() -> manager.executeToolCalls(prompt, response("first", "second")));
+        parent.stop();
+
+        List<ToolCallingObservationContext> toolContexts = contexts.stream()
+                .filter(ToolCallingObservationContext.class::isInstance)
+                .map(ToolCallingObservationContext.class::cast)
+                .toList();
+        assertEquals(2, toolContexts.size());
+        toolContexts.forEach(context -> {
+            assertSame(parent, context.getParentObservation());
+            assertEquals(context.getToolDefinition().name(), context.getToolCallResult());
+        });
+    }
+
+    private static Prompt prompt(List<Message> messages, ToolCallback... toolCallbacks) {
+        return new Prompt(
+                messages, GigaChatOptions.builder().toolCallbacks(toolCallbacks).build());
+    }
+
+    private static ChatResponse response(String... toolNames) {
+        List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+        for (String toolName : toolNames) {
+            toolCalls.add(new AssistantMessage.ToolCall(toolName, "function", toolName, "{}"));
+        }
+        AssistantMessage assistantMessage =
+                AssistantMessage.builder().content("").toolCalls(toolCalls).build();
+        return new ChatResponse(List.of(new Generation(assistantMessage)));
+    }
+
+    /**
+     * Функция, которая завершается, только когда стартовали все функции с тем же latch.
+     */
+    private record LatchTool(String name, CountDownLatch latch) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder()
+                    .name(name)
+                    .description(name)
+                    .inputSchema("{}")
+                    .build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            latch.countDown();
+            try {
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Tool calls are not concurrent");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return name;
+        }
+    }
+
+    /**
+     * Функция, которая возвращает учетную запись, приоритет и traceId из MDC потока, в котором выполняется.
+     */
+    private record ContextTool(String name) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder()
+                    .name(name)
+                    .description(name)
+                    .inputSchema("{}")
+                    .build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return GigaChatCredentialAffinity.currentCredential() + " " + GigaChatRateLimiter.currentPriority() + " "
+                    + MDC.get("traceId");
+        }
+    }
+
+    /**
+     * Функция, которая выполняется заданное время.
+     */
+    private record SleepTool(String name, Duration duration) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder()
+                    .name(name)
+                    .description(name)
+                    .inputSchema("{}")
+                    .build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            try {
+                Thread.sleep(duration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return name;
+        }
+    }
+}
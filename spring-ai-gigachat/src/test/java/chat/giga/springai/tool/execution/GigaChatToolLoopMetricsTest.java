@@ -0,0 +1,36 @@
+package chat.giga.springai.tool.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GigaChatToolLoopMetricsTest {
+
+    @Test
+    @DisplayName("Раунды после десятого записываются с общим тегом round, чтобы число метрик было ограничено")
+    void capsRoundTag() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GigaChatToolLoopMetrics metrics = new GigaChatToolLoopMetrics();
+        metrics.bindTo(registry);
+
+        for (int round = 0; round <= 20; round++) {
+            metrics.recordRequestSize("GigaChat", round, 100);
+        }
+
+        assertEquals(12, registry.find(GigaChatToolLoopMetrics.REQUEST_SIZE).summaries().size());
+        assertEquals(
+                1,
+                registry.get(GigaChatToolLoopMetrics.REQUEST_SIZE)
+                        .tag("round", "10")
+                        .summary()
+                        .count());
+        assertEquals(
+                10,
+                registry.get(GigaChatToolLoopMetrics.REQUEST_SIZE)
+                        .tag("round", "10+")
+                        .summary()
+                        .count());
+    }
+}